@@ -1,6 +1,7 @@
 package com.bit.apigateway.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
@@ -16,6 +17,8 @@ import java.util.Map;
  * The routes are configured to forward requests to the respective microservices based on the path.
  * It also applies authentication and authorization filters using the AuthGatewayFilterFactory.
  * Circuit breakers are configured for each route to handle failures gracefully.
+ * The requests are forwarded with the internal service token, so that the services can reject the requests
+ * that reach them around the gateway.
  *
  * @author Emirhan Tuygun
  */
@@ -34,6 +37,10 @@ public class GatewayConfig {
     private String REPORT_URI;
     @Value("${circuit-breaker-name}")
     private String CIRCUIT_BREAKER_NAME;
+    @Value("${internal-auth.header}")
+    private String INTERNAL_AUTH_HEADER;
+    @Value("${internal-auth.token}")
+    private String INTERNAL_AUTH_TOKEN;
     private final Map<String, List<String>> endpointRoleMapping = new HashMap<>();
 
     /**
@@ -44,6 +51,7 @@ public class GatewayConfig {
     public GatewayConfig() {
         endpointRoleMapping.put("/users", List.of("ADMIN"));
         endpointRoleMapping.put("/sales", List.of("CASHIER", "MANAGER"));
+        endpointRoleMapping.put("/carts", List.of("CASHIER", "MANAGER"));
         endpointRoleMapping.put("/campaigns", List.of("CASHIER"));
         endpointRoleMapping.put("/reports", List.of("MANAGER"));
     }
@@ -66,6 +74,7 @@ public class GatewayConfig {
                 .route("auth-service", r -> r.path("/auth/**")
                         .filters(f -> f
                                 .filter(authGatewayFilterFactory.apply(new AuthGatewayFilterFactory.Config().setRoleMapping(endpointRoleMapping)))
+                                .filter(internalAuthFilter())
                                 .circuitBreaker(c -> c.setName(CIRCUIT_BREAKER_NAME).setFallbackUri("forward:/fallback/auth"))
                         )
                         .uri(AUTH_URI))
@@ -73,6 +82,7 @@ public class GatewayConfig {
                 .route("user-service", r -> r.path("/users/**")
                         .filters(f -> f
                                 .filter(authGatewayFilterFactory.apply(new AuthGatewayFilterFactory.Config().setRoleMapping(endpointRoleMapping)))
+                                .filter(internalAuthFilter())
                                 .circuitBreaker(c -> c.setName(CIRCUIT_BREAKER_NAME).setFallbackUri("forward:/fallback/user"))
                         )
                         .uri(USER_URI))
@@ -80,13 +90,15 @@ public class GatewayConfig {
                 .route("product-service", r -> r.path("/products/**")
                         .filters(f -> f
                                 .filter(authGatewayFilterFactory.apply(new AuthGatewayFilterFactory.Config().setRoleMapping(endpointRoleMapping)))
+                                .filter(internalAuthFilter())
                                 .circuitBreaker(c -> c.setName(CIRCUIT_BREAKER_NAME).setFallbackUri("forward:/fallback/product"))
                         )
                         .uri(PRODUCT_URI))
 
-                .route("sale-service", r -> r.path("/sales/**", "/campaigns/**")
+                .route("sale-service", r -> r.path("/sales/**", "/carts/**", "/campaigns/**")
                         .filters(f -> f
                                 .filter(authGatewayFilterFactory.apply(new AuthGatewayFilterFactory.Config().setRoleMapping(endpointRoleMapping)))
+                                .filter(internalAuthFilter())
                                 .circuitBreaker(c -> c.setName(CIRCUIT_BREAKER_NAME).setFallbackUri("forward:/fallback/sale"))
                         )
                         .uri(SALE_URI))
@@ -94,10 +106,29 @@ public class GatewayConfig {
                 .route("report-service", r -> r.path("/reports/**")
                         .filters(f -> f
                                 .filter(authGatewayFilterFactory.apply(new AuthGatewayFilterFactory.Config().setRoleMapping(endpointRoleMapping)))
+                                .filter(internalAuthFilter())
                                 .circuitBreaker(c -> c.setName(CIRCUIT_BREAKER_NAME).setFallbackUri("forward:/fallback/report"))
                         )
                         .uri(REPORT_URI))
 
                 .build();
     }
+
+    /**
+     * This method creates the filter that forwards the requests with the internal service token.
+     * A token sent by the client is always removed, so it cannot be used to reach the services around the gateway.
+     * No token is forwarded when none is configured.
+     *
+     * @return The GatewayFilter that sets the internal service token header.
+     */
+    private GatewayFilter internalAuthFilter() {
+        return (exchange, chain) -> chain.filter(exchange.mutate()
+                .request(request -> request.headers(headers -> {
+                    headers.remove(INTERNAL_AUTH_HEADER);
+                    if (!INTERNAL_AUTH_TOKEN.isEmpty()) {
+                        headers.set(INTERNAL_AUTH_HEADER, INTERNAL_AUTH_TOKEN);
+                    }
+                }))
+                .build());
+    }
 }
\ No newline at end of file
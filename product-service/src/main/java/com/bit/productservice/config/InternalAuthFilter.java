@@ -0,0 +1,68 @@
+package com.bit.productservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * This class is a servlet filter that authenticates the requests with the internal service token.
+ * The token is set by the gateway on the requests it has authenticated, and by the sale-service on the calls
+ * it sends directly, so a request without it has reached the service around the gateway.
+ * The filter is disabled when no token is configured.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Component
+public class InternalAuthFilter extends OncePerRequestFilter {
+
+    @Value("${internal-auth.header}")
+    private String INTERNAL_AUTH_HEADER;
+
+    @Value("${internal-auth.token}")
+    private String INTERNAL_AUTH_TOKEN;
+
+    /**
+     * Skips the filter when no internal service token is configured.
+     *
+     * @param request The current HTTP request.
+     * @return true if no internal service token is configured, false otherwise.
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return INTERNAL_AUTH_TOKEN == null || INTERNAL_AUTH_TOKEN.isEmpty();
+    }
+
+    /**
+     * Rejects the request with a 401 status code unless it carries the internal service token.
+     * The tokens are compared in constant time.
+     *
+     * @param request     The current HTTP request.
+     * @param response    The current HTTP response.
+     * @param filterChain The filter chain to continue with.
+     * @throws ServletException If the rest of the filter chain fails.
+     * @throws IOException      If the rest of the filter chain or writing the error fails.
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String token = request.getHeader(INTERNAL_AUTH_HEADER);
+        if (token == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                INTERNAL_AUTH_TOKEN.getBytes(StandardCharsets.UTF_8))) {
+            log.warn("Rejected {} request to {} without a valid internal service token", request.getMethod(), request.getRequestURI());
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Missing or invalid internal service token");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -3,11 +3,14 @@ package com.bit.productservice.config;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,6 +33,15 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routingKey}")
     private String ROUTING_KEY;
 
+    @Value("${rabbitmq.product-event-exchange}")
+    private String PRODUCT_EVENT_EXCHANGE;
+
+    @Value("${rabbitmq.batch.size}")
+    private int BATCH_SIZE;
+
+    @Value("${rabbitmq.batch.receive-timeout}")
+    private long BATCH_RECEIVE_TIMEOUT;
+
     /**
      * This method creates a new instance of DirectExchange with the given exchange name.
      * DirectExchange delivers messages to queues based on the routing key.
@@ -63,6 +75,17 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue()).to(exchange()).with(ROUTING_KEY);
     }
 
+    /**
+     * This method creates a new instance of FanoutExchange for the product events.
+     * FanoutExchange delivers every product event to all bound queues, so that every subscriber instance receives it.
+     *
+     * @return a new instance of FanoutExchange
+     */
+    @Bean
+    public FanoutExchange productEventExchange() {
+        return new FanoutExchange(PRODUCT_EVENT_EXCHANGE);
+    }
+
     /**
      * This method creates a new instance of Jackson2JsonMessageConverter.
      * Jackson2JsonMessageConverter is a message converter provided by Spring AMQP that converts messages to and from JSON.
@@ -90,4 +113,26 @@ public class RabbitMQConfig {
         rabbitTemplate.setMessageConverter(jsonMessageConverter);
         return rabbitTemplate;
     }
+
+    /**
+     * This method creates a new instance of SimpleRabbitListenerContainerFactory for batch listeners.
+     * The containers created by this factory collect up to the batch size of messages, or as many as arrive
+     * before the receive timeout, and deliver them to the listener as a single list.
+     *
+     * @param configurer the configurer that applies the Spring Boot settings and the message converter
+     * @param connectionFactory the ConnectionFactory to connect to RabbitMQ
+     * @return a new instance of SimpleRabbitListenerContainerFactory
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(SimpleRabbitListenerContainerFactoryConfigurer configurer,
+                                                                              ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(BATCH_SIZE);
+        factory.setPrefetchCount(BATCH_SIZE);
+        factory.setReceiveTimeout(BATCH_RECEIVE_TIMEOUT);
+        return factory;
+    }
 }
@@ -2,8 +2,10 @@ package com.bit.productservice.controller;
 
 import com.bit.productservice.dto.ProductRequest;
 import com.bit.productservice.dto.ProductResponse;
+import com.bit.productservice.dto.StockReservationResponse;
 import com.bit.productservice.exception.AlgorithmNotFoundException;
 import com.bit.productservice.service.ProductService;
+import com.bit.productservice.wrapper.ProductStockReduceRequest;
 import com.bit.productservice.wrapper.ProductStockReturnRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller for handling product-related operations.
@@ -46,6 +49,60 @@ public class ProductController {
         return new ResponseEntity<>(productResponse, HttpStatus.OK);
     }
 
+    /**
+     * Retrieves a product by its scanned barcode.
+     * The product is looked up in the in-memory barcode index, and in the database only if it is not indexed.
+     *
+     * @param ean The scanned barcode, with up to 13 digits.
+     * @return A ResponseEntity containing the product response and a status code of OK (200).
+     */
+    @GetMapping("/barcode/{ean}")
+    public ResponseEntity<ProductResponse> getProductByBarcode(@PathVariable("ean") String ean) {
+        log.trace("Entering getProductByBarcode method in ProductController class");
+
+        ProductResponse productResponse = productService.getProductByBarcode(ean);
+        log.info("Returning product response for barcode: {}", productResponse);
+
+        log.trace("Exiting getProductByBarcode method in ProductController class");
+        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves multiple products by their unique identifiers in a single request.
+     *
+     * @param ids The unique identifiers of the products.
+     * @return A ResponseEntity containing a list of product responses and a status code of OK (200).
+     *         The list is in the order of the given identifiers.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductResponse>> getProducts(@RequestBody List<Long> ids) {
+        log.trace("Entering getProducts method in ProductController class");
+
+        List<ProductResponse> productResponses = productService.getProducts(ids);
+        log.info("Returning {} product responses for batch request", productResponses.size());
+
+        log.trace("Exiting getProducts method in ProductController class");
+        return new ResponseEntity<>(productResponses, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the current stock quantities of multiple products in a single request.
+     * The stock quantities are read from the database, so they can be used for authoritative stock checks.
+     *
+     * @param ids The unique identifiers of the products.
+     * @return A ResponseEntity containing a map of product identifier to stock quantity and a status code of OK (200).
+     */
+    @PostMapping("/stocks")
+    public ResponseEntity<Map<Long, Integer>> getProductStocks(@RequestBody List<Long> ids) {
+        log.trace("Entering getProductStocks method in ProductController class");
+
+        Map<Long, Integer> stocks = productService.getProductStocks(ids);
+        log.info("Returning stock quantities of {} products", stocks.size());
+
+        log.trace("Exiting getProductStocks method in ProductController class");
+        return new ResponseEntity<>(stocks, HttpStatus.OK);
+    }
+
     /**
      * Retrieves all products from the system.
      *
@@ -135,6 +192,93 @@ public class ProductController {
         return ResponseEntity.ok("Product return request processed successfully.");
     }
 
+    /**
+     * Processes the product return requests of multiple lines, such as all the lines of a sale, in a single request.
+     *
+     * @param requests The product return requests containing the products to return and their respective quantities.
+     * @return A ResponseEntity with a status code of OK (200) and a message indicating that the product return requests were processed successfully.
+     */
+    @PostMapping("/return/bulk")
+    public ResponseEntity<String> returnProducts(@RequestBody List<ProductStockReturnRequest> requests) {
+        log.trace("Entering returnProducts method in ProductController class with {} requests", requests.size());
+
+        productService.returnProducts(requests);
+        log.info("Product return requests processed successfully for {} requests", requests.size());
+
+        log.trace("Exiting returnProducts method in ProductController class");
+        return ResponseEntity.ok("Product return requests processed successfully.");
+    }
+
+    /**
+     * Atomically reserves the requested quantities of multiple products and returns their prices.
+     * The reservation must be committed before it expires, otherwise the quantities are returned to the stock.
+     *
+     * @param requests The product stock reduce requests containing the product IDs and the requested quantities.
+     * @return A ResponseEntity containing the stock reservation response and a status code of CREATED (201).
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<StockReservationResponse> reserveProducts(@RequestBody List<ProductStockReduceRequest> requests) {
+        log.trace("Entering reserveProducts method in ProductController class");
+
+        StockReservationResponse stockReservationResponse = productService.reserveProducts(requests);
+        log.info("Returning stock reservation with ID: {}", stockReservationResponse.getReservationId());
+
+        log.trace("Exiting reserveProducts method in ProductController class");
+        return new ResponseEntity<>(stockReservationResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Atomically reserves the changes of the sold quantities of multiple products when a sale is updated.
+     * Positive quantities are taken from the stock, negative ones are returned to the stock when the reservation is committed.
+     *
+     * @param requests The product stock reduce requests containing the product IDs and the changes of the sold quantities.
+     * @return A ResponseEntity containing the stock reservation response and a status code of CREATED (201).
+     */
+    @PostMapping("/reservations/adjustments")
+    public ResponseEntity<StockReservationResponse> reserveStockAdjustments(@RequestBody List<ProductStockReduceRequest> requests) {
+        log.trace("Entering reserveStockAdjustments method in ProductController class");
+
+        StockReservationResponse stockReservationResponse = productService.reserveStockAdjustments(requests);
+        log.info("Returning stock adjustment reservation with ID: {}", stockReservationResponse.getReservationId());
+
+        log.trace("Exiting reserveStockAdjustments method in ProductController class");
+        return new ResponseEntity<>(stockReservationResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Commits a stock reservation, making the reserved quantities permanent and returning the quantities it gives back.
+     *
+     * @param reservationId The unique identifier of the reservation.
+     * @return A ResponseEntity containing a success message and a status code of OK (200).
+     */
+    @PostMapping("/reservations/{reservationId}/commit")
+    public ResponseEntity<String> commitReservation(@PathVariable String reservationId) {
+        log.trace("Entering commitReservation method in ProductController class");
+
+        productService.commitReservation(reservationId);
+        log.info("Stock reservation with ID {} committed successfully", reservationId);
+
+        log.trace("Exiting commitReservation method in ProductController class");
+        return ResponseEntity.ok("Stock reservation committed successfully.");
+    }
+
+    /**
+     * Releases a stock reservation, returning the reserved quantities to the stock.
+     *
+     * @param reservationId The unique identifier of the reservation.
+     * @return A ResponseEntity containing a success message and a status code of OK (200).
+     */
+    @DeleteMapping("/reservations/{reservationId}")
+    public ResponseEntity<String> releaseReservation(@PathVariable String reservationId) {
+        log.trace("Entering releaseReservation method in ProductController class");
+
+        productService.releaseReservation(reservationId);
+        log.info("Stock reservation with ID {} released successfully", reservationId);
+
+        log.trace("Exiting releaseReservation method in ProductController class");
+        return ResponseEntity.ok("Stock reservation released successfully.");
+    }
+
     /**
      * Creates a new product in the system.
      *
@@ -0,0 +1,33 @@
+package com.bit.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Represents a stock reduce message that has already been applied.
+ * It is recorded in the transaction of the stock update, so that a message delivered again by the broker is skipped.
+ *
+ * @author Emirhan Tuygun
+ */
+@Entity
+@Table(name = "processed_messages",
+        indexes = {
+                @Index(name = "idx_processedAt", columnList = "processed_at")
+        }
+)
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class ProcessedMessage {
+
+    @Id
+    @Column(name = "message_id")
+    private String messageId;
+
+    @Column(name = "processed_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date processedAt;
+}
@@ -14,7 +14,10 @@ import java.math.BigDecimal;
  */
 @Entity
 @Table(name = "products",
-        indexes = {@Index(name = "idx_name_stockQuantity_price", columnList="name, stock_quantity, price")}
+        indexes = {
+                @Index(name = "idx_name_stockQuantity_price", columnList="name, stock_quantity, price"),
+                @Index(name = "idx_barcode_number", columnList = "barcode_number")
+        }
 )
 @SoftDelete
 @AllArgsConstructor
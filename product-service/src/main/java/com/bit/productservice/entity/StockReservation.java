@@ -0,0 +1,43 @@
+package com.bit.productservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * Represents a stock quantity of a product that is reserved for a sale but not committed yet.
+ * A positive quantity is already subtracted from the product's stock, and it is added back if the reservation expires.
+ * A negative quantity, given back by an updated sale, is added to the stock only when the reservation is committed.
+ *
+ * @author Emirhan Tuygun
+ */
+@Entity
+@Table(name = "stock_reservations",
+        indexes = {
+                @Index(name = "idx_reservationId", columnList = "reservation_id"),
+                @Index(name = "idx_expiresAt", columnList = "expires_at")
+        }
+)
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Data
+public class StockReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id")
+    private String reservationId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    private Integer quantity;
+
+    @Column(name = "expires_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date expiresAt;
+}
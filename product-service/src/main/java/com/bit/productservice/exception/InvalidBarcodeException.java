@@ -0,0 +1,17 @@
+package com.bit.productservice.exception;
+
+/**
+ * Custom exception class for handling scenarios when a scanned barcode is not valid.
+ * This exception is thrown when a barcode is not made of 1 to 13 digits.
+ */
+public class InvalidBarcodeException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidBarcodeException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidBarcodeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bit.productservice.exception;
+
+/**
+ * Custom exception class for handling scenarios when a stock change request is invalid.
+ * This exception is thrown when a request is missing the product ID or has a quantity that is not positive.
+ */
+public class InvalidStockQuantityException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidStockQuantityException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidStockQuantityException(String message) {
+        super(message);
+    }
+}
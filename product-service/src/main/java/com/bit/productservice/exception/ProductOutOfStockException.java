@@ -0,0 +1,17 @@
+package com.bit.productservice.exception;
+
+/**
+ * Custom exception class for handling scenarios when there is not enough stock for a product.
+ * This exception is thrown when a stock reservation cannot be made for a product.
+ */
+public class ProductOutOfStockException extends RuntimeException {
+
+    /**
+     * Constructs a new ProductOutOfStockException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public ProductOutOfStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bit.productservice.exception;
+
+/**
+ * Custom exception class for handling scenarios when a stock reservation is not found.
+ * This exception is thrown when a reservation is committed or released after it has expired.
+ */
+public class ReservationNotFoundException extends RuntimeException {
+
+    /**
+     * Constructs a new ReservationNotFoundException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -92,6 +92,22 @@ public class _GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    /**
+     * Handles InvalidBarcodeException.
+     * This method catches and handles the custom exception InvalidBarcodeException.
+     * When this exception is thrown, it logs the error message and returns a ResponseEntity with a status of 400 (Bad Request)
+     * and the exception message as the response body.
+     *
+     * @param ex The InvalidBarcodeException that occurred.
+     * @return A ResponseEntity with a status of 400 (Bad Request) and the exception message as the response body.
+     */
+    @ExceptionHandler(InvalidBarcodeException.class)
+    @ResponseBody
+    public ResponseEntity<String> handleInvalidBarcodeException(InvalidBarcodeException ex) {
+        log.error("InvalidBarcodeException occurred: {}", ex.getMessage(), ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     /**
      * Handles ProductNotSoftDeletedException.
      * This method catches and handles the custom exception ProductNotSoftDeletedException.
@@ -108,6 +124,54 @@ public class _GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    /**
+     * Handles InvalidStockQuantityException.
+     * This method catches and handles the custom exception InvalidStockQuantityException.
+     * When this exception is thrown, it logs the error message and returns a ResponseEntity with a status of 400 (Bad Request)
+     * and the exception message as the response body.
+     *
+     * @param ex The InvalidStockQuantityException that occurred.
+     * @return A ResponseEntity with a status of 400 (Bad Request) and the exception message as the response body.
+     */
+    @ExceptionHandler(InvalidStockQuantityException.class)
+    @ResponseBody
+    public ResponseEntity<String> handleInvalidStockQuantityException(InvalidStockQuantityException ex) {
+        log.error("InvalidStockQuantityException occurred: {}", ex.getMessage(), ex);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    /**
+     * Handles ProductOutOfStockException.
+     * This method catches and handles the custom exception ProductOutOfStockException.
+     * When this exception is thrown, it logs the error message and returns a ResponseEntity with a status of 409 (Conflict)
+     * and the exception message as the response body.
+     *
+     * @param ex The ProductOutOfStockException that occurred.
+     * @return A ResponseEntity with a status of 409 (Conflict) and the exception message as the response body.
+     */
+    @ExceptionHandler(ProductOutOfStockException.class)
+    @ResponseBody
+    public ResponseEntity<String> handleProductOutOfStockException(ProductOutOfStockException ex) {
+        log.error("ProductOutOfStockException occurred: {}", ex.getMessage(), ex);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    /**
+     * Handles ReservationNotFoundException.
+     * This method catches and handles the custom exception ReservationNotFoundException.
+     * When this exception is thrown, it logs the error message and returns a ResponseEntity with a status of 410 (Gone)
+     * and the exception message as the response body.
+     *
+     * @param ex The ReservationNotFoundException that occurred.
+     * @return A ResponseEntity with a status of 410 (Gone) and the exception message as the response body.
+     */
+    @ExceptionHandler(ReservationNotFoundException.class)
+    @ResponseBody
+    public ResponseEntity<String> handleReservationNotFoundException(ReservationNotFoundException ex) {
+        log.error("ReservationNotFoundException occurred: {}", ex.getMessage(), ex);
+        return ResponseEntity.status(HttpStatus.GONE).body(ex.getMessage());
+    }
+
     /**
      * Handles InvalidEmailFormatException.
      * This method catches and handles the custom exception InvalidEmailFormatException.
@@ -0,0 +1,278 @@
+package com.bit.productservice.index;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * An open-addressing hash map from the numeric value of a barcode to the ID of its product.
+ * The keys and values are kept in two primitive arrays probed linearly, so a lookup neither boxes nor follows
+ * pointers. The barcodes are at most 13 digits, so they fit in a long, and 0 marks an empty slot.
+ * Lookups are optimistic reads that retry under the read lock only if a write happened meanwhile, since the index is
+ * read on every scan and written only when the products change.
+ *
+ * @author Emirhan Tuygun
+ */
+public final class BarcodeIndex {
+
+    /**
+     * Returned by {@link #get} when the barcode is not indexed.
+     */
+    public static final long NO_PRODUCT = -1L;
+
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+
+    /**
+     * Creates an index with room for the given number of barcodes before it grows.
+     *
+     * @param expectedSize The expected number of barcodes.
+     */
+    public BarcodeIndex(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * Looks up the product of a barcode.
+     *
+     * @param barcode The numeric value of the barcode.
+     * @return The ID of the product, or {@link #NO_PRODUCT} if the barcode is not indexed.
+     */
+    public long get(long barcode) {
+        if (barcode == EMPTY) {
+            return NO_PRODUCT;
+        }
+        long stamp = lock.tryOptimisticRead();
+        long productId = table.get(barcode);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                productId = table.get(barcode);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return productId;
+    }
+
+    /**
+     * Maps a barcode to a product, replacing the product it was mapped to.
+     *
+     * @param barcode   The numeric value of the barcode.
+     * @param productId The ID of the product.
+     * @throws IllegalArgumentException If the barcode is 0.
+     */
+    public void put(long barcode, long productId) {
+        if (barcode == EMPTY) {
+            throw new IllegalArgumentException("Barcode must not be 0");
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (table.put(barcode, productId) && table.size * 2 > table.keys.length) {
+                table = table.resize(table.keys.length * 2);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a barcode if it is still mapped to the given product, so that a barcode taken over by another product
+     * is not removed with the product that had it before.
+     *
+     * @param barcode   The numeric value of the barcode.
+     * @param productId The ID of the product the barcode is expected to be mapped to.
+     * @return true if the barcode is removed, false otherwise.
+     */
+    public boolean remove(long barcode, long productId) {
+        if (barcode == EMPTY) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = table.find(barcode);
+            if (slot < 0 || table.values[slot] != productId) {
+                return false;
+            }
+            table.delete(slot);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the barcode of a product whose barcode is not known, such as a deleted product.
+     * Scans the whole index, which is fine for the rare deletions.
+     *
+     * @param productId The ID of the product.
+     * @return true if a barcode of the product is removed, false otherwise.
+     */
+    public boolean removeProduct(long productId) {
+        long stamp = lock.writeLock();
+        try {
+            boolean removed = false;
+            // Scanning from the start again after each deletion, since a deletion shifts the entries after it
+            for (int slot = table.findValue(productId); slot >= 0; slot = table.findValue(productId)) {
+                table.delete(slot);
+                removed = true;
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with the given barcodes.
+     * The new table is built before the lock is taken, so lookups are not blocked while the index is rebuilt.
+     * When a barcode is given more than once, the last product wins.
+     *
+     * @param barcodes   The numeric values of the barcodes.
+     * @param productIds The IDs of the products, in the order of the barcodes.
+     */
+    public void replaceAll(long[] barcodes, long[] productIds) {
+        Table rebuilt = new Table(capacityFor(barcodes.length));
+        for (int i = 0; i < barcodes.length; i++) {
+            if (barcodes[i] != EMPTY) {
+                rebuilt.put(barcodes[i], productIds[i]);
+            }
+        }
+        long stamp = lock.writeLock();
+        try {
+            table = rebuilt;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of indexed barcodes.
+     *
+     * @return The number of indexed barcodes.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return table.size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the smallest power of two that keeps the load factor at or below one half for the given size.
+     */
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * The slots of the index. A table is only replaced as a whole, so an optimistic reader always sees key and value
+     * arrays of the same length even if it races a resize.
+     */
+    private static final class Table {
+
+        private final long[] keys;
+        private final long[] values;
+        private final int mask;
+        private int size;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new long[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private long get(long barcode) {
+            // Bounding the probes, an optimistic reader racing a write may not see the empty slot that ends them
+            for (int slot = slot(barcode), probes = 0; probes < keys.length; slot = (slot + 1) & mask, probes++) {
+                long key = keys[slot];
+                if (key == barcode) {
+                    return values[slot];
+                }
+                if (key == EMPTY) {
+                    return NO_PRODUCT;
+                }
+            }
+            return NO_PRODUCT;
+        }
+
+        /**
+         * Maps the barcode to the product and returns whether the barcode was added rather than replaced.
+         */
+        private boolean put(long barcode, long productId) {
+            int slot = slot(barcode);
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == barcode) {
+                    values[slot] = productId;
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = barcode;
+            values[slot] = productId;
+            size++;
+            return true;
+        }
+
+        private int find(long barcode) {
+            for (int slot = slot(barcode); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == barcode) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int findValue(long productId) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY && values[slot] == productId) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Empties the slot and shifts the following entries of the probe sequence back into it,
+         * so that no lookup stops early at the emptied slot.
+         */
+        private void delete(int slot) {
+            int gap = slot;
+            for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = slot(keys[next]);
+                // Moving the entry only if its home slot is not between the gap and its current slot
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = EMPTY;
+            values[gap] = 0L;
+            size--;
+        }
+
+        private Table resize(int capacity) {
+            Table resized = new Table(capacity);
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != EMPTY) {
+                    resized.put(keys[slot], values[slot]);
+                }
+            }
+            return resized;
+        }
+
+        private int slot(long barcode) {
+            // Mixing the bits, since the barcodes share their leading digits and differ mostly in the low ones
+            long hash = barcode * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
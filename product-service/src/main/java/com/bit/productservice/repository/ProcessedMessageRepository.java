@@ -0,0 +1,43 @@
+package com.bit.productservice.repository;
+
+import com.bit.productservice.entity.ProcessedMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+
+/**
+ * This interface represents the Processed Message Repository, which extends the JpaRepository interface.
+ * It provides methods for recording the stock reduce messages that have already been applied.
+ *
+ * @author Emirhan Tuygun
+ */
+@Repository
+public interface ProcessedMessageRepository extends JpaRepository<ProcessedMessage, String> {
+
+    /**
+     * This method records a message as processed unless it is already recorded.
+     * A concurrent transaction recording the same message blocks until the first one ends, so only one of them applies it.
+     *
+     * @param messageId the id of the message
+     * @param processedAt the date the message is processed at
+     * @return 1 if the message is recorded, 0 if it has already been processed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO processed_messages (message_id, processed_at) VALUES (:messageId, :processedAt) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("messageId") String messageId, @Param("processedAt") Date processedAt);
+
+    /**
+     * This method deletes the records of the messages processed before the given date.
+     *
+     * @param date the date to compare the processing dates with
+     * @return the number of deleted records
+     */
+    @Modifying
+    @Query("DELETE FROM ProcessedMessage m WHERE m.processedAt < :date")
+    int deleteAllProcessedBefore(@Param("date") Date date);
+}
@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * This interface represents the Product Repository, which extends the JpaRepository interface.
@@ -38,6 +39,23 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Page<Product> findAll(Specification<Product> spec, Pageable pageable);
 
+    /**
+     * This method retrieves the ids and barcode numbers of all active products, ordered by id.
+     *
+     * @return a list of pairs of product id and barcode number
+     */
+    @Query("SELECT p.id, p.barcodeNumber FROM Product p ORDER BY p.id")
+    List<Object[]> findAllBarcodeNumbers();
+
+    /**
+     * This method retrieves the latest active product with the given barcode number.
+     * The lookup is served by the barcode number index.
+     *
+     * @param barcodeNumber the barcode number of the product
+     * @return the product, or an empty optional if no active product has the barcode number
+     */
+    Optional<Product> findFirstByBarcodeNumberOrderByIdDesc(String barcodeNumber);
+
     /**
      * This method checks if a product with the given id exists and is soft-deleted.
      *
@@ -67,4 +85,40 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query(value = "DELETE FROM products WHERE id = :id", nativeQuery = true)
     void deletePermanently(@Param("id") Long id);
 
+    /**
+     * This method subtracts the given quantity from the stock of a product if there is enough stock.
+     * The check and the update are done in a single statement, so concurrent reservations cannot oversell.
+     *
+     * @param id the id of the product
+     * @param quantity the quantity to be reserved
+     * @return 1 if the stock is reserved, 0 if the product does not exist, the quantity is negative or there is not enough stock
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products SET stock_quantity = stock_quantity - :quantity WHERE id = :id AND deleted = false AND :quantity >= 0 AND stock_quantity >= :quantity", nativeQuery = true)
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * This method adds the given quantity back to the stock of a product.
+     *
+     * @param id the id of the product
+     * @param quantity the quantity to be released
+     * @return the number of updated products
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products SET stock_quantity = stock_quantity + :quantity WHERE id = :id", nativeQuery = true)
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    /**
+     * This method adds the given deltas to the stocks of multiple products with a single statement.
+     * The deltas are matched with the products by their positions in the arrays, and negative deltas reduce the stocks.
+     *
+     * @param ids the ids of the products
+     * @param deltas the quantities to be added, in the order of the ids
+     * @return the number of updated products
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE products p SET stock_quantity = p.stock_quantity + v.delta " +
+            "FROM unnest(CAST(:ids AS bigint[]), CAST(:deltas AS integer[])) AS v(id, delta) " +
+            "WHERE p.id = v.id AND p.deleted = false", nativeQuery = true)
+    int adjustStocks(@Param("ids") Long[] ids, @Param("deltas") Integer[] deltas);
 }
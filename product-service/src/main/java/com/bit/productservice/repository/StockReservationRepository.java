@@ -0,0 +1,49 @@
+package com.bit.productservice.repository;
+
+import com.bit.productservice.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This interface represents the Stock Reservation Repository, which extends the JpaRepository interface.
+ * It provides methods for interacting with the StockReservation entity in the database.
+ *
+ * @author Emirhan Tuygun
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * This method retrieves the reserved lines of the given reservation.
+     *
+     * @param reservationId the id of the reservation
+     * @return a list of the reserved lines
+     */
+    List<StockReservation> findAllByReservationId(String reservationId);
+
+    /**
+     * This method retrieves the ids of the reservations that have expired before the given date.
+     *
+     * @param date the date to compare the expiration dates with
+     * @return a list of the ids of the expired reservations
+     */
+    @Query("SELECT DISTINCT r.reservationId FROM StockReservation r WHERE r.expiresAt < :date")
+    List<String> findExpiredReservationIds(@Param("date") Date date);
+
+    /**
+     * This method deletes the reserved lines of the given reservation.
+     * Since the rows are locked by the delete, only one caller can claim a reservation.
+     *
+     * @param reservationId the id of the reservation
+     * @return the number of deleted lines
+     */
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.reservationId = :reservationId")
+    int deleteAllByReservationId(@Param("reservationId") String reservationId);
+}
@@ -0,0 +1,143 @@
+package com.bit.productservice.service;
+
+import com.bit.productservice.exception.InvalidBarcodeException;
+import com.bit.productservice.index.BarcodeIndex;
+import com.bit.productservice.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * This class keeps the in-memory {@link BarcodeIndex} of the products, so that scanning a barcode does not query
+ * the database. The index is built once the application is ready and kept current as the products are created,
+ * updated and deleted on this instance. Changes made on other instances are not seen, so an indexed product is
+ * always checked against the scanned barcode, and barcodes that are not indexed fall back to the database.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class BarcodeIndexService {
+
+    private static final int BARCODE_LENGTH = 13;
+    private static final Pattern BARCODE_PATTERN = Pattern.compile("\\d{1," + BARCODE_LENGTH + "}");
+
+    private static final long UNINDEXABLE = 0L;
+
+    private final ProductRepository productRepository;
+    private final BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+
+    /**
+     * Rebuilds the index from the barcode numbers of all active products.
+     * When products share a barcode number, the latest product is indexed, like the database lookup returns.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        log.trace("Entering rebuildIndex method in BarcodeIndexService class");
+
+        List<Object[]> barcodeNumbers = productRepository.findAllBarcodeNumbers();
+        long[] barcodes = new long[barcodeNumbers.size()];
+        long[] productIds = new long[barcodeNumbers.size()];
+        int count = 0;
+        for (Object[] row : barcodeNumbers) {
+            long barcode = toBarcode((String) row[1]);
+            if (barcode == UNINDEXABLE) {
+                log.warn("Skipping product with invalid barcode number: {}, id: {}", row[1], row[0]);
+                continue;
+            }
+            barcodes[count] = barcode;
+            productIds[count] = (Long) row[0];
+            count++;
+        }
+        barcodeIndex.replaceAll(Arrays.copyOf(barcodes, count), Arrays.copyOf(productIds, count));
+        log.info("Indexed barcode numbers of {} products", barcodeIndex.size());
+
+        log.trace("Exiting rebuildIndex method in BarcodeIndexService class");
+    }
+
+    /**
+     * Normalizes a scanned barcode to the 13-digit form the barcode numbers are stored in.
+     * Shorter codes, such as UPC-A codes, are padded with leading zeros.
+     *
+     * @param barcode The scanned barcode.
+     * @return The barcode number with 13 digits.
+     * @throws InvalidBarcodeException If the barcode is not made of 1 to 13 digits.
+     */
+    public String normalizeBarcode(String barcode) {
+        if (barcode == null || !BARCODE_PATTERN.matcher(barcode).matches()) {
+            log.warn("Invalid barcode: {}", barcode);
+            throw new InvalidBarcodeException("Barcode must be made of 1 to " + BARCODE_LENGTH + " digits: " + barcode);
+        }
+        return "0".repeat(BARCODE_LENGTH - barcode.length()) + barcode;
+    }
+
+    /**
+     * Looks up the product of a barcode number in the index.
+     *
+     * @param barcodeNumber The normalized barcode number.
+     * @return The ID of the indexed product, or null if the barcode number is not indexed.
+     */
+    public Long getProductId(String barcodeNumber) {
+        long productId = barcodeIndex.get(toBarcode(barcodeNumber));
+        return productId != BarcodeIndex.NO_PRODUCT ? productId : null;
+    }
+
+    /**
+     * Indexes the barcode number of a product.
+     * Barcode numbers that are not numeric cannot be scanned and are not indexed.
+     *
+     * @param barcodeNumber The barcode number of the product.
+     * @param productId     The ID of the product.
+     */
+    public void indexProduct(String barcodeNumber, Long productId) {
+        long barcode = toBarcode(barcodeNumber);
+        if (barcode == UNINDEXABLE) {
+            log.warn("Not indexing invalid barcode number: {} of product with id: {}", barcodeNumber, productId);
+            return;
+        }
+        barcodeIndex.put(barcode, productId);
+        log.debug("Indexed barcode number: {} of product with id: {}", barcodeNumber, productId);
+    }
+
+    /**
+     * Removes a barcode number from the index if it still belongs to the given product.
+     *
+     * @param barcodeNumber The barcode number the product had.
+     * @param productId     The ID of the product.
+     */
+    public void removeBarcode(String barcodeNumber, Long productId) {
+        long barcode = toBarcode(barcodeNumber);
+        if (barcode != UNINDEXABLE && barcodeIndex.remove(barcode, productId)) {
+            log.debug("Removed barcode number: {} of product with id: {} from the index", barcodeNumber, productId);
+        }
+    }
+
+    /**
+     * Removes the barcode number of a deleted product from the index.
+     *
+     * @param productId The ID of the product.
+     */
+    public void removeProduct(Long productId) {
+        if (barcodeIndex.removeProduct(productId)) {
+            log.debug("Removed product with id: {} from the barcode index", productId);
+        }
+    }
+
+    /**
+     * Converts a barcode number to the key it is indexed with, or to 0 if it is not made of 1 to 13 digits.
+     * The all-zero barcode number is not valid either, so 0 never belongs to a product.
+     */
+    private static long toBarcode(String barcodeNumber) {
+        if (barcodeNumber == null || !BARCODE_PATTERN.matcher(barcodeNumber).matches()) {
+            return UNINDEXABLE;
+        }
+        return Long.parseLong(barcodeNumber);
+    }
+}
@@ -1,11 +1,18 @@
 package com.bit.productservice.service;
 
 import com.bit.productservice.dto.ProductResponse;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 /**
  * This class is responsible for managing product cache operations.
  * It uses Spring's caching annotations to cache product data.
@@ -14,8 +21,16 @@ import org.springframework.stereotype.Service;
  */
 @Log4j2
 @Service
+@RequiredArgsConstructor
 public class CacheService {
 
+    /**
+     * Key prefix used by the Redis cache manager for the "product_id" cache.
+     */
+    private static final String PRODUCT_CACHE_KEY_PREFIX = "product_id::";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
     /**
      * Creates a cache entry for a product.
      *
@@ -45,4 +60,52 @@ public class CacheService {
         log.trace("Exiting updateProductCache method in CacheService class");
         return productResponse;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the cache entries of the given products with a single multi-get.
+     * Products that are not cached are simply absent from the returned map.
+     *
+     * @param ids The IDs of the products to read from the cache.
+     * @return A map of product ID to the cached product data.
+     */
+    public Map<Long, ProductResponse> getProductCaches(List<Long> ids) {
+        log.trace("Entering getProductCaches method in CacheService class with ids: {}", ids);
+
+        Map<Long, ProductResponse> cachedProducts = new HashMap<>();
+        List<String> keys = ids.stream().map(id -> PRODUCT_CACHE_KEY_PREFIX + id).toList();
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+
+        if (values != null) {
+            for (int i = 0; i < ids.size() && i < values.size(); i++) {
+                if (values.get(i) instanceof ProductResponse productResponse) {
+                    cachedProducts.put(ids.get(i), productResponse);
+                }
+            }
+        }
+        log.debug("Found {} of {} products in the cache", cachedProducts.size(), ids.size());
+
+        log.trace("Exiting getProductCaches method in CacheService class");
+        return cachedProducts;
+    }
+
+    /**
+     * Writes the cache entries of the given products with a single multi-set.
+     *
+     * @param productResponses The product data to be cached.
+     */
+    public void createProductCaches(List<ProductResponse> productResponses) {
+        log.trace("Entering createProductCaches method in CacheService class");
+
+        if (productResponses.isEmpty()) {
+            log.trace("Exiting createProductCaches method in CacheService class with nothing to cache");
+            return;
+        }
+
+        Map<String, Object> entries = productResponses.stream()
+                .collect(Collectors.toMap(p -> PRODUCT_CACHE_KEY_PREFIX + p.getId(), p -> p, (first, second) -> second));
+        redisTemplate.opsForValue().multiSet(entries);
+        log.debug("Cached {} products", entries.size());
+
+        log.trace("Exiting createProductCaches method in CacheService class");
+    }
+}
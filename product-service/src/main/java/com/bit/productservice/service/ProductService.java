@@ -2,12 +2,15 @@ package com.bit.productservice.service;
 
 import com.bit.productservice.dto.ProductRequest;
 import com.bit.productservice.dto.ProductResponse;
+import com.bit.productservice.dto.StockReservationResponse;
 import com.bit.productservice.exception.AlgorithmNotFoundException;
+import com.bit.productservice.wrapper.ProductStockReduceRequest;
 import com.bit.productservice.wrapper.ProductStockReturnRequest;
 import org.springframework.data.domain.Page;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This interface defines the contract for the Product Service.
@@ -25,6 +28,30 @@ public interface ProductService {
      */
     ProductResponse getProduct (Long id);
 
+    /**
+     * Retrieves a product by its scanned barcode.
+     *
+     * @param barcode The scanned barcode, with up to 13 digits.
+     * @return The product response object containing the product details.
+     */
+    ProductResponse getProductByBarcode(String barcode);
+
+    /**
+     * Retrieves multiple products by their unique identifiers in one call.
+     *
+     * @param ids The unique identifiers of the products.
+     * @return A list of product response objects in the order of the given identifiers.
+     */
+    List<ProductResponse> getProducts(List<Long> ids);
+
+    /**
+     * Retrieves the current stock quantities of multiple products from the database.
+     *
+     * @param ids The unique identifiers of the products.
+     * @return A map of product identifier to stock quantity.
+     */
+    Map<Long, Integer> getProductStocks(List<Long> ids);
+
     /**
      * Retrieves all active products.
      *
@@ -105,4 +132,45 @@ public interface ProductService {
      * @param request The product stock return request object containing the product details and return quantity.
      */
     void returnProducts(ProductStockReturnRequest request);
+
+    /**
+     * Returns the products of multiple lines to the stock in a single transaction.
+     * Either all the lines are returned or none of them.
+     *
+     * @param requests The product stock return requests containing the product details and return quantities.
+     */
+    void returnProducts(List<ProductStockReturnRequest> requests);
+
+    /**
+     * Atomically reserves the requested quantities of multiple products and returns their prices.
+     * Either all the lines are reserved or none of them.
+     *
+     * @param requests The product stock reduce requests containing the product details and requested quantities.
+     * @return The stock reservation response containing the reservation ID, its expiration date, and the reserved products.
+     */
+    StockReservationResponse reserveProducts(List<ProductStockReduceRequest> requests);
+
+    /**
+     * Atomically reserves the changes of the quantities of multiple products sold by a sale that is updated.
+     * A positive quantity is taken from the stock right away like in a reservation, a negative quantity is returned
+     * to the stock when the reservation is committed. Either all the lines are reserved or none of them.
+     *
+     * @param requests The product stock reduce requests containing the product details and the changes of the sold quantities.
+     * @return The stock reservation response containing the reservation ID, its expiration date, and the adjusted products.
+     */
+    StockReservationResponse reserveStockAdjustments(List<ProductStockReduceRequest> requests);
+
+    /**
+     * Commits a stock reservation, making the reserved quantities permanent and returning the quantities it gives back.
+     *
+     * @param reservationId The unique identifier of the reservation.
+     */
+    void commitReservation(String reservationId);
+
+    /**
+     * Releases a stock reservation, returning the reserved quantities to the stock.
+     *
+     * @param reservationId The unique identifier of the reservation.
+     */
+    void releaseReservation(String reservationId);
 }
@@ -3,11 +3,20 @@ package com.bit.productservice.service;
 import com.bit.productservice.annotation.ExcludeFromGeneratedCoverage;
 import com.bit.productservice.dto.ProductRequest;
 import com.bit.productservice.dto.ProductResponse;
+import com.bit.productservice.dto.StockReservationResponse;
 import com.bit.productservice.entity.Product;
+import com.bit.productservice.entity.StockReservation;
 import com.bit.productservice.exception.AlgorithmNotFoundException;
+import com.bit.productservice.exception.InvalidStockQuantityException;
 import com.bit.productservice.exception.ProductNotFoundException;
 import com.bit.productservice.exception.ProductNotSoftDeletedException;
+import com.bit.productservice.exception.ProductOutOfStockException;
+import com.bit.productservice.exception.ReservationNotFoundException;
+import com.bit.productservice.repository.ProcessedMessageRepository;
 import com.bit.productservice.repository.ProductRepository;
+import com.bit.productservice.repository.StockReservationRepository;
+import com.bit.productservice.wrapper.ProductEvent;
+import com.bit.productservice.wrapper.ProductStockReduceBatch;
 import com.bit.productservice.wrapper.ProductStockReduceRequest;
 import com.bit.productservice.wrapper.ProductStockReturnRequest;
 import io.micrometer.common.util.StringUtils;
@@ -16,7 +25,10 @@ import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.AmqpException;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
@@ -24,11 +36,23 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.messaging.Message;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
 
 /**
  * Service implementation for managing products.
@@ -43,13 +67,27 @@ public class ProductServiceImpl implements ProductService {
     @Value("${send-email}")
     private String SEND_EMAIL;
 
+    @Value("${rabbitmq.product-event-exchange}")
+    private String PRODUCT_EVENT_EXCHANGE;
+
+    @Value("${stock-reservation.ttl}")
+    private Duration RESERVATION_TTL;
+
+    @Value("${rabbitmq.processed-message-retention}")
+    private Duration PROCESSED_MESSAGE_RETENTION;
+
     private static final String NOT_FOUND_ERROR_MESSAGE = "Product not found with id: ";
     private static final String SAVED_DEBUG_MESSAGE = "Product saved: {}";
+    private static final String RESERVATION_NOT_FOUND_ERROR_MESSAGE = "Reservation not found or expired with id: ";
 
     private final ProductRepository productRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final ProcessedMessageRepository processedMessageRepository;
     private final BarcodeService barcodeService;
     private final CacheService cacheService;
+    private final BarcodeIndexService barcodeIndexService;
     private final EmailService emailService;
+    private final RabbitTemplate rabbitTemplate;
 
     @Override
     @Cacheable(cacheNames = "product_id", key = "#id", unless = "#result == null")
@@ -69,6 +107,102 @@ public class ProductServiceImpl implements ProductService {
         return response;
     }
 
+    @Override
+    public ProductResponse getProductByBarcode(String barcode) {
+        log.trace("Entering getProductByBarcode method in ProductServiceImpl class with barcode: {}", barcode);
+
+        String barcodeNumber = barcodeIndexService.normalizeBarcode(barcode);
+
+        // Serving the indexed product from the cache, after checking that it still has the barcode
+        Long id = barcodeIndexService.getProductId(barcodeNumber);
+        if (id != null) {
+            try {
+                ProductResponse response = getProducts(List.of(id)).get(0);
+                if (barcodeNumber.equals(response.getBarcodeNumber())) {
+                    log.debug("Product found in the barcode index: {}", response);
+                    log.trace("Exiting getProductByBarcode method in ProductServiceImpl class");
+                    return response;
+                }
+            } catch (ProductNotFoundException e) {
+                log.debug("Indexed product not found with id: {}", id);
+            }
+            log.debug("Barcode index entry is stale for barcode: {}, id: {}", barcodeNumber, id);
+            barcodeIndexService.removeBarcode(barcodeNumber, id);
+        }
+
+        // Falling back to the database, and indexing the product found
+        Product product = productRepository.findFirstByBarcodeNumberOrderByIdDesc(barcodeNumber)
+                .orElseThrow(() -> {
+                    log.error("Product not found with barcode: {}", barcodeNumber);
+                    return new ProductNotFoundException("Product not found with barcode: " + barcodeNumber);
+                });
+        ProductResponse response = mapToProductResponse(product);
+        barcodeIndexService.indexProduct(product.getBarcodeNumber(), product.getId());
+        cacheService.createProductCache(response);
+        log.debug("Product found in the database by barcode: {}", response);
+
+        log.trace("Exiting getProductByBarcode method in ProductServiceImpl class");
+        return response;
+    }
+
+    @Override
+    public List<ProductResponse> getProducts(List<Long> ids) {
+        log.trace("Entering getProducts method in ProductServiceImpl class with ids: {}", ids);
+
+        List<Long> distinctIds = ids.stream().distinct().toList();
+
+        // Reading the cached products and finding the rest in the database
+        Map<Long, ProductResponse> productResponses = new HashMap<>(cacheService.getProductCaches(distinctIds));
+        List<Long> missingIds = distinctIds.stream().filter(id -> !productResponses.containsKey(id)).toList();
+
+        if (!missingIds.isEmpty()) {
+            log.debug("Products not found in the cache: {}", missingIds);
+            List<ProductResponse> loadedProducts = productRepository.findAllById(missingIds).stream()
+                    .map(this::mapToProductResponse)
+                    .toList();
+            loadedProducts.forEach(product -> productResponses.put(product.getId(), product));
+
+            // Caching the products loaded from the database
+            cacheService.createProductCaches(loadedProducts);
+        }
+
+        // Checking whether all products are found
+        List<ProductResponse> responses = new ArrayList<>(distinctIds.size());
+        for (Long id : distinctIds) {
+            ProductResponse response = productResponses.get(id);
+            if (response == null) {
+                log.error(NOT_FOUND_ERROR_MESSAGE + id);
+                throw new ProductNotFoundException(NOT_FOUND_ERROR_MESSAGE + id);
+            }
+            responses.add(response);
+        }
+        log.debug("Found {} products", responses.size());
+
+        log.trace("Exiting getProducts method in ProductServiceImpl class");
+        return responses;
+    }
+
+    @Override
+    public Map<Long, Integer> getProductStocks(List<Long> ids) {
+        log.trace("Entering getProductStocks method in ProductServiceImpl class with ids: {}", ids);
+
+        // Reading the stock quantities from the database, bypassing the cache
+        Map<Long, Integer> stocks = new HashMap<>();
+        productRepository.findAllById(ids).forEach(product -> stocks.put(product.getId(), product.getStockQuantity()));
+
+        // Checking whether all products are found
+        for (Long id : ids) {
+            if (!stocks.containsKey(id)) {
+                log.error(NOT_FOUND_ERROR_MESSAGE + id);
+                throw new ProductNotFoundException(NOT_FOUND_ERROR_MESSAGE + id);
+            }
+        }
+        log.debug("Found stock quantities of {} products", stocks.size());
+
+        log.trace("Exiting getProductStocks method in ProductServiceImpl class");
+        return stocks;
+    }
+
     @Override
     public List<ProductResponse> getAllProducts() {
         log.trace("Entering getAllProducts method in ProductServiceImpl class");
@@ -138,8 +272,9 @@ public class ProductServiceImpl implements ProductService {
 
         ProductResponse productResponse = mapToProductResponse(product);
 
-        // Caching the product
+        // Caching and indexing the product
         cacheService.createProductCache(productResponse);
+        barcodeIndexService.indexProduct(product.getBarcodeNumber(), product.getId());
         log.info("Product created with ID: {}", product.getId());
 
         log.trace("Exiting createProduct method in ProductServiceImpl class");
@@ -157,6 +292,9 @@ public class ProductServiceImpl implements ProductService {
                     log.error("Product does not exist with id {}", id);
                     return new ProductNotFoundException("Product doesn't exist with id " + id);
                 });
+        String previousBarcodeNumber = existingProduct.getBarcodeNumber();
+        boolean catalogChanged = !Objects.equals(existingProduct.getName(), productRequest.getName())
+                || !Objects.equals(existingProduct.getPrice(), productRequest.getPrice());
         existingProduct.setName(productRequest.getName());
         existingProduct.setDescription(productRequest.getDescription());
         existingProduct.setBarcodeNumber(barcodeService.generateBarcodeNumber(productRequest.getName()));
@@ -167,8 +305,13 @@ public class ProductServiceImpl implements ProductService {
 
         ProductResponse productResponse = mapToProductResponse(existingProduct);
 
-        // Caching the updated product
+        // Caching and indexing the updated product, the subscribers are notified only when the data they cache changes
         cacheService.updateProductCache(productResponse);
+        barcodeIndexService.removeBarcode(previousBarcodeNumber, id);
+        barcodeIndexService.indexProduct(existingProduct.getBarcodeNumber(), id);
+        if (catalogChanged || !Objects.equals(previousBarcodeNumber, existingProduct.getBarcodeNumber())) {
+            publishProductEvent(new ProductEvent(id, ProductEvent.Type.CHANGED));
+        }
         log.info("Product updated with ID: {}", existingProduct.getId());
 
         log.trace("Exiting updateProduct method in ProductServiceImpl class");
@@ -196,8 +339,10 @@ public class ProductServiceImpl implements ProductService {
         ProductResponse productResponse = mapToProductResponse(product);
         log.debug("Product restored: {}", productResponse);
 
-        // Caching the restored product
+        // Caching and indexing the restored product and notifying the subscribers
         cacheService.createProductCache(productResponse);
+        barcodeIndexService.indexProduct(product.getBarcodeNumber(), id);
+        publishProductEvent(new ProductEvent(id, ProductEvent.Type.CHANGED));
         log.info("Product restored with ID: {}", id);
 
         log.trace("Exiting restoreProduct method in ProductServiceImpl class");
@@ -216,6 +361,8 @@ public class ProductServiceImpl implements ProductService {
         log.debug("Product exists with id: {}", id);
 
         productRepository.deleteById(id);
+        barcodeIndexService.removeProduct(id);
+        publishProductEvent(new ProductEvent(id, ProductEvent.Type.DELETED));
         log.info("Product soft deleted with ID: {}", id);
 
         log.trace("Exiting deleteProduct method in ProductServiceImpl class");
@@ -233,46 +380,79 @@ public class ProductServiceImpl implements ProductService {
         log.debug("Product exists with id: {}", id);
 
         productRepository.deletePermanently(id);
+        barcodeIndexService.removeProduct(id);
+        publishProductEvent(new ProductEvent(id, ProductEvent.Type.DELETED));
         log.info("Product permanently deleted with ID: {}", id);
 
         log.trace("Exiting deleteProductPermanently method in ProductServiceImpl class");
     }
 
     /**
-     * This method is responsible for reducing the stock quantity of a product.
-     * It is triggered by a message received from a RabbitMQ queue.
+     * This method is responsible for reducing the stock quantities of the products of the sales in a batch of messages.
+     * It is triggered by a batch of messages received from a RabbitMQ queue.
+     * The lines of the same product are merged across the messages, and all the stocks are reduced with a single update.
+     * The negative quantities sent for the products given back by updated sales are added to the stocks instead.
+     * Since the messages are delivered at least once, the ID of each message is recorded in the same transaction
+     * as the stock update, and a message whose ID is already recorded is skipped.
      *
-     * @param request The request containing the product ID and the quantity to reduce.
-     * @throws ProductNotFoundException If the product with the given ID does not exist.
+     * @param messages The stock reduce requests of the sales, one message per sale.
      */
     @Transactional
-    @RabbitListener(queues = "${rabbitmq.queue}")
-    public void reduceProductStock(ProductStockReduceRequest request) {
-        log.trace("Entering reduceProductStock method in ProductServiceImpl class with request: {}", request);
-
-        // Finding and updating the product
-        Product product = productRepository.findById(request.getId())
-                .orElseThrow(() -> {
-                    log.error(NOT_FOUND_ERROR_MESSAGE + request.getId());
-                    return new ProductNotFoundException(NOT_FOUND_ERROR_MESSAGE + request.getId());
-                });
+    @RabbitListener(queues = "${rabbitmq.queue}", containerFactory = "batchListenerContainerFactory")
+    public void reduceProductStocks(List<Message<ProductStockReduceBatch>> messages) {
+        log.trace("Entering reduceProductStocks method in ProductServiceImpl class with {} messages", messages.size());
+
+        // Skipping the messages that have already been applied
+        Date processedAt = new Date();
+        List<ProductStockReduceBatch> batches = new ArrayList<>();
+        for (Message<ProductStockReduceBatch> message : messages) {
+            String messageId = message.getHeaders().get(AmqpHeaders.MESSAGE_ID, String.class);
+            if (messageId != null && processedMessageRepository.insertIfAbsent(messageId, processedAt) == 0) {
+                log.warn("Skipping stock reduce message already processed with id: {}", messageId);
+                continue;
+            }
+            batches.add(message.getPayload());
+        }
 
-        product.setStockQuantity(product.getStockQuantity() - request.getRequestedQuantity());
-        productRepository.save(product);
-        log.debug(SAVED_DEBUG_MESSAGE, product);
+        // Merging the lines of the same product across the messages
+        Map<Long, Integer> quantities = new TreeMap<>();
+        batches.forEach(batch -> batch.getRequests()
+                .forEach(request -> quantities.merge(request.getId(), -request.getRequestedQuantity(), Integer::sum)));
 
-        // Caching the updated product
-        cacheService.updateProductCache(mapToProductResponse(product));
-        log.info("Reduced stock for product with ID: {}", request.getId());
+        if (quantities.isEmpty()) {
+            log.trace("Exiting reduceProductStocks method in ProductServiceImpl class with nothing to reduce");
+            return;
+        }
 
-        // Sending an email if the stock quantity is zero and email sending is enabled
-        if (Boolean.parseBoolean(SEND_EMAIL) && product.getStockQuantity() == 0) {
-            log.info("Email sending is active");
-            emailService.sendEmail("Product Out of Stock", product.getName() + " is out of stock!");
-            log.info("Sent out of stock email for product with ID: {}", request.getId());
+        // Reducing the stocks with a single update
+        int updatedCount = adjustStocks(quantities);
+        if (updatedCount < quantities.size()) {
+            log.warn("Only {} of {} products found while reducing stocks: {}", updatedCount, quantities.size(), quantities.keySet());
         }
 
-        log.trace("Exiting reduceProductStock method in ProductServiceImpl class");
+        // Caching the updated products
+        List<ProductResponse> productResponses = refreshProducts(quantities.keySet());
+        sendOutOfStockEmails(productResponses);
+        log.info("Reduced stocks for {} products from {} messages", updatedCount, batches.size());
+
+        log.trace("Exiting reduceProductStocks method in ProductServiceImpl class");
+    }
+
+    /**
+     * This method deletes the records of the stock reduce messages processed longer ago than the retention,
+     * by which time the broker no longer delivers them again.
+     * It is triggered periodically by the scheduler.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${rabbitmq.processed-message-cleanup-interval}")
+    public void deleteExpiredProcessedMessages() {
+        log.trace("Entering deleteExpiredProcessedMessages method in ProductServiceImpl class");
+
+        int deletedCount = processedMessageRepository.deleteAllProcessedBefore(
+                new Date(System.currentTimeMillis() - PROCESSED_MESSAGE_RETENTION.toMillis()));
+        log.debug("Deleted {} expired processed message records", deletedCount);
+
+        log.trace("Exiting deleteExpiredProcessedMessages method in ProductServiceImpl class");
     }
 
     @Override
@@ -290,13 +470,334 @@ public class ProductServiceImpl implements ProductService {
         productRepository.save(product);
         log.debug(SAVED_DEBUG_MESSAGE, product);
 
-        // Caching the updated product
+        // Caching the updated product, only its stock has changed so the subscribers are not notified
         cacheService.updateProductCache(mapToProductResponse(product));
         log.info("Returned products for product with ID: {}", request.getId());
 
         log.trace("Exiting returnProducts method in ProductServiceImpl class");
     }
 
+    @Override
+    @Transactional
+    public void returnProducts(List<ProductStockReturnRequest> requests) {
+        log.trace("Entering returnProducts method in ProductServiceImpl class with {} requests", requests.size());
+
+        // Merging the lines of the same product
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ProductStockReturnRequest request : requests) {
+            if (request.getId() == null || request.getReturnedQuantity() < 1) {
+                log.error("Invalid product return request: {}", request);
+                throw new InvalidStockQuantityException("Invalid product return request: " + request);
+            }
+            quantities.merge(request.getId(), request.getReturnedQuantity(), Integer::sum);
+        }
+
+        if (quantities.isEmpty()) {
+            log.trace("Exiting returnProducts method in ProductServiceImpl class with nothing to return");
+            return;
+        }
+
+        // Returning the stocks with a single update, a missing product rolls back the whole return
+        if (adjustStocks(quantities) < quantities.size()) {
+            List<Long> foundIds = productRepository.findAllById(quantities.keySet()).stream().map(Product::getId).toList();
+            List<Long> missingIds = quantities.keySet().stream().filter(id -> !foundIds.contains(id)).toList();
+            log.error("Products not found with ids: {}", missingIds);
+            throw new ProductNotFoundException("Products not found with ids: " + missingIds);
+        }
+
+        // Caching the updated products
+        refreshProducts(quantities.keySet());
+        log.info("Returned products for {} products", quantities.size());
+
+        log.trace("Exiting returnProducts method in ProductServiceImpl class");
+    }
+
+    @Override
+    @Transactional
+    public StockReservationResponse reserveProducts(List<ProductStockReduceRequest> requests) {
+        log.trace("Entering reserveProducts method in ProductServiceImpl class with requests: {}", requests);
+
+        // Merging the lines of the same product, sorted by ID so that concurrent reservations lock the rows in the same order
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ProductStockReduceRequest request : requests) {
+            if (request.getId() == null || request.getRequestedQuantity() < 0) {
+                log.error("Invalid stock reservation request: {}", request);
+                throw new InvalidStockQuantityException("Invalid stock reservation request: " + request);
+            }
+            quantities.merge(request.getId(), request.getRequestedQuantity(), Integer::sum);
+        }
+
+        StockReservationResponse stockReservationResponse = createReservation(quantities);
+
+        log.trace("Exiting reserveProducts method in ProductServiceImpl class");
+        return stockReservationResponse;
+    }
+
+    @Override
+    @Transactional
+    public StockReservationResponse reserveStockAdjustments(List<ProductStockReduceRequest> requests) {
+        log.trace("Entering reserveStockAdjustments method in ProductServiceImpl class with requests: {}", requests);
+
+        // Merging the lines of the same product, the lines whose changes cancel out are left out
+        Map<Long, Integer> adjustments = new TreeMap<>();
+        for (ProductStockReduceRequest request : requests) {
+            if (request.getId() == null) {
+                log.error("Invalid stock adjustment request: {}", request);
+                throw new InvalidStockQuantityException("Invalid stock adjustment request: " + request);
+            }
+            adjustments.merge(request.getId(), request.getRequestedQuantity(), Integer::sum);
+        }
+        adjustments.values().removeIf(quantity -> quantity == 0);
+        if (adjustments.isEmpty()) {
+            log.error("No stock adjustments to reserve in requests: {}", requests);
+            throw new InvalidStockQuantityException("No stock adjustments to reserve");
+        }
+
+        StockReservationResponse stockReservationResponse = createReservation(adjustments);
+
+        log.trace("Exiting reserveStockAdjustments method in ProductServiceImpl class");
+        return stockReservationResponse;
+    }
+
+    @Override
+    @Transactional
+    public void commitReservation(String reservationId) {
+        log.trace("Entering commitReservation method in ProductServiceImpl class with reservationId: {}", reservationId);
+
+        // Deleting the reservation, the reserved stocks are already reduced
+        List<StockReservation> reservations = stockReservationRepository.findAllByReservationId(reservationId);
+        if (stockReservationRepository.deleteAllByReservationId(reservationId) == 0) {
+            log.error(RESERVATION_NOT_FOUND_ERROR_MESSAGE + reservationId);
+            throw new ReservationNotFoundException(RESERVATION_NOT_FOUND_ERROR_MESSAGE + reservationId);
+        }
+
+        // Returning the quantities given back by the reservation, which are only applied once it is committed
+        Map<Long, Integer> returnedQuantities = new TreeMap<>();
+        reservations.stream()
+                .filter(reservation -> reservation.getQuantity() < 0)
+                .forEach(reservation -> returnedQuantities.merge(reservation.getProductId(), -reservation.getQuantity(), Integer::sum));
+        if (!returnedQuantities.isEmpty()) {
+            adjustStocks(returnedQuantities);
+            refreshProducts(returnedQuantities.keySet());
+            log.debug("Returned stocks of {} products with the reservation", returnedQuantities.size());
+        }
+        log.info("Stock reservation committed with id: {}", reservationId);
+
+        log.trace("Exiting commitReservation method in ProductServiceImpl class");
+    }
+
+    @Override
+    @Transactional
+    public void releaseReservation(String reservationId) {
+        log.trace("Entering releaseReservation method in ProductServiceImpl class with reservationId: {}", reservationId);
+
+        if (!releaseReservationLines(reservationId)) {
+            log.error(RESERVATION_NOT_FOUND_ERROR_MESSAGE + reservationId);
+            throw new ReservationNotFoundException(RESERVATION_NOT_FOUND_ERROR_MESSAGE + reservationId);
+        }
+        log.info("Stock reservation released with id: {}", reservationId);
+
+        log.trace("Exiting releaseReservation method in ProductServiceImpl class");
+    }
+
+    /**
+     * This method releases the stock reservations that have expired without being committed.
+     * It is triggered periodically by the scheduler.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${stock-reservation.expiry-check-interval}")
+    public void releaseExpiredReservations() {
+        log.trace("Entering releaseExpiredReservations method in ProductServiceImpl class");
+
+        List<String> reservationIds = stockReservationRepository.findExpiredReservationIds(new Date());
+        for (String reservationId : reservationIds) {
+            if (releaseReservationLines(reservationId)) {
+                log.info("Expired stock reservation released with id: {}", reservationId);
+            }
+        }
+
+        log.trace("Exiting releaseExpiredReservations method in ProductServiceImpl class");
+    }
+
+    /**
+     * This method returns the reserved quantities of a reservation to the stock and deletes the reservation.
+     * The reservation is claimed by deleting it first, so that it cannot be released twice or released after it is committed.
+     * The quantities to be returned by the reservation are dropped, since they have not been applied yet.
+     *
+     * @param reservationId The unique identifier of the reservation.
+     * @return true if the reservation is released, false if it does not exist anymore.
+     */
+    private boolean releaseReservationLines(String reservationId) {
+        log.trace("Entering releaseReservationLines method in ProductServiceImpl class with reservationId: {}", reservationId);
+
+        List<StockReservation> reservations = stockReservationRepository.findAllByReservationId(reservationId);
+        if (reservations.isEmpty() || stockReservationRepository.deleteAllByReservationId(reservationId) == 0) {
+            log.trace("Exiting releaseReservationLines method in ProductServiceImpl class with nothing to release");
+            return false;
+        }
+
+        List<StockReservation> reservedLines = reservations.stream()
+                .filter(reservation -> reservation.getQuantity() > 0)
+                .toList();
+        reservedLines.forEach(reservation -> productRepository.releaseStock(reservation.getProductId(), reservation.getQuantity()));
+        if (!reservedLines.isEmpty()) {
+            refreshProducts(reservedLines.stream().map(StockReservation::getProductId).toList());
+        }
+
+        log.trace("Exiting releaseReservationLines method in ProductServiceImpl class");
+        return true;
+    }
+
+    /**
+     * This method reserves the given quantities and records the reservation, so that it can be committed or released.
+     * Positive quantities are subtracted from the stocks right away with conditional updates, and a failing line rolls
+     * back the whole reservation. Negative quantities are returned to the stocks only when the reservation is committed,
+     * so that releasing the reservation does not have to take back stock that may have been sold in the meantime.
+     *
+     * @param quantities The quantities to reserve by product ID, sorted by ID.
+     * @return The stock reservation response containing the reservation ID, its expiration date, and the reserved products.
+     * @throws ProductNotFoundException   If any of the products is not found.
+     * @throws ProductOutOfStockException If there is not enough stock for any of the products.
+     */
+    private StockReservationResponse createReservation(Map<Long, Integer> quantities) {
+        log.trace("Entering createReservation method in ProductServiceImpl class with quantities: {}", quantities);
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (entry.getValue() < 0) {
+                if (!productRepository.existsById(entry.getKey())) {
+                    log.error(NOT_FOUND_ERROR_MESSAGE + entry.getKey());
+                    throw new ProductNotFoundException(NOT_FOUND_ERROR_MESSAGE + entry.getKey());
+                }
+            } else if (productRepository.reserveStock(entry.getKey(), entry.getValue()) == 0) {
+                if (!productRepository.existsById(entry.getKey())) {
+                    log.error(NOT_FOUND_ERROR_MESSAGE + entry.getKey());
+                    throw new ProductNotFoundException(NOT_FOUND_ERROR_MESSAGE + entry.getKey());
+                }
+                log.error("Cannot reserve {} of product with id: {}", entry.getValue(), entry.getKey());
+                throw new ProductOutOfStockException("Not enough stock for product with id: " + entry.getKey());
+            }
+        }
+        log.debug("Reserved stocks of {} products", quantities.size());
+
+        // Recording the reservation, so that it can be released when it expires
+        String reservationId = UUID.randomUUID().toString();
+        Date expiresAt = new Date(System.currentTimeMillis() + RESERVATION_TTL.toMillis());
+        stockReservationRepository.saveAll(quantities.entrySet().stream()
+                .map(entry -> StockReservation.builder()
+                        .reservationId(reservationId)
+                        .productId(entry.getKey())
+                        .quantity(entry.getValue())
+                        .expiresAt(expiresAt)
+                        .build())
+                .toList());
+
+        List<ProductResponse> productResponses = refreshProducts(quantities.keySet());
+        log.info("Stock reservation created with id: {}", reservationId);
+
+        sendOutOfStockEmails(productResponses);
+
+        log.trace("Exiting createReservation method in ProductServiceImpl class");
+        return StockReservationResponse.builder()
+                .reservationId(reservationId)
+                .expiresAt(expiresAt)
+                .products(productResponses)
+                .build();
+    }
+
+    /**
+     * This method adds the given deltas to the stocks of the products with a single update.
+     *
+     * @param deltas The quantities to be added to the stocks by product ID, negative ones reduce the stocks.
+     * @return The number of updated products.
+     */
+    private int adjustStocks(Map<Long, Integer> deltas) {
+        return productRepository.adjustStocks(
+                deltas.keySet().toArray(Long[]::new),
+                deltas.values().toArray(Integer[]::new));
+    }
+
+    /**
+     * This method reloads the given products after their stocks are changed by bulk updates and caches them
+     * once the transaction commits. The subscribers are not notified, since they do not cache the stocks.
+     *
+     * @param ids The IDs of the changed products.
+     * @return The product responses of the changed products.
+     */
+    private List<ProductResponse> refreshProducts(Collection<Long> ids) {
+        log.trace("Entering refreshProducts method in ProductServiceImpl class with ids: {}", ids);
+
+        List<ProductResponse> productResponses = productRepository.findAllById(ids).stream()
+                .map(this::mapToProductResponse)
+                .toList();
+        afterCommit(() -> cacheService.createProductCaches(productResponses));
+
+        log.trace("Exiting refreshProducts method in ProductServiceImpl class");
+        return productResponses;
+    }
+
+    /**
+     * This method sends an email for each of the given products that are out of stock, if email sending is enabled.
+     *
+     * @param productResponses The product responses of the products whose stocks are reduced.
+     */
+    private void sendOutOfStockEmails(List<ProductResponse> productResponses) {
+        log.trace("Entering sendOutOfStockEmails method in ProductServiceImpl class");
+
+        if (Boolean.parseBoolean(SEND_EMAIL)) {
+            log.info("Email sending is active");
+            productResponses.stream()
+                    .filter(productResponse -> productResponse.getStockQuantity() == 0)
+                    .forEach(productResponse -> {
+                        emailService.sendEmail("Product Out of Stock", productResponse.getName() + " is out of stock!");
+                        log.info("Sent out of stock email for product with ID: {}", productResponse.getId());
+                    });
+        }
+
+        log.trace("Exiting sendOutOfStockEmails method in ProductServiceImpl class");
+    }
+
+    /**
+     * This method publishes a product event to the RabbitMQ so that the subscribers can invalidate their copies of the product.
+     * The event is published once the transaction commits, so that a subscriber cannot reload the product before the change is visible.
+     * A failure to publish is only logged, since the change itself has already been made and the copies expire anyway.
+     *
+     * @param productEvent The event containing the product ID and the type of the change.
+     */
+    private void publishProductEvent(ProductEvent productEvent) {
+        log.trace("Entering publishProductEvent method in ProductServiceImpl class with productEvent: {}", productEvent);
+
+        afterCommit(() -> {
+            try {
+                rabbitTemplate.convertAndSend(PRODUCT_EVENT_EXCHANGE, "", productEvent);
+                log.debug("Product event published: {}", productEvent);
+
+            } catch (AmqpException e) {
+                log.warn("Failed to publish product event: {}", productEvent, e);
+            }
+        });
+
+        log.trace("Exiting publishProductEvent method in ProductServiceImpl class");
+    }
+
+    /**
+     * This method runs the given action after the current transaction commits, or right away if there is no transaction.
+     * A rolled back transaction drops the action, so that no change is announced or cached that did not happen.
+     *
+     * @param action The action to run.
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     /**
      * This method is used to generate a list of predicates for filtering and sorting products.
      *
@@ -318,10 +819,10 @@ public class ProductServiceImpl implements ProductService {
 
         List<Predicate> predicates = new ArrayList<>();
         if (StringUtils.isNotBlank(name)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), SearchPatterns.contains(name), SearchPatterns.ESCAPE_CHAR));
         }
         if (StringUtils.isNotBlank(description)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), "%" + description.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("description")), SearchPatterns.contains(description), SearchPatterns.ESCAPE_CHAR));
         }
         if (minPrice != null) {
             predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("price"), minPrice));
@@ -0,0 +1,21 @@
+package com.bit.productservice.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class represents a request to reduce the stocks of all the products of a sale.
+ * It contains one stock reduce request per sale line.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductStockReduceBatch {
+
+    private List<ProductStockReduceRequest> requests;
+}
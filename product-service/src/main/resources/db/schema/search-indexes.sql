@@ -0,0 +1,5 @@
+-- Trigram indexes for the case-insensitive substring filters of the product search.
+-- Hibernate runs this script right after creating the tables, one statement per line.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_description_trgm ON products USING gin (lower(description) gin_trgm_ops);
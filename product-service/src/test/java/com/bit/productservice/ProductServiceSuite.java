@@ -5,7 +5,9 @@ import org.junit.platform.suite.api.Suite;
 
 @Suite
 @SelectPackages({
+        "com.bit.productservice.config",
         "com.bit.productservice.controller",
+        "com.bit.productservice.index",
         "com.bit.productservice.service"
 })
 class ProductServiceSuite {}
@@ -0,0 +1,73 @@
+package com.bit.productservice.config;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InternalAuthFilterTest {
+
+    private InternalAuthFilter internalAuthFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private MockFilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        internalAuthFilter = new InternalAuthFilter();
+        ReflectionTestUtils.setField(internalAuthFilter, "INTERNAL_AUTH_HEADER", "X-Internal-Token");
+        ReflectionTestUtils.setField(internalAuthFilter, "INTERNAL_AUTH_TOKEN", "secret");
+        request = new MockHttpServletRequest("GET", "/products/1");
+        response = new MockHttpServletResponse();
+        filterChain = new MockFilterChain();
+    }
+
+    @Test
+    void doFilter_shouldPassRequest_whenTokenIsValid() throws ServletException, IOException {
+        // Arrange
+        request.addHeader("X-Internal-Token", "secret");
+
+        // Act
+        internalAuthFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertSame(request, filterChain.getRequest());
+    }
+
+    @Test
+    void doFilter_shouldRejectRequest_whenTokenIsMissingOrInvalid() throws ServletException, IOException {
+        // Arrange
+        MockHttpServletRequest invalidRequest = new MockHttpServletRequest("GET", "/products/1");
+        invalidRequest.addHeader("X-Internal-Token", "guess");
+        MockHttpServletResponse invalidResponse = new MockHttpServletResponse();
+
+        // Act
+        internalAuthFilter.doFilter(request, response, filterChain);
+        internalAuthFilter.doFilter(invalidRequest, invalidResponse, filterChain);
+
+        // Assert
+        assertEquals(401, response.getStatus());
+        assertEquals(401, invalidResponse.getStatus());
+        assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    void doFilter_shouldPassRequest_whenNoTokenIsConfigured() throws ServletException, IOException {
+        // Arrange
+        ReflectionTestUtils.setField(internalAuthFilter, "INTERNAL_AUTH_TOKEN", "");
+
+        // Act
+        internalAuthFilter.doFilter(request, response, filterChain);
+
+        // Assert
+        assertSame(request, filterChain.getRequest());
+    }
+}
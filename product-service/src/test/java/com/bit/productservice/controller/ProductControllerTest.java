@@ -2,8 +2,10 @@ package com.bit.productservice.controller;
 
 import com.bit.productservice.dto.ProductRequest;
 import com.bit.productservice.dto.ProductResponse;
+import com.bit.productservice.dto.StockReservationResponse;
 import com.bit.productservice.exception.AlgorithmNotFoundException;
 import com.bit.productservice.service.ProductService;
+import com.bit.productservice.wrapper.ProductStockReduceRequest;
 import com.bit.productservice.wrapper.ProductStockReturnRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,10 +20,12 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,6 +61,93 @@ class ProductControllerTest {
         assertEquals(1L, Objects.requireNonNull(response.getBody()).getId());
     }
 
+    @Test
+    void testGetProductByBarcode_ShouldReturnProduct() {
+        // Arrange
+        when(productService.getProductByBarcode("1234567890123")).thenReturn(productResponse);
+
+        // Act
+        ResponseEntity<ProductResponse> response = productController.getProductByBarcode("1234567890123");
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(1L, Objects.requireNonNull(response.getBody()).getId());
+    }
+
+    @Test
+    void testGetProducts_ShouldReturnProductList() {
+        // Arrange
+        when(productService.getProducts(anyList())).thenReturn(Collections.singletonList(productResponse));
+
+        // Act
+        ResponseEntity<List<ProductResponse>> response = productController.getProducts(List.of(1L));
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(1L, Objects.requireNonNull(response.getBody()).get(0).getId());
+    }
+
+    @Test
+    void testGetProductStocks_ShouldReturnStockMap() {
+        // Arrange
+        when(productService.getProductStocks(anyList())).thenReturn(Map.of(1L, 5));
+
+        // Act
+        ResponseEntity<Map<Long, Integer>> response = productController.getProductStocks(List.of(1L));
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(5, Objects.requireNonNull(response.getBody()).get(1L));
+    }
+
+    @Test
+    void testReturnProductsInBulk_ShouldReturnSuccessMessage() {
+        // Arrange
+        List<ProductStockReturnRequest> requests = List.of(new ProductStockReturnRequest(1L, 1));
+
+        // Act
+        ResponseEntity<String> response = productController.returnProducts(requests);
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        verify(productService).returnProducts(requests);
+    }
+
+    @Test
+    void testReserveProducts_ShouldReturnCreatedReservation() {
+        // Arrange
+        StockReservationResponse stockReservationResponse = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(productResponse))
+                .build();
+        when(productService.reserveProducts(anyList())).thenReturn(stockReservationResponse);
+
+        // Act
+        ResponseEntity<StockReservationResponse> response = productController.reserveProducts(List.of(new ProductStockReduceRequest(1L, 1)));
+
+        // Assert
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals("reservation", Objects.requireNonNull(response.getBody()).getReservationId());
+    }
+
+    @Test
+    void testReserveStockAdjustments_ShouldReturnCreatedReservation() {
+        // Arrange
+        StockReservationResponse stockReservationResponse = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(productResponse))
+                .build();
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, 2), new ProductStockReduceRequest(2L, -1));
+        when(productService.reserveStockAdjustments(requests)).thenReturn(stockReservationResponse);
+
+        // Act
+        ResponseEntity<StockReservationResponse> response = productController.reserveStockAdjustments(requests);
+
+        // Assert
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals("reservation", Objects.requireNonNull(response.getBody()).getReservationId());
+    }
+
     @Test
     void testGetAllProducts_ShouldReturnProductList() {
         // Arrange
@@ -0,0 +1,118 @@
+package com.bit.productservice.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BarcodeIndexTest {
+
+    @Test
+    void get_shouldReturnProduct_whenBarcodeIsPut() {
+        // Arrange
+        BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+        barcodeIndex.put(8690000000011L, 1L);
+        barcodeIndex.put(8690000000011L, 2L);
+
+        // Act & Assert
+        assertEquals(2L, barcodeIndex.get(8690000000011L));
+        assertEquals(1, barcodeIndex.size());
+        assertEquals(BarcodeIndex.NO_PRODUCT, barcodeIndex.get(8690000000028L));
+        assertEquals(BarcodeIndex.NO_PRODUCT, barcodeIndex.get(0L));
+    }
+
+    @Test
+    void put_shouldThrowIllegalArgumentException_whenBarcodeIsZero() {
+        // Arrange
+        BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> barcodeIndex.put(0L, 1L));
+    }
+
+    @Test
+    void put_shouldKeepAllBarcodes_whenIndexGrows() {
+        // Arrange
+        BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+
+        // Act
+        for (long i = 1; i <= 10000; i++) {
+            barcodeIndex.put(8690000000000L + i, i);
+        }
+
+        // Assert
+        assertEquals(10000, barcodeIndex.size());
+        for (long i = 1; i <= 10000; i++) {
+            assertEquals(i, barcodeIndex.get(8690000000000L + i));
+        }
+    }
+
+    @Test
+    void remove_shouldKeepOtherBarcodesReachable_whenEntriesAreShiftedBack() {
+        // Arrange
+        BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+        for (long i = 1; i <= 1000; i++) {
+            barcodeIndex.put(i, i);
+        }
+
+        // Act
+        for (long i = 1; i <= 1000; i += 2) {
+            assertTrue(barcodeIndex.remove(i, i));
+        }
+
+        // Assert
+        assertEquals(500, barcodeIndex.size());
+        for (long i = 1; i <= 1000; i++) {
+            assertEquals(i % 2 == 0 ? i : BarcodeIndex.NO_PRODUCT, barcodeIndex.get(i));
+        }
+    }
+
+    @Test
+    void remove_shouldNotRemoveBarcode_whenItBelongsToAnotherProduct() {
+        // Arrange
+        BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+        barcodeIndex.put(8690000000011L, 2L);
+
+        // Act
+        boolean removed = barcodeIndex.remove(8690000000011L, 1L);
+
+        // Assert
+        assertFalse(removed);
+        assertEquals(2L, barcodeIndex.get(8690000000011L));
+    }
+
+    @Test
+    void removeProduct_shouldRemoveAllBarcodesOfProduct() {
+        // Arrange
+        BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+        for (long i = 1; i <= 100; i++) {
+            barcodeIndex.put(i, i % 10);
+        }
+
+        // Act
+        boolean removed = barcodeIndex.removeProduct(3L);
+
+        // Assert
+        assertTrue(removed);
+        assertEquals(90, barcodeIndex.size());
+        for (long i = 1; i <= 100; i++) {
+            assertEquals(i % 10 == 3 ? BarcodeIndex.NO_PRODUCT : i % 10, barcodeIndex.get(i));
+        }
+        assertFalse(barcodeIndex.removeProduct(3L));
+    }
+
+    @Test
+    void replaceAll_shouldReplaceContents_andKeepLastProductOfDuplicateBarcode() {
+        // Arrange
+        BarcodeIndex barcodeIndex = new BarcodeIndex(0);
+        barcodeIndex.put(8690000000011L, 1L);
+
+        // Act
+        barcodeIndex.replaceAll(new long[]{8690000000028L, 8690000000035L, 8690000000028L}, new long[]{2L, 3L, 4L});
+
+        // Assert
+        assertEquals(2, barcodeIndex.size());
+        assertEquals(BarcodeIndex.NO_PRODUCT, barcodeIndex.get(8690000000011L));
+        assertEquals(4L, barcodeIndex.get(8690000000028L));
+        assertEquals(3L, barcodeIndex.get(8690000000035L));
+    }
+}
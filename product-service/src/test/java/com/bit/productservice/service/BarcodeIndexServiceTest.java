@@ -0,0 +1,69 @@
+package com.bit.productservice.service;
+
+import com.bit.productservice.exception.InvalidBarcodeException;
+import com.bit.productservice.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BarcodeIndexServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private BarcodeIndexService barcodeIndexService;
+
+    @Test
+    void rebuildIndex_shouldIndexValidBarcodes_andSkipInvalidOnes() {
+        // Arrange
+        when(productRepository.findAllBarcodeNumbers()).thenReturn(List.of(
+                new Object[]{1L, "8690000000011"},
+                new Object[]{2L, "not-a-barcode"},
+                new Object[]{3L, "0000000000000"},
+                new Object[]{4L, "8690000000011"}));
+
+        // Act
+        barcodeIndexService.rebuildIndex();
+
+        // Assert
+        assertEquals(4L, barcodeIndexService.getProductId("8690000000011"));
+        assertNull(barcodeIndexService.getProductId("0000000000000"));
+    }
+
+    @Test
+    void normalizeBarcode_shouldPadShorterBarcodesWithZeros() {
+        // Act & Assert
+        assertEquals("0123456789012", barcodeIndexService.normalizeBarcode("123456789012"));
+        assertEquals("8690000000011", barcodeIndexService.normalizeBarcode("8690000000011"));
+    }
+
+    @Test
+    void normalizeBarcode_shouldThrowInvalidBarcodeException_whenBarcodeIsNotNumeric() {
+        // Act & Assert
+        assertThrows(InvalidBarcodeException.class, () -> barcodeIndexService.normalizeBarcode("86900000000AB"));
+        assertThrows(InvalidBarcodeException.class, () -> barcodeIndexService.normalizeBarcode("86900000000111"));
+        assertThrows(InvalidBarcodeException.class, () -> barcodeIndexService.normalizeBarcode(""));
+    }
+
+    @Test
+    void indexProduct_shouldMoveBarcode_andRemoveProduct() {
+        // Act
+        barcodeIndexService.indexProduct("8690000000011", 1L);
+        barcodeIndexService.removeBarcode("8690000000011", 2L);
+        Long kept = barcodeIndexService.getProductId("8690000000011");
+        barcodeIndexService.removeProduct(1L);
+
+        // Assert
+        assertEquals(1L, kept);
+        assertNull(barcodeIndexService.getProductId("8690000000011"));
+    }
+}
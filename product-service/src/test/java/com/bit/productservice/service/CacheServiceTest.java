@@ -5,20 +5,35 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CacheServiceTest {
 
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
     @InjectMocks
     private CacheService cacheService;
 
     @BeforeEach
     void setUp() {
-        cacheService = new CacheService();
+        cacheService = new CacheService(redisTemplate);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
     }
 
     @Test
@@ -48,4 +63,44 @@ class CacheServiceTest {
         assertNotNull(cachedProductResponse);
         assertEquals(productResponse.getId(), cachedProductResponse.getId());
     }
+
+    @Test
+    void getProductCaches_shouldReturnOnlyCachedProducts() {
+        // Given
+        ProductResponse productResponse = new ProductResponse();
+        productResponse.setId(1L);
+        when(valueOperations.multiGet(List.of("product_id::1", "product_id::2"))).thenReturn(Arrays.asList(productResponse, null));
+
+        // When
+        Map<Long, ProductResponse> cachedProducts = cacheService.getProductCaches(List.of(1L, 2L));
+
+        // Then
+        assertEquals(1, cachedProducts.size());
+        assertEquals(productResponse, cachedProducts.get(1L));
+        assertFalse(cachedProducts.containsKey(2L));
+    }
+
+    @Test
+    void createProductCaches_shouldWriteAllProductsWithOneMultiSet() {
+        // Given
+        ProductResponse first = new ProductResponse();
+        first.setId(1L);
+        ProductResponse second = new ProductResponse();
+        second.setId(2L);
+
+        // When
+        cacheService.createProductCaches(List.of(first, second));
+
+        // Then
+        verify(valueOperations, times(1)).multiSet(Map.of("product_id::1", first, "product_id::2", second));
+    }
+
+    @Test
+    void createProductCaches_shouldDoNothing_whenListIsEmpty() {
+        // When
+        cacheService.createProductCaches(List.of());
+
+        // Then
+        verify(valueOperations, never()).multiSet(anyMap());
+    }
 }
@@ -2,29 +2,53 @@ package com.bit.productservice.service;
 
 import com.bit.productservice.dto.ProductRequest;
 import com.bit.productservice.dto.ProductResponse;
+import com.bit.productservice.dto.StockReservationResponse;
 import com.bit.productservice.entity.Product;
+import com.bit.productservice.entity.StockReservation;
 import com.bit.productservice.exception.AlgorithmNotFoundException;
+import com.bit.productservice.exception.InvalidStockQuantityException;
 import com.bit.productservice.exception.ProductNotFoundException;
 import com.bit.productservice.exception.ProductNotSoftDeletedException;
+import com.bit.productservice.exception.ProductOutOfStockException;
+import com.bit.productservice.exception.ReservationNotFoundException;
+import com.bit.productservice.repository.ProcessedMessageRepository;
 import com.bit.productservice.repository.ProductRepository;
+import com.bit.productservice.repository.StockReservationRepository;
+import com.bit.productservice.wrapper.ProductEvent;
+import com.bit.productservice.wrapper.ProductStockReduceBatch;
 import com.bit.productservice.wrapper.ProductStockReduceRequest;
 import com.bit.productservice.wrapper.ProductStockReturnRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -40,6 +64,18 @@ class ProductServiceImplTest {
     @Mock
     private BarcodeService barcodeService;
 
+    @Mock
+    private BarcodeIndexService barcodeIndexService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private ProcessedMessageRepository processedMessageRepository;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -67,6 +103,127 @@ class ProductServiceImplTest {
         assertThrows(ProductNotFoundException.class, () -> productService.getProduct(1L));
     }
 
+    @Test
+    void getProducts_shouldReadCacheAndLoadMissingProductsFromDatabase() {
+        // Arrange
+        ProductResponse cachedProduct = new ProductResponse();
+        cachedProduct.setId(1L);
+        Product product = new Product();
+        product.setId(2L);
+
+        when(cacheService.getProductCaches(List.of(1L, 2L))).thenReturn(Map.of(1L, cachedProduct));
+        when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(product));
+
+        // Act
+        List<ProductResponse> responses = productService.getProducts(List.of(1L, 2L, 1L));
+
+        // Assert
+        assertEquals(2, responses.size());
+        assertEquals(1L, responses.get(0).getId());
+        assertEquals(2L, responses.get(1).getId());
+        verify(cacheService, times(1)).createProductCaches(any());
+    }
+
+    @Test
+    void getProducts_shouldNotQueryDatabase_whenAllProductsAreCached() {
+        // Arrange
+        ProductResponse cachedProduct = new ProductResponse();
+        cachedProduct.setId(1L);
+        when(cacheService.getProductCaches(List.of(1L))).thenReturn(Map.of(1L, cachedProduct));
+
+        // Act
+        List<ProductResponse> responses = productService.getProducts(List.of(1L));
+
+        // Assert
+        assertEquals(1, responses.size());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getProducts_shouldThrowProductNotFoundException_whenAnyProductDoesNotExist() {
+        // Arrange
+        when(cacheService.getProductCaches(List.of(1L))).thenReturn(Map.of());
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of());
+
+        // Act & Assert
+        List<Long> ids = List.of(1L);
+        assertThrows(ProductNotFoundException.class, () -> productService.getProducts(ids));
+    }
+
+    @Test
+    void getProductByBarcode_shouldServeIndexedProductFromCache() {
+        // Arrange
+        ProductResponse cachedProduct = ProductResponse.builder().id(1L).barcodeNumber("0123456789012").build();
+        when(barcodeIndexService.normalizeBarcode("123456789012")).thenReturn("0123456789012");
+        when(barcodeIndexService.getProductId("0123456789012")).thenReturn(1L);
+        when(cacheService.getProductCaches(List.of(1L))).thenReturn(Map.of(1L, cachedProduct));
+
+        // Act
+        ProductResponse response = productService.getProductByBarcode("123456789012");
+
+        // Assert
+        assertSame(cachedProduct, response);
+        verify(productRepository, never()).findFirstByBarcodeNumberOrderByIdDesc(any());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getProductByBarcode_shouldFallBackToDatabaseAndIndexProduct_whenIndexEntryIsStale() {
+        // Arrange
+        ProductResponse renamedProduct = ProductResponse.builder().id(1L).barcodeNumber("9999999999999").build();
+        Product product = Product.builder().id(2L).barcodeNumber("1234567890123").build();
+        when(barcodeIndexService.normalizeBarcode("1234567890123")).thenReturn("1234567890123");
+        when(barcodeIndexService.getProductId("1234567890123")).thenReturn(1L);
+        when(cacheService.getProductCaches(List.of(1L))).thenReturn(Map.of(1L, renamedProduct));
+        when(productRepository.findFirstByBarcodeNumberOrderByIdDesc("1234567890123")).thenReturn(Optional.of(product));
+
+        // Act
+        ProductResponse response = productService.getProductByBarcode("1234567890123");
+
+        // Assert
+        assertEquals(2L, response.getId());
+        verify(barcodeIndexService).removeBarcode("1234567890123", 1L);
+        verify(barcodeIndexService).indexProduct("1234567890123", 2L);
+        verify(cacheService).createProductCache(response);
+    }
+
+    @Test
+    void getProductByBarcode_shouldThrowProductNotFoundException_whenNoProductHasBarcode() {
+        // Arrange
+        when(barcodeIndexService.normalizeBarcode("1234567890123")).thenReturn("1234567890123");
+        when(productRepository.findFirstByBarcodeNumberOrderByIdDesc("1234567890123")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductByBarcode("1234567890123"));
+        verify(barcodeIndexService, never()).indexProduct(any(), any());
+    }
+
+    @Test
+    void getProductStocks_shouldReturnStocksFromDatabase() {
+        // Arrange
+        Product product = new Product();
+        product.setId(1L);
+        product.setStockQuantity(7);
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+
+        // Act
+        Map<Long, Integer> stocks = productService.getProductStocks(List.of(1L));
+
+        // Assert
+        assertEquals(7, stocks.get(1L));
+        verify(cacheService, never()).getProductCaches(any());
+    }
+
+    @Test
+    void getProductStocks_shouldThrowProductNotFoundException_whenAnyProductDoesNotExist() {
+        // Arrange
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of());
+
+        // Act & Assert
+        List<Long> ids = List.of(1L);
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductStocks(ids));
+    }
+
     @Test
     void getAllProducts_shouldReturnListOfProductResponses() {
         // Arrange
@@ -130,6 +287,7 @@ class ProductServiceImplTest {
         // Assert
         assertNotNull(response);
         assertEquals("Test Product", response.getName());
+        verify(barcodeIndexService).indexProduct("1234567890123", null);
     }
 
     @Test
@@ -154,6 +312,59 @@ class ProductServiceImplTest {
         assertEquals("Updated Product", response.getName());
     }
 
+    @Test
+    void updateProduct_shouldMoveBarcodeInIndex_whenBarcodeChanges() throws AlgorithmNotFoundException {
+        // Arrange
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName("Updated Product");
+        Product existingProduct = Product.builder().id(1L).name("Product").barcodeNumber("1111111111111").build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(barcodeService.generateBarcodeNumber("Updated Product")).thenReturn("2222222222222");
+
+        // Act
+        productService.updateProduct(1L, productRequest);
+
+        // Assert
+        verify(barcodeIndexService).removeBarcode("1111111111111", 1L);
+        verify(barcodeIndexService).indexProduct("2222222222222", 1L);
+    }
+
+    @Test
+    void updateProduct_shouldPublishProductEvent_whenPriceChanges() throws AlgorithmNotFoundException {
+        // Arrange
+        ProductRequest productRequest = new ProductRequest("Product", null, 10, new BigDecimal("12.00"));
+        Product existingProduct = Product.builder().id(1L).name("Product").barcodeNumber("1111111111111")
+                .stockQuantity(10).price(new BigDecimal("10.00")).build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(barcodeService.generateBarcodeNumber("Product")).thenReturn("1111111111111");
+
+        // Act
+        productService.updateProduct(1L, productRequest);
+
+        // Assert
+        verify(rabbitTemplate).convertAndSend(any(), eq(""), eq(new ProductEvent(1L, ProductEvent.Type.CHANGED)));
+    }
+
+    @Test
+    void updateProduct_shouldNotPublishProductEvent_whenOnlyStockChanges() throws AlgorithmNotFoundException {
+        // Arrange
+        ProductRequest productRequest = new ProductRequest("Product", null, 20, new BigDecimal("10.00"));
+        Product existingProduct = Product.builder().id(1L).name("Product").barcodeNumber("1111111111111")
+                .stockQuantity(10).price(new BigDecimal("10.00")).build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(barcodeService.generateBarcodeNumber("Product")).thenReturn("1111111111111");
+
+        // Act
+        productService.updateProduct(1L, productRequest);
+
+        // Assert
+        assertEquals(20, existingProduct.getStockQuantity());
+        verify(rabbitTemplate, never()).convertAndSend(any(), eq(""), any(ProductEvent.class));
+    }
+
     @Test
     void updateProduct_shouldThrowProductNotFoundException_whenProductDoesNotExist() {
         // Arrange
@@ -202,6 +413,8 @@ class ProductServiceImplTest {
 
         // Assert
         verify(productRepository, times(1)).deleteById(anyLong());
+        verify(barcodeIndexService).removeProduct(1L);
+        verify(rabbitTemplate, times(1)).convertAndSend(any(), eq(""), eq(new ProductEvent(1L, ProductEvent.Type.DELETED)));
     }
 
     @Test
@@ -214,22 +427,130 @@ class ProductServiceImplTest {
     }
 
     @Test
-    void reduceProductStock_shouldReduceStock_whenProductExists() {
+    void reduceProductStocks_shouldMergeLinesAcrossMessagesIntoSingleUpdate() {
         // Arrange
-        Product product = new Product();
-        product.setId(1L);
-        product.setStockQuantity(10);
-        ProductStockReduceRequest request = new ProductStockReduceRequest(1L, 5);
+        Product product1 = new Product();
+        product1.setId(1L);
+        product1.setStockQuantity(5);
+        Product product2 = new Product();
+        product2.setId(2L);
+        product2.setStockQuantity(8);
+        List<ProductStockReduceBatch> batches = List.of(
+                new ProductStockReduceBatch(List.of(new ProductStockReduceRequest(2L, 2), new ProductStockReduceRequest(1L, 3))),
+                new ProductStockReduceBatch(List.of(new ProductStockReduceRequest(1L, 2))));
+
+        when(processedMessageRepository.insertIfAbsent(anyString(), any())).thenReturn(1);
+        when(productRepository.adjustStocks(any(), any())).thenReturn(2);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product1, product2));
 
-        when(productRepository.findById(anyLong())).thenReturn(Optional.of(product));
-        when(cacheService.updateProductCache(any())).thenReturn(null);
+        // Act
+        productService.reduceProductStocks(toMessages(batches));
+
+        // Assert
+        verify(productRepository, times(1)).adjustStocks(new Long[]{1L, 2L}, new Integer[]{-5, -2});
+        verify(cacheService, times(1)).createProductCaches(any());
+        verify(rabbitTemplate, never()).convertAndSend(any(), eq(""), any(ProductEvent.class));
+    }
+
+    @Test
+    void reduceProductStocks_shouldCacheProductsOnlyAfterCommit() {
+        // Arrange
+        Product product = Product.builder().id(1L).stockQuantity(5).build();
+        List<ProductStockReduceBatch> batches = List.of(new ProductStockReduceBatch(List.of(new ProductStockReduceRequest(1L, 5))));
+
+        when(processedMessageRepository.insertIfAbsent(anyString(), any())).thenReturn(1);
+        when(productRepository.adjustStocks(any(), any())).thenReturn(1);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            productService.reduceProductStocks(toMessages(batches));
+
+            // Assert
+            verify(cacheService, never()).createProductCaches(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(cacheService, times(1)).createProductCaches(any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void updateProduct_shouldNotFail_whenProductEventCannotBePublished() throws AlgorithmNotFoundException {
+        // Arrange
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName("Updated Product");
+        Product existingProduct = Product.builder().id(1L).name("Product").build();
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        doThrow(new AmqpException("Broker unavailable")).when(rabbitTemplate).convertAndSend(any(), eq(""), any(ProductEvent.class));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> productService.updateProduct(1L, productRequest));
+    }
+
+    @Test
+    void reduceProductStocks_shouldNotUpdate_whenMessagesAreEmpty() {
+        // Arrange
+        List<ProductStockReduceBatch> batches = List.of(new ProductStockReduceBatch(List.of()));
+        when(processedMessageRepository.insertIfAbsent(anyString(), any())).thenReturn(1);
 
         // Act
-        productService.reduceProductStock(request);
+        productService.reduceProductStocks(toMessages(batches));
 
         // Assert
-        assertEquals(5, product.getStockQuantity());
-        verify(productRepository, times(1)).save(product);
+        verify(productRepository, never()).adjustStocks(any(), any());
+    }
+
+    @Test
+    void reduceProductStocks_shouldSkipMessages_whenAlreadyProcessed() {
+        // Arrange
+        Product product = Product.builder().id(1L).stockQuantity(5).build();
+        List<Message<ProductStockReduceBatch>> messages = List.of(
+                MessageBuilder.withPayload(new ProductStockReduceBatch(List.of(new ProductStockReduceRequest(1L, 2))))
+                        .setHeader(AmqpHeaders.MESSAGE_ID, "new").build(),
+                MessageBuilder.withPayload(new ProductStockReduceBatch(List.of(new ProductStockReduceRequest(1L, 3))))
+                        .setHeader(AmqpHeaders.MESSAGE_ID, "redelivered").build());
+
+        when(processedMessageRepository.insertIfAbsent(eq("new"), any())).thenReturn(1);
+        when(processedMessageRepository.insertIfAbsent(eq("redelivered"), any())).thenReturn(0);
+        when(productRepository.adjustStocks(any(), any())).thenReturn(1);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // Act
+        productService.reduceProductStocks(messages);
+
+        // Assert
+        verify(productRepository, times(1)).adjustStocks(new Long[]{1L}, new Integer[]{-2});
+    }
+
+    @Test
+    void reduceProductStocks_shouldNotUpdate_whenAllMessagesAreAlreadyProcessed() {
+        // Arrange
+        List<ProductStockReduceBatch> batches = List.of(new ProductStockReduceBatch(List.of(new ProductStockReduceRequest(1L, 2))));
+        when(processedMessageRepository.insertIfAbsent(anyString(), any())).thenReturn(0);
+
+        // Act
+        productService.reduceProductStocks(toMessages(batches));
+
+        // Assert
+        verify(productRepository, never()).adjustStocks(any(), any());
+    }
+
+    @Test
+    void deleteExpiredProcessedMessages_shouldDeleteRecordsOlderThanRetention() {
+        // Arrange
+        ReflectionTestUtils.setField(productService, "PROCESSED_MESSAGE_RETENTION", Duration.ofDays(7));
+        long before = System.currentTimeMillis() - Duration.ofDays(7).toMillis();
+
+        // Act
+        productService.deleteExpiredProcessedMessages();
+
+        // Assert
+        ArgumentCaptor<Date> captor = ArgumentCaptor.forClass(Date.class);
+        verify(processedMessageRepository).deleteAllProcessedBefore(captor.capture());
+        assertTrue(captor.getValue().getTime() >= before);
     }
 
     @Test
@@ -250,6 +571,214 @@ class ProductServiceImplTest {
         // Assert
         assertEquals(15, product.getStockQuantity());
         verify(productRepository, times(1)).save(product);
+        verify(rabbitTemplate, never()).convertAndSend(any(), eq(""), any(ProductEvent.class));
+    }
+
+    @Test
+    void reserveProducts_shouldReserveMergedLinesAndRecordReservation() {
+        // Arrange
+        ReflectionTestUtils.setField(productService, "RESERVATION_TTL", Duration.ofMinutes(10));
+        Product product = new Product();
+        product.setId(1L);
+        product.setStockQuantity(5);
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, 2), new ProductStockReduceRequest(1L, 3));
+
+        when(productRepository.reserveStock(1L, 5)).thenReturn(1);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // Act
+        StockReservationResponse response = productService.reserveProducts(requests);
+
+        // Assert
+        assertNotNull(response.getReservationId());
+        assertNotNull(response.getExpiresAt());
+        assertEquals(1, response.getProducts().size());
+        verify(stockReservationRepository, times(1)).saveAll(any());
+        verify(cacheService, times(1)).createProductCaches(any());
+    }
+
+    @Test
+    void reserveProducts_shouldThrowProductOutOfStockException_whenNotEnoughStock() {
+        // Arrange
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, 5));
+        when(productRepository.reserveStock(1L, 5)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ProductOutOfStockException.class, () -> productService.reserveProducts(requests));
+        verify(stockReservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reserveProducts_shouldThrowProductNotFoundException_whenProductDoesNotExist() {
+        // Arrange
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, 5));
+        when(productRepository.reserveStock(1L, 5)).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> productService.reserveProducts(requests));
+    }
+
+    @Test
+    void reserveProducts_shouldThrowInvalidStockQuantityException_whenQuantityIsNegative() {
+        // Arrange
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, -5));
+
+        // Act & Assert
+        assertThrows(InvalidStockQuantityException.class, () -> productService.reserveProducts(requests));
+        verify(stockReservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserveStockAdjustments_shouldReserveIncreasesAndRecordReturnsWithoutApplyingThem() {
+        // Arrange
+        ReflectionTestUtils.setField(productService, "RESERVATION_TTL", Duration.ofMinutes(10));
+        List<ProductStockReduceRequest> requests = List.of(
+                new ProductStockReduceRequest(1L, 2),
+                new ProductStockReduceRequest(2L, -3),
+                new ProductStockReduceRequest(3L, 1),
+                new ProductStockReduceRequest(3L, -1));
+
+        when(productRepository.reserveStock(1L, 2)).thenReturn(1);
+        when(productRepository.existsById(2L)).thenReturn(true);
+        when(productRepository.findAllById(any())).thenReturn(List.of());
+
+        // Act
+        productService.reserveStockAdjustments(requests);
+
+        // Assert
+        ArgumentCaptor<List<StockReservation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(stockReservationRepository).saveAll(captor.capture());
+        assertEquals(List.of(1L, 2L), captor.getValue().stream().map(StockReservation::getProductId).toList());
+        assertEquals(List.of(2, -3), captor.getValue().stream().map(StockReservation::getQuantity).toList());
+        verify(productRepository, times(1)).reserveStock(anyLong(), anyInt());
+        verify(productRepository, never()).adjustStocks(any(), any());
+    }
+
+    @Test
+    void reserveStockAdjustments_shouldThrowInvalidStockQuantityException_whenNothingChanges() {
+        // Arrange
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, 2), new ProductStockReduceRequest(1L, -2));
+
+        // Act & Assert
+        assertThrows(InvalidStockQuantityException.class, () -> productService.reserveStockAdjustments(requests));
+        verify(stockReservationRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void commitReservation_shouldReturnGivenBackQuantities() {
+        // Arrange
+        StockReservation reserved = StockReservation.builder().reservationId("reservation").productId(1L).quantity(2).build();
+        StockReservation givenBack = StockReservation.builder().reservationId("reservation").productId(2L).quantity(-3).build();
+        when(stockReservationRepository.findAllByReservationId("reservation")).thenReturn(List.of(reserved, givenBack));
+        when(stockReservationRepository.deleteAllByReservationId("reservation")).thenReturn(2);
+
+        // Act
+        productService.commitReservation("reservation");
+
+        // Assert
+        verify(productRepository, times(1)).adjustStocks(new Long[]{2L}, new Integer[]{3});
+    }
+
+    @Test
+    void releaseReservation_shouldDropGivenBackQuantities() {
+        // Arrange
+        StockReservation reserved = StockReservation.builder().reservationId("reservation").productId(1L).quantity(2).build();
+        StockReservation givenBack = StockReservation.builder().reservationId("reservation").productId(2L).quantity(-3).build();
+        when(stockReservationRepository.findAllByReservationId("reservation")).thenReturn(List.of(reserved, givenBack));
+        when(stockReservationRepository.deleteAllByReservationId("reservation")).thenReturn(2);
+
+        // Act
+        productService.releaseReservation("reservation");
+
+        // Assert
+        verify(productRepository, times(1)).releaseStock(1L, 2);
+        verify(productRepository, never()).releaseStock(2L, -3);
+        verify(productRepository, never()).adjustStocks(any(), any());
+    }
+
+    @Test
+    void commitReservation_shouldThrowReservationNotFoundException_whenReservationDoesNotExist() {
+        // Arrange
+        when(stockReservationRepository.deleteAllByReservationId("reservation")).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ReservationNotFoundException.class, () -> productService.commitReservation("reservation"));
+    }
+
+    @Test
+    void releaseReservation_shouldReturnReservedStock() {
+        // Arrange
+        StockReservation reservation = StockReservation.builder().reservationId("reservation").productId(1L).quantity(5).build();
+        when(stockReservationRepository.findAllByReservationId("reservation")).thenReturn(List.of(reservation));
+        when(stockReservationRepository.deleteAllByReservationId("reservation")).thenReturn(1);
+
+        // Act
+        productService.releaseReservation("reservation");
+
+        // Assert
+        verify(productRepository, times(1)).releaseStock(1L, 5);
+    }
+
+    @Test
+    void releaseExpiredReservations_shouldSkipReservationsClaimedByOthers() {
+        // Arrange
+        StockReservation reservation = StockReservation.builder().reservationId("reservation").productId(1L).quantity(5).build();
+        when(stockReservationRepository.findExpiredReservationIds(any())).thenReturn(List.of("reservation"));
+        when(stockReservationRepository.findAllByReservationId("reservation")).thenReturn(List.of(reservation));
+        when(stockReservationRepository.deleteAllByReservationId("reservation")).thenReturn(0);
+
+        // Act
+        productService.releaseExpiredReservations();
+
+        // Assert
+        verify(productRepository, never()).releaseStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void returnProducts_shouldReturnMergedLinesWithSingleUpdate() {
+        // Arrange
+        Product product = new Product();
+        product.setId(1L);
+        product.setStockQuantity(15);
+        List<ProductStockReturnRequest> requests = List.of(new ProductStockReturnRequest(1L, 2), new ProductStockReturnRequest(1L, 3));
+
+        when(productRepository.adjustStocks(any(), any())).thenReturn(1);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // Act
+        productService.returnProducts(requests);
+
+        // Assert
+        verify(productRepository, times(1)).adjustStocks(new Long[]{1L}, new Integer[]{5});
+        verify(cacheService, times(1)).createProductCaches(any());
+    }
+
+    @Test
+    void returnProducts_shouldThrowProductNotFoundException_whenAnyProductDoesNotExist() {
+        // Arrange
+        Product product = new Product();
+        product.setId(1L);
+        List<ProductStockReturnRequest> requests = List.of(new ProductStockReturnRequest(1L, 2), new ProductStockReturnRequest(2L, 3));
+
+        when(productRepository.adjustStocks(any(), any())).thenReturn(1);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        // Act & Assert
+        ProductNotFoundException exception = assertThrows(ProductNotFoundException.class, () -> productService.returnProducts(requests));
+        assertEquals("Products not found with ids: [2]", exception.getMessage());
+    }
+
+    @Test
+    void returnProducts_shouldThrowInvalidStockQuantityException_whenQuantityIsNotPositive() {
+        // Arrange
+        List<ProductStockReturnRequest> requests = List.of(new ProductStockReturnRequest(1L, 0));
+
+        // Act & Assert
+        assertThrows(InvalidStockQuantityException.class, () -> productService.returnProducts(requests));
+        verify(productRepository, never()).adjustStocks(any(), any());
     }
 
     @Test
@@ -274,4 +803,10 @@ class ProductServiceImplTest {
         // Act & Assert
         assertThrows(ProductNotFoundException.class, () -> productService.deleteProductPermanently(productId));
     }
+
+    private List<Message<ProductStockReduceBatch>> toMessages(List<ProductStockReduceBatch> batches) {
+        return batches.stream()
+                .map(batch -> MessageBuilder.withPayload(batch).setHeader(AmqpHeaders.MESSAGE_ID, UUID.randomUUID().toString()).build())
+                .toList();
+    }
 }
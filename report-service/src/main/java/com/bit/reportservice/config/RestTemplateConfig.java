@@ -1,31 +1,110 @@
 package com.bit.reportservice.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.converter.HttpMessageConverter;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Configuration class for RestTemplate.
- * This class provides a RestTemplate bean with custom message converters.
+ * This class provides a RestTemplate bean with custom message converters, sending its requests over a pool of
+ * keep-alive connections. When the internal client is enabled, the RestTemplate is load balanced and resolves
+ * the service IDs in its URLs through Eureka.
  *
  * @author Emirhan Tuygun
  */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${internal-client.max-connections}")
+    private int MAX_CONNECTIONS;
+
+    @Value("${internal-client.max-connections-per-route}")
+    private int MAX_CONNECTIONS_PER_ROUTE;
+
+    @Value("${internal-client.connect-timeout}")
+    private Duration CONNECT_TIMEOUT;
+
+    @Value("${internal-client.response-timeout}")
+    private Duration RESPONSE_TIMEOUT;
+
+    @Value("${internal-client.keep-alive}")
+    private Duration KEEP_ALIVE;
+
+    /**
+     * Creates the pooled HTTP client the RestTemplate sends its requests with.
+     * Idle connections are kept alive for the configured duration and evicted after it.
+     *
+     * @return the pooled HTTP client
+     */
+    @Bean
+    public CloseableHttpClient httpClient() {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(CONNECT_TIMEOUT))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(RESPONSE_TIMEOUT))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(KEEP_ALIVE))
+                .evictIdleConnections(TimeValue.of(KEEP_ALIVE))
+                .build();
+    }
+
     /**
-     * Creates a RestTemplate bean with custom message converters.
+     * Creates a RestTemplate bean with custom message converters for the calls made via the gateway.
      *
+     * @param httpClient the pooled HTTP client
      * @return the configured RestTemplate bean
      */
     @Bean
-    public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate();
+    @ConditionalOnProperty(name = "internal-client.enabled", havingValue = "false", matchIfMissing = true)
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return createRestTemplate(httpClient);
+    }
+
+    /**
+     * Creates a load balanced RestTemplate bean with custom message converters for the calls made directly
+     * to the sale-service. The service ID in the URLs is resolved to one of the registered instances.
+     *
+     * @param httpClient the pooled HTTP client
+     * @return the configured load balanced RestTemplate bean
+     */
+    @Bean
+    @LoadBalanced
+    @ConditionalOnProperty(name = "internal-client.enabled", havingValue = "true")
+    public RestTemplate loadBalancedRestTemplate(CloseableHttpClient httpClient) {
+        return createRestTemplate(httpClient);
+    }
+
+    /**
+     * Creates a RestTemplate sending its requests with the given HTTP client.
+     *
+     * @param httpClient the pooled HTTP client
+     * @return the configured RestTemplate
+     */
+    private RestTemplate createRestTemplate(CloseableHttpClient httpClient) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
         restTemplate.setMessageConverters(getMessageConverters());
         return restTemplate;
     }
@@ -0,0 +1,29 @@
+package com.bit.reportservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class represents a daily sales rollup response object.
+ * It contains the sales of a business day aggregated by a product name, cashier or payment method.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollupResponse {
+
+    private LocalDate businessDay;
+    private String dimension;
+    private String dimensionKey;
+    private long saleCount;
+    private long quantity;
+    private BigDecimal total;
+}
@@ -1,6 +1,7 @@
 package com.bit.reportservice.service;
 
 import com.bit.reportservice.annotation.ExcludeFromGeneratedCoverage;
+import com.bit.reportservice.dto.DailySalesRollupResponse;
 import com.bit.reportservice.dto.SaleResponse;
 import com.bit.reportservice.exception.HeaderProcessingException;
 import com.bit.reportservice.exception.SaleServiceException;
@@ -29,7 +30,9 @@ import java.util.List;
 /**
  * This class is responsible for making HTTP requests to the sale-service using the Spring RestTemplate.
  * It handles various operations related to sales, such as fetching a single sale, all sales, deleted sales,
- * and sales filtered and sorted.
+ * sales filtered and sorted, and the daily sales rollups.
+ * The requests are sent via the gateway, or, when the internal client is enabled, directly to an instance of the
+ * sale-service resolved through Eureka, authenticated with the internal service token.
  *
  * @author Emirhan Tuygun
  */
@@ -50,12 +53,27 @@ public class GatewayService {
     @Value("${endpoint.sale-service.get-all-sales-filtered-and-sorted}")
     private String GET_ALL_SALES_FILTERED_AND_SORTED_ENDPOINT;
 
+    @Value("${endpoint.sale-service.get-daily-sales-rollups}")
+    private String GET_DAILY_SALES_ROLLUPS_ENDPOINT;
+
     @Value("${gateway.host}")
     private String GATEWAY_HOST;
 
     @Value("${gateway.port}")
     private String GATEWAY_PORT;
 
+    @Value("${internal-client.enabled}")
+    private boolean INTERNAL_CLIENT_ENABLED;
+
+    @Value("${internal-client.service-id}")
+    private String SERVICE_ID;
+
+    @Value("${internal-auth.header}")
+    private String INTERNAL_AUTH_HEADER;
+
+    @Value("${internal-auth.token}")
+    private String INTERNAL_AUTH_TOKEN;
+
     private static final String SENDING_REQUEST_DEBUG_MESSAGE = "Sending GET request to: {}";
     private static final String FETCH_FAILED_ERROR_MESSAGE = "Sale fetch failed in Sale Service!";
     private static final String HTTP_ERROR_MESSAGE = "HTTP error for Sale Service: ";
@@ -64,13 +82,17 @@ public class GatewayService {
     private final RestTemplate restTemplate;
 
     /**
-     * This method initializes the GATEWAY_URL by combining the GATEWAY_HOST and GATEWAY_PORT.
+     * This method initializes the GATEWAY_URL by combining the GATEWAY_HOST and GATEWAY_PORT,
+     * or from the service ID of the sale-service when the internal client is enabled.
      * It is called automatically after the GatewayService object is created.
      */
     @PostConstruct
     protected void initGatewayUrl() {
         log.trace("Entering initGatewayUrl method in GatewayService");
-        GATEWAY_URL = "http://" + GATEWAY_HOST + ":" + GATEWAY_PORT + "/";
+        GATEWAY_URL = INTERNAL_CLIENT_ENABLED
+                ? "http://" + SERVICE_ID + "/"
+                : "http://" + GATEWAY_HOST + ":" + GATEWAY_PORT + "/";
+        log.info("Initialized GATEWAY_URL: {}", GATEWAY_URL);
         log.trace("Exiting initGatewayUrl method in GatewayService");
     }
 
@@ -292,9 +314,66 @@ public class GatewayService {
         }
     }
 
+    /**
+     * This method is responsible for making a GET request to the sale-service to fetch the daily sales rollups
+     * of a dimension between two business days.
+     *
+     * @param dimension The dimension of the rollups: PRODUCT, CASHIER or PAYMENT_METHOD.
+     * @param startDate The first business day in yyyy-MM-dd format.
+     * @param endDate The last business day in yyyy-MM-dd format, inclusive.
+     * @return A list of DailySalesRollupResponse objects representing the fetched rollups.
+     * @throws HeaderProcessingException If there is an issue processing the HTTP headers.
+     * @throws SaleServiceException If there is an error fetching the rollups from the sale-service.
+     */
+    protected List<DailySalesRollupResponse> getDailySalesRollups(String dimension, String startDate, String endDate) throws HeaderProcessingException {
+        log.trace("Entering getDailySalesRollups method in GatewayService");
+
+        try {
+            String getUrl = GATEWAY_URL + GET_DAILY_SALES_ROLLUPS_ENDPOINT;
+            log.debug(SENDING_REQUEST_DEBUG_MESSAGE, getUrl);
+
+            // Getting Http headers
+            HttpHeaders headers = getHttpHeaders();
+            HttpEntity<String> requestEntity = new HttpEntity<>(headers);
+
+            // Building the query parameters using UriComponentsBuilder
+            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(getUrl)
+                    .queryParam("dimension", dimension)
+                    .queryParam("startDate", startDate)
+                    .queryParam("endDate", endDate);
+
+            // Making the request
+            ResponseEntity<List<DailySalesRollupResponse>> responseEntity = restTemplate.exchange(
+                    builder.toUriString(),
+                    HttpMethod.GET,
+                    requestEntity,
+                    new ParameterizedTypeReference<>() {}
+            );
+
+            // Checking the status code
+            if (!(responseEntity.getStatusCode().is2xxSuccessful()) || responseEntity.getBody() == null) {
+                log.error(FETCH_FAILED_ERROR_MESSAGE);
+                throw new SaleServiceException(FETCH_FAILED_ERROR_MESSAGE);
+            }
+            log.debug("Received successful response for getDailySalesRollups: {}", responseEntity.getBody());
+
+            log.trace("Exiting getDailySalesRollups method in GatewayService");
+            return responseEntity.getBody();
+
+        } catch (HttpClientErrorException | HttpServerErrorException e) {
+            log.error(HTTP_ERROR_MESSAGE + e.getStatusCode(), e);
+            throw new SaleServiceException(HTTP_ERROR_MESSAGE + e.getStatusCode());
+
+        } catch (RestClientException e) {
+            log.error(REST_CLIENT_ERROR_MESSAGE + e.getMessage(), e);
+            throw new SaleServiceException(REST_CLIENT_ERROR_MESSAGE + e.getMessage());
+        }
+    }
+
     /**
      * This method retrieves HTTP headers for making requests to the sale-service.
-     * It retrieves the authorization token from the current HTTP request and sets it in the headers.
+     * It retrieves the authorization token from the current HTTP request and sets it in the headers,
+     * or sets the internal service token when the internal client is enabled.
      *
      * @return HttpHeaders object containing the authorization token.
      * @throws HeaderProcessingException If there is an issue processing the HTTP headers.
@@ -307,6 +386,12 @@ public class GatewayService {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
+        // Authenticating the direct requests with the internal service token
+        if (INTERNAL_CLIENT_ENABLED) {
+            headers.set(INTERNAL_AUTH_HEADER, INTERNAL_AUTH_TOKEN);
+            return headers;
+        }
+
         // Extracting the authorization token from the current HTTP request and setting it in the headers.
         try {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
@@ -1,6 +1,6 @@
 package com.bit.reportservice.service;
 
-import com.bit.reportservice.dto.SaleProductResponse;
+import com.bit.reportservice.dto.DailySalesRollupResponse;
 import com.bit.reportservice.dto.SaleResponse;
 import com.bit.reportservice.exception.HeaderProcessingException;
 import com.bit.reportservice.exception.InvalidTimeUnitException;
@@ -88,7 +88,7 @@ public class ReportServiceImpl implements ReportService {
         // Arranging start and end dates
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
         String startDate;
-        String endDate = getDateAfterOrBefore(Calendar.DAY_OF_YEAR, 1, dateFormat);
+        String endDate = getDateAfterOrBefore(Calendar.DAY_OF_YEAR, 0, dateFormat);
 
         startDate = switch (unit.toLowerCase()) {
             case "day" -> getDateAfterOrBefore(Calendar.DAY_OF_YEAR, -1, dateFormat);
@@ -102,19 +102,16 @@ public class ReportServiceImpl implements ReportService {
         };
         log.debug("startDate: {}, endDate: {}", startDate, endDate);
 
-        // Calling getAllSalesFilteredAndSorted method
-        Page<SaleResponse> saleResponsePage = getAllSalesFilteredAndSorted(0, Integer.MAX_VALUE, "id", "ASC",
-                null, null, null, null, startDate, endDate, false);
-
-        List<SaleResponse> saleResponses = saleResponsePage.getContent();
-        log.info("Got saleResponses: {}", saleResponses);
+        // Reading the product rollups instead of every sale of the period, the rollup end date is inclusive
+        List<DailySalesRollupResponse> rollups = gatewayService.getDailySalesRollups("PRODUCT", startDate, endDate);
+        log.info("Got {} product rollups", rollups.size());
 
         // Creating a Map<String, Integer> for the chart data
-        Map<String, Integer> productQuantityMap = saleResponses.stream()
-                .flatMap(saleResponse -> saleResponse.getProducts().stream())
+        Map<String, Integer> productQuantityMap = rollups.stream()
+                .filter(rollup -> rollup.getQuantity() > 0)
                 .collect(Collectors.toMap(
-                        SaleProductResponse::getName,
-                        SaleProductResponse::getQuantity,
+                        DailySalesRollupResponse::getDimensionKey,
+                        rollup -> Math.toIntExact(rollup.getQuantity()),
                         Integer::sum
                 ));
         log.debug("Got productQuantityMap: {}", productQuantityMap);
@@ -1,5 +1,6 @@
 package com.bit.reportservice.service;
 
+import com.bit.reportservice.dto.DailySalesRollupResponse;
 import com.bit.reportservice.dto.SaleResponse;
 import com.bit.reportservice.exception.HeaderProcessingException;
 import com.bit.reportservice.exception.SaleServiceException;
@@ -140,6 +141,38 @@ class GatewayServiceTest {
         assertEquals(saleResponses.size(), result.getContent().size());
     }
 
+    @Test
+    void getDailySalesRollups_Success_ReturnsListOfDailySalesRollupResponse() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(gatewayService, "GATEWAY_URL", "http://some-domain/");
+        ReflectionTestUtils.setField(gatewayService, "GET_DAILY_SALES_ROLLUPS_ENDPOINT", "sales/rollups");
+        List<DailySalesRollupResponse> rollups = List.of(new DailySalesRollupResponse(), new DailySalesRollupResponse());
+        when(restTemplate.exchange(
+                eq("http://some-domain/sales/rollups?dimension=PRODUCT&startDate=2022-01-01&endDate=2022-12-31"),
+                eq(HttpMethod.GET), any(HttpEntity.class),
+                eq(new ParameterizedTypeReference<List<DailySalesRollupResponse>>() {})))
+                .thenReturn(new ResponseEntity<>(rollups, HttpStatus.OK));
+
+        // Act
+        List<DailySalesRollupResponse> result = gatewayService.getDailySalesRollups("PRODUCT", "2022-01-01", "2022-12-31");
+
+        // Assert
+        assertEquals(rollups, result);
+    }
+
+    @Test
+    void getDailySalesRollups_HttpServerErrorException_ThrowsSaleServiceException() {
+        // Arrange
+        ReflectionTestUtils.setField(gatewayService, "GATEWAY_URL", "http://some-domain/");
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                any(ParameterizedTypeReference.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+
+        // Act & Assert
+        assertThrows(SaleServiceException.class, () ->
+                gatewayService.getDailySalesRollups("PRODUCT", "2022-01-01", "2022-12-31"));
+    }
+
 
     @Test
     void testGetSale_HttpClientErrorException_ThrowsSaleServiceException() {
@@ -255,4 +288,33 @@ class GatewayServiceTest {
         // Assert
         assertEquals("http://localhost:8080/", ReflectionTestUtils.getField(gatewayService, "GATEWAY_URL"));
     }
+
+    @Test
+    void testInitGatewayUrl_InternalClientEnabled_GatewayUrlPointsToService() {
+        // Arrange
+        ReflectionTestUtils.setField(gatewayService, "INTERNAL_CLIENT_ENABLED", true);
+        ReflectionTestUtils.setField(gatewayService, "SERVICE_ID", "sale-service");
+
+        // Act
+        gatewayService.initGatewayUrl();
+
+        // Assert
+        assertEquals("http://sale-service/", ReflectionTestUtils.getField(gatewayService, "GATEWAY_URL"));
+    }
+
+    @Test
+    void testGetHttpHeaders_InternalClientEnabled_SetsInternalServiceToken() throws HeaderProcessingException {
+        // Arrange
+        GatewayService internalGatewayService = new GatewayService(restTemplate);
+        ReflectionTestUtils.setField(internalGatewayService, "INTERNAL_CLIENT_ENABLED", true);
+        ReflectionTestUtils.setField(internalGatewayService, "INTERNAL_AUTH_HEADER", "X-Internal-Token");
+        ReflectionTestUtils.setField(internalGatewayService, "INTERNAL_AUTH_TOKEN", "secret");
+
+        // Act
+        HttpHeaders headers = internalGatewayService.getHttpHeaders();
+
+        // Assert
+        assertEquals("secret", headers.getFirst("X-Internal-Token"));
+        assertNull(headers.getFirst(HttpHeaders.AUTHORIZATION));
+    }
 }
@@ -1,7 +1,7 @@
 package com.bit.reportservice.service;
 
+import com.bit.reportservice.dto.DailySalesRollupResponse;
 import com.bit.reportservice.dto.SaleResponse;
-import com.bit.reportservice.dto.SaleProductResponse;
 import com.bit.reportservice.exception.HeaderProcessingException;
 import com.bit.reportservice.exception.InvalidTimeUnitException;
 import com.bit.reportservice.exception.ReceiptGenerationException;
@@ -16,6 +16,7 @@ import org.springframework.data.domain.PageImpl;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -154,14 +155,11 @@ class ReportServiceImplTest {
     @Test
     void testGetChart_shouldReturnChartPdf_whenUnitIsDay() throws Exception {
         // Arrange
-        SaleProductResponse product1 = SaleProductResponse.builder().name("Product1").quantity(10).build();
-        SaleProductResponse product2 = SaleProductResponse.builder().name("Product2").quantity(5).build();
-        SaleResponse saleResponse1 = SaleResponse.builder().products(List.of(product1)).build();
-        SaleResponse saleResponse2 = SaleResponse.builder().products(List.of(product2)).build();
-        List<SaleResponse> saleResponses = List.of(saleResponse1, saleResponse2);
-
-        when(gatewayService.getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean()))
-                .thenReturn(new PageImpl<>(saleResponses));
+        DailySalesRollupResponse rollup1 = DailySalesRollupResponse.builder().dimensionKey("Product1").quantity(10).build();
+        DailySalesRollupResponse rollup2 = DailySalesRollupResponse.builder().dimensionKey("Product2").quantity(5).build();
+        List<DailySalesRollupResponse> rollups = List.of(rollup1, rollup2);
+
+        when(gatewayService.getDailySalesRollups(eq("PRODUCT"), anyString(), anyString())).thenReturn(rollups);
         when(chartService.generateChart(anyMap(), anyString())).thenReturn(new byte[]{1, 2, 3, 4, 5});
 
         // Act
@@ -171,21 +169,18 @@ class ReportServiceImplTest {
         assertNotNull(pdfBytes);
         assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, pdfBytes);
 
-        verify(gatewayService, times(1)).getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean());
+        verify(gatewayService, times(1)).getDailySalesRollups(eq("PRODUCT"), anyString(), anyString());
         verify(chartService, times(1)).generateChart(anyMap(), eq("day"));
     }
 
     @Test
     void testGetChart_shouldReturnChartPdf_whenUnitIsWeek() throws Exception {
         // Arrange
-        SaleProductResponse product1 = SaleProductResponse.builder().name("Product1").quantity(10).build();
-        SaleProductResponse product2 = SaleProductResponse.builder().name("Product2").quantity(5).build();
-        SaleResponse saleResponse1 = SaleResponse.builder().products(List.of(product1)).build();
-        SaleResponse saleResponse2 = SaleResponse.builder().products(List.of(product2)).build();
-        List<SaleResponse> saleResponses = List.of(saleResponse1, saleResponse2);
-
-        when(gatewayService.getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean()))
-                .thenReturn(new PageImpl<>(saleResponses));
+        DailySalesRollupResponse rollup1 = DailySalesRollupResponse.builder().dimensionKey("Product1").quantity(10).build();
+        DailySalesRollupResponse rollup2 = DailySalesRollupResponse.builder().dimensionKey("Product2").quantity(5).build();
+        List<DailySalesRollupResponse> rollups = List.of(rollup1, rollup2);
+
+        when(gatewayService.getDailySalesRollups(eq("PRODUCT"), anyString(), anyString())).thenReturn(rollups);
         when(chartService.generateChart(anyMap(), anyString())).thenReturn(new byte[]{1, 2, 3, 4, 5});
 
         // Act
@@ -195,21 +190,18 @@ class ReportServiceImplTest {
         assertNotNull(pdfBytes);
         assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, pdfBytes);
 
-        verify(gatewayService, times(1)).getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean());
+        verify(gatewayService, times(1)).getDailySalesRollups(eq("PRODUCT"), anyString(), anyString());
         verify(chartService, times(1)).generateChart(anyMap(), eq("week"));
     }
 
     @Test
     void testGetChart_shouldReturnChartPdf_whenUnitIsMonth() throws Exception {
         // Arrange
-        SaleProductResponse product1 = SaleProductResponse.builder().name("Product1").quantity(10).build();
-        SaleProductResponse product2 = SaleProductResponse.builder().name("Product2").quantity(5).build();
-        SaleResponse saleResponse1 = SaleResponse.builder().products(List.of(product1)).build();
-        SaleResponse saleResponse2 = SaleResponse.builder().products(List.of(product2)).build();
-        List<SaleResponse> saleResponses = List.of(saleResponse1, saleResponse2);
-
-        when(gatewayService.getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean()))
-                .thenReturn(new PageImpl<>(saleResponses));
+        DailySalesRollupResponse rollup1 = DailySalesRollupResponse.builder().dimensionKey("Product1").quantity(10).build();
+        DailySalesRollupResponse rollup2 = DailySalesRollupResponse.builder().dimensionKey("Product2").quantity(5).build();
+        List<DailySalesRollupResponse> rollups = List.of(rollup1, rollup2);
+
+        when(gatewayService.getDailySalesRollups(eq("PRODUCT"), anyString(), anyString())).thenReturn(rollups);
         when(chartService.generateChart(anyMap(), anyString())).thenReturn(new byte[]{1, 2, 3, 4, 5});
 
         // Act
@@ -219,21 +211,18 @@ class ReportServiceImplTest {
         assertNotNull(pdfBytes);
         assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, pdfBytes);
 
-        verify(gatewayService, times(1)).getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean());
+        verify(gatewayService, times(1)).getDailySalesRollups(eq("PRODUCT"), anyString(), anyString());
         verify(chartService, times(1)).generateChart(anyMap(), eq("month"));
     }
 
     @Test
     void testGetChart_shouldReturnChartPdf_whenUnitIsYear() throws Exception {
         // Arrange
-        SaleProductResponse product1 = SaleProductResponse.builder().name("Product1").quantity(10).build();
-        SaleProductResponse product2 = SaleProductResponse.builder().name("Product2").quantity(5).build();
-        SaleResponse saleResponse1 = SaleResponse.builder().products(List.of(product1)).build();
-        SaleResponse saleResponse2 = SaleResponse.builder().products(List.of(product2)).build();
-        List<SaleResponse> saleResponses = List.of(saleResponse1, saleResponse2);
-
-        when(gatewayService.getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean()))
-                .thenReturn(new PageImpl<>(saleResponses));
+        DailySalesRollupResponse rollup1 = DailySalesRollupResponse.builder().dimensionKey("Product1").quantity(10).build();
+        DailySalesRollupResponse rollup2 = DailySalesRollupResponse.builder().dimensionKey("Product2").quantity(5).build();
+        List<DailySalesRollupResponse> rollups = List.of(rollup1, rollup2);
+
+        when(gatewayService.getDailySalesRollups(eq("PRODUCT"), anyString(), anyString())).thenReturn(rollups);
         when(chartService.generateChart(anyMap(), anyString())).thenReturn(new byte[]{1, 2, 3, 4, 5});
 
         // Act
@@ -243,27 +232,45 @@ class ReportServiceImplTest {
         assertNotNull(pdfBytes);
         assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, pdfBytes);
 
-        verify(gatewayService, times(1)).getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean());
+        verify(gatewayService, times(1)).getDailySalesRollups(eq("PRODUCT"), anyString(), anyString());
         verify(chartService, times(1)).generateChart(anyMap(), eq("year"));
     }
 
+    @Test
+    void testGetChart_shouldSumQuantitiesOfEachProductAcrossDays() throws Exception {
+        // Arrange
+        DailySalesRollupResponse firstDay = DailySalesRollupResponse.builder().dimensionKey("Product1").quantity(10).build();
+        DailySalesRollupResponse secondDay = DailySalesRollupResponse.builder().dimensionKey("Product1").quantity(4).build();
+        DailySalesRollupResponse cancelled = DailySalesRollupResponse.builder().dimensionKey("Product2").quantity(0).build();
+
+        when(gatewayService.getDailySalesRollups(eq("PRODUCT"), anyString(), anyString()))
+                .thenReturn(List.of(firstDay, secondDay, cancelled));
+        when(chartService.generateChart(anyMap(), anyString())).thenReturn(new byte[]{1});
+
+        // Act
+        reportService.getChart("week");
+
+        // Assert
+        verify(chartService, times(1)).generateChart(Map.of("Product1", 14), "week");
+    }
+
     @Test
     void testGetChart_shouldThrowInvalidTimeUnitException_whenUnitIsInvalid() throws HeaderProcessingException {
         // Act & Assert
         assertThrows(InvalidTimeUnitException.class, () -> reportService.getChart("invalid"));
 
-        verify(gatewayService, times(0)).getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean());
+        verify(gatewayService, times(0)).getDailySalesRollups(anyString(), anyString(), anyString());
         verify(chartService, times(0)).generateChart(anyMap(), anyString());
     }
 
     @Test
     void testGetChart_shouldThrowHeaderProcessingException_whenChartServiceFails() throws Exception {
         // Arrange
-        when(gatewayService.getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean()))
+        when(gatewayService.getDailySalesRollups(anyString(), anyString(), anyString()))
                 .thenThrow(new HeaderProcessingException("Header processing failed"));
 
         // Act & Assert
         assertThrows(HeaderProcessingException.class, () -> reportService.getChart("month"));
-        verify(gatewayService, times(1)).getAllSalesFilteredAndSorted(anyInt(), anyInt(), anyString(), anyString(), any(), any(), any(), any(), anyString(), anyString(), anyBoolean());
+        verify(gatewayService, times(1)).getDailySalesRollups(anyString(), anyString(), anyString());
     }
 }
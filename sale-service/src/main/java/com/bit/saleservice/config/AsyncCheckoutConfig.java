@@ -0,0 +1,62 @@
+package com.bit.saleservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for configuring the worker stages of the asynchronous checkout.
+ * The pricing stage calls the product-service and the campaigns, so it gets more threads than the finalisation stage,
+ * which writes to the database and is limited by the connection pool. Only the pricing stage has a bounded queue:
+ * a checkout is rejected when it is accepted, instead of after its stocks have been reserved.
+ *
+ * @author Emirhan Tuygun
+ */
+@Configuration
+public class AsyncCheckoutConfig {
+
+    @Value("${async-checkout.pricing-pool-size}")
+    private int PRICING_POOL_SIZE;
+
+    @Value("${async-checkout.finalisation-pool-size}")
+    private int FINALISATION_POOL_SIZE;
+
+    @Value("${async-checkout.queue-capacity}")
+    private int QUEUE_CAPACITY;
+
+    /**
+     * Creates the executor of the pricing stage, which reserves the stocks and prices the sales.
+     * Submitting to it fails when its queue is full.
+     *
+     * @return the ExecutorService instance
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService checkoutPricingExecutor() {
+        return createExecutor("checkout-pricing-", PRICING_POOL_SIZE, new LinkedBlockingQueue<>(QUEUE_CAPACITY));
+    }
+
+    /**
+     * Creates the executor of the finalisation stage, which saves the priced sales and commits their stocks.
+     *
+     * @return the ExecutorService instance
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService checkoutFinalisationExecutor() {
+        return createExecutor("checkout-finalisation-", FINALISATION_POOL_SIZE, new LinkedBlockingQueue<>());
+    }
+
+    private ExecutorService createExecutor(String threadNamePrefix, int poolSize, LinkedBlockingQueue<Runnable> queue) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        threadFactory.setDaemon(true);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS, queue, threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bit.saleservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class is responsible for configuring the executor that runs the per-item gateway calls concurrently.
+ * The pool is shared by all requests, while the fan-out of a single request is limited separately.
+ *
+ * @author Emirhan Tuygun
+ */
+@Configuration
+public class FanOutConfig {
+
+    @Value("${gateway.fan-out.pool-size}")
+    private int POOL_SIZE;
+
+    /**
+     * Creates a bounded executor with named daemon threads for the gateway fan-out.
+     * Idle threads time out so that the pool does not hold threads when there is no traffic.
+     *
+     * @return the ExecutorService instance
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService fanOutExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("gateway-fan-out-");
+        threadFactory.setDaemon(true);
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
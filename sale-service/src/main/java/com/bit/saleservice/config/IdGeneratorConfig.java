@@ -0,0 +1,56 @@
+package com.bit.saleservice.config;
+
+import com.bit.saleservice.id.IdGenerator;
+import com.bit.saleservice.id.SnowflakeIdGenerator;
+import com.bit.saleservice.id.TimeOrderedIdGenerator;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Instant;
+
+/**
+ * This class is responsible for configuring the generator of the time-ordered ids of the sales and their products.
+ * Every instance of the service must run with its own node id, otherwise two instances can generate the same id.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Configuration
+public class IdGeneratorConfig {
+
+    @Value("${id-generator.epoch}")
+    private Instant EPOCH;
+
+    @Value("${id-generator.node-bits}")
+    private int NODE_BITS;
+
+    @Value("${id-generator.node-id}")
+    private long NODE_ID;
+
+    /**
+     * Creates the id generator of this instance.
+     *
+     * @return the IdGenerator instance
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public IdGenerator idGenerator() {
+        log.info("Generating ids as node {} of {}", NODE_ID, 1L << NODE_BITS);
+        return new SnowflakeIdGenerator(EPOCH, NODE_BITS, NODE_ID);
+    }
+
+    /**
+     * Passes the id generator to Hibernate for the entities with time-ordered ids.
+     *
+     * @param idGenerator the id generator of this instance
+     * @return the HibernatePropertiesCustomizer instance
+     */
+    @Bean
+    public HibernatePropertiesCustomizer idGeneratorPropertiesCustomizer(IdGenerator idGenerator) {
+        return hibernateProperties -> hibernateProperties.put(TimeOrderedIdGenerator.ID_GENERATOR_SETTING, idGenerator);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bit.saleservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * This class is responsible for configuring the executor that renews the idempotency key claims in Redis
+ * while their requests are being processed. It is kept apart from the scheduled jobs, so that a long running job
+ * cannot delay the renewals and let a claim expire.
+ *
+ * @author Emirhan Tuygun
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * Creates a single threaded scheduled executor with a named daemon thread for the claim renewals.
+     * A renewal is a single Redis call, so one thread serves all requests in flight.
+     *
+     * @return the ScheduledExecutorService instance
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService idempotencyRenewalExecutor() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("idempotency-renewal-");
+        threadFactory.setDaemon(true);
+        return Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+}
@@ -1,8 +1,10 @@
 package com.bit.saleservice.config;
 
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
 import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
@@ -30,6 +32,9 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routingKey}")
     private String ROUTING_KEY;
 
+    @Value("${rabbitmq.product-event-exchange}")
+    private String PRODUCT_EVENT_EXCHANGE;
+
     /**
      * Creates a DirectExchange instance with the given exchange name.
      *
@@ -60,6 +65,37 @@ public class RabbitMQConfig {
         return BindingBuilder.bind(queue()).to(exchange()).with(ROUTING_KEY);
     }
 
+    /**
+     * Creates a FanoutExchange instance for the product events published by the product-service.
+     *
+     * @return the FanoutExchange instance
+     */
+    @Bean
+    public FanoutExchange productEventExchange() {
+        return new FanoutExchange(PRODUCT_EVENT_EXCHANGE);
+    }
+
+    /**
+     * Creates an exclusive, auto-delete queue for the product events.
+     * Every instance gets its own queue, so that every instance can invalidate its own product cache.
+     *
+     * @return the AnonymousQueue instance
+     */
+    @Bean
+    public Queue productEventQueue() {
+        return new AnonymousQueue();
+    }
+
+    /**
+     * Creates a Binding instance that binds the product event queue to the product event exchange.
+     *
+     * @return the Binding instance
+     */
+    @Bean
+    public Binding productEventBinding() {
+        return BindingBuilder.bind(productEventQueue()).to(productEventExchange());
+    }
+
     /**
      * Creates a Jackson2JsonMessageConverter instance for converting messages to and from JSON.
      *
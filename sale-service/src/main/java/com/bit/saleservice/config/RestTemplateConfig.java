@@ -1,26 +1,97 @@
 package com.bit.saleservice.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * This class is responsible for configuring a RestTemplate bean in the Spring application context.
  * The RestTemplate is a convenient utility for making HTTP requests.
+ * Its requests are sent over a pool of keep-alive connections, so that the calls to the product-service
+ * do not open a new connection each. When the internal client is enabled, the RestTemplate is load balanced
+ * and resolves the service IDs in its URLs through Eureka.
  *
  * @author Emirhan Tuygun
  */
 @Configuration
 public class RestTemplateConfig {
 
+    @Value("${internal-client.max-connections}")
+    private int MAX_CONNECTIONS;
+
+    @Value("${internal-client.max-connections-per-route}")
+    private int MAX_CONNECTIONS_PER_ROUTE;
+
+    @Value("${internal-client.connect-timeout}")
+    private Duration CONNECT_TIMEOUT;
+
+    @Value("${internal-client.response-timeout}")
+    private Duration RESPONSE_TIMEOUT;
+
+    @Value("${internal-client.keep-alive}")
+    private Duration KEEP_ALIVE;
+
+    /**
+     * This method creates the pooled HTTP client the RestTemplate sends its requests with.
+     * Idle connections are kept alive for the configured duration and evicted after it.
+     *
+     * @return the pooled HTTP client
+     */
+    @Bean
+    public CloseableHttpClient httpClient() {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(CONNECT_TIMEOUT))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.of(RESPONSE_TIMEOUT))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(KEEP_ALIVE))
+                .evictIdleConnections(TimeValue.of(KEEP_ALIVE))
+                .build();
+    }
+
     /**
-     * This method creates and returns a new instance of RestTemplate.
+     * This method creates and returns a new instance of RestTemplate for the calls made via the gateway.
      * RestTemplate is a core Spring class for making HTTP requests.
      *
+     * @param httpClient the pooled HTTP client
      * @return a new instance of RestTemplate
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @ConditionalOnProperty(name = "internal-client.enabled", havingValue = "false", matchIfMissing = true)
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * This method creates and returns a new instance of load balanced RestTemplate for the calls made directly
+     * to the product-service. The service ID in the URLs is resolved to one of the registered instances.
+     *
+     * @param httpClient the pooled HTTP client
+     * @return a new instance of load balanced RestTemplate
+     */
+    @Bean
+    @LoadBalanced
+    @ConditionalOnProperty(name = "internal-client.enabled", havingValue = "true")
+    public RestTemplate loadBalancedRestTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
 }
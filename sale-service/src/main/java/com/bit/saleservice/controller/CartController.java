@@ -0,0 +1,139 @@
+package com.bit.saleservice.controller;
+
+import com.bit.saleservice.dto.CartCheckoutRequest;
+import com.bit.saleservice.dto.CartItemRequest;
+import com.bit.saleservice.dto.CartRequest;
+import com.bit.saleservice.dto.CartResponse;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.service.CartService;
+import com.bit.saleservice.service.IdempotencyService;
+import com.bit.saleservice.service.IdempotencyService.IdempotentResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller for handling the carts scanned at the tills.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/carts")
+public class CartController {
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final CartService cartService;
+    private final IdempotencyService idempotencyService;
+
+    /**
+     * Opens a new cart.
+     *
+     * @param cartRequest The request object containing the cashier and the campaigns of the cart.
+     * @return A ResponseEntity containing the created cart and a status code of CREATED (201).
+     */
+    @PostMapping()
+    public ResponseEntity<CartResponse> createCart(@Valid @RequestBody CartRequest cartRequest) {
+        log.trace("Entering createCart method in CartController with cartRequest: {}", cartRequest);
+
+        CartResponse cartResponse = cartService.createCart(cartRequest);
+        log.info("Successfully created cart with id: {}", cartResponse.getId());
+
+        log.trace("Exiting createCart method in CartController");
+        return new ResponseEntity<>(cartResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Retrieves a cart by its unique identifier.
+     *
+     * @param id The unique identifier of the cart to retrieve.
+     * @return A ResponseEntity containing the retrieved cart and a status code of OK (200).
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<CartResponse> getCart(@PathVariable String id) {
+        log.trace("Entering getCart method in CartController with id: {}", id);
+
+        CartResponse cartResponse = cartService.getCart(id);
+        log.info("Successfully retrieved cart with id: {}", id);
+
+        log.trace("Exiting getCart method in CartController with id: {}", id);
+        return new ResponseEntity<>(cartResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Scans a product into a cart, or voids scanned units of it with a negative quantity.
+     * The cart is answered with its running totals and the eligibility of its campaigns.
+     *
+     * @param id              The unique identifier of the cart.
+     * @param cartItemRequest The request object containing the product and the scanned quantity.
+     * @return A ResponseEntity containing the updated cart and a status code of OK (200).
+     * @throws HeaderProcessingException If there is an error processing the request headers.
+     */
+    @PostMapping("/{id}/items")
+    public ResponseEntity<CartResponse> addItem(@PathVariable String id,
+                                                @Valid @RequestBody CartItemRequest cartItemRequest) throws HeaderProcessingException {
+        log.trace("Entering addItem method in CartController with id: {} and cartItemRequest: {}", id, cartItemRequest);
+
+        CartResponse cartResponse = cartService.addItem(id, cartItemRequest);
+        log.info("Successfully scanned product into cart with id: {}", id);
+
+        log.trace("Exiting addItem method in CartController with id: {}", id);
+        return new ResponseEntity<>(cartResponse, HttpStatus.OK);
+    }
+
+    /**
+     * Checks out a cart as a sale.
+     * A request retried with the same Idempotency-Key is answered with the sale of the first request,
+     * since the cart no longer exists after it is checked out.
+     *
+     * @param id                  The unique identifier of the cart.
+     * @param idempotencyKey      The idempotency key of the request. Optional.
+     * @param cartCheckoutRequest The request object containing the payment details.
+     * @return A ResponseEntity containing the created SaleResponse object and a status code of CREATED (201).
+     *         The Idempotent-Replayed header is set when the response is replayed.
+     * @throws HeaderProcessingException If there is an error processing the request headers.
+     */
+    @PostMapping("/{id}/checkout")
+    public ResponseEntity<SaleResponse> checkout(@PathVariable String id,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                 @Valid @RequestBody CartCheckoutRequest cartCheckoutRequest) throws HeaderProcessingException {
+        log.trace("Entering checkout method in CartController with id: {} and idempotencyKey: {}", id, idempotencyKey);
+
+        IdempotentResponse idempotentResponse = idempotencyService.execute("checkout-cart:" + id, idempotencyKey,
+                cartCheckoutRequest, () -> cartService.checkout(id, cartCheckoutRequest));
+        log.info("Successfully checked out cart with id: {}", id);
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.CREATED);
+        if (idempotentResponse.replayed()) {
+            builder.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+
+        log.trace("Exiting checkout method in CartController with id: {}", id);
+        return builder.body(idempotentResponse.saleResponse());
+    }
+
+    /**
+     * Removes a cart without checking it out.
+     *
+     * @param id The unique identifier of the cart to remove.
+     * @return A ResponseEntity containing a success message and a status code of OK (200).
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<String> deleteCart(@PathVariable String id) {
+        log.trace("Entering deleteCart method in CartController with id: {}", id);
+
+        cartService.deleteCart(id);
+        log.info("Successfully deleted cart with id: {}", id);
+
+        log.trace("Exiting deleteCart method in CartController with id: {}", id);
+        return new ResponseEntity<>("Cart deleted successfully!", HttpStatus.OK);
+    }
+}
@@ -2,19 +2,38 @@ package com.bit.saleservice.controller;
 
 import com.bit.saleservice.dto.SaleRequest;
 import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.dto.SyncSaleRequest;
+import com.bit.saleservice.dto.SyncSaleResult;
 import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.service.AsyncCheckoutService;
+import com.bit.saleservice.service.IdempotencyService;
+import com.bit.saleservice.service.IdempotencyService.IdempotentResponse;
 import com.bit.saleservice.service.SaleService;
+import com.bit.saleservice.service.SaleSyncService;
+import com.bit.saleservice.wrapper.CursorPageWrapper;
 import com.bit.saleservice.wrapper.PageWrapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller for handling sale-related operations.
@@ -27,7 +46,16 @@ import java.util.List;
 @RequestMapping("/sales")
 public class SaleController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Value("${async-checkout.max-wait}")
+    private Duration MAX_WAIT;
+
     private final SaleService saleService;
+    private final IdempotencyService idempotencyService;
+    private final AsyncCheckoutService asyncCheckoutService;
+    private final SaleSyncService saleSyncService;
 
     /**
      * Retrieves a sale by its unique identifier.
@@ -63,6 +91,24 @@ public class SaleController {
         return new ResponseEntity<>(saleResponses, HttpStatus.OK);
     }
 
+    /**
+     * Exports all sales in the system as newline-delimited JSON, one sale per line.
+     * The sales are written to the response as they are read from the database instead of being collected first,
+     * so the export does not need memory proportional to the number of sales.
+     *
+     * @return A ResponseEntity containing the streamed sales and a status code of OK (200).
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSales() {
+        log.trace("Entering exportSales method in SaleController");
+
+        StreamingResponseBody body = saleService::exportSales;
+        log.info("Started exporting sales");
+
+        log.trace("Exiting exportSales method in SaleController");
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * Retrieves all soft deleted sales from the system.
      *
@@ -121,40 +167,238 @@ public class SaleController {
         return new ResponseEntity<>(saleResponsePageWrapper, HttpStatus.OK);
     }
 
+    /**
+     * Retrieves a page of sales in the system with keyset pagination, based on the provided parameters.
+     * Unlike the offset-based endpoint, every page costs the same regardless of how deep it is.
+     *
+     * @param cursor The cursor returned with the previous page. Optional, omitted for the first page.
+     * @param size The number of items per page. Default is 10.
+     * @param sortBy The field to sort by. One of id, date and cashier. Default is "id".
+     * @param direction The direction of sorting. Default is "ASC".
+     * @param cashier The cashier to filter by. Optional.
+     * @param paymentMethod The payment method to filter by. Optional.
+     * @param minTotal The minimum total to filter by. Optional.
+     * @param maxTotal The maximum total to filter by. Optional.
+     * @param startDate The start date to filter by. Optional.
+     * @param endDate The end date to filter by. Optional.
+     * @param isCancelled The boolean on whether it is cancelled to filter by. Optional.
+     * @param includeTotal Whether to count the total number of matching sales. Default is false.
+     * @return A ResponseEntity containing a CursorPageWrapper of SaleResponse objects and a status code of OK (200).
+     */
+    @GetMapping("/filteredAndSorted/cursor")
+    public ResponseEntity<CursorPageWrapper<SaleResponse>> getAllSalesFilteredAndSortedByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false, defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cashier,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) BigDecimal minTotal,
+            @RequestParam(required = false) BigDecimal maxTotal,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(required = false) Boolean isCancelled,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+    ) {
+        log.trace("Entering getAllSalesFilteredAndSortedByCursor method in SaleController with cursor: {}, size: {}, sortBy: {}, direction: {}, cashier: {}, paymentMethod: {}, minTotal: {}, maxTotal: {}, startDate: {}, endDate: {}, isCancelled: {}, includeTotal: {}",
+                cursor, size, sortBy, direction, cashier, paymentMethod, minTotal, maxTotal, startDate, endDate, isCancelled, includeTotal);
+
+        CursorPageWrapper<SaleResponse> cursorPageWrapper = saleService.getAllSalesFilteredAndSortedByCursor(cursor, size, sortBy, direction,
+                cashier, paymentMethod, minTotal, maxTotal, startDate, endDate, isCancelled, includeTotal);
+        log.info("Successfully retrieved filtered and sorted sales with cursor");
+
+        log.trace("Exiting getAllSalesFilteredAndSortedByCursor method in SaleController");
+        return new ResponseEntity<>(cursorPageWrapper, HttpStatus.OK);
+    }
+
     /**
      * Creates a new sale in the system.
+     * A request retried with the same Idempotency-Key is answered with the response of the first request
+     * instead of creating the sale again.
      *
+     * @param idempotencyKey The idempotency key of the request. Optional.
      * @param saleRequest The request object containing the details of the sale to be created.
      * @return A ResponseEntity containing the created SaleResponse object and a status code of CREATED (201).
+     *         The Idempotent-Replayed header is set when the response is replayed.
+     * @throws HeaderProcessingException If there is an error processing the request headers.
      */
     @PostMapping()
-    public ResponseEntity<SaleResponse> createSale(@RequestBody SaleRequest saleRequest) throws HeaderProcessingException {
-        log.trace("Entering createSale method in SaleController with saleRequest: {}", saleRequest);
+    public ResponseEntity<SaleResponse> createSale(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                   @RequestBody SaleRequest saleRequest) throws HeaderProcessingException {
+        log.trace("Entering createSale method in SaleController with idempotencyKey: {} and saleRequest: {}", idempotencyKey, saleRequest);
 
-        SaleResponse saleResponse = saleService.createSale(saleRequest);
+        IdempotentResponse idempotentResponse = idempotencyService.execute("create", idempotencyKey, saleRequest,
+                () -> saleService.createSale(saleRequest));
         log.info("Successfully created sale");
 
         log.trace("Exiting createSale method in SaleController");
-        return new ResponseEntity<>(saleResponse, HttpStatus.CREATED);
+        return buildResponse(idempotentResponse, HttpStatus.CREATED);
+    }
+
+    /**
+     * Accepts a sale for the asynchronous checkout and answers before the sale is priced.
+     * The sale is saved as pending and finished by the worker stages, its result can be awaited at the returned location
+     * or subscribed to over server-sent events. A request retried with the same Idempotency-Key is answered with the
+     * pending sale of the first request instead of accepting the sale again.
+     *
+     * @param idempotencyKey The idempotency key of the request. Optional.
+     * @param saleRequest The request object containing the details of the sale to be created.
+     * @return A ResponseEntity containing the pending SaleResponse object and a status code of ACCEPTED (202).
+     *         The Location header points to the result of the sale.
+     * @throws HeaderProcessingException If there is an error processing the request headers.
+     */
+    @PostMapping("/async")
+    public ResponseEntity<SaleResponse> createSaleAsync(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                        @RequestBody @Valid SaleRequest saleRequest) throws HeaderProcessingException {
+        log.trace("Entering createSaleAsync method in SaleController with idempotencyKey: {} and saleRequest: {}", idempotencyKey, saleRequest);
+
+        IdempotentResponse idempotentResponse = idempotencyService.execute("create-async", idempotencyKey, saleRequest,
+                () -> asyncCheckoutService.submit(saleRequest));
+        log.info("Successfully accepted sale with id: {}", idempotentResponse.saleResponse().getId());
+
+        log.trace("Exiting createSaleAsync method in SaleController");
+        ResponseEntity<SaleResponse> response = buildResponse(idempotentResponse, HttpStatus.ACCEPTED);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .headers(response.getHeaders())
+                .location(URI.create("/sales/" + idempotentResponse.saleResponse().getId() + "/result"))
+                .body(response.getBody());
+    }
+
+    /**
+     * Waits for the result of a sale accepted by the asynchronous checkout, without holding a request thread.
+     * Answers as soon as the sale is completed or failed, or with the pending sale when the wait times out.
+     *
+     * @param id The unique identifier of the sale.
+     * @param waitSeconds The number of seconds to wait for the result, limited by the configured maximum. Default is 30.
+     * @return A DeferredResult of a ResponseEntity containing the completed or failed sale and a status code of OK (200),
+     *         or the pending sale and a status code of ACCEPTED (202) when the wait times out.
+     */
+    @GetMapping("/{id}/result")
+    public DeferredResult<ResponseEntity<SaleResponse>> getSaleResult(@PathVariable("id") Long id,
+                                                                      @RequestParam(name = "wait", defaultValue = "30") long waitSeconds) {
+        log.trace("Entering getSaleResult method in SaleController with id: {} and waitSeconds: {}", id, waitSeconds);
+
+        long timeout = Math.min(TimeUnit.SECONDS.toMillis(Math.max(waitSeconds, 0)), MAX_WAIT.toMillis());
+        DeferredResult<ResponseEntity<SaleResponse>> deferredResult = new DeferredResult<>(timeout);
+        CompletableFuture<SaleResponse> result = asyncCheckoutService.getResult(id);
+
+        deferredResult.onTimeout(() -> {
+            result.cancel(false);
+            deferredResult.setResult(new ResponseEntity<>(saleService.getSale(id), HttpStatus.ACCEPTED));
+        });
+        result.whenComplete((saleResponse, e) -> {
+            if (e != null) {
+                deferredResult.setErrorResult(e instanceof CompletionException ? e.getCause() : e);
+            } else {
+                deferredResult.setResult(new ResponseEntity<>(saleResponse, HttpStatus.OK));
+            }
+        });
+        log.info("Waiting for the result of sale with id: {}", id);
+
+        log.trace("Exiting getSaleResult method in SaleController with id: {}", id);
+        return deferredResult;
+    }
+
+    /**
+     * Subscribes to the result of a sale accepted by the asynchronous checkout over server-sent events.
+     * A single sale event carrying the completed or failed sale is sent, or an error event when the sale cannot be read,
+     * and the stream is closed. The stream is closed without an event when the configured maximum wait is exceeded.
+     *
+     * @param id The unique identifier of the sale.
+     * @return An SseEmitter streaming the result of the sale.
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSaleResult(@PathVariable("id") Long id) {
+        log.trace("Entering streamSaleResult method in SaleController with id: {}", id);
+
+        SseEmitter emitter = new SseEmitter(MAX_WAIT.toMillis());
+        CompletableFuture<SaleResponse> result = asyncCheckoutService.getResult(id);
+
+        emitter.onTimeout(() -> result.cancel(false));
+        emitter.onError(e -> result.cancel(false));
+        result.whenComplete((saleResponse, e) -> {
+            try {
+                if (e != null) {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    emitter.send(SseEmitter.event().name("error").data(String.valueOf(cause.getMessage())));
+                } else {
+                    emitter.send(SseEmitter.event().name("sale").data(saleResponse, MediaType.APPLICATION_JSON));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Client stopped waiting for the result of sale with id: {}", id);
+            }
+        });
+        log.info("Streaming the result of sale with id: {}", id);
+
+        log.trace("Exiting streamSaleResult method in SaleController with id: {}", id);
+        return emitter;
+    }
+
+    /**
+     * Records the sales a terminal made while it was offline, uploaded as a JSON array.
+     * Each sale is recorded or rejected on its own, and the result of every sale is returned. A sale already recorded
+     * by an earlier upload, with the same cashier and reference, is reported as a duplicate and not recorded again.
+     *
+     * @param syncSaleRequests The sales to record.
+     * @return A ResponseEntity containing the result of each sale, in upload order, and a status code of OK (200).
+     * @throws HeaderProcessingException If there is an error processing the request headers.
+     */
+    @PostMapping(value = "/sync", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<SyncSaleResult>> syncSales(@RequestBody List<SyncSaleRequest> syncSaleRequests) throws HeaderProcessingException {
+        log.trace("Entering syncSales method in SaleController with {} sales", syncSaleRequests.size());
+
+        List<SyncSaleResult> syncSaleResults = saleSyncService.syncSales(syncSaleRequests);
+        log.info("Successfully synced {} sales", syncSaleResults.size());
+
+        log.trace("Exiting syncSales method in SaleController");
+        return new ResponseEntity<>(syncSaleResults, HttpStatus.OK);
+    }
+
+    /**
+     * Records the sales a terminal made while it was offline, uploaded as newline-delimited JSON, one sale per line.
+     * The sales are recorded as the upload is read, so an upload of any size is never held in memory as a whole.
+     *
+     * @param inputStream The body of the request.
+     * @return A ResponseEntity containing the result of each sale, in upload order, and a status code of OK (200).
+     * @throws IOException If reading the request body fails.
+     * @throws HeaderProcessingException If there is an error processing the request headers.
+     */
+    @PostMapping(value = "/sync", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<SyncSaleResult>> syncSalesStream(InputStream inputStream) throws IOException, HeaderProcessingException {
+        log.trace("Entering syncSalesStream method in SaleController");
+
+        List<SyncSaleResult> syncSaleResults = saleSyncService.syncSales(inputStream);
+        log.info("Successfully synced {} streamed sales", syncSaleResults.size());
+
+        log.trace("Exiting syncSalesStream method in SaleController");
+        return new ResponseEntity<>(syncSaleResults, HttpStatus.OK);
     }
 
     /**
      * Updates an existing sale in the system.
+     * A request retried with the same Idempotency-Key is answered with the response of the first request
+     * instead of updating the sale again.
      *
      * @param id The unique identifier of the sale to update.
+     * @param idempotencyKey The idempotency key of the request. Optional.
      * @param saleRequest The request object containing the updated details of the sale.
      * @return A ResponseEntity containing the updated SaleResponse object and a status code of OK (200).
+     *         The Idempotent-Replayed header is set when the response is replayed.
      * @throws HeaderProcessingException If there is an error processing the request headers.
      */
     @PutMapping("{id}")
-    public ResponseEntity<SaleResponse> updateSale(@PathVariable Long id, @RequestBody @Valid SaleRequest saleRequest) throws HeaderProcessingException {
-        log.trace("Entering updateSale method in SaleController with id: {} and saleRequest: {}", id, saleRequest);
+    public ResponseEntity<SaleResponse> updateSale(@PathVariable Long id,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                                                   @RequestBody @Valid SaleRequest saleRequest) throws HeaderProcessingException {
+        log.trace("Entering updateSale method in SaleController with id: {}, idempotencyKey: {} and saleRequest: {}", id, idempotencyKey, saleRequest);
 
-        SaleResponse saleResponse = saleService.updateSale(id, saleRequest);
+        IdempotentResponse idempotentResponse = idempotencyService.execute("update:" + id, idempotencyKey, saleRequest,
+                () -> saleService.updateSale(id, saleRequest));
         log.info("Successfully updated sale with id: {}", id);
 
         log.trace("Exiting updateSale method in SaleController with id: {}", id);
-        return new ResponseEntity<>(saleResponse, HttpStatus.OK);
+        return buildResponse(idempotentResponse, HttpStatus.OK);
     }
 
     /**
@@ -229,4 +473,12 @@ public class SaleController {
         log.trace("Exiting deleteSalePermanently method in SaleController with id: {}", id);
         return new ResponseEntity<>("Sale deleted permanently!", HttpStatus.OK);
     }
+
+    private ResponseEntity<SaleResponse> buildResponse(IdempotentResponse idempotentResponse, HttpStatus status) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (idempotentResponse.replayed()) {
+            builder.header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        }
+        return builder.body(idempotentResponse.saleResponse());
+    }
 }
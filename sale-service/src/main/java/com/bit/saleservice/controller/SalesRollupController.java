@@ -0,0 +1,73 @@
+package com.bit.saleservice.controller;
+
+import com.bit.saleservice.dto.DailySalesRollupResponse;
+import com.bit.saleservice.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+/**
+ * Controller for reading and rebuilding the daily sales rollups.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Controller
+@RequiredArgsConstructor
+@RequestMapping("/sales/rollups")
+public class SalesRollupController {
+
+    private final SalesRollupService salesRollupService;
+
+    /**
+     * Retrieves the daily sales rollups of a dimension between two business days.
+     *
+     * @param dimension The dimension to get the rollups of: PRODUCT, CASHIER or PAYMENT_METHOD.
+     * @param startDate The first business day in yyyy-MM-dd format.
+     * @param endDate The last business day in yyyy-MM-dd format, inclusive.
+     * @return A ResponseEntity containing the rollups ordered by business day and dimension key.
+     */
+    @GetMapping()
+    public ResponseEntity<List<DailySalesRollupResponse>> getDailySalesRollups(
+            @RequestParam String dimension,
+            @RequestParam String startDate,
+            @RequestParam String endDate) {
+        log.trace("Entering getDailySalesRollups method in SalesRollupController with dimension: {}, startDate: {}, endDate: {}",
+                dimension, startDate, endDate);
+
+        List<DailySalesRollupResponse> rollups = salesRollupService.getDailySalesRollups(dimension, startDate, endDate);
+        log.info("Successfully retrieved {} rollups", rollups.size());
+
+        log.trace("Exiting getDailySalesRollups method in SalesRollupController");
+        return new ResponseEntity<>(rollups, HttpStatus.OK);
+    }
+
+    /**
+     * Rebuilds the daily sales rollups between two business days from the sales.
+     *
+     * @param startDate The first business day in yyyy-MM-dd format.
+     * @param endDate The last business day in yyyy-MM-dd format, inclusive.
+     * @return A ResponseEntity containing a success message.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<String> rebuildDailySalesRollups(
+            @RequestParam String startDate,
+            @RequestParam String endDate) {
+        log.trace("Entering rebuildDailySalesRollups method in SalesRollupController with startDate: {}, endDate: {}",
+                startDate, endDate);
+
+        salesRollupService.rebuildDailySalesRollups(startDate, endDate);
+        log.info("Successfully rebuilt rollups from {} to {}", startDate, endDate);
+
+        log.trace("Exiting rebuildDailySalesRollups method in SalesRollupController");
+        return new ResponseEntity<>("Rollups rebuilt successfully", HttpStatus.OK);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bit.saleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents whether a campaign applies to the current contents of a cart.
+ * It contains the reason when the campaign does not apply.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CampaignEligibilityResponse {
+
+    private Long id;
+    private String name;
+    private boolean eligible;
+    private String reason;
+}
@@ -0,0 +1,28 @@
+package com.bit.saleservice.dto;
+
+import com.bit.saleservice.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * This class represents the result of evaluating campaigns on the products of a cart.
+ * It contains the eligibility of every campaign, the products with the line totals of the eligible campaigns applied,
+ * and the total after the eligible campaigns.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CampaignEvaluationResponse {
+
+    private List<CampaignEligibilityResponse> campaigns;
+    private List<Product> products;
+    private BigDecimal total;
+}
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -24,4 +25,10 @@ public class CampaignProcessRequest {
     private List<Long> campaignIds;
     private List<Product> products;
     private BigDecimal total;
+
+    /**
+     * The date the sale was made, which the expirations of the campaigns are checked against.
+     * Null for a sale made now.
+     */
+    private Date saleDate;
 }
@@ -0,0 +1,31 @@
+package com.bit.saleservice.dto;
+
+import com.bit.saleservice.entity.MixedPayment;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents a request for checking out a cart.
+ * Contains the payment of the sale, the products and campaigns are taken from the cart.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartCheckoutRequest {
+
+    @NotBlank(message = "Payment Method is required and should not be blank!")
+    private String paymentMethod;
+
+    @PositiveOrZero(message = "Cash must be a positive number!")
+    private BigDecimal cash;
+    private MixedPayment mixedPayment;
+}
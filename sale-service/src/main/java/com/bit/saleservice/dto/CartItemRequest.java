@@ -0,0 +1,26 @@
+package com.bit.saleservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a scan of a product into a cart.
+ * A negative quantity voids that many of the already scanned units of the product.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartItemRequest {
+
+    @NotNull(message = "Product id is required!")
+    private Long id;
+
+    @NotNull(message = "Quantity is required!")
+    private Integer quantity;
+}
@@ -0,0 +1,29 @@
+package com.bit.saleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * This class represents a line of a cart.
+ * It contains the product priced when it was scanned, and the total of the line before and after the campaigns.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemResponse {
+
+    private Long productId;
+    private String name;
+    private String barcodeNumber;
+    private Integer quantity;
+    private BigDecimal price;
+    private BigDecimal totalPrice;
+    private BigDecimal totalPriceWithCampaign;
+}
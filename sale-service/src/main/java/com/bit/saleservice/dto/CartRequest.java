@@ -0,0 +1,26 @@
+package com.bit.saleservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Represents a request for opening a cart at a till.
+ * Contains the cashier and the campaigns the cart is evaluated for as its items are scanned.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartRequest {
+
+    @NotBlank(message = "Cashier is required and should not be blank!")
+    private String cashier;
+    private List<Long> campaignIds;
+}
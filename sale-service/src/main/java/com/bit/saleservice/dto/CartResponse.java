@@ -0,0 +1,38 @@
+package com.bit.saleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents a cart being scanned at a till.
+ * It is also the document the cart is kept as in Redis, so the running totals and the campaign eligibility are
+ * always up to date with the scanned items.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+
+    private String id;
+    private String cashier;
+
+    @Builder.Default
+    private List<Long> campaignIds = new ArrayList<>();
+
+    @Builder.Default
+    private List<CartItemResponse> items = new ArrayList<>();
+
+    @Builder.Default
+    private List<CampaignEligibilityResponse> campaigns = new ArrayList<>();
+    private BigDecimal total;
+    private BigDecimal totalWithCampaign;
+}
@@ -0,0 +1,29 @@
+package com.bit.saleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * This class represents a response object for the sales of a business day rolled up by a dimension.
+ * The dimension key is the product name, the cashier or the payment method the sales are aggregated by.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollupResponse {
+
+    private LocalDate businessDay;
+    private String dimension;
+    private String dimensionKey;
+    private long saleCount;
+    private long quantity;
+    private BigDecimal total;
+}
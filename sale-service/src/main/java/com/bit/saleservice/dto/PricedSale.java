@@ -0,0 +1,32 @@
+package com.bit.saleservice.dto;
+
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.MixedPayment;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * This class represents a priced sale that is not saved yet.
+ * It contains the priced products, the applied campaigns, the totals, the payment and the stock reservation of the sale.
+ *
+ * @author Emirhan Tuygun
+ */
+@Getter
+@AllArgsConstructor
+public class PricedSale {
+
+    Payment paymentMethod;
+    List<Product> products;
+    List<Campaign> campaigns;
+    BigDecimal total;
+    BigDecimal totalWithCampaign;
+    BigDecimal cash;
+    BigDecimal change;
+    MixedPayment mixedPayment;
+    StockReservationResponse stockReservation;
+}
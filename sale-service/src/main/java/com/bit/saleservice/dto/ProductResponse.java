@@ -15,7 +15,7 @@ import java.math.BigDecimal;
  * @author Emirhan Tuygun
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class ProductResponse implements Serializable {
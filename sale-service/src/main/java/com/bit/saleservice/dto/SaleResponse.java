@@ -13,7 +13,7 @@ import java.util.List;
 /**
  * This class represents a response for a sale.
  * It contains various attributes related to the sale, such as cashier, date, payment method,
- * campaign names, products, cash, change, total, total with campaign, and mixed payment.
+ * campaign names, products, cash, change, total, total with campaign, mixed payment, and status.
  *
  * @author Emirhan Tuygun
  */
@@ -34,4 +34,6 @@ public class SaleResponse {
     private BigDecimal total;
     private BigDecimal totalWithCampaign;
     private MixedPayment mixedPayment;
+    private String status;
+    private String failureReason;
 }
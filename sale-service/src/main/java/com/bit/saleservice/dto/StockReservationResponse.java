@@ -0,0 +1,26 @@
+package com.bit.saleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * This class represents a stock reservation response object. It contains the reservation id,
+ * the expiration date of the reservation, and the reserved products with their prices.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationResponse {
+
+    private String reservationId;
+    private Date expiresAt;
+    private List<ProductResponse> products;
+}
@@ -0,0 +1,34 @@
+package com.bit.saleservice.dto;
+
+import com.bit.saleservice.entity.MixedPayment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Represents a sale made by a terminal while it was offline, uploaded when the terminal reconnects.
+ * Besides the details of a sale request, it carries the reference the terminal gave the sale and the time the sale
+ * was made, so that the sale is recorded on the day it took place rather than the day it was uploaded.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SyncSaleRequest {
+
+    private String reference;
+    private Date date;
+    private String cashier;
+    private String paymentMethod;
+    private List<Long> campaignIds;
+    private List<SaleProductRequest> products;
+    private BigDecimal cash;
+    private MixedPayment mixedPayment;
+}
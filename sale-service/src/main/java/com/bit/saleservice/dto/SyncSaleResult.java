@@ -0,0 +1,34 @@
+package com.bit.saleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * This class represents the result of one sale of an offline sync upload.
+ * The index is the position of the sale in the upload. A created sale carries its id and the total it was priced at,
+ * a duplicate one, which was already recorded by an earlier upload, carries the id of the recorded sale, and a failed
+ * one carries the reason it was rejected.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncSaleResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String DUPLICATE = "DUPLICATE";
+    public static final String FAILED = "FAILED";
+
+    private int index;
+    private String reference;
+    private String status;
+    private Long saleId;
+    private BigDecimal totalWithCampaign;
+    private String error;
+}
@@ -7,9 +7,12 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.SoftDelete;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a campaign entity in the sale service.
@@ -33,7 +36,33 @@ public class Campaign {
     private String name;
     private String details;
     private Date expiration;
-    private Boolean isExpired;
+    @Builder.Default
+    private Boolean isExpired = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "rule_type")
+    private CampaignRuleType ruleType;
+
+    @Column(name = "threshold_amount")
+    private BigDecimal thresholdAmount;
+
+    @Column(name = "discount_amount")
+    private BigDecimal discountAmount;
+
+    @Column(name = "discount_percentage")
+    private BigDecimal discountPercentage;
+
+    @Column(name = "buy_quantity")
+    private Integer buyQuantity;
+
+    @Column(name = "free_quantity")
+    private Integer freeQuantity;
+
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "campaign_products", joinColumns = @JoinColumn(name = "campaign_id"))
+    @Column(name = "product_id")
+    private Set<Long> productIds = new HashSet<>();
 
     @Builder.Default
     @ManyToMany(mappedBy = "campaigns", cascade = CascadeType.DETACH)
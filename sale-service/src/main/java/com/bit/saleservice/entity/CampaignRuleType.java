@@ -0,0 +1,12 @@
+package com.bit.saleservice.entity;
+
+/**
+ * Represents the different rule types a campaign can be defined with.
+ *
+ * @author Emirhan Tuygun
+ */
+public enum CampaignRuleType {
+    THRESHOLD_DISCOUNT,
+    BUY_N_GET_M,
+    PERCENTAGE_OFF
+}
@@ -0,0 +1,51 @@
+package com.bit.saleservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Represents the sales of one business day aggregated by a dimension, such as a product name, a cashier or
+ * a payment method. Only sales that are not cancelled are rolled up.
+ *
+ * @author Emirhan Tuygun
+ */
+@Entity
+@Table(name = "daily_sales_rollups",
+        uniqueConstraints = {@UniqueConstraint(name = "uk_daily_sales_rollups_day_dimension_key",
+                columnNames = {"business_day", "dimension", "dimension_key"})}
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "business_day", nullable = false)
+    private LocalDate businessDay;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RollupDimension dimension;
+
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+
+    @Column(name = "sale_count", nullable = false)
+    private long saleCount;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false)
+    private BigDecimal total;
+}
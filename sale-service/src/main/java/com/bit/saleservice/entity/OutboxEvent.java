@@ -0,0 +1,47 @@
+package com.bit.saleservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Represents a message that is waiting to be published to RabbitMQ.
+ * This entity is mapped to the 'outbox_events' table in the database and it is written
+ * in the same transaction as the change that produces the message.
+ *
+ * @author Emirhan Tuygun
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The ID the message is published with, so that the consumer can skip a message delivered more than once.
+     * It is random rather than the row ID, which starts over when the table is recreated.
+     */
+    @Column(name = "message_id", unique = true)
+    private String messageId;
+
+    private String exchange;
+
+    @Column(name = "routing_key")
+    private String routingKey;
+
+    @Column(columnDefinition = "text")
+    private String payload;
+
+    @Column(name = "created_at")
+    private Date createdAt;
+}
@@ -1,5 +1,6 @@
 package com.bit.saleservice.entity;
 
+import com.bit.saleservice.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.SoftDelete;
 import java.math.BigDecimal;
+import java.util.Date;
 
 /**
  * Represents a product entity in the sale service.
@@ -23,7 +25,7 @@ import java.math.BigDecimal;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
     private Long productId;
@@ -38,6 +40,12 @@ public class Product {
     @Column(name = "total_price")
     private BigDecimal totalPrice;
 
+    /**
+     * Copy of the date of the sale, the products table is partitioned by it like the sales table.
+     */
+    @Column(name = "sale_date")
+    private Date saleDate;
+
     @ManyToOne(cascade = CascadeType.ALL)
     @JoinColumn(name = "sale_id")
     private Sale sale;
@@ -0,0 +1,12 @@
+package com.bit.saleservice.entity;
+
+/**
+ * Enum representing the dimensions the daily sales are rolled up by.
+ *
+ * @author Emirhan Tuygun
+ */
+public enum RollupDimension {
+    PRODUCT,
+    CASHIER,
+    PAYMENT_METHOD
+}
@@ -1,10 +1,12 @@
 package com.bit.saleservice.entity;
 
+import com.bit.saleservice.id.TimeOrderedId;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.SoftDelete;
 
 import java.math.BigDecimal;
@@ -15,6 +17,9 @@ import java.util.List;
  * Represents a Sale entity in the SaleService application.
  * This entity is mapped to the 'sales' table in the database.
  * It uses Hibernate's SoftDelete annotation to handle deleted records.
+ * It is versioned, so that concurrent changes of the same sale fail instead of overwriting each other.
+ * The products and campaigns of the sales loaded in a session are fetched together, up to 100 sales per query,
+ * so that mapping a list of sales does not issue two queries per sale.
  *
  * @author Emirhan Tuygun
  */
@@ -30,15 +35,19 @@ import java.util.List;
 public class Sale {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long id;
 
+    @Version
+    private Long version;
+
     private String cashier;
     private Date date;
 
     @Column(name = "payment_method")
     private Payment paymentMethod;
 
+    @BatchSize(size = 100)
     @ManyToMany(cascade = CascadeType.DETACH)
     @JoinTable(
             name = "sale_campaigns",
@@ -46,6 +55,7 @@ public class Sale {
             inverseJoinColumns = @JoinColumn(name = "campaign_id"))
     private List<Campaign> campaigns;
 
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL)
     private List<Product> products;
     private BigDecimal cash;
@@ -58,4 +68,9 @@ public class Sale {
 
     @Builder.Default
     private boolean cancelled = false;
+
+    @Builder.Default
+    private SaleStatus status = SaleStatus.COMPLETED;
+
+    private String failureReason;
 }
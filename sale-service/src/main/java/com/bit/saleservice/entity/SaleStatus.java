@@ -0,0 +1,13 @@
+package com.bit.saleservice.entity;
+
+/**
+ * Represents the states of a sale. Sales created synchronously are completed right away, while the sales of the
+ * asynchronous checkout are pending until they are priced and saved, or failed when that was not possible.
+ *
+ * @author Emirhan Tuygun
+ */
+public enum SaleStatus {
+    COMPLETED,
+    PENDING,
+    FAILED
+}
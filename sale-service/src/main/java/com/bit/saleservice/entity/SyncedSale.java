@@ -0,0 +1,35 @@
+package com.bit.saleservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents an offline sale recorded by the sync, by the reference the terminal gave it.
+ * The reference is unique per cashier, so that a sale uploaded again is recognised instead of being recorded twice.
+ * It is kept out of the sales table, since a unique key of the partitioned sales table would have to include the date.
+ *
+ * @author Emirhan Tuygun
+ */
+@Entity
+@Table(name = "synced_sales",
+        uniqueConstraints = {@UniqueConstraint(name = "uk_synced_sales_cashier_reference", columnNames = {"cashier", "reference"})}
+)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncedSale {
+
+    @Id
+    @Column(name = "sale_id")
+    private Long saleId;
+
+    @Column(nullable = false)
+    private String cashier;
+
+    @Column(nullable = false)
+    private String reference;
+}
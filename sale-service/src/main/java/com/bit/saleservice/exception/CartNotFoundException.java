@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when a cart with the given ID is not found, such as one that expired or was checked out.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class CartNotFoundException extends RuntimeException {
+
+    /**
+     * Constructs a new CartNotFoundException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public CartNotFoundException(String message) {
+        super(message);
+    }
+}
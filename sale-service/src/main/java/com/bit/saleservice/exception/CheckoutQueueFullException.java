@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when the asynchronous checkout cannot accept more sales because its queue is full.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class CheckoutQueueFullException extends RuntimeException {
+
+    /**
+     * Constructs a new CheckoutQueueFullException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public CheckoutQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when a request with the same Idempotency-Key is still being processed.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new IdempotencyConflictException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
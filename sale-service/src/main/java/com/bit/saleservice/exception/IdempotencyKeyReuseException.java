@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when an Idempotency-Key is reused with a different request body.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class IdempotencyKeyReuseException extends RuntimeException {
+
+    /**
+     * Constructs a new IdempotencyKeyReuseException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public IdempotencyKeyReuseException(String message) {
+        super(message);
+    }
+}
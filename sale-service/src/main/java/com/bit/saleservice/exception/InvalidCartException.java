@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when a cart operation is not valid for the contents of the cart, such as voiding more units than were scanned or checking out an empty cart.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class InvalidCartException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidCartException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidCartException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when a pagination cursor cannot be decoded or does not match the requested sort.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new InvalidCursorException with the specified detail message and cause.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     * @param cause the cause (which is saved for later retrieval by the {@link #getCause()} method)
+     */
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
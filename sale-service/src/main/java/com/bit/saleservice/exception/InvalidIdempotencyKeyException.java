@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when the Idempotency-Key header of a request is blank or too long.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class InvalidIdempotencyKeyException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidIdempotencyKeyException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when the requested sales rollup dimension does not exist.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class InvalidRollupDimensionException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidRollupDimensionException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidRollupDimensionException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new InvalidRollupDimensionException with the specified detail message and cause.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     * @param cause the cause (which is saved for later retrieval by the {@link #getCause()} method)
+     */
+    public InvalidRollupDimensionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when a sale is not in the status an operation requires, such as updating a sale
+ * that is still pending or completing a sale that is not pending anymore.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class InvalidSaleStatusException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidSaleStatusException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidSaleStatusException(String message) {
+        super(message);
+    }
+}
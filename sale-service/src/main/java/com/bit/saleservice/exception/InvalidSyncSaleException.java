@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when a sale uploaded by the offline sync is missing required details.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class InvalidSyncSaleException extends RuntimeException {
+
+    /**
+     * Constructs a new InvalidSyncSaleException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public InvalidSyncSaleException(String message) {
+        super(message);
+    }
+}
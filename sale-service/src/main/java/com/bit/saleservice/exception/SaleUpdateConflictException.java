@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when a sale is still changed concurrently after all the attempts to change it.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class SaleUpdateConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new SaleUpdateConflictException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public SaleUpdateConflictException(String message) {
+        super(message);
+    }
+}
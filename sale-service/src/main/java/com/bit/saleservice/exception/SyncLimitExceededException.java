@@ -0,0 +1,17 @@
+package com.bit.saleservice.exception;
+
+/**
+ * This exception is thrown when an offline sync upload contains more sales than a single request may carry.
+ * It extends RuntimeException to allow for unchecked exceptions.
+ */
+public class SyncLimitExceededException extends RuntimeException {
+
+    /**
+     * Constructs a new SyncLimitExceededException with the specified detail message.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method)
+     */
+    public SyncLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -257,4 +257,148 @@ public class _GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         log.error("Parsing exception: {}", ex.getMessage());
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Handles InvalidCursorException.
+     *
+     * @param ex the InvalidCursorException to handle
+     * @return a ResponseEntity with a BAD_REQUEST status and the exception message as the body
+     */
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<String> handleInvalidCursorException(InvalidCursorException ex) {
+        log.error("Invalid cursor exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidRollupDimensionException.
+     *
+     * @param ex the InvalidRollupDimensionException to handle
+     * @return a ResponseEntity with a BAD_REQUEST status and the exception message as the body
+     */
+    @ExceptionHandler(InvalidRollupDimensionException.class)
+    public ResponseEntity<String> handleInvalidRollupDimensionException(InvalidRollupDimensionException ex) {
+        log.error("Invalid rollup dimension exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles InvalidIdempotencyKeyException.
+     *
+     * @param ex the InvalidIdempotencyKeyException to handle
+     * @return a ResponseEntity with a BAD_REQUEST status and the exception message as the body
+     */
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<String> handleInvalidIdempotencyKeyException(InvalidIdempotencyKeyException ex) {
+        log.error("Invalid idempotency key exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles IdempotencyKeyReuseException.
+     *
+     * @param ex the IdempotencyKeyReuseException to handle
+     * @return a ResponseEntity with an UNPROCESSABLE_ENTITY status and the exception message as the body
+     */
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex) {
+        log.error("Idempotency key reuse exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Handles IdempotencyConflictException.
+     *
+     * @param ex the IdempotencyConflictException to handle
+     * @return a ResponseEntity with a CONFLICT status and the exception message as the body
+     */
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<String> handleIdempotencyConflictException(IdempotencyConflictException ex) {
+        log.error("Idempotency conflict exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles SyncLimitExceededException.
+     *
+     * @param ex the SyncLimitExceededException to handle
+     * @return a ResponseEntity with a PAYLOAD_TOO_LARGE status and the exception message as the body
+     */
+    @ExceptionHandler(SyncLimitExceededException.class)
+    public ResponseEntity<String> handleSyncLimitExceededException(SyncLimitExceededException ex) {
+        log.error("Sync limit exceeded exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Handles InvalidSyncSaleException.
+     *
+     * @param ex the InvalidSyncSaleException to handle
+     * @return a ResponseEntity with a BAD_REQUEST status and the exception message as the body
+     */
+    @ExceptionHandler(InvalidSyncSaleException.class)
+    public ResponseEntity<String> handleInvalidSyncSaleException(InvalidSyncSaleException ex) {
+        log.error("Invalid sync sale exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles SaleUpdateConflictException.
+     *
+     * @param ex the SaleUpdateConflictException to handle
+     * @return a ResponseEntity with a CONFLICT status and the exception message as the body
+     */
+    @ExceptionHandler(SaleUpdateConflictException.class)
+    public ResponseEntity<String> handleSaleUpdateConflictException(SaleUpdateConflictException ex) {
+        log.error("Sale update conflict exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles InvalidSaleStatusException.
+     *
+     * @param ex the InvalidSaleStatusException to handle
+     * @return a ResponseEntity with a CONFLICT status and the exception message as the body
+     */
+    @ExceptionHandler(InvalidSaleStatusException.class)
+    public ResponseEntity<String> handleInvalidSaleStatusException(InvalidSaleStatusException ex) {
+        log.error("Invalid sale status exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Handles CheckoutQueueFullException.
+     *
+     * @param ex the CheckoutQueueFullException to handle
+     * @return a ResponseEntity with a SERVICE_UNAVAILABLE status and the exception message as the body
+     */
+    @ExceptionHandler(CheckoutQueueFullException.class)
+    public ResponseEntity<String> handleCheckoutQueueFullException(CheckoutQueueFullException ex) {
+        log.error("Checkout queue full exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles CartNotFoundException.
+     *
+     * @param ex the CartNotFoundException to handle
+     * @return a ResponseEntity with a NOT_FOUND status and the exception message as the body
+     */
+    @ExceptionHandler(CartNotFoundException.class)
+    public ResponseEntity<String> handleCartNotFoundException(CartNotFoundException ex) {
+        log.error("Cart not found exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Handles InvalidCartException.
+     *
+     * @param ex the InvalidCartException to handle
+     * @return a ResponseEntity with a BAD_REQUEST status and the exception message as the body
+     */
+    @ExceptionHandler(InvalidCartException.class)
+    public ResponseEntity<String> handleInvalidCartException(InvalidCartException ex) {
+        log.error("Invalid cart exception: {}", ex.getMessage());
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
 }
@@ -0,0 +1,19 @@
+package com.bit.saleservice.id;
+
+/**
+ * Generates the ids of the entities annotated with {@link TimeOrderedId}.
+ * Implementations must be thread-safe and must never return the same id twice, also across the instances of the
+ * service, and the ids they return should grow with time so that they are inserted at the end of the primary key index.
+ *
+ * @author Emirhan Tuygun
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Returns a new id.
+     *
+     * @return The id.
+     */
+    long nextId();
+}
@@ -0,0 +1,89 @@
+package com.bit.saleservice.id;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time-ordered 64-bit ids in the Snowflake layout: the milliseconds since a custom epoch in the upper
+ * 41 bits after the sign bit, then the id of the node that generated the id, then a sequence number that tells
+ * apart the ids generated by the node in the same millisecond. The 22 bits after the timestamp are shared by the
+ * node id and the sequence, so a deployment with fewer nodes can give more of them to the sequence.
+ * <p>
+ * The generator never waits for the clock. When the sequence of a millisecond runs out, or the clock moves
+ * backwards, it keeps counting from the last id it returned, borrowing from the following milliseconds, so that
+ * the ids of a node stay unique and increasing.
+ *
+ * @author Emirhan Tuygun
+ */
+public final class SnowflakeIdGenerator implements IdGenerator {
+
+    /**
+     * The number of bits holding the milliseconds since the epoch, enough for about 69 years.
+     */
+    public static final int TIMESTAMP_BITS = 41;
+
+    /**
+     * The number of bits shared by the node id and the sequence.
+     */
+    public static final int NODE_AND_SEQUENCE_BITS = Long.SIZE - 1 - TIMESTAMP_BITS;
+
+    private final long epochMillis;
+    private final long node;
+    private final int sequenceBits;
+    private final long maxTimestamp;
+    private final LongSupplier clock;
+
+    // The timestamp of the last id in the upper bits and its sequence in the lower sequenceBits bits,
+    // starting before the epoch so that the first id has sequence 0
+    private final AtomicLong lastState = new AtomicLong(-1);
+
+    /**
+     * Creates a generator reading the system clock.
+     *
+     * @param epoch    The instant the timestamps of the ids count from.
+     * @param nodeBits The number of bits holding the node id, at most {@link #NODE_AND_SEQUENCE_BITS} - 1.
+     * @param nodeId   The id of the node, unique among the instances generating ids for the same tables.
+     */
+    public SnowflakeIdGenerator(Instant epoch, int nodeBits, long nodeId) {
+        this(epoch, nodeBits, nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(Instant epoch, int nodeBits, long nodeId, LongSupplier clock) {
+        if (nodeBits < 0 || nodeBits >= NODE_AND_SEQUENCE_BITS) {
+            throw new IllegalArgumentException("Node bits must be between 0 and " + (NODE_AND_SEQUENCE_BITS - 1));
+        }
+        if (nodeId < 0 || nodeId >= 1L << nodeBits) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + ((1L << nodeBits) - 1));
+        }
+        this.epochMillis = epoch.toEpochMilli();
+        this.node = nodeId;
+        this.sequenceBits = NODE_AND_SEQUENCE_BITS - nodeBits;
+        this.maxTimestamp = (1L << TIMESTAMP_BITS) - 1;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            long last = lastState.get();
+            long timestamp = clock.getAsLong() - epochMillis;
+
+            // A new millisecond starts the sequence over, otherwise the sequence is incremented,
+            // carrying into the timestamp when it runs out
+            long next = timestamp > last >> sequenceBits ? timestamp << sequenceBits : last + 1;
+            if (lastState.compareAndSet(last, next)) {
+                return toId(next);
+            }
+        }
+    }
+
+    private long toId(long state) {
+        long timestamp = state >>> sequenceBits;
+        if (timestamp > maxTimestamp || timestamp < 0) {
+            throw new IllegalStateException("The timestamp of the id does not fit in " + TIMESTAMP_BITS + " bits");
+        }
+        long sequence = state & ((1L << sequenceBits) - 1);
+        return timestamp << NODE_AND_SEQUENCE_BITS | node << sequenceBits | sequence;
+    }
+}
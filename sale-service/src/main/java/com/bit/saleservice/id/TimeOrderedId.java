@@ -0,0 +1,21 @@
+package com.bit.saleservice.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the id of an entity to be generated by the application with the {@link IdGenerator} of the service
+ * instead of by the database. The id is known as soon as the entity is persisted, so Hibernate can batch the
+ * inserts of the entity, which it cannot do for identity columns.
+ *
+ * @author Emirhan Tuygun
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
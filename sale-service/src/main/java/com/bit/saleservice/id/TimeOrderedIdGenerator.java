@@ -0,0 +1,46 @@
+package com.bit.saleservice.id;
+
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.time.Instant;
+
+/**
+ * Hibernate generator behind {@link TimeOrderedId}.
+ * Delegates to the {@link IdGenerator} passed in the Hibernate settings under {@link #ID_GENERATOR_SETTING},
+ * so that the entities share the generator of the service and its node id.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+public class TimeOrderedIdGenerator implements IdentifierGenerator {
+
+    /**
+     * The Hibernate setting holding the {@link IdGenerator} instance.
+     */
+    public static final String ID_GENERATOR_SETTING = "com.bit.saleservice.id_generator";
+
+    private final IdGenerator idGenerator;
+
+    public TimeOrderedIdGenerator(TimeOrderedId annotation, Member member, CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(ID_GENERATOR_SETTING);
+
+        if (setting instanceof IdGenerator configuredIdGenerator) {
+            this.idGenerator = configuredIdGenerator;
+        } else {
+            // Only expected outside of the application, where there is a single node
+            log.warn("No id generator configured for {}, generating ids as node 0", member.getDeclaringClass().getSimpleName());
+            this.idGenerator = new SnowflakeIdGenerator(Instant.EPOCH, 0, 0);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        return idGenerator.nextId();
+    }
+}
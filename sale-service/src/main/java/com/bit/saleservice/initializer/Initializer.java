@@ -1,6 +1,7 @@
 package com.bit.saleservice.initializer;
 
 import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.CampaignRuleType;
 import com.bit.saleservice.entity.Payment;
 import com.bit.saleservice.entity.Product;
 import com.bit.saleservice.entity.Sale;
@@ -56,18 +57,26 @@ public class Initializer implements CommandLineRunner {
                 .name("Spend $200, Save $50")
                 .details("Spend $200 or more at our market and save $50 on your total purchase.")
                 .expiration(new Date(System.currentTimeMillis() + hour))
+                .ruleType(CampaignRuleType.THRESHOLD_DISCOUNT)
+                .thresholdAmount(BigDecimal.valueOf(200))
+                .discountAmount(BigDecimal.valueOf(50))
                 .build();
 
         Campaign campaign_2 = Campaign.builder()
                 .name("Buy 2, Get 1 Free")
                 .details("Customers who purchase two eligible items from our store will receive a third item of equal or lesser value at no additional cost.")
                 .expiration(new Date(System.currentTimeMillis() + day))
+                .ruleType(CampaignRuleType.BUY_N_GET_M)
+                .buyQuantity(2)
+                .freeQuantity(1)
                 .build();
 
         Campaign campaign_3 = Campaign.builder()
                 .name("20% Off Your Entire Purchase")
                 .details("This campaign offers a discount of 20% off the total price of the entire purchase.")
                 .expiration(new Date(System.currentTimeMillis() + week))
+                .ruleType(CampaignRuleType.PERCENTAGE_OFF)
+                .discountPercentage(BigDecimal.valueOf(20))
                 .build();
 
         campaignRepository.save(campaign_1);
@@ -112,6 +121,7 @@ public class Initializer implements CommandLineRunner {
 
             saleRepository.save(sale);
             product.setSale(sale);
+            product.setSaleDate(date);
             productRepository.save(product);
         }
     }
@@ -0,0 +1,133 @@
+package com.bit.saleservice.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on amounts held as a long number of minor units (cents).
+ * Basket pricing, campaign evaluation and payments work on minor units so that they neither allocate a
+ * BigDecimal per operation nor pick up binary floating-point error; amounts are converted from and back to
+ * BigDecimal only where they enter or leave the pricing code, that is at the entity and DTO boundary.
+ * Every operation that can lose precision takes an explicit rounding mode, and every operation that can
+ * overflow throws an ArithmeticException instead of wrapping around.
+ *
+ * @author Emirhan Tuygun
+ */
+public final class Money {
+
+    /**
+     * The number of fraction digits of an amount, matching the scale of the amount columns.
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * The rounding mode used when an incoming amount has more fraction digits than {@link #SCALE}.
+     */
+    public static final RoundingMode AMOUNT_ROUNDING = RoundingMode.HALF_UP;
+
+    /**
+     * The whole of an amount expressed in basis points.
+     */
+    public static final long WHOLE_IN_BASIS_POINTS = 10_000L;
+
+    private static final long MINOR_UNITS_PER_UNIT = 100L;
+
+    private Money() {
+    }
+
+    /**
+     * Converts an amount to minor units, rounding it to {@link #SCALE} fraction digits with {@link #AMOUNT_ROUNDING}.
+     *
+     * @param amount The amount to convert.
+     * @return The amount in minor units.
+     * @throws ArithmeticException If the amount does not fit in a long number of minor units.
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        int scale = amount.scale();
+        if (scale == 0) {
+            // Whole amounts, such as most prices, are converted without allocating
+            return Math.multiplyExact(amount.longValueExact(), MINOR_UNITS_PER_UNIT);
+        }
+        BigDecimal rounded = scale > SCALE ? amount.setScale(SCALE, AMOUNT_ROUNDING) : amount;
+        return rounded.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Converts an amount in minor units back to an amount with {@link #SCALE} fraction digits.
+     *
+     * @param minorUnits The amount in minor units.
+     * @return The amount.
+     */
+    public static BigDecimal toAmount(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Converts a percentage such as 12.5 to basis points, hundredths of a percent, rounding it with
+     * {@link #AMOUNT_ROUNDING} when it has more than two fraction digits.
+     *
+     * @param percentage The percentage to convert.
+     * @return The percentage in basis points.
+     */
+    public static long toBasisPoints(BigDecimal percentage) {
+        return percentage.movePointRight(2).setScale(0, AMOUNT_ROUNDING).longValueExact();
+    }
+
+    /**
+     * Multiplies an amount by a quantity.
+     *
+     * @param minorUnits The amount in minor units.
+     * @param quantity   The quantity to multiply by.
+     * @return The product in minor units.
+     * @throws ArithmeticException If the result overflows.
+     */
+    public static long times(long minorUnits, int quantity) {
+        return Math.multiplyExact(minorUnits, quantity);
+    }
+
+    /**
+     * Returns the given share of an amount, expressed in basis points, rounded to a whole minor unit.
+     *
+     * @param minorUnits  The amount in minor units.
+     * @param basisPoints The share in basis points, where 10000 is the whole amount.
+     * @param rounding    The rounding mode applied to the fraction of a minor unit.
+     * @return The share of the amount in minor units.
+     * @throws ArithmeticException If the result overflows, or the rounding mode is UNNECESSARY and rounding is needed.
+     */
+    public static long share(long minorUnits, long basisPoints, RoundingMode rounding) {
+        return divide(Math.multiplyExact(minorUnits, basisPoints), WHOLE_IN_BASIS_POINTS, rounding);
+    }
+
+    /**
+     * Divides two longs, rounding the quotient with the given rounding mode the way BigDecimal would.
+     *
+     * @param dividend The dividend.
+     * @param divisor  The divisor, which must not be zero.
+     * @param rounding The rounding mode applied to the quotient.
+     * @return The rounded quotient.
+     * @throws ArithmeticException If the divisor is zero, or the rounding mode is UNNECESSARY and rounding is needed.
+     */
+    public static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        // The sign of the exact quotient, the truncated quotient is moved one unit in this direction when rounding up
+        int sign = Long.signum(dividend) * Long.signum(divisor);
+        long absRemainder = Math.abs(remainder);
+        long absRest = Math.abs(divisor) - absRemainder;
+        boolean awayFromZero = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> absRemainder >= absRest;
+            case HALF_DOWN -> absRemainder > absRest;
+            case HALF_EVEN -> absRemainder > absRest || (absRemainder == absRest && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
+}
@@ -4,8 +4,16 @@ import com.bit.saleservice.entity.Campaign;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * This interface represents a repository for managing {@link Campaign} entities.
@@ -25,4 +33,24 @@ public interface CampaignRepository extends JpaRepository<Campaign, Long> {
      * @return a {@link Page} of {@link Campaign} entities that satisfy the given {@link Specification}
      */
     Page<Campaign> findAll(Specification<Campaign> spec, Pageable pageable);
+
+    /**
+     * Finds all campaigns together with the product IDs their rules are scoped to, in a single query.
+     *
+     * @return a list of all {@link Campaign} entities with their product IDs initialized
+     */
+    @EntityGraph(attributePaths = "productIds")
+    @Query("SELECT c FROM Campaign c")
+    List<Campaign> findAllWithProductIds();
+
+    /**
+     * Sets the isExpired flag of the campaigns with the given IDs in a single update.
+     *
+     * @param ids the IDs of the campaigns that have expired
+     * @return the number of campaigns updated
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Campaign c SET c.isExpired = true WHERE c.id IN :ids")
+    int markExpired(@Param("ids") Collection<Long> ids);
 }
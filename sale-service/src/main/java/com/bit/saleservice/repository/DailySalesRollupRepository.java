@@ -0,0 +1,130 @@
+package com.bit.saleservice.repository;
+
+import com.bit.saleservice.entity.DailySalesRollup;
+import com.bit.saleservice.entity.RollupDimension;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * This interface represents a repository for managing {@link DailySalesRollup} entities.
+ * Besides reading the rollups, it includes an upsert that adds a delta to a rollup row and the queries
+ * that rebuild the rollups of a range of business days from the sales.
+ *
+ * @author Emirhan Tuygun
+ */
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    /**
+     * The stored ordinal of the completed status. Pending and failed sales are left out of the rollups.
+     */
+    String COMPLETED_STATUS = ":#{T(com.bit.saleservice.entity.SaleStatus).COMPLETED.ordinal()}";
+
+    /**
+     * Returns the rollups of the given dimension for the business days between the given days, both inclusive.
+     *
+     * @param dimension The dimension of the rollups.
+     * @param from      The first business day.
+     * @param to        The last business day.
+     * @return The rollups ordered by business day and dimension key.
+     */
+    List<DailySalesRollup> findByDimensionAndBusinessDayBetweenOrderByBusinessDayAscDimensionKeyAsc(
+            RollupDimension dimension, LocalDate from, LocalDate to);
+
+    /**
+     * Adds the given amounts to the rollup row of the given business day, dimension and key, creating the row
+     * if it does not exist yet. The amounts are negative when a sale is taken out of the rollups.
+     * This method is annotated with {@link Transactional} to ensure atomicity and {@link Modifying} to indicate that it modifies data.
+     *
+     * @param businessDay  The business day of the sale.
+     * @param dimension    The name of the dimension.
+     * @param dimensionKey The product name, cashier or payment method.
+     * @param saleCount    The number of sales to add.
+     * @param quantity     The quantity of products to add.
+     * @param total        The amount to add.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollups (business_day, dimension, dimension_key, sale_count, quantity, total) " +
+            "VALUES (:businessDay, :dimension, :dimensionKey, :saleCount, :quantity, :total) " +
+            "ON CONFLICT (business_day, dimension, dimension_key) DO UPDATE SET " +
+            "sale_count = daily_sales_rollups.sale_count + EXCLUDED.sale_count, " +
+            "quantity = daily_sales_rollups.quantity + EXCLUDED.quantity, " +
+            "total = daily_sales_rollups.total + EXCLUDED.total", nativeQuery = true)
+    void addToRollup(@Param("businessDay") LocalDate businessDay, @Param("dimension") String dimension,
+                     @Param("dimensionKey") String dimensionKey, @Param("saleCount") long saleCount,
+                     @Param("quantity") long quantity, @Param("total") BigDecimal total);
+
+    /**
+     * Deletes the rollups of the business days in the given range.
+     * This method is annotated with {@link Transactional} to ensure atomicity and {@link Modifying} to indicate that it modifies data.
+     *
+     * @param from  The first business day, inclusive.
+     * @param until The business day after the last one, exclusive.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM daily_sales_rollups WHERE business_day >= :from AND business_day < :until", nativeQuery = true)
+    void deleteRollups(@Param("from") LocalDate from, @Param("until") LocalDate until);
+
+    /**
+     * Recomputes the product rollups of the business days in the given range from the completed sales that are not cancelled.
+     * This method is annotated with {@link Transactional} to ensure atomicity and {@link Modifying} to indicate that it modifies data.
+     *
+     * @param from  The first business day, inclusive.
+     * @param until The business day after the last one, exclusive.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollups (business_day, dimension, dimension_key, sale_count, quantity, total) " +
+            "SELECT CAST(s.date AS date), 'PRODUCT', p.name, COUNT(DISTINCT s.id), SUM(p.quantity), SUM(p.total_price) " +
+            "FROM sales s JOIN products p ON p.sale_id = s.id " +
+            "WHERE s.date >= :from AND s.date < :until AND p.sale_date >= :from AND p.sale_date < :until " +
+            "AND s.cancelled = false AND s.deleted = false AND p.deleted = false AND s.status = " + COMPLETED_STATUS + " " +
+            "GROUP BY CAST(s.date AS date), p.name", nativeQuery = true)
+    void rebuildProductRollups(@Param("from") LocalDate from, @Param("until") LocalDate until);
+
+    /**
+     * Recomputes the cashier rollups of the business days in the given range from the completed sales that are not cancelled.
+     * This method is annotated with {@link Transactional} to ensure atomicity and {@link Modifying} to indicate that it modifies data.
+     *
+     * @param from  The first business day, inclusive.
+     * @param until The business day after the last one, exclusive.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollups (business_day, dimension, dimension_key, sale_count, quantity, total) " +
+            "SELECT CAST(s.date AS date), 'CASHIER', s.cashier, COUNT(*), SUM(COALESCE(q.quantity, 0)), " +
+            "SUM(COALESCE(s.total_with_campaign, s.total)) " +
+            "FROM sales s LEFT JOIN (SELECT sale_id, SUM(quantity) AS quantity FROM products " +
+            "WHERE sale_date >= :from AND sale_date < :until AND deleted = false GROUP BY sale_id) q ON q.sale_id = s.id " +
+            "WHERE s.date >= :from AND s.date < :until AND s.cancelled = false AND s.deleted = false " +
+            "AND s.status = " + COMPLETED_STATUS + " " +
+            "GROUP BY CAST(s.date AS date), s.cashier", nativeQuery = true)
+    void rebuildCashierRollups(@Param("from") LocalDate from, @Param("until") LocalDate until);
+
+    /**
+     * Aggregates the completed sales that are not cancelled in the given range by business day and payment method.
+     * The payment method is stored by its ordinal, so the rows are turned into rollups by the caller.
+     *
+     * @param from  The first business day, inclusive.
+     * @param until The business day after the last one, exclusive.
+     * @return Rows of business day, payment method ordinal, number of sales, quantity of products and total amount.
+     */
+    @Query(value = "SELECT CAST(s.date AS date), s.payment_method, COUNT(*), SUM(COALESCE(q.quantity, 0)), " +
+            "SUM(COALESCE(s.total_with_campaign, s.total)) " +
+            "FROM sales s LEFT JOIN (SELECT sale_id, SUM(quantity) AS quantity FROM products " +
+            "WHERE sale_date >= :from AND sale_date < :until AND deleted = false GROUP BY sale_id) q ON q.sale_id = s.id " +
+            "WHERE s.date >= :from AND s.date < :until AND s.cancelled = false AND s.deleted = false " +
+            "AND s.status = " + COMPLETED_STATUS + " " +
+            "GROUP BY CAST(s.date AS date), s.payment_method", nativeQuery = true)
+    List<Object[]> aggregateSalesByPaymentMethod(@Param("from") LocalDate from, @Param("until") LocalDate until);
+}
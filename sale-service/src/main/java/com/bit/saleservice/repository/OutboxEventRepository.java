@@ -0,0 +1,29 @@
+package com.bit.saleservice.repository;
+
+import com.bit.saleservice.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for OutboxEvent entity.
+ * Provides methods for interacting with the OutboxEvent table in the database.
+ *
+ * @author Emirhan Tuygun
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Finds the oldest OutboxEvents and locks them until the end of the transaction.
+     * The events that are locked by another transaction are skipped, so that multiple instances can relay concurrently.
+     *
+     * @param limit The maximum number of OutboxEvents to find.
+     * @return A List of the oldest OutboxEvent entities that are not locked.
+     */
+    @Query(value = "SELECT * FROM outbox_events ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> findBatchForRelay(@Param("limit") int limit);
+}
@@ -0,0 +1,151 @@
+package com.bit.saleservice.repository;
+
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.MixedPayment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.entity.SyncedSale;
+import com.bit.saleservice.id.IdGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repository class that inserts many sales at once with JDBC batching.
+ * The sales and products are written with one batched statement per table instead of a round trip per row,
+ * which the offline sync relies on to ingest thousands of sales per request. The ids are taken from the
+ * {@link IdGenerator} before the insert, so no generated keys have to be read back and the driver is free to
+ * rewrite each batch into multi-row inserts. The sales are expected to be complete, including the Sale references
+ * of their products, and are not attached to the persistence context.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Repository
+@RequiredArgsConstructor
+public class SaleBatchRepository {
+
+    private static final String INSERT_SALE = "INSERT INTO sales (id, cashier, date, payment_method, cash, change, total, " +
+            "total_with_campaign, cash_for_mixed, credit_card_for_mixed, status, cancelled, deleted, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, FALSE, 0)";
+    private static final String INSERT_PRODUCT = "INSERT INTO products (id, product_id, name, barcode_number, quantity, " +
+            "price, total_price, sale_date, sale_id, deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE)";
+    private static final String INSERT_SALE_CAMPAIGN = "INSERT INTO sale_campaigns (sale_id, campaign_id) VALUES (?, ?)";
+    private static final String INSERT_SYNCED_SALE = "INSERT INTO synced_sales (sale_id, cashier, reference) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdGenerator idGenerator;
+
+    /**
+     * Inserts the given sales together with their products and campaigns, and sets the generated ids of both.
+     * Runs in the transaction of the caller.
+     *
+     * @param sales The sales to insert.
+     */
+    public void insertSales(List<Sale> sales) {
+        log.trace("Entering insertSales method in SaleBatchRepository with {} sales", sales.size());
+
+        if (sales.isEmpty()) {
+            log.trace("Exiting insertSales method in SaleBatchRepository without sales");
+            return;
+        }
+
+        List<Product> products = new ArrayList<>();
+        List<Object[]> saleCampaigns = new ArrayList<>();
+        for (Sale sale : sales) {
+            sale.setId(idGenerator.nextId());
+            for (Product product : sale.getProducts()) {
+                product.setId(idGenerator.nextId());
+                products.add(product);
+            }
+            if (sale.getCampaigns() != null) {
+                for (Campaign campaign : sale.getCampaigns()) {
+                    saleCampaigns.add(new Object[]{sale.getId(), campaign.getId()});
+                }
+            }
+        }
+
+        insertSaleRows(sales);
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Product product = products.get(i);
+                ps.setLong(1, product.getId());
+                ps.setObject(2, product.getProductId(), Types.BIGINT);
+                ps.setString(3, product.getName());
+                ps.setString(4, product.getBarcodeNumber());
+                ps.setObject(5, product.getQuantity(), Types.INTEGER);
+                ps.setBigDecimal(6, product.getPrice());
+                ps.setBigDecimal(7, product.getTotalPrice());
+                ps.setTimestamp(8, new Timestamp(product.getSaleDate().getTime()));
+                ps.setLong(9, product.getSale().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return products.size();
+            }
+        });
+        if (!saleCampaigns.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SALE_CAMPAIGN, saleCampaigns);
+        }
+        log.debug("Inserted {} sales with {} products and {} campaign links", sales.size(), products.size(), saleCampaigns.size());
+
+        log.trace("Exiting insertSales method in SaleBatchRepository");
+    }
+
+    /**
+     * Inserts the references of the given synced sales in one batch.
+     * Runs in the transaction of the caller, and fails if a reference is already recorded for the same cashier.
+     *
+     * @param syncedSales The synced sales to insert.
+     */
+    public void insertSyncedSales(List<SyncedSale> syncedSales) {
+        log.trace("Entering insertSyncedSales method in SaleBatchRepository with {} synced sales", syncedSales.size());
+
+        List<Object[]> rows = syncedSales.stream()
+                .map(syncedSale -> new Object[]{syncedSale.getSaleId(), syncedSale.getCashier(), syncedSale.getReference()})
+                .toList();
+        jdbcTemplate.batchUpdate(INSERT_SYNCED_SALE, rows);
+
+        log.trace("Exiting insertSyncedSales method in SaleBatchRepository");
+    }
+
+    /**
+     * Inserts the rows of the sales in one batch.
+     */
+    private void insertSaleRows(List<Sale> sales) {
+        jdbcTemplate.batchUpdate(INSERT_SALE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Sale sale = sales.get(i);
+                MixedPayment mixedPayment = sale.getMixedPayment();
+                ps.setLong(1, sale.getId());
+                ps.setString(2, sale.getCashier());
+                ps.setTimestamp(3, new Timestamp(sale.getDate().getTime()));
+                ps.setInt(4, sale.getPaymentMethod().ordinal());
+                ps.setBigDecimal(5, sale.getCash());
+                ps.setBigDecimal(6, sale.getChange());
+                ps.setBigDecimal(7, sale.getTotal());
+                ps.setBigDecimal(8, sale.getTotalWithCampaign());
+                ps.setBigDecimal(9, mixedPayment != null ? mixedPayment.getCashAmount() : null);
+                ps.setBigDecimal(10, mixedPayment != null ? mixedPayment.getCreditCardAmount() : null);
+                ps.setInt(11, sale.getStatus().ordinal());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return sales.size();
+            }
+        });
+    }
+}
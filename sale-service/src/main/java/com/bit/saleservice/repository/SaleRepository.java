@@ -1,17 +1,25 @@
 package com.bit.saleservice.repository;
 
 import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.entity.SaleStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.FluentQuery;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Date;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Sale entity.
@@ -22,6 +30,11 @@ import java.util.List;
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
 
+    /**
+     * Number of rows fetched per round trip when streaming Sales.
+     */
+    int EXPORT_FETCH_SIZE = 100;
+
     /**
      * Finds all Sales that match the given Specification and are paginated.
      *
@@ -32,11 +45,52 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     Page<Sale> findAll(Specification<Sale> spec, Pageable pageable);
 
     /**
-     * Finds all soft-deleted Sales.
+     * Runs a fluent query over the Sales that match the given Specification.
+     * Used for keyset scrolling, which neither skips rows with an offset nor counts them.
+     *
+     * @param spec The Specification to filter Sales.
+     * @param queryFunction The function defining the sort, limit and scroll position of the query.
+     * @return The result of the query function.
+     */
+    <S extends Sale, R> R findBy(Specification<Sale> spec, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction);
+
+    /**
+     * Counts the Sales that match the given Specification.
+     *
+     * @param spec The Specification to filter Sales.
+     * @return The number of Sales that match the given Specification.
+     */
+    long count(Specification<Sale> spec);
+
+    /**
+     * Finds all Sales with the given status.
      *
-     * @return A List of Sale entities that have been soft-deleted.
+     * @param status The status of the Sales to find.
+     * @return A List of Sale entities with the given status.
      */
-    @Query(value = "SELECT * FROM sales WHERE deleted = true", nativeQuery = true)
+    List<Sale> findAllByStatus(SaleStatus status);
+
+    /**
+     * Streams all completed Sales ordered by ID with a forward-only cursor, fetching a limited number of rows at a time.
+     * The returned stream must be consumed within a transaction and closed afterwards.
+     *
+     * @return A Stream of all completed Sale entities.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Sale s WHERE s.status = com.bit.saleservice.entity.SaleStatus.COMPLETED ORDER BY s.id")
+    Stream<Sale> streamAllCompleted();
+
+    /**
+     * Finds all soft-deleted completed Sales.
+     * The status is stored by its ordinal, which is the ordinal of COMPLETED here.
+     *
+     * @return A List of completed Sale entities that have been soft-deleted.
+     */
+    @Query(value = "SELECT * FROM sales WHERE deleted = true " +
+            "AND status = :#{T(com.bit.saleservice.entity.SaleStatus).COMPLETED.ordinal()}", nativeQuery = true)
     List<Sale> findSoftDeletedSales();
 
     /**
@@ -45,7 +99,7 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
      * @param id The ID of the Sale to check.
      * @return True if a Sale with the given ID exists and is soft-deleted, false otherwise.
      */
-    @Query(value = "SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM sales s WHERE s.id = :id AND s.deleted = true", nativeQuery = true)
+    @Query(value = "SELECT CASE WHEN COUNT(*) > 0 THEN true ELSE false END FROM sales s WHERE s.id = :id AND s.deleted = true", nativeQuery = true)
     boolean existsByIdAndDeletedTrue(@Param("id") Long id);
 
     /**
@@ -97,4 +151,17 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     @Modifying
     @Query(value = "DELETE FROM products WHERE sale_id = :id", nativeQuery = true)
     void deleteProductsForSale(@Param("id") Long id);
+
+    /**
+     * Fails the pending Sales of the asynchronous checkout that were accepted before the given date.
+     * The versions of the Sales are incremented, so that a worker still completing one of them fails its version check.
+     *
+     * @param before The date before which the pending Sales were accepted.
+     * @param failureReason The reason stored on the failed Sales.
+     * @return The number of failed Sales.
+     */
+    @Modifying
+    @Query("UPDATE Sale s SET s.status = com.bit.saleservice.entity.SaleStatus.FAILED, s.failureReason = :failureReason, " +
+            "s.version = s.version + 1 WHERE s.status = com.bit.saleservice.entity.SaleStatus.PENDING AND s.date < :before")
+    int failPendingSalesBefore(@Param("before") Date before, @Param("failureReason") String failureReason);
 }
@@ -0,0 +1,26 @@
+package com.bit.saleservice.repository;
+
+import com.bit.saleservice.entity.SyncedSale;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for SyncedSale entity.
+ * Provides methods for interacting with the SyncedSale table in the database.
+ *
+ * @author Emirhan Tuygun
+ */
+@Repository
+public interface SyncedSaleRepository extends JpaRepository<SyncedSale, Long> {
+
+    /**
+     * Finds the SyncedSales with any of the given references, of any cashier.
+     *
+     * @param references The references to find the SyncedSales of.
+     * @return A List of the SyncedSale entities with any of the given references.
+     */
+    List<SyncedSale> findAllByReferenceIn(Collection<String> references);
+}
@@ -0,0 +1,104 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.money.Money;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The basket campaign rules are evaluated against, with the prices and totals held in minor units.
+ * It is built from the products of a sale once, updated in place by the rules, and written back to the
+ * products only after every rule has been applied.
+ *
+ * @author Emirhan Tuygun
+ */
+public final class Basket {
+
+    private static final long NO_PRODUCT_ID = Long.MIN_VALUE;
+
+    private final List<Product> products;
+    private final long[] productIds;
+    private final int[] quantities;
+    private final long[] unitPrices;
+    private final long[] initialLineTotals;
+    private final long[] lineTotals;
+    private long total;
+
+    private Basket(List<Product> products, long total) {
+        int size = products.size();
+        this.products = products;
+        this.productIds = new long[size];
+        this.quantities = new int[size];
+        this.unitPrices = new long[size];
+        this.initialLineTotals = new long[size];
+        this.total = total;
+
+        for (int i = 0; i < size; i++) {
+            Product product = products.get(i);
+            // A line without a product id can only fall within the scope of basket-wide rules
+            productIds[i] = product.getProductId() != null ? product.getProductId() : NO_PRODUCT_ID;
+            quantities[i] = product.getQuantity();
+            unitPrices[i] = Money.toMinorUnits(product.getPrice());
+            initialLineTotals[i] = Money.toMinorUnits(product.getTotalPrice());
+        }
+        this.lineTotals = initialLineTotals.clone();
+    }
+
+    /**
+     * Creates a basket of the given products.
+     *
+     * @param products The products of the sale.
+     * @param total    The total amount of the sale.
+     * @return The basket.
+     */
+    public static Basket of(List<Product> products, BigDecimal total) {
+        return new Basket(products != null ? products : List.of(), Money.toMinorUnits(total));
+    }
+
+    public int size() {
+        return lineTotals.length;
+    }
+
+    public long getProductId(int line) {
+        return productIds[line];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[line];
+    }
+
+    public long getUnitPrice(int line) {
+        return unitPrices[line];
+    }
+
+    public long getLineTotal(int line) {
+        return lineTotals[line];
+    }
+
+    public void setLineTotal(int line, long lineTotal) {
+        lineTotals[line] = lineTotal;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * Writes the line totals the rules changed back to the products.
+     *
+     * @return The total amount of the basket.
+     */
+    public BigDecimal writeBack() {
+        for (int i = 0; i < lineTotals.length; i++) {
+            if (lineTotals[i] != initialLineTotals[i]) {
+                products.get(i).setTotalPrice(Money.toAmount(lineTotals[i]));
+            }
+        }
+        return Money.toAmount(total);
+    }
+}
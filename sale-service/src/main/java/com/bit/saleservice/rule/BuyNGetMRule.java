@@ -0,0 +1,50 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.exception.CampaignNotApplicableException;
+import com.bit.saleservice.money.Money;
+
+import java.util.Set;
+
+/**
+ * Buy N, get M free: for every full group of N + M units of the same product, M units are free.
+ *
+ * @author Emirhan Tuygun
+ */
+final class BuyNGetMRule extends CampaignRule {
+
+    private final int groupSize;
+    private final int freeQuantity;
+    private final String notApplicableMessage;
+
+    BuyNGetMRule(int buyQuantity, int freeQuantity, Set<Long> productIds) {
+        super(productIds);
+        this.groupSize = buyQuantity + freeQuantity;
+        this.freeQuantity = freeQuantity;
+        this.notApplicableMessage = "Campaign cannot be applied. Requires a minimum purchase of the same " + groupSize + " products to be applied.";
+    }
+
+    @Override
+    public void apply(Basket basket) {
+        long totalDiscount = 0;
+        boolean isApplicable = false;
+
+        for (int line = 0; line < basket.size(); line++) {
+            int quantity = basket.getQuantity(line);
+            if (quantity >= groupSize && isInScope(basket, line)) {
+                isApplicable = true;
+                int freeProducts = quantity / groupSize * freeQuantity;
+
+                long totalPriceOfFreeProducts = Money.times(basket.getUnitPrice(line), freeProducts);
+                basket.setLineTotal(line, basket.getLineTotal(line) - totalPriceOfFreeProducts);
+                totalDiscount += totalPriceOfFreeProducts;
+            }
+        }
+
+        // Check whether the campaign is applicable
+        if (!isApplicable) {
+            throw new CampaignNotApplicableException(notApplicableMessage);
+        }
+
+        basket.setTotal(basket.getTotal() - totalDiscount);
+    }
+}
@@ -0,0 +1,50 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.exception.CampaignNotApplicableException;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Base class of the in-memory evaluators a campaign definition is compiled into.
+ * A rule may be scoped to a set of products; an empty scope means the rule applies to the whole basket.
+ *
+ * @author Emirhan Tuygun
+ */
+public abstract class CampaignRule {
+
+    // Sorted, so that the scope is checked with a binary search instead of boxing every product id
+    private final long[] productIds;
+
+    protected CampaignRule(Set<Long> productIds) {
+        this.productIds = productIds.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    /**
+     * Applies the rule to the given basket, updating the line totals and the basket total in place.
+     *
+     * @param basket The basket containing the products and total amount in minor units.
+     * @throws CampaignNotApplicableException If the basket does not meet the conditions of the rule.
+     */
+    public abstract void apply(Basket basket);
+
+    /**
+     * Checks whether the rule is scoped to the whole basket.
+     *
+     * @return true if the rule is not restricted to specific products.
+     */
+    protected boolean isBasketWide() {
+        return productIds.length == 0;
+    }
+
+    /**
+     * Checks whether the given basket line falls within the scope of the rule.
+     *
+     * @param basket The basket the line belongs to.
+     * @param line   The index of the basket line to check.
+     * @return true if the rule applies to the product.
+     */
+    protected boolean isInScope(Basket basket, int line) {
+        return productIds.length == 0 || Arrays.binarySearch(productIds, basket.getProductId(line)) >= 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.entity.Campaign;
+import lombok.extern.log4j.Log4j2;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Compiles campaign definitions stored in the campaigns table into {@link CampaignRule} evaluators.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+public final class CampaignRuleCompiler {
+
+    private CampaignRuleCompiler() {
+    }
+
+    /**
+     * Compiles the given campaign into its evaluator.
+     *
+     * @param campaign The campaign definition to compile.
+     * @return The compiled campaign.
+     * @throws IllegalArgumentException If the campaign has no rule type or is missing a parameter its rule type requires.
+     */
+    public static CompiledCampaign compile(Campaign campaign) {
+        log.trace("Entering compile method in CampaignRuleCompiler class with campaign id: {}", campaign.getId());
+
+        if (campaign.getRuleType() == null) {
+            throw new IllegalArgumentException("Campaign has no rule type with id: " + campaign.getId());
+        }
+        if (campaign.getExpiration() == null) {
+            throw new IllegalArgumentException("Campaign has no expiration with id: " + campaign.getId());
+        }
+
+        Set<Long> productIds = campaign.getProductIds() == null ? Set.of() : Set.copyOf(campaign.getProductIds());
+
+        CampaignRule rule = switch (campaign.getRuleType()) {
+            case THRESHOLD_DISCOUNT -> new ThresholdDiscountRule(
+                    requirePositive(campaign.getThresholdAmount(), "thresholdAmount", campaign),
+                    requirePositive(campaign.getDiscountAmount(), "discountAmount", campaign),
+                    productIds);
+            case BUY_N_GET_M -> new BuyNGetMRule(
+                    requirePositive(campaign.getBuyQuantity(), "buyQuantity", campaign),
+                    requirePositive(campaign.getFreeQuantity(), "freeQuantity", campaign),
+                    productIds);
+            case PERCENTAGE_OFF -> {
+                BigDecimal percentage = requirePositive(campaign.getDiscountPercentage(), "discountPercentage", campaign);
+                if (percentage.compareTo(BigDecimal.valueOf(100)) > 0) {
+                    throw new IllegalArgumentException("Campaign discountPercentage must not exceed 100 with id: " + campaign.getId());
+                }
+                yield new PercentageOffRule(percentage, productIds);
+            }
+        };
+        log.debug("Compiled campaign with id: {} and rule type: {}", campaign.getId(), campaign.getRuleType());
+
+        log.trace("Exiting compile method in CampaignRuleCompiler class");
+        return new CompiledCampaign(campaign, campaign.getExpiration().getTime(), rule);
+    }
+
+    private static BigDecimal requirePositive(BigDecimal value, String name, Campaign campaign) {
+        if (value == null || value.signum() <= 0) {
+            throw new IllegalArgumentException("Campaign " + name + " must be positive with id: " + campaign.getId());
+        }
+        return value;
+    }
+
+    private static int requirePositive(Integer value, String name, Campaign campaign) {
+        if (value == null || value <= 0) {
+            throw new IllegalArgumentException("Campaign " + name + " must be positive with id: " + campaign.getId());
+        }
+        return value;
+    }
+}
@@ -0,0 +1,39 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.entity.Campaign;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A campaign definition compiled into its in-memory evaluator.
+ * The expiration is kept as epoch milliseconds, and the expired flag is flipped by the campaign registry
+ * when the expiration is reached, so that checking it at checkout is a single field read.
+ *
+ * @author Emirhan Tuygun
+ */
+@Getter
+@RequiredArgsConstructor
+public class CompiledCampaign {
+
+    private final Campaign campaign;
+    private final long expiresAt;
+    private final CampaignRule rule;
+    private volatile boolean expired;
+
+    /**
+     * Marks the campaign as expired.
+     */
+    public void markExpired() {
+        expired = true;
+    }
+
+    /**
+     * Checks whether the campaign had expired at the given time.
+     *
+     * @param time The time in epoch milliseconds.
+     * @return true if the expiration was reached at the given time, false otherwise.
+     */
+    public boolean isExpiredAt(long time) {
+        return time >= expiresAt;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.exception.CampaignNotApplicableException;
+import com.bit.saleservice.money.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Set;
+
+/**
+ * Percentage off: discounts the whole purchase, or only the scoped products, by a percentage.
+ * The discounted amounts are rounded half up to a whole minor unit, which is how the amount columns
+ * round the exact result.
+ *
+ * @author Emirhan Tuygun
+ */
+final class PercentageOffRule extends CampaignRule {
+
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    // The share of the amount that is kept after the discount, in basis points
+    private final long keptBasisPoints;
+
+    PercentageOffRule(BigDecimal discountPercentage, Set<Long> productIds) {
+        super(productIds);
+        this.keptBasisPoints = Money.WHOLE_IN_BASIS_POINTS - Money.toBasisPoints(discountPercentage);
+    }
+
+    @Override
+    public void apply(Basket basket) {
+        if (isBasketWide()) {
+            basket.setTotal(Money.share(basket.getTotal(), keptBasisPoints, ROUNDING));
+            return;
+        }
+
+        long totalDiscount = 0;
+        boolean isApplicable = false;
+
+        for (int line = 0; line < basket.size(); line++) {
+            if (isInScope(basket, line)) {
+                isApplicable = true;
+                long lineTotal = basket.getLineTotal(line);
+                long discountedLineTotal = Money.share(lineTotal, keptBasisPoints, ROUNDING);
+                basket.setLineTotal(line, discountedLineTotal);
+                totalDiscount += lineTotal - discountedLineTotal;
+            }
+        }
+
+        // Check whether the campaign is applicable
+        if (!isApplicable) {
+            throw new CampaignNotApplicableException("Campaign cannot be applied. None of the campaign products are in the sale.");
+        }
+
+        basket.setTotal(basket.getTotal() - totalDiscount);
+    }
+}
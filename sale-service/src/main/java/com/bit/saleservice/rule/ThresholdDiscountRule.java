@@ -0,0 +1,48 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.exception.CampaignNotApplicableException;
+import com.bit.saleservice.money.Money;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Spend X, save Y: subtracts a fixed amount from the total once the eligible subtotal reaches a threshold.
+ *
+ * @author Emirhan Tuygun
+ */
+final class ThresholdDiscountRule extends CampaignRule {
+
+    private final long thresholdAmount;
+    private final long discountAmount;
+    private final String notApplicableMessage;
+
+    ThresholdDiscountRule(BigDecimal thresholdAmount, BigDecimal discountAmount, Set<Long> productIds) {
+        super(productIds);
+        this.thresholdAmount = Money.toMinorUnits(thresholdAmount);
+        this.discountAmount = Money.toMinorUnits(discountAmount);
+        this.notApplicableMessage = "Campaign cannot be applied. Total must be equal to or over " + thresholdAmount.toPlainString() + ".";
+    }
+
+    @Override
+    public void apply(Basket basket) {
+        long eligibleTotal = isBasketWide() ? basket.getTotal() : getScopedTotal(basket);
+
+        // Check whether the campaign is applicable
+        if (eligibleTotal < thresholdAmount) {
+            throw new CampaignNotApplicableException(notApplicableMessage);
+        }
+
+        basket.setTotal(basket.getTotal() - discountAmount);
+    }
+
+    private long getScopedTotal(Basket basket) {
+        long scopedTotal = 0;
+        for (int line = 0; line < basket.size(); line++) {
+            if (isInScope(basket, line)) {
+                scopedTotal += basket.getLineTotal(line);
+            }
+        }
+        return scopedTotal;
+    }
+}
@@ -0,0 +1,180 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.PricedSale;
+import com.bit.saleservice.dto.SaleRequest;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.SaleStatus;
+import com.bit.saleservice.exception.CheckoutQueueFullException;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class runs the asynchronous checkout. A sale is accepted by saving it as pending, and the request thread is
+ * released right away. The sale is then finished in a pipeline of two worker stages: the pricing stage reserves its
+ * stocks and prices it, and the finalisation stage saves it and commits its stocks. A sale that fails in any stage is
+ * marked as failed with the reason, and its stock reservation is released.
+ * The clients wait for the result of a checkout with {@link #getResult}, which completes when the sale leaves the
+ * pending status. Checkouts running on this instance are awaited directly, the ones running on other instances are
+ * polled from the database.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class AsyncCheckoutService {
+
+    @Value("${async-checkout.poll-interval}")
+    private Duration POLL_INTERVAL;
+
+    @Value("${async-checkout.pending-timeout}")
+    private Duration PENDING_TIMEOUT;
+
+    private final SaleService saleService;
+    private final GatewayService gatewayService;
+    private final ExecutorService checkoutPricingExecutor;
+    private final ExecutorService checkoutFinalisationExecutor;
+    private final ConcurrentMap<Long, CompletableFuture<SaleResponse>> checkouts = new ConcurrentHashMap<>();
+
+    /**
+     * Accepts a sale for the asynchronous checkout. The sale is saved as pending and handed over to the worker stages.
+     *
+     * @param saleRequest The request object containing the sale details.
+     * @return The pending sale.
+     * @throws HeaderProcessingException  If the authorization token of the request cannot be read.
+     * @throws CheckoutQueueFullException If the pricing stage cannot accept more sales.
+     */
+    public SaleResponse submit(SaleRequest saleRequest) throws HeaderProcessingException {
+        log.trace("Entering submit method in AsyncCheckoutService");
+
+        // Capturing the token while the request is still available, the stages run after it has been answered
+        String authorization = gatewayService.getAuthorization();
+        SaleResponse pendingSale = saleService.createPendingSale(saleRequest);
+        Long id = pendingSale.getId();
+
+        CompletableFuture<SaleResponse> checkout = new CompletableFuture<>();
+        checkouts.put(id, checkout);
+        checkout.whenComplete((saleResponse, e) -> checkouts.remove(id, checkout));
+
+        try {
+            CompletableFuture
+                    .supplyAsync(() -> price(id, saleRequest, authorization), checkoutPricingExecutor)
+                    .thenApplyAsync(pricedSale -> complete(id, pricedSale, authorization), checkoutFinalisationExecutor)
+                    .whenComplete((saleResponse, e) -> {
+                        if (e == null) {
+                            checkout.complete(saleResponse);
+                        } else {
+                            fail(id, e instanceof CompletionException ? e.getCause() : e, checkout);
+                        }
+                    });
+
+        } catch (RejectedExecutionException e) {
+            log.warn("Checkout queue is full, rejecting sale with id: {}", id);
+            fail(id, new CheckoutQueueFullException("Checkout queue is full"), checkout);
+            throw new CheckoutQueueFullException("Checkout queue is full, please try again later");
+        }
+        log.info("Accepted sale for checkout with id: {}", id);
+
+        log.trace("Exiting submit method in AsyncCheckoutService");
+        return pendingSale;
+    }
+
+    /**
+     * Returns the result of a checkout, which completes with the sale once it is completed or failed.
+     * The returned future can be cancelled to stop waiting for the sale.
+     *
+     * @param id The ID of the sale.
+     * @return The future of the sale.
+     */
+    public CompletableFuture<SaleResponse> getResult(Long id) {
+        log.trace("Entering getResult method in AsyncCheckoutService with id: {}", id);
+
+        CompletableFuture<SaleResponse> checkout = checkouts.get(id);
+        if (checkout != null) {
+            log.trace("Exiting getResult method in AsyncCheckoutService with a checkout of this instance");
+            return checkout.thenApply(saleResponse -> saleResponse);
+        }
+
+        CompletableFuture<SaleResponse> result = new CompletableFuture<>();
+        poll(id, result);
+
+        log.trace("Exiting getResult method in AsyncCheckoutService");
+        return result;
+    }
+
+    /**
+     * Fails the pending sales whose checkout did not finish in time, such as the ones of an instance that stopped.
+     * Their stock reservations expire in the product-service.
+     */
+    @Scheduled(fixedDelayString = "${async-checkout.sweep-interval}")
+    public void failAbandonedCheckouts() {
+        log.trace("Entering failAbandonedCheckouts method in AsyncCheckoutService");
+
+        saleService.failAbandonedPendingSales(new Date(System.currentTimeMillis() - PENDING_TIMEOUT.toMillis()));
+
+        log.trace("Exiting failAbandonedCheckouts method in AsyncCheckoutService");
+    }
+
+    private PricedSale price(Long id, SaleRequest saleRequest, String authorization) {
+        log.debug("Pricing sale with id: {}", id);
+        try {
+            return gatewayService.withAuthorization(authorization, () -> saleService.priceSale(saleRequest));
+        } catch (HeaderProcessingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private SaleResponse complete(Long id, PricedSale pricedSale, String authorization) {
+        log.debug("Completing sale with id: {}", id);
+        try {
+            return gatewayService.withAuthorization(authorization, () -> saleService.completePendingSale(id, pricedSale));
+        } catch (HeaderProcessingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void fail(Long id, Throwable cause, CompletableFuture<SaleResponse> checkout) {
+        log.error("Checkout failed for sale with id: {}", id, cause);
+        try {
+            checkout.complete(saleService.failPendingSale(id, cause.getMessage()));
+        } catch (RuntimeException e) {
+            log.error("Failed to mark sale as failed with id: {}", id, e);
+            checkout.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Reads the sale until it leaves the pending status or the result is cancelled.
+     */
+    private void poll(Long id, CompletableFuture<SaleResponse> result) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            SaleResponse saleResponse = saleService.getSale(id);
+            if (!SaleStatus.PENDING.toString().equals(saleResponse.getStatus())) {
+                result.complete(saleResponse);
+                return;
+            }
+            CompletableFuture.delayedExecutor(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS, checkoutFinalisationExecutor)
+                    .execute(() -> poll(id, result));
+
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
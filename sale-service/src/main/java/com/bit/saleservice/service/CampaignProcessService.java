@@ -1,23 +1,30 @@
 package com.bit.saleservice.service;
 
+import com.bit.saleservice.dto.CampaignEligibilityResponse;
+import com.bit.saleservice.dto.CampaignEvaluationResponse;
 import com.bit.saleservice.dto.CampaignProcessRequest;
 import com.bit.saleservice.dto.CampaignProcessResponse;
 import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.Product;
 import com.bit.saleservice.exception.CampaignNotApplicableException;
 import com.bit.saleservice.exception.CampaignNotFoundException;
 import com.bit.saleservice.exception.DuplicateCampaignException;
-import com.bit.saleservice.repository.CampaignRepository;
+import com.bit.saleservice.rule.Basket;
+import com.bit.saleservice.rule.CompiledCampaign;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
 
 /**
  * Service class for processing campaigns.
+ * Campaigns are looked up in the in-memory {@link CampaignRegistry},
+ * so that applying campaigns to a sale does not touch the database.
  *
  * @author Emirhan Tuygun
  */
@@ -26,7 +33,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CampaignProcessService {
 
-    private final CampaignRepository campaignRepository;
+    private final CampaignRegistry campaignRegistry;
 
     /**
      * Retrieves a list of campaigns based on their IDs.
@@ -37,25 +44,20 @@ public class CampaignProcessService {
     protected List<Campaign> getCampaigns(List<Long> ids) {
         log.trace("Entering getCampaigns method in CampaignProcessService with ids: {}", ids);
 
-        List<Campaign> campaigns;
-        try {
-            campaigns = ids.stream()
-                    .map(campaignRepository::findById)
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .toList();
-            log.info("Successfully retrieved campaigns with ids: {}", ids);
-        } catch (Exception e) {
-            log.error("Error occurred while retrieving campaigns with ids: {}", ids, e);
-            throw e;
-        }
+        List<Campaign> result = ids.stream()
+                .map(campaignRegistry::getCampaign)
+                .filter(Objects::nonNull)
+                .map(CompiledCampaign::getCampaign)
+                .toList();
+        log.info("Successfully retrieved campaigns with ids: {}", ids);
 
         log.trace("Exiting getCampaigns method in CampaignProcessService with ids: {}", ids);
-        return campaigns;
+        return result;
     }
 
     /**
      * Processes the campaigns based on the given request.
+     * All campaigns are validated before any of them is applied, and then applied in the requested order.
      *
      * @param campaignProcessRequest The request containing the campaign IDs and products.
      * @return The response after processing the campaigns.
@@ -66,45 +68,27 @@ public class CampaignProcessService {
     protected CampaignProcessResponse processCampaigns(CampaignProcessRequest campaignProcessRequest) {
         log.trace("Entering processCampaigns method in CampaignProcessService with campaignProcessRequest: {}", campaignProcessRequest);
 
-        List<Long> ids = campaignProcessRequest.getCampaignIds();
-
-        // Checking whether there are duplicates
-        boolean hasDuplicates = ids.stream().distinct().count() < ids.size();
-        if (hasDuplicates) {
-            log.warn("Duplicate campaign ids found in campaignProcessRequest: {}", campaignProcessRequest);
-            throw new DuplicateCampaignException("Same campaign cannot be used more than once!");
+        // Validating the campaigns
+        List<CompiledCampaign> campaigns = validateCampaigns(campaignProcessRequest.getCampaignIds(),
+                campaignProcessRequest.getSaleDate());
+
+        // Evaluating the campaigns on a basket in minor units, and converting the amounts back once at the end
+        Basket basket = Basket.of(campaignProcessRequest.getProducts(), campaignProcessRequest.getTotal());
+        for (CompiledCampaign campaign : campaigns) {
+            try {
+                campaign.getRule().apply(basket);
+            } catch (CampaignNotApplicableException e) {
+                log.warn("Campaign {} not applicable: {}", campaign.getCampaign().getId(), e.getMessage());
+                throw e;
+            }
+            log.debug("Applied campaign {}. New total in minor units: {}", campaign.getCampaign().getId(), basket.getTotal());
         }
 
         // Creating CampaignProcessResponse object
         CampaignProcessResponse campaignProcessResponse = CampaignProcessResponse.builder()
                 .products(campaignProcessRequest.getProducts())
-                .total(campaignProcessRequest.getTotal())
+                .total(basket.writeBack())
                 .build();
-
-        for (long id : ids) {
-            // Validating the campaign
-            isCampaignValidAndNotExpired(id);
-
-            // Processing the campaign based on its ID
-            switch ((int) id) {
-                case 1:
-                    log.debug("Processing campaign 1 for campaignProcessResponse: {}", campaignProcessResponse);
-                    campaign_1(campaignProcessResponse);
-                    break;
-
-                case 2:
-                    log.debug("Processing campaign 2 for campaignProcessResponse: {}", campaignProcessResponse);
-                    campaign_2(campaignProcessResponse);
-                    break;
-
-                case 3:
-                    log.debug("Processing campaign 3 for campaignProcessResponse: {}", campaignProcessResponse);
-                    campaign_3(campaignProcessResponse);
-                    break;
-
-                default:
-            }
-        }
         log.info("Successfully processed campaigns for campaignProcessRequest: {}", campaignProcessRequest);
 
         log.trace("Exiting processCampaigns method in CampaignProcessService with campaignProcessRequest: {}", campaignProcessRequest);
@@ -112,113 +96,134 @@ public class CampaignProcessService {
     }
 
     /**
-     * Campaign 1: Spend $200, Save $50
-     * Applies campaign 1 to the given {@link CampaignProcessResponse}.
+     * Evaluates the campaigns of a cart on its products.
+     * Unlike {@link #processCampaigns}, a campaign that is not applicable does not fail the evaluation, since the cart
+     * may still become eligible as more items are scanned. It is reported with the reason and skipped, and the other
+     * campaigns are applied in the given order. The rules leave the basket untouched when they are not applicable.
      *
-     * @param campaignProcessResponse The response containing the products and total amount.
-     * @throws CampaignNotApplicableException If the total amount is less than the required limit.
+     * @param ids      The IDs of the campaigns of the cart.
+     * @param products The products of the cart, whose line totals are set to the totals after the eligible campaigns.
+     * @param total    The total amount of the cart before the campaigns.
+     * @return The eligibility of the campaigns, the products, and the total after the eligible campaigns.
      */
-    protected void campaign_1(CampaignProcessResponse campaignProcessResponse) {
-        log.trace("Entering campaign_1 method in CampaignProcessService with campaignProcessResponse: {}", campaignProcessResponse);
+    protected CampaignEvaluationResponse evaluateCampaigns(List<Long> ids, List<Product> products, BigDecimal total) {
+        log.trace("Entering evaluateCampaigns method in CampaignProcessService with ids: {}", ids);
+
+        List<CampaignEligibilityResponse> eligibilities = new ArrayList<>(ids.size());
+        Basket basket = Basket.of(products, total);
+        for (Long id : ids) {
+            CompiledCampaign campaign = campaignRegistry.getCampaign(id);
+            if (campaign == null) {
+                eligibilities.add(new CampaignEligibilityResponse(id, null, false, "Campaign not found with id: " + id));
+                continue;
+            }
 
-        BigDecimal limitTotal = BigDecimal.valueOf(200);
-        BigDecimal total = campaignProcessResponse.getTotal();
+            String name = campaign.getCampaign().getName();
+            if (campaign.isExpired()) {
+                eligibilities.add(new CampaignEligibilityResponse(id, name, false, "Campaign expired with name: " + name));
+                continue;
+            }
 
-        // Check whether the campaign is applicable
-        if (total.compareTo(limitTotal) < 0) {
-            log.warn("Campaign 1 not applicable. Total: {} is less than limit: {}", total, limitTotal);
-            throw new CampaignNotApplicableException("Campaign cannot be applied. Total must be equal to or over 200.");
+            try {
+                campaign.getRule().apply(basket);
+                eligibilities.add(new CampaignEligibilityResponse(id, name, true, null));
+            } catch (CampaignNotApplicableException e) {
+                log.debug("Campaign {} not applicable yet: {}", id, e.getMessage());
+                eligibilities.add(new CampaignEligibilityResponse(id, name, false, e.getMessage()));
+            }
         }
-        log.debug("Campaign 1 is applicable");
 
-        BigDecimal newTotal = total.subtract(BigDecimal.valueOf(50));
-        campaignProcessResponse.setTotal(newTotal);
-        log.info("Successfully applied campaign 1. New total: {}", newTotal);
+        CampaignEvaluationResponse campaignEvaluationResponse = CampaignEvaluationResponse.builder()
+                .campaigns(eligibilities)
+                .products(products)
+                .total(basket.writeBack())
+                .build();
 
-        log.trace("Exiting campaign_1 method in CampaignProcessService with campaignProcessResponse: {}", campaignProcessResponse);
+        log.trace("Exiting evaluateCampaigns method in CampaignProcessService with ids: {}", ids);
+        return campaignEvaluationResponse;
     }
 
     /**
-     * Campaign 2: Buy 2, Get 1 Free campaign.
-     * Applies campaign 2 to the given {@link CampaignProcessResponse}.
+     * Checks whether any of the campaigns with the given IDs has expired or been removed.
      *
-     * @param campaignProcessResponse The response containing the products and total amount.
-     * @throws CampaignNotApplicableException If the required conditions for the campaign are not met.
+     * @param ids The IDs of the campaigns to check.
+     * @return true if any of the campaigns is expired or not found, false otherwise.
      */
-    protected void campaign_2(CampaignProcessResponse campaignProcessResponse) {
-        log.trace("Entering campaign_2 method in CampaignProcessService with campaignProcessResponse: {}", campaignProcessResponse);
-
-        boolean isApplicable = false;
-        for (var product : campaignProcessResponse.getProducts()) {
-            if (product.getQuantity() >= 3) {
-                isApplicable = true;
-                int freeProducts = product.getQuantity() / 3;
-
-                BigDecimal totalPriceOfFreeProducts = product.getPrice().multiply(BigDecimal.valueOf(freeProducts));
-
-                BigDecimal newTotalPrice = product.getTotalPrice().subtract(totalPriceOfFreeProducts);
-                product.setTotalPrice(newTotalPrice);
-
-                BigDecimal newTotal = campaignProcessResponse.getTotal().subtract(totalPriceOfFreeProducts);
-                campaignProcessResponse.setTotal(newTotal);
-
-                log.info("Successfully applied campaign 2 to the product with id: {}", product.getProductId());
-            }
-        }
-
-        // Check whether the campaign is applicable
-        if (!isApplicable) {
-            log.warn("Campaign 2 not applicable. No product with quantity greater than or equal to 3 found in campaignProcessResponse: {}", campaignProcessResponse);
-            throw new CampaignNotApplicableException("Campaign cannot be applied. Requires a minimum purchase of the same 3 products to be applied.");
-        }
-        log.debug("Campaign 2 is applicable");
+    protected boolean isAnyExpired(List<Long> ids) {
+        return ids.stream()
+                .map(campaignRegistry::getCampaign)
+                .anyMatch(campaign -> campaign == null || campaign.isExpired());
+    }
 
-        log.trace("Exiting campaign_2 method in CampaignProcessService with campaignProcessResponse: {}", campaignProcessResponse);
+    /**
+     * Checks that the given campaign IDs are distinct, and that all of them are found and not expired.
+     *
+     * @param ids The IDs of the campaigns to validate.
+     * @return The compiled campaigns in the given order.
+     * @throws DuplicateCampaignException If the same campaign is used more than once.
+     * @throws CampaignNotFoundException If a campaign with the given ID is not found.
+     * @throws CampaignNotApplicableException If a campaign is expired.
+     */
+    protected List<CompiledCampaign> validateCampaigns(List<Long> ids) {
+        return validateCampaigns(ids, null);
     }
 
     /**
-     * Campaign 3: 20% Off Your Entire Purchase
-     * Applies campaign 3 to the given {@link CampaignProcessResponse}.
+     * Checks that the given campaign IDs are distinct, and that all of them are found and were not expired
+     * at the given sale date.
      *
-     * @param campaignProcessResponse The response containing the products and total amount.
-     * @throws CampaignNotApplicableException If the required conditions for the campaign are not met.
+     * @param ids      The IDs of the campaigns to validate.
+     * @param saleDate The date the sale was made, or null for a sale made now.
+     * @return The compiled campaigns in the given order.
+     * @throws DuplicateCampaignException If the same campaign is used more than once.
+     * @throws CampaignNotFoundException If a campaign with the given ID is not found.
+     * @throws CampaignNotApplicableException If a campaign is expired.
      */
-    protected void campaign_3(CampaignProcessResponse campaignProcessResponse) {
-        log.trace("Entering campaign_3 method in CampaignProcessService with campaignProcessResponse: {}", campaignProcessResponse);
+    protected List<CompiledCampaign> validateCampaigns(List<Long> ids, Date saleDate) {
+        log.trace("Entering validateCampaigns method in CampaignProcessService with ids: {}, saleDate: {}", ids, saleDate);
 
-        BigDecimal newTotal = campaignProcessResponse.getTotal().multiply(BigDecimal.valueOf(0.80));
-        campaignProcessResponse.setTotal(newTotal);
-        log.info("Successfully applied campaign 3. New total: {}", newTotal);
+        // Checking whether there are duplicates
+        boolean hasDuplicates = ids.stream().distinct().count() < ids.size();
+        if (hasDuplicates) {
+            log.warn("Duplicate campaign ids found: {}", ids);
+            throw new DuplicateCampaignException("Same campaign cannot be used more than once!");
+        }
+        List<CompiledCampaign> campaigns = getValidCampaigns(ids, saleDate);
 
-        log.trace("Exiting campaign_3 method in CampaignProcessService with campaignProcessResponse: {}", campaignProcessResponse);
+        log.trace("Exiting validateCampaigns method in CampaignProcessService with ids: {}", ids);
+        return campaigns;
     }
 
     /**
-     * Checks if the campaign with the given ID is valid and not expired.
+     * Looks up the compiled campaigns with the given IDs and checks that none of them is expired.
      *
-     * @param id The ID of the campaign to check.
+     * @param ids      The IDs of the campaigns to look up.
+     * @param saleDate The date the sale was made, or null for a sale made now.
+     * @return The compiled campaigns in the given order.
      * @throws CampaignNotFoundException If a campaign with the given ID is not found.
-     * @throws CampaignNotApplicableException If the campaign is expired.
+     * @throws CampaignNotApplicableException If a campaign is expired.
      */
-    protected void isCampaignValidAndNotExpired(Long id) {
-        log.trace("Entering isCampaignValidAndNotExpired method in CampaignProcessService with id: {}", id);
-
-        // Finding the campaign
-        Campaign campaign = campaignRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.warn("Campaign not found with id: {}", id);
-                    return new CampaignNotFoundException("Campaign not found with id: " + id);
-                });
-        log.debug("Campaign found with id: {}", id);
-
-        // Checking if the campaign is expired
-        boolean isExpired = campaign.getExpiration().before(new Date());
-        if (isExpired) {
-            log.warn("Campaign expired with id: {} and name: {}", id, campaign.getName());
-            throw new CampaignNotApplicableException("Campaign expired with name: " + campaign.getName());
+    private List<CompiledCampaign> getValidCampaigns(List<Long> ids, Date saleDate) {
+        log.trace("Entering getValidCampaigns method in CampaignProcessService with ids: {}", ids);
+
+        List<CompiledCampaign> validCampaigns = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            CompiledCampaign campaign = campaignRegistry.getCampaign(id);
+            if (campaign == null) {
+                log.warn("Campaign not found with id: {}", id);
+                throw new CampaignNotFoundException("Campaign not found with id: " + id);
+            }
+
+            // Checking if the campaign is expired, at the time the sale was made if it was made earlier
+            boolean expired = saleDate == null ? campaign.isExpired() : campaign.isExpiredAt(saleDate.getTime());
+            if (expired) {
+                log.warn("Campaign expired with id: {} and name: {}", id, campaign.getCampaign().getName());
+                throw new CampaignNotApplicableException("Campaign expired with name: " + campaign.getCampaign().getName());
+            }
+            validCampaigns.add(campaign);
         }
-        log.info("Campaign is valid and not expired with id: {}", id);
 
-        log.trace("Exiting isCampaignValidAndNotExpired method in CampaignProcessService with id: {}", id);
+        log.trace("Exiting getValidCampaigns method in CampaignProcessService with ids: {}", ids);
+        return validCampaigns;
     }
 }
@@ -0,0 +1,168 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.repository.CampaignRepository;
+import com.bit.saleservice.rule.CampaignRuleCompiler;
+import com.bit.saleservice.rule.CompiledCampaign;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory registry of the compiled campaigns.
+ * Campaign definitions are loaded at startup and reloaded periodically. A hashed timer wheel flips each campaign
+ * to expired when its expiration is reached, and the expired flags are persisted to the campaigns table in batches.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class CampaignRegistry {
+
+    private final CampaignRepository campaignRepository;
+
+    @Value("${campaign-registry.tick-duration}")
+    private Duration TICK_DURATION;
+
+    @Value("${campaign-registry.ticks-per-wheel}")
+    private int TICKS_PER_WHEEL;
+
+    private volatile Map<Long, CompiledCampaign> campaigns = Map.of();
+    private final List<Timeout> expiryTimeouts = new ArrayList<>();
+    private final Queue<Long> pendingExpiredIds = new ConcurrentLinkedQueue<>();
+    private HashedWheelTimer expiryTimer;
+
+    /**
+     * Starts the timer wheel that expires the campaigns.
+     */
+    @PostConstruct
+    public void initExpiryTimer() {
+        expiryTimer = new HashedWheelTimer(new DefaultThreadFactory("campaign-expiry", true),
+                TICK_DURATION.toMillis(), TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+        log.info("Started campaign expiry timer with tick duration: {} and ticks per wheel: {}", TICK_DURATION, TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Stops the timer wheel, cancelling the pending expirations.
+     */
+    @PreDestroy
+    public void stopExpiryTimer() {
+        expiryTimer.stop();
+        log.info("Stopped campaign expiry timer");
+    }
+
+    /**
+     * Returns the compiled campaign with the given ID.
+     *
+     * @param id The ID of the campaign.
+     * @return The compiled campaign, or null if there is no campaign with a valid definition with the given ID.
+     */
+    public CompiledCampaign getCampaign(Long id) {
+        return campaigns.get(id);
+    }
+
+    /**
+     * Reads all campaign definitions, replaces the compiled campaigns with freshly compiled ones and reschedules
+     * their expirations. Runs once the application is ready and then periodically, so that changes to the campaigns
+     * table are picked up. Campaigns with an invalid definition are skipped and therefore cannot be applied.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${campaign-registry.refresh-interval}")
+    public synchronized void refreshCampaigns() {
+        log.trace("Entering refreshCampaigns method in CampaignRegistry");
+
+        Map<Long, CompiledCampaign> compiled = new HashMap<>();
+        for (Campaign campaign : campaignRepository.findAllWithProductIds()) {
+            try {
+                compiled.put(campaign.getId(), CampaignRuleCompiler.compile(campaign));
+            } catch (IllegalArgumentException e) {
+                log.error("Skipping campaign with invalid definition: {}", e.getMessage());
+            }
+        }
+
+        // Cancelling the expirations of the previous campaigns before scheduling the new ones
+        expiryTimeouts.forEach(Timeout::cancel);
+        expiryTimeouts.clear();
+        campaigns = Map.copyOf(compiled);
+
+        long now = System.currentTimeMillis();
+        for (CompiledCampaign campaign : compiled.values()) {
+            long delay = campaign.getExpiresAt() - now;
+            if (delay <= 0) {
+                expire(campaign);
+            } else {
+                expiryTimeouts.add(expiryTimer.newTimeout(timeout -> expire(campaign), delay, TimeUnit.MILLISECONDS));
+            }
+        }
+        log.info("Successfully compiled {} campaigns and scheduled {} expirations", compiled.size(), expiryTimeouts.size());
+
+        log.trace("Exiting refreshCampaigns method in CampaignRegistry");
+    }
+
+    /**
+     * Persists the expired flags of the campaigns that expired since the last flush in a single update.
+     * Campaigns whose update fails are kept and retried on the next flush.
+     */
+    @Scheduled(fixedDelayString = "${campaign-registry.expiry-flush-interval}")
+    public void flushExpiredCampaigns() {
+        log.trace("Entering flushExpiredCampaigns method in CampaignRegistry");
+
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = pendingExpiredIds.poll()) != null) {
+            ids.add(id);
+        }
+
+        if (ids.isEmpty()) {
+            log.trace("Exiting flushExpiredCampaigns method in CampaignRegistry with nothing to flush");
+            return;
+        }
+
+        try {
+            int updated = campaignRepository.markExpired(ids);
+            log.info("Marked {} campaigns as expired with ids: {}", updated, ids);
+        } catch (RuntimeException e) {
+            log.error("Failed to mark campaigns as expired with ids: {}", ids, e);
+            pendingExpiredIds.addAll(ids);
+        }
+
+        log.trace("Exiting flushExpiredCampaigns method in CampaignRegistry");
+    }
+
+    /**
+     * Flips the given campaign to expired and queues its expired flag to be persisted,
+     * unless the flag is already set in the campaigns table or the campaign has been replaced by a refresh.
+     *
+     * @param campaign The campaign that has expired.
+     */
+    private void expire(CompiledCampaign campaign) {
+        // A timeout that fired while a refresh was replacing it belongs to a campaign that is no longer registered
+        if (campaigns.get(campaign.getCampaign().getId()) != campaign) {
+            return;
+        }
+        campaign.markExpired();
+        if (!Boolean.TRUE.equals(campaign.getCampaign().getIsExpired())) {
+            pendingExpiredIds.add(campaign.getCampaign().getId());
+        }
+        log.debug("Campaign expired with id: {}", campaign.getCampaign().getId());
+    }
+}
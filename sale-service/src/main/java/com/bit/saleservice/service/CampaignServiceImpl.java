@@ -19,7 +19,6 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 /**
@@ -98,19 +97,16 @@ public class CampaignServiceImpl implements CampaignService{
         List<Predicate> predicates = new ArrayList<>();
         if (StringUtils.isNotBlank(name)) {
             log.debug("name query parameter is not empty");
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), SearchPatterns.contains(name), SearchPatterns.ESCAPE_CHAR));
         }
         if (StringUtils.isNotBlank(details)) {
             log.debug("details query parameter is not empty");
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("details")), "%" + details.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("details")), SearchPatterns.contains(details), SearchPatterns.ESCAPE_CHAR));
         }
         if (isExpired != null) {
             log.debug("isExpired query parameter is not null");
-            if (isExpired) {
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("expiration"), new Date()));
-            } else {
-                predicates.add(criteriaBuilder.greaterThan(root.get("expiration"), new Date()));
-            }
+            // The isExpired column is kept up to date by the CampaignRegistry
+            predicates.add(criteriaBuilder.equal(root.get("isExpired"), isExpired));
         }
 
         log.trace("Exiting getPredicates method in CampaignServiceImpl with predicates: {}", predicates);
@@ -0,0 +1,302 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.CampaignEligibilityResponse;
+import com.bit.saleservice.dto.CampaignEvaluationResponse;
+import com.bit.saleservice.dto.CartCheckoutRequest;
+import com.bit.saleservice.dto.CartItemRequest;
+import com.bit.saleservice.dto.CartItemResponse;
+import com.bit.saleservice.dto.CartRequest;
+import com.bit.saleservice.dto.CartResponse;
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.exception.CartNotFoundException;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.InvalidCartException;
+import com.bit.saleservice.exception.ProductNotFoundException;
+import com.bit.saleservice.exception.ProductOutOfStockException;
+import com.bit.saleservice.exception.ServerErrorException;
+import com.bit.saleservice.money.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This class keeps the carts being scanned at the tills in Redis.
+ * Every scan prices only the scanned product, updates the running total by the change of its line, and evaluates the
+ * campaigns of the cart on its lines in memory, so the cart always holds its priced state. The checkout then only
+ * reserves the stocks, processes the payment and saves the cart as a sale, without fetching the products again.
+ * A cart expires after it has not been changed for the configured time.
+ * A cart is meant to be scanned at a single till, so its scans are not guarded against each other, but its checkout
+ * claims it atomically so that it cannot be checked out twice.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class CartService {
+
+    private static final String KEY_PREFIX = "cart:";
+    private static final String NOT_FOUND_ERROR_MESSAGE = "Cart not found with id: ";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductCacheService productCacheService;
+    private final CampaignProcessService campaignProcessService;
+    private final SaleService saleService;
+
+    @Value("${cart.ttl}")
+    private Duration TTL;
+
+    /**
+     * Opens an empty cart for the given cashier and campaigns.
+     *
+     * @param cartRequest The request object containing the cashier and the campaign IDs.
+     * @return The created cart.
+     */
+    public CartResponse createCart(CartRequest cartRequest) {
+        log.trace("Entering createCart method in CartService with cartRequest: {}", cartRequest);
+
+        List<Long> campaignIds = cartRequest.getCampaignIds() != null ? cartRequest.getCampaignIds() : List.of();
+        campaignProcessService.validateCampaigns(campaignIds);
+
+        CartResponse cart = CartResponse.builder()
+                .id(UUID.randomUUID().toString())
+                .cashier(cartRequest.getCashier())
+                .campaignIds(new ArrayList<>(campaignIds))
+                .total(Money.toAmount(0))
+                .build();
+        evaluateCampaigns(cart);
+        saveCart(cart);
+        log.info("Cart created successfully with id: {}", cart.getId());
+
+        log.trace("Exiting createCart method in CartService");
+        return cart;
+    }
+
+    /**
+     * Retrieves a cart by its ID.
+     *
+     * @param id The ID of the cart.
+     * @return The cart.
+     * @throws CartNotFoundException If the cart is not found.
+     */
+    public CartResponse getCart(String id) {
+        log.trace("Entering getCart method in CartService with id: {}", id);
+
+        String value = stringRedisTemplate.opsForValue().get(KEY_PREFIX + id);
+        if (value == null) {
+            log.warn(NOT_FOUND_ERROR_MESSAGE + id);
+            throw new CartNotFoundException(NOT_FOUND_ERROR_MESSAGE + id);
+        }
+        CartResponse cart = readCart(value);
+
+        log.trace("Exiting getCart method in CartService with id: {}", id);
+        return cart;
+    }
+
+    /**
+     * Scans a product into a cart, or voids already scanned units of it with a negative quantity.
+     * Only the scanned product is looked up, and the total is changed by the change of its line.
+     *
+     * @param id              The ID of the cart.
+     * @param cartItemRequest The request object containing the product ID and the scanned quantity.
+     * @return The cart with the scanned product.
+     * @throws HeaderProcessingException  If there is an error processing the HTTP headers.
+     * @throws CartNotFoundException      If the cart is not found.
+     * @throws InvalidCartException       If the quantity is zero, or more units are voided than were scanned.
+     * @throws ProductNotFoundException   If the product is not found.
+     * @throws ProductOutOfStockException If there is not enough stock for the scanned quantity of the product.
+     */
+    public CartResponse addItem(String id, CartItemRequest cartItemRequest) throws HeaderProcessingException {
+        log.trace("Entering addItem method in CartService with id: {} and cartItemRequest: {}", id, cartItemRequest);
+
+        Long productId = cartItemRequest.getId();
+        int scannedQuantity = cartItemRequest.getQuantity();
+        if (scannedQuantity == 0) {
+            log.warn("Zero quantity scanned for product with id: {}", productId);
+            throw new InvalidCartException("Quantity must not be zero!");
+        }
+
+        CartResponse cart = getCart(id);
+        CartItemResponse item = cart.getItems().stream()
+                .filter(cartItem -> cartItem.getProductId().equals(productId))
+                .findFirst()
+                .orElse(null);
+        int quantity = (item != null ? item.getQuantity() : 0) + scannedQuantity;
+        if (quantity < 0) {
+            log.warn("Cannot void more than the scanned quantity of product with id: {}", productId);
+            throw new InvalidCartException("Cannot void more than the scanned quantity of product with id: " + productId);
+        }
+
+        // Pricing the scanned product and checking its stock, voids do not need the product
+        if (scannedQuantity > 0) {
+            ProductResponse productResponse = productCacheService.getProducts(List.of(productId)).get(productId);
+            if (productResponse == null) {
+                log.warn("Product not found with id: {}", productId);
+                throw new ProductNotFoundException("Product not found with id: " + productId);
+            }
+            if (productResponse.getStockQuantity() < quantity) {
+                log.warn("Not enough stock for product with id: {}", productId);
+                throw new ProductOutOfStockException("Not enough stock for product with id: " + productId);
+            }
+            if (item == null) {
+                item = CartItemResponse.builder()
+                        .productId(productId)
+                        .name(productResponse.getName())
+                        .barcodeNumber(productResponse.getBarcodeNumber())
+                        .price(productResponse.getPrice())
+                        .quantity(0)
+                        .totalPrice(Money.toAmount(0))
+                        .build();
+                cart.getItems().add(item);
+            }
+        }
+
+        // Changing the total by the change of the line
+        long lineTotal = Money.times(Money.toMinorUnits(item.getPrice()), quantity);
+        long total = Money.toMinorUnits(cart.getTotal()) - Money.toMinorUnits(item.getTotalPrice()) + lineTotal;
+        cart.setTotal(Money.toAmount(total));
+        if (quantity == 0) {
+            cart.getItems().remove(item);
+        } else {
+            item.setQuantity(quantity);
+            item.setTotalPrice(Money.toAmount(lineTotal));
+        }
+
+        evaluateCampaigns(cart);
+        saveCart(cart);
+        log.info("Scanned {} of product with id: {} into cart with id: {}", scannedQuantity, productId, id);
+
+        log.trace("Exiting addItem method in CartService with id: {}", id);
+        return cart;
+    }
+
+    /**
+     * Checks out a cart by saving it as a sale, and removes the cart.
+     * The cart is claimed before the sale is created, and put back if the sale cannot be created,
+     * so that it can be paid again.
+     *
+     * @param id                  The ID of the cart.
+     * @param cartCheckoutRequest The request object containing the payment details.
+     * @return The created sale.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws CartNotFoundException     If the cart is not found or is already being checked out.
+     * @throws InvalidCartException      If the cart is empty.
+     */
+    public SaleResponse checkout(String id, CartCheckoutRequest cartCheckoutRequest) throws HeaderProcessingException {
+        log.trace("Entering checkout method in CartService with id: {}", id);
+
+        String value = stringRedisTemplate.opsForValue().getAndDelete(KEY_PREFIX + id);
+        if (value == null) {
+            log.warn(NOT_FOUND_ERROR_MESSAGE + id);
+            throw new CartNotFoundException(NOT_FOUND_ERROR_MESSAGE + id);
+        }
+        CartResponse cart = readCart(value);
+
+        try {
+            if (cart.getItems().isEmpty()) {
+                log.warn("Cannot check out empty cart with id: {}", id);
+                throw new InvalidCartException("Cannot check out an empty cart with id: " + id);
+            }
+
+            // Evaluating the campaigns again only if one of the applied campaigns expired since the last scan
+            List<Long> eligibleCampaignIds = cart.getCampaigns().stream()
+                    .filter(CampaignEligibilityResponse::isEligible)
+                    .map(CampaignEligibilityResponse::getId)
+                    .toList();
+            if (campaignProcessService.isAnyExpired(eligibleCampaignIds)) {
+                log.debug("A campaign of cart with id: {} expired, evaluating the campaigns again", id);
+                evaluateCampaigns(cart);
+            }
+
+            SaleResponse saleResponse = saleService.createSaleFromCart(cart, cartCheckoutRequest);
+            log.info("Cart checked out successfully with id: {} as sale with id: {}", id, saleResponse.getId());
+
+            log.trace("Exiting checkout method in CartService with id: {}", id);
+            return saleResponse;
+
+        } catch (HeaderProcessingException | RuntimeException e) {
+            saveCart(cart);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes a cart without checking it out.
+     *
+     * @param id The ID of the cart.
+     * @throws CartNotFoundException If the cart is not found.
+     */
+    public void deleteCart(String id) {
+        log.trace("Entering deleteCart method in CartService with id: {}", id);
+
+        if (!Boolean.TRUE.equals(stringRedisTemplate.delete(KEY_PREFIX + id))) {
+            log.warn(NOT_FOUND_ERROR_MESSAGE + id);
+            throw new CartNotFoundException(NOT_FOUND_ERROR_MESSAGE + id);
+        }
+        log.info("Cart deleted successfully with id: {}", id);
+
+        log.trace("Exiting deleteCart method in CartService with id: {}", id);
+    }
+
+    /**
+     * Evaluates the campaigns of the cart on its lines, and sets the eligibility of the campaigns,
+     * the line totals after the campaigns and the total after the campaigns.
+     */
+    private void evaluateCampaigns(CartResponse cart) {
+        List<CartItemResponse> items = cart.getItems();
+        List<Product> products = items.stream()
+                .map(item -> Product.builder()
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .price(item.getPrice())
+                        .totalPrice(item.getTotalPrice())
+                        .build())
+                .toList();
+
+        CampaignEvaluationResponse campaignEvaluationResponse =
+                campaignProcessService.evaluateCampaigns(cart.getCampaignIds(), products, cart.getTotal());
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setTotalPriceWithCampaign(products.get(i).getTotalPrice());
+        }
+
+        List<CampaignEligibilityResponse> campaigns = campaignEvaluationResponse.getCampaigns();
+        boolean hasEligibleCampaign = campaigns.stream().anyMatch(CampaignEligibilityResponse::isEligible);
+        cart.setCampaigns(campaigns);
+        cart.setTotalWithCampaign(hasEligibleCampaign ? campaignEvaluationResponse.getTotal() : null);
+        log.debug("Evaluated campaigns of cart with id: {}, total with campaign: {}", cart.getId(), cart.getTotalWithCampaign());
+    }
+
+    /**
+     * Writes the cart to Redis and restarts its expiry.
+     */
+    private void saveCart(CartResponse cart) {
+        try {
+            stringRedisTemplate.opsForValue().set(KEY_PREFIX + cart.getId(), objectMapper.writeValueAsString(cart), TTL);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize cart with id: {}", cart.getId(), e);
+            throw new ServerErrorException("Failed to serialize cart");
+        }
+    }
+
+    private CartResponse readCart(String value) {
+        try {
+            return objectMapper.readValue(value, CartResponse.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to deserialize cart", e);
+            throw new ServerErrorException("Failed to deserialize cart");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bit.saleservice.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Service class for running per-item calls concurrently.
+ * At most the configured number of calls of one invocation run at the same time,
+ * and the first failing call cancels the remaining ones.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class FanOutService {
+
+    @Value("${gateway.fan-out.max-concurrency}")
+    private int MAX_CONCURRENCY;
+
+    private final ExecutorService fanOutExecutor;
+
+    /**
+     * Applies the given task to every item concurrently and returns the results in the order of the items.
+     * If a task fails, the remaining tasks are cancelled and its exception is rethrown unchanged.
+     *
+     * @param items The items to apply the task to.
+     * @param task The task to apply to each item. It must not read the current request.
+     * @param <T> The type of the items.
+     * @param <R> The type of the results.
+     * @return The results of the task in the order of the items.
+     */
+    public <T, R> List<R> invokeAll(List<T> items, Function<T, R> task) {
+        log.trace("Entering invokeAll method in FanOutService with {} items", items.size());
+
+        // Running in the caller thread when there is nothing to fan out
+        if (items.size() <= 1 || MAX_CONCURRENCY <= 1) {
+            log.debug("Running {} items sequentially", items.size());
+            List<R> results = new ArrayList<>(items.size());
+            items.forEach(item -> results.add(task.apply(item)));
+
+            log.trace("Exiting invokeAll method in FanOutService");
+            return results;
+        }
+
+        CompletionService<R> completionService = new ExecutorCompletionService<>(fanOutExecutor);
+        Map<Future<R>, Integer> indexes = new HashMap<>();
+        List<R> results = new ArrayList<>(items.size());
+        items.forEach(item -> results.add(null));
+
+        int submitted = 0;
+        try {
+            // Filling the window and submitting the next item each time one completes
+            while (submitted < items.size() && submitted < MAX_CONCURRENCY) {
+                T item = items.get(submitted);
+                indexes.put(completionService.submit(() -> task.apply(item)), submitted++);
+            }
+            for (int completed = 0; completed < items.size(); completed++) {
+                Future<R> future = completionService.take();
+                results.set(indexes.get(future), future.get());
+
+                if (submitted < items.size()) {
+                    T item = items.get(submitted);
+                    indexes.put(completionService.submit(() -> task.apply(item)), submitted++);
+                }
+            }
+
+        } catch (ExecutionException e) {
+            indexes.keySet().forEach(future -> future.cancel(true));
+            log.error("Fan-out task failed, cancelled the remaining tasks", e.getCause());
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+
+        } catch (InterruptedException e) {
+            indexes.keySet().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting for fan-out tasks", e);
+            throw new IllegalStateException("Interrupted while waiting for fan-out tasks", e);
+        }
+        log.debug("Completed {} items with a maximum concurrency of {}", items.size(), MAX_CONCURRENCY);
+
+        log.trace("Exiting invokeAll method in FanOutService");
+        return results;
+    }
+}
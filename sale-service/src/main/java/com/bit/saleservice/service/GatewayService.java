@@ -2,16 +2,20 @@ package com.bit.saleservice.service;
 
 import com.bit.saleservice.annotation.ExcludeFromGeneratedCoverage;
 import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.StockReservationResponse;
 import com.bit.saleservice.exception.HeaderProcessingException;
 import com.bit.saleservice.exception.ProductNotFoundException;
+import com.bit.saleservice.exception.ProductOutOfStockException;
 import com.bit.saleservice.exception.ProductReturnException;
 import com.bit.saleservice.exception.ProductServiceException;
+import com.bit.saleservice.wrapper.ProductStockReduceRequest;
 import com.bit.saleservice.wrapper.ProductStockReturnRequest;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
@@ -21,9 +25,16 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * This class is responsible for handling communication with the product-service via the gateway.
- * It provides methods for fetching product details and returning products.
+ * It provides methods for fetching product details, individually or in batches, fetching stock quantities,
+ * reserving stocks, and returning products.
+ * When the internal client is enabled, the calls bypass the gateway. They are sent directly to an instance of the
+ * product-service resolved through Eureka, and are authenticated with the internal service token instead of the
+ * caller's authorization token.
  *
  * @author Emirhan Tuygun
  */
@@ -38,25 +49,63 @@ public class GatewayService {
     @Value("${gateway.port}")
     private String GATEWAY_PORT;
 
+    @Value("${internal-client.enabled}")
+    private boolean INTERNAL_CLIENT_ENABLED;
+
+    @Value("${internal-client.service-id}")
+    private String SERVICE_ID;
+
+    @Value("${internal-auth.header}")
+    private String INTERNAL_AUTH_HEADER;
+
+    @Value("${internal-auth.token}")
+    private String INTERNAL_AUTH_TOKEN;
+
     @Value("${endpoint.product-service.get-product}")
     private String GET_PRODUCT_ENDPOINT;
 
+    @Value("${endpoint.product-service.get-products}")
+    private String GET_PRODUCTS_ENDPOINT;
+
+    @Value("${endpoint.product-service.get-product-stocks}")
+    private String GET_PRODUCT_STOCKS_ENDPOINT;
+
+    @Value("${endpoint.product-service.reserve-products}")
+    private String RESERVE_PRODUCTS_ENDPOINT;
+
+    @Value("${endpoint.product-service.reserve-stock-adjustments}")
+    private String RESERVE_STOCK_ADJUSTMENTS_ENDPOINT;
+
+    @Value("${endpoint.product-service.commit-reservation}")
+    private String COMMIT_RESERVATION_ENDPOINT;
+
+    @Value("${endpoint.product-service.release-reservation}")
+    private String RELEASE_RESERVATION_ENDPOINT;
+
     @Value("${endpoint.product-service.return-products}")
     private String RETURN_PRODUCTS_ENDPOINT;
 
     private String GATEWAY_URL;
     private final RestTemplate restTemplate;
+    private final ThreadLocal<String> forwardedAuthorization = new ThreadLocal<>();
 
     /**
      * This method initializes the GATEWAY_URL by combining the GATEWAY_HOST and GATEWAY_PORT.
+     * When the internal client is enabled, the GATEWAY_URL points to the product-service by its service ID instead,
+     * which the load balanced RestTemplate resolves to one of its instances.
      * It logs the trace, info, and trace messages at the respective levels.
      */
     @PostConstruct
     protected void initGatewayUrl() {
         log.trace("Entering initGatewayUrl method in GatewayService");
 
-        GATEWAY_URL = "http://" + GATEWAY_HOST + ":" + GATEWAY_PORT + "/";
-        log.info("Initialized GATEWAY_URL: {}", GATEWAY_URL);
+        if (INTERNAL_CLIENT_ENABLED) {
+            GATEWAY_URL = "http://" + SERVICE_ID + "/";
+            log.info("Initialized GATEWAY_URL for the internal client: {}", GATEWAY_URL);
+        } else {
+            GATEWAY_URL = "http://" + GATEWAY_HOST + ":" + GATEWAY_PORT + "/";
+            log.info("Initialized GATEWAY_URL: {}", GATEWAY_URL);
+        }
 
         log.trace("Exiting initGatewayUrl method in GatewayService");
     }
@@ -73,14 +122,26 @@ public class GatewayService {
      * @throws ProductServiceException If there is an error fetching the product from the product-service.
      */
     public ProductResponse getProduct(Long id) throws HeaderProcessingException {
+        return getProduct(id, getHttpHeaders());
+    }
+
+    /**
+     * This method is responsible for fetching a product from the product-service via the gateway with the given headers.
+     * Since it does not read the current request, it can be called from worker threads once the headers are captured.
+     *
+     * @param id The ID of the product to fetch.
+     * @param headers The HTTP headers, including the caller's authorization token.
+     * @return The fetched product details.
+     * @throws ProductNotFoundException If the product with the given ID is not found.
+     * @throws ProductServiceException If there is an error fetching the product from the product-service.
+     */
+    public ProductResponse getProduct(Long id, HttpHeaders headers) {
         log.trace("Entering getProduct method in GatewayService with id: {}", id);
 
         try {
             String getUrl = GATEWAY_URL + GET_PRODUCT_ENDPOINT;
             log.debug("Constructed getUrl: {}", getUrl);
 
-            // Getting HTTP headers
-            HttpHeaders headers = getHttpHeaders();
             HttpEntity<String> requestEntity = new HttpEntity<>(headers);
 
             // Making the request
@@ -120,16 +181,311 @@ public class GatewayService {
     }
 
     /**
-     * This method is responsible for returning products to the product-service via the gateway.
-     * It constructs the URL using the GATEWAY_URL and RETURN_PRODUCTS_ENDPOINT, sends a POST request with the product stock return request,
+     * This method is responsible for fetching multiple products from the product-service via the gateway in a single request.
+     * It constructs the URL using the GATEWAY_URL and GET_PRODUCTS_ENDPOINT, sends a POST request with the product IDs,
+     * and processes the response.
+     *
+     * @param ids The IDs of the products to fetch.
+     * @return The fetched product details in the order of the given IDs.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductNotFoundException If any of the products with the given IDs is not found.
+     * @throws ProductServiceException If there is an error fetching the products from the product-service.
+     */
+    public List<ProductResponse> getProducts(List<Long> ids) throws HeaderProcessingException {
+        log.trace("Entering getProducts method in GatewayService with ids: {}", ids);
+
+        try {
+            String getUrl = GATEWAY_URL + GET_PRODUCTS_ENDPOINT;
+            log.debug("Constructed getUrl: {}", getUrl);
+
+            // Getting HTTP headers
+            HttpHeaders headers = getHttpHeaders();
+            HttpEntity<List<Long>> requestEntity = new HttpEntity<>(ids, headers);
+
+            // Making the request
+            ResponseEntity<List<ProductResponse>> responseEntity = restTemplate.exchange(
+                    getUrl,
+                    HttpMethod.POST,
+                    requestEntity,
+                    new ParameterizedTypeReference<>() {}
+            );
+
+            // Checking the status code
+            if (!(responseEntity.getStatusCode().is2xxSuccessful())) {
+                log.warn("Products fetch failed with status code: {}", responseEntity.getStatusCode());
+                throw new ProductServiceException("Products fetch failed in product-service!");
+            }
+            log.info("Successfully fetched products with ids: {}", ids);
+
+            log.trace("Exiting getProducts method in GatewayService with ids: {}", ids);
+            return responseEntity.getBody() != null ? responseEntity.getBody() : List.of();
+
+        } catch (HttpClientErrorException | HttpServerErrorException e) {
+            HttpStatusCode statusCode = e.getStatusCode();
+
+            if (statusCode == HttpStatus.NOT_FOUND) {
+                log.error("404 Not Found error occurred while fetching products with ids: {}", ids, e);
+                throw new ProductNotFoundException("Product not found with ids: " + ids);
+            }
+
+            log.error("HTTP error occurred while fetching products with ids: {}, status code: {}", ids, statusCode, e);
+            throw new ProductServiceException("HTTP error: " + statusCode.value() + ". Product Service is temporarily unavailable. Please try again later.");
+
+        } catch (RestClientException e) {
+            log.error("REST client error occurred while fetching products with ids: {}", ids, e);
+            throw new ProductServiceException("REST client error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method is responsible for fetching the current stock quantities of multiple products from the product-service via the gateway.
+     * It constructs the URL using the GATEWAY_URL and GET_PRODUCT_STOCKS_ENDPOINT, sends a POST request with the product IDs,
      * and processes the response.
      *
-     * @param request The product stock return request containing the details of the products to be returned.
+     * @param ids The IDs of the products whose stock quantities are fetched.
+     * @return A map of product ID to stock quantity.
      * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductNotFoundException If any of the products with the given IDs is not found.
+     * @throws ProductServiceException If there is an error fetching the stock quantities from the product-service.
+     */
+    public Map<Long, Integer> getProductStocks(List<Long> ids) throws HeaderProcessingException {
+        log.trace("Entering getProductStocks method in GatewayService with ids: {}", ids);
+
+        try {
+            String getUrl = GATEWAY_URL + GET_PRODUCT_STOCKS_ENDPOINT;
+            log.debug("Constructed getUrl: {}", getUrl);
+
+            // Getting HTTP headers
+            HttpHeaders headers = getHttpHeaders();
+            HttpEntity<List<Long>> requestEntity = new HttpEntity<>(ids, headers);
+
+            // Making the request
+            ResponseEntity<Map<Long, Integer>> responseEntity = restTemplate.exchange(
+                    getUrl,
+                    HttpMethod.POST,
+                    requestEntity,
+                    new ParameterizedTypeReference<>() {}
+            );
+
+            // Checking the status code
+            if (!(responseEntity.getStatusCode().is2xxSuccessful())) {
+                log.warn("Product stocks fetch failed with status code: {}", responseEntity.getStatusCode());
+                throw new ProductServiceException("Product stocks fetch failed in product-service!");
+            }
+            log.info("Successfully fetched product stocks with ids: {}", ids);
+
+            log.trace("Exiting getProductStocks method in GatewayService with ids: {}", ids);
+            return responseEntity.getBody() != null ? responseEntity.getBody() : Map.of();
+
+        } catch (HttpClientErrorException | HttpServerErrorException e) {
+            HttpStatusCode statusCode = e.getStatusCode();
+
+            if (statusCode == HttpStatus.NOT_FOUND) {
+                log.error("404 Not Found error occurred while fetching product stocks with ids: {}", ids, e);
+                throw new ProductNotFoundException("Product not found with ids: " + ids);
+            }
+
+            log.error("HTTP error occurred while fetching product stocks with ids: {}, status code: {}", ids, statusCode, e);
+            throw new ProductServiceException("HTTP error: " + statusCode.value() + ". Product Service is temporarily unavailable. Please try again later.");
+
+        } catch (RestClientException e) {
+            log.error("REST client error occurred while fetching product stocks with ids: {}", ids, e);
+            throw new ProductServiceException("REST client error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method is responsible for atomically reserving the stocks of multiple products in the product-service via the gateway.
+     * It constructs the URL using the GATEWAY_URL and RESERVE_PRODUCTS_ENDPOINT, sends a POST request with the requested quantities,
+     * and processes the response.
+     *
+     * @param requests The requested quantities of the products.
+     * @return The stock reservation containing the reservation ID and the reserved products with their prices.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductNotFoundException If any of the products is not found.
+     * @throws ProductOutOfStockException If there is not enough stock for any of the products.
+     * @throws ProductServiceException If there is an error reserving the stocks in the product-service.
+     */
+    public StockReservationResponse reserveProducts(List<ProductStockReduceRequest> requests) throws HeaderProcessingException {
+        log.trace("Entering reserveProducts method in GatewayService with requests: {}", requests);
+
+        StockReservationResponse stockReservation = sendStockReservationRequest(RESERVE_PRODUCTS_ENDPOINT, requests);
+
+        log.trace("Exiting reserveProducts method in GatewayService");
+        return stockReservation;
+    }
+
+    /**
+     * This method is responsible for atomically reserving the stock adjustments of an updated sale in the product-service via the gateway.
+     * A positive quantity is taken from the stock when reserved, a negative quantity is returned to the stock when the reservation is committed.
+     *
+     * @param requests The changes of the sold quantities of the products.
+     * @return The stock reservation containing the reservation ID and the adjusted products with their prices.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductNotFoundException If any of the products is not found.
+     * @throws ProductOutOfStockException If there is not enough stock for any of the increased quantities.
+     * @throws ProductServiceException If there is an error reserving the adjustments in the product-service.
+     */
+    public StockReservationResponse reserveStockAdjustments(List<ProductStockReduceRequest> requests) throws HeaderProcessingException {
+        log.trace("Entering reserveStockAdjustments method in GatewayService with requests: {}", requests);
+
+        StockReservationResponse stockReservation = sendStockReservationRequest(RESERVE_STOCK_ADJUSTMENTS_ENDPOINT, requests);
+
+        log.trace("Exiting reserveStockAdjustments method in GatewayService");
+        return stockReservation;
+    }
+
+    /**
+     * This method is responsible for committing a stock reservation in the product-service via the gateway.
+     *
+     * @param reservationId The ID of the reservation to commit.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductServiceException If the reservation has expired or there is an error committing it in the product-service.
+     */
+    public void commitReservation(String reservationId) throws HeaderProcessingException {
+        log.trace("Entering commitReservation method in GatewayService with reservationId: {}", reservationId);
+
+        sendReservationRequest(COMMIT_RESERVATION_ENDPOINT, HttpMethod.POST, reservationId);
+        log.info("Successfully committed stock reservation with id: {}", reservationId);
+
+        log.trace("Exiting commitReservation method in GatewayService with reservationId: {}", reservationId);
+    }
+
+    /**
+     * This method is responsible for releasing a stock reservation in the product-service via the gateway.
+     *
+     * @param reservationId The ID of the reservation to release.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductServiceException If the reservation has expired or there is an error releasing it in the product-service.
+     */
+    public void releaseReservation(String reservationId) throws HeaderProcessingException {
+        log.trace("Entering releaseReservation method in GatewayService with reservationId: {}", reservationId);
+
+        sendReservationRequest(RELEASE_RESERVATION_ENDPOINT, HttpMethod.DELETE, reservationId);
+        log.info("Successfully released stock reservation with id: {}", reservationId);
+
+        log.trace("Exiting releaseReservation method in GatewayService with reservationId: {}", reservationId);
+    }
+
+    /**
+     * This method sends a stock reservation request with the given quantities to the product-service via the gateway.
+     *
+     * @param endpoint The endpoint of the reservation request.
+     * @param requests The quantities of the products to reserve.
+     * @return The stock reservation containing the reservation ID and the products with their prices.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductNotFoundException If any of the products is not found.
+     * @throws ProductOutOfStockException If there is not enough stock for any of the products.
+     * @throws ProductServiceException If there is an error reserving the stocks in the product-service.
+     */
+    private StockReservationResponse sendStockReservationRequest(String endpoint, List<ProductStockReduceRequest> requests)
+            throws HeaderProcessingException {
+        try {
+            String reserveUrl = GATEWAY_URL + endpoint;
+            log.debug("Constructed reserveUrl: {}", reserveUrl);
+
+            // Getting HTTP headers
+            HttpHeaders headers = getHttpHeaders();
+            HttpEntity<List<ProductStockReduceRequest>> requestEntity = new HttpEntity<>(requests, headers);
+
+            // Making the request
+            ResponseEntity<StockReservationResponse> responseEntity = restTemplate.exchange(
+                    reserveUrl,
+                    HttpMethod.POST,
+                    requestEntity,
+                    StockReservationResponse.class
+            );
+
+            // Checking the status code
+            if (!(responseEntity.getStatusCode().is2xxSuccessful()) || responseEntity.getBody() == null) {
+                log.warn("Stock reservation failed with status code: {}", responseEntity.getStatusCode());
+                throw new ProductServiceException("Stock reservation failed in product-service!");
+            }
+            log.info("Successfully reserved stocks with reservation id: {}", responseEntity.getBody().getReservationId());
+
+            return responseEntity.getBody();
+
+        } catch (HttpClientErrorException | HttpServerErrorException e) {
+            HttpStatusCode statusCode = e.getStatusCode();
+
+            if (statusCode == HttpStatus.NOT_FOUND) {
+                log.error("404 Not Found error occurred while reserving stocks for requests: {}", requests, e);
+                throw new ProductNotFoundException("Product not found: " + e.getResponseBodyAsString());
+            }
+            if (statusCode == HttpStatus.CONFLICT) {
+                log.error("409 Conflict error occurred while reserving stocks for requests: {}", requests, e);
+                throw new ProductOutOfStockException(e.getResponseBodyAsString());
+            }
+
+            log.error("HTTP error occurred while reserving stocks for requests: {}, status code: {}", requests, statusCode, e);
+            throw new ProductServiceException("HTTP error: " + statusCode.value() + ". Product Service is temporarily unavailable. Please try again later.");
+
+        } catch (RestClientException e) {
+            log.error("REST client error occurred while reserving stocks for requests: {}", requests, e);
+            throw new ProductServiceException("REST client error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method sends a request about an existing stock reservation to the product-service via the gateway.
+     *
+     * @param endpoint The endpoint of the request, containing the reservation ID as a URI variable.
+     * @param method The HTTP method of the request.
+     * @param reservationId The ID of the reservation.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductServiceException If the reservation has expired or there is an error processing the request in the product-service.
+     */
+    private void sendReservationRequest(String endpoint, HttpMethod method, String reservationId) throws HeaderProcessingException {
+        try {
+            String url = GATEWAY_URL + endpoint;
+            log.debug("Constructed url: {}", url);
+
+            HttpEntity<String> requestEntity = new HttpEntity<>(getHttpHeaders());
+
+            // Making the request
+            ResponseEntity<String> responseEntity = restTemplate.exchange(
+                    url,
+                    method,
+                    requestEntity,
+                    String.class,
+                    reservationId
+            );
+
+            // Checking the status code
+            if (!(responseEntity.getStatusCode().is2xxSuccessful())) {
+                log.warn("Stock reservation request failed with status code: {}", responseEntity.getStatusCode());
+                throw new ProductServiceException("Stock reservation request failed in product-service!");
+            }
+
+        } catch (HttpClientErrorException | HttpServerErrorException e) {
+            HttpStatusCode statusCode = e.getStatusCode();
+
+            if (statusCode == HttpStatus.GONE) {
+                log.error("410 Gone error occurred for stock reservation with id: {}", reservationId, e);
+                throw new ProductServiceException("Stock reservation expired with id: " + reservationId);
+            }
+
+            log.error("HTTP error occurred for stock reservation with id: {}, status code: {}", reservationId, statusCode, e);
+            throw new ProductServiceException("HTTP error: " + statusCode.value() + ". Product Service is temporarily unavailable. Please try again later.");
+
+        } catch (RestClientException e) {
+            log.error("REST client error occurred for stock reservation with id: {}", reservationId, e);
+            throw new ProductServiceException("REST client error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method is responsible for returning the products of multiple lines to the product-service via the gateway in a single request.
+     * It constructs the URL using the GATEWAY_URL and RETURN_PRODUCTS_ENDPOINT, sends a POST request with the product stock return requests,
+     * and processes the response. The product-service returns either all the lines or none of them.
+     *
+     * @param requests The product stock return requests containing the details of the products to be returned.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductNotFoundException If any of the products is not found.
      * @throws ProductReturnException If there is an error returning the products to the product-service.
      */
-    protected void returnProducts(ProductStockReturnRequest request) throws HeaderProcessingException, ProductReturnException {
-        log.trace("Entering returnProducts method in GatewayService with request: {}", request);
+    protected void returnProducts(List<ProductStockReturnRequest> requests) throws HeaderProcessingException, ProductReturnException {
+        log.trace("Entering returnProducts method in GatewayService with requests: {}", requests);
 
         try {
             String returnUrl = GATEWAY_URL + RETURN_PRODUCTS_ENDPOINT;
@@ -137,7 +493,7 @@ public class GatewayService {
 
             // Getting HTTP headers
             HttpHeaders headers = getHttpHeaders();
-            HttpEntity<ProductStockReturnRequest> requestEntity = new HttpEntity<>(request, headers);
+            HttpEntity<List<ProductStockReturnRequest>> requestEntity = new HttpEntity<>(requests, headers);
 
             // Making the request
             ResponseEntity<String> responseEntity = restTemplate.exchange(
@@ -152,29 +508,60 @@ public class GatewayService {
                 log.warn("Product return failed with status code: {}", responseEntity.getStatusCode());
                 throw new ProductServiceException("Product return failed in product-service!");
             }
-            log.info("Successfully returned products for request: {}", request);
+            log.info("Successfully returned products for requests: {}", requests);
 
-            log.trace("Exiting returnProducts method in GatewayService with request: {}", request);
+            log.trace("Exiting returnProducts method in GatewayService with requests: {}", requests);
 
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             HttpStatusCode statusCode = e.getStatusCode();
             if (statusCode == HttpStatus.NOT_FOUND) {
-                log.error("404 Not Found error occurred while returning products with id: {}", request.getId(), e);
-                throw new ProductNotFoundException("Product not found with id: " + request.getId());
+                log.error("404 Not Found error occurred while returning products for requests: {}", requests, e);
+                throw new ProductNotFoundException(e.getResponseBodyAsString());
             }
 
-            log.error("HTTP error occurred while returning products for request: {}, status code: {}", request, statusCode, e);
+            log.error("HTTP error occurred while returning products for requests: {}, status code: {}", requests, statusCode, e);
             throw new ProductServiceException("HTTP error: " + statusCode.value() + ". Product Service is temporarily unavailable. Please try again later.");
 
         } catch (RestClientException e) {
-            log.error("REST client error occurred while returning products for request: {}", request, e);
+            log.error("REST client error occurred while returning products for requests: {}", requests, e);
             throw new ProductReturnException("REST client error: " + e.getMessage());
         }
     }
 
+    /**
+     * This method retrieves the authorization token of the current HTTP request, so that it can be forwarded
+     * to the calls made on another thread after the request has been answered.
+     *
+     * @return The authorization token of the current request.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     */
+    public String getAuthorization() throws HeaderProcessingException {
+        return getHttpHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+    }
+
+    /**
+     * This method executes the given calls with the given authorization token instead of the one of the current
+     * HTTP request. Used by the worker threads, which have no request of their own.
+     *
+     * @param authorization The authorization token to send.
+     * @param call          The calls to execute.
+     * @return The result of the calls.
+     * @throws HeaderProcessingException If the calls fail processing the HTTP headers.
+     */
+    public <T> T withAuthorization(String authorization, AuthorizedCall<T> call) throws HeaderProcessingException {
+        forwardedAuthorization.set(authorization);
+        try {
+            return call.execute();
+        } finally {
+            forwardedAuthorization.remove();
+        }
+    }
+
     /**
      * This method retrieves HTTP headers for the REST API calls.
      * It retrieves the authorization token from the current HTTP request and sets it in the headers.
+     * When the internal client is enabled, the internal service token is set instead, since the calls do not pass
+     * through the gateway that checks the authorization token.
      *
      * @return The HTTP headers with the authorization token set.
      * @throws HeaderProcessingException If there is an error processing the HTTP headers.
@@ -187,6 +574,25 @@ public class GatewayService {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
+        // Authenticating the direct calls with the internal service token
+        if (INTERNAL_CLIENT_ENABLED) {
+            headers.set(INTERNAL_AUTH_HEADER, INTERNAL_AUTH_TOKEN);
+            log.debug("Using the internal service token");
+
+            log.trace("Exiting getHttpHeaders method in GatewayService");
+            return headers;
+        }
+
+        // Using the forwarded authorization token on the worker threads
+        String authorization = forwardedAuthorization.get();
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+            log.debug("Using the forwarded authorization token");
+
+            log.trace("Exiting getHttpHeaders method in GatewayService");
+            return headers;
+        }
+
         // Retrieving authorization token from request attributes and set it in the headers
         try {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
@@ -208,4 +614,12 @@ public class GatewayService {
         log.trace("Exiting getHttpHeaders method in GatewayService");
         return headers;
     }
+
+    /**
+     * Calls to the product-service executed with a forwarded authorization token.
+     */
+    @FunctionalInterface
+    public interface AuthorizedCall<T> {
+        T execute() throws HeaderProcessingException;
+    }
 }
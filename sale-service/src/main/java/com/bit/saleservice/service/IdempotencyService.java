@@ -0,0 +1,332 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.IdempotencyConflictException;
+import com.bit.saleservice.exception.IdempotencyKeyReuseException;
+import com.bit.saleservice.exception.InvalidIdempotencyKeyException;
+import com.bit.saleservice.exception.ServerErrorException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class makes the sale write operations idempotent with the Idempotency-Key header sent by the terminals.
+ * The response of the first request with a key is kept in Redis, and requests retried with the same key are
+ * answered with that response without touching the database or the product-service. A duplicate arriving while
+ * the first request is still being processed waits for it instead of racing it: on the same instance it waits on
+ * the in-flight request itself, across instances it polls the in-progress marker the first request holds in Redis.
+ * The marker carries an owner token and is renewed while the request runs, so it does not expire under a slow request,
+ * and it is only released or replaced by the request that claimed it.
+ * If Redis is unavailable the requests are still processed, only without the replay.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:sales:";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+
+    /**
+     * Compare-and-set scripts on the claim, each applied only while the key still holds the claim of the caller.
+     */
+    static final RedisScript<Long> RENEW_CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+    static final RedisScript<Long> RELEASE_CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+    static final RedisScript<Long> REPLACE_CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end return 0",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService idempotencyRenewalExecutor;
+    private final ConcurrentMap<String, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
+
+    @Value("${idempotency.response-ttl}")
+    private Duration RESPONSE_TTL;
+
+    @Value("${idempotency.lock-ttl}")
+    private Duration LOCK_TTL;
+
+    @Value("${idempotency.wait-timeout}")
+    private Duration WAIT_TIMEOUT;
+
+    @Value("${idempotency.poll-interval}")
+    private Duration POLL_INTERVAL;
+
+    /**
+     * Executes the given sale operation once per idempotency key.
+     * The key is scoped to the operation, so the same key can be used for creating a sale and later updating it.
+     *
+     * @param operation      The name of the operation, such as create or update:{id}.
+     * @param idempotencyKey The value of the Idempotency-Key header, or null to execute the operation unconditionally.
+     * @param request        The request body, used to detect a key being reused for a different request.
+     * @param action         The operation to execute.
+     * @return The response of the operation, and whether it was replayed from an earlier request.
+     * @throws HeaderProcessingException     If the operation fails processing the HTTP headers.
+     * @throws InvalidIdempotencyKeyException If the key is blank or too long.
+     * @throws IdempotencyKeyReuseException  If the key was already used for a different request.
+     * @throws IdempotencyConflictException  If the request with the same key is still being processed after the wait timeout.
+     */
+    public IdempotentResponse execute(String operation, String idempotencyKey, Object request, SaleAction action)
+            throws HeaderProcessingException {
+        log.trace("Entering execute method in IdempotencyService with operation: {}, idempotencyKey: {}", operation, idempotencyKey);
+
+        if (idempotencyKey == null) {
+            log.trace("Exiting execute method in IdempotencyService without an idempotency key");
+            return new IdempotentResponse(action.execute(), false);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            log.warn("Invalid idempotency key: {}", idempotencyKey);
+            throw new InvalidIdempotencyKeyException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String key = KEY_PREFIX + operation + ":" + idempotencyKey;
+        String fingerprint = getFingerprint(request);
+
+        // Waiting on the request with the same key if it is in flight on this instance
+        InFlightRequest inFlightRequest = new InFlightRequest(fingerprint, new CompletableFuture<>());
+        InFlightRequest existingRequest = inFlightRequests.putIfAbsent(key, inFlightRequest);
+        if (existingRequest != null) {
+            log.debug("Waiting for the in-flight request with key: {}", key);
+            checkFingerprint(existingRequest.fingerprint(), fingerprint, idempotencyKey);
+            IdempotentResponse replayedResponse = new IdempotentResponse(await(existingRequest.response(), idempotencyKey), true);
+            log.trace("Exiting execute method in IdempotencyService with the response of the in-flight request");
+            return replayedResponse;
+        }
+
+        try {
+            IdempotentResponse idempotentResponse = executeOnce(key, idempotencyKey, fingerprint, action);
+            inFlightRequest.response().complete(idempotentResponse.saleResponse());
+
+            log.trace("Exiting execute method in IdempotencyService with replayed: {}", idempotentResponse.replayed());
+            return idempotentResponse;
+
+        } catch (HeaderProcessingException | RuntimeException e) {
+            inFlightRequest.response().completeExceptionally(e);
+            throw e;
+
+        } finally {
+            inFlightRequests.remove(key, inFlightRequest);
+        }
+    }
+
+    /**
+     * Replays the stored response of the key, or claims the key in Redis and executes the operation.
+     * While another instance holds the claim, the stored record is polled until that instance completes or gives up.
+     * The claim is renewed every third of its TTL while the operation runs.
+     */
+    private IdempotentResponse executeOnce(String key, String idempotencyKey, String fingerprint, SaleAction action)
+            throws HeaderProcessingException {
+        long deadline = System.nanoTime() + WAIT_TIMEOUT.toNanos();
+        String claim = writeRecord(new IdempotencyRecord(IN_PROGRESS, fingerprint, UUID.randomUUID().toString(), null));
+
+        try {
+            while (true) {
+                IdempotencyRecord idempotencyRecord = readRecord(key);
+                if (idempotencyRecord != null) {
+                    checkFingerprint(idempotencyRecord.fingerprint(), fingerprint, idempotencyKey);
+                    if (COMPLETED.equals(idempotencyRecord.status())) {
+                        log.info("Replaying the stored response for idempotency key: {}", idempotencyKey);
+                        return new IdempotentResponse(idempotencyRecord.response(), true);
+                    }
+                    waitForOtherInstance(deadline, idempotencyKey);
+                    continue;
+                }
+
+                if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, claim, LOCK_TTL))) {
+                    log.debug("Claimed idempotency key: {}", key);
+                    break;
+                }
+            }
+        } catch (DataAccessException e) {
+            log.error("Redis is unavailable, processing the request without idempotency key: {}", idempotencyKey, e);
+            return new IdempotentResponse(action.execute(), false);
+        }
+
+        long renewalPeriod = Math.max(LOCK_TTL.toMillis() / 3, 1);
+        ScheduledFuture<?> renewal = idempotencyRenewalExecutor.scheduleAtFixedRate(() -> renewClaim(key, claim),
+                renewalPeriod, renewalPeriod, TimeUnit.MILLISECONDS);
+        SaleResponse saleResponse;
+        try {
+            saleResponse = action.execute();
+        } catch (HeaderProcessingException | RuntimeException e) {
+            // Releasing the key so that the request can be retried
+            releaseClaim(key, claim);
+            throw e;
+        } finally {
+            renewal.cancel(false);
+        }
+
+        storeRecord(key, claim, new IdempotencyRecord(COMPLETED, fingerprint, null, saleResponse));
+        return new IdempotentResponse(saleResponse, false);
+    }
+
+    private void waitForOtherInstance(long deadline, String idempotencyKey) {
+        if (System.nanoTime() >= deadline) {
+            log.warn("Timed out waiting for the request with idempotency key: {}", idempotencyKey);
+            throw new IdempotencyConflictException("A request with the same Idempotency-Key is still being processed");
+        }
+        try {
+            Thread.sleep(POLL_INTERVAL.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("A request with the same Idempotency-Key is still being processed");
+        }
+    }
+
+    private SaleResponse await(CompletableFuture<SaleResponse> response, String idempotencyKey) throws HeaderProcessingException {
+        try {
+            return response.get(WAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for the request with idempotency key: {}", idempotencyKey);
+            throw new IdempotencyConflictException("A request with the same Idempotency-Key is still being processed");
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("A request with the same Idempotency-Key is still being processed");
+
+        } catch (ExecutionException e) {
+            // The duplicate gets the same error as the request it waited on
+            if (e.getCause() instanceof HeaderProcessingException headerProcessingException) {
+                throw headerProcessingException;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    private void checkFingerprint(String storedFingerprint, String fingerprint, String idempotencyKey) {
+        if (!storedFingerprint.equals(fingerprint)) {
+            log.warn("Idempotency key reused with a different request: {}", idempotencyKey);
+            throw new IdempotencyKeyReuseException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private IdempotencyRecord readRecord(String key) {
+        String value = stringRedisTemplate.opsForValue().get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value, IdempotencyRecord.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to deserialize idempotency record with key: {}", key, e);
+            throw new ServerErrorException("Failed to deserialize idempotency record");
+        }
+    }
+
+    private void storeRecord(String key, String claim, IdempotencyRecord idempotencyRecord) {
+        try {
+            Long stored = stringRedisTemplate.execute(REPLACE_CLAIM_SCRIPT, List.of(key), claim,
+                    writeRecord(idempotencyRecord), String.valueOf(RESPONSE_TTL.toMillis()));
+            if (Long.valueOf(1).equals(stored)) {
+                log.debug("Stored the response for idempotency key: {}", key);
+            } else {
+                log.warn("Claim lost before storing the response for idempotency key: {}", key);
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to store the response for idempotency key: {}", key, e);
+        }
+    }
+
+    private void releaseClaim(String key, String claim) {
+        try {
+            stringRedisTemplate.execute(RELEASE_CLAIM_SCRIPT, List.of(key), claim);
+        } catch (DataAccessException e) {
+            log.error("Failed to release idempotency key: {}", key, e);
+        }
+    }
+
+    private void renewClaim(String key, String claim) {
+        try {
+            Long renewed = stringRedisTemplate.execute(RENEW_CLAIM_SCRIPT, List.of(key), claim,
+                    String.valueOf(LOCK_TTL.toMillis()));
+            if (!Long.valueOf(1).equals(renewed)) {
+                log.warn("Claim lost while processing the request with idempotency key: {}", key);
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to renew idempotency key: {}", key, e);
+        }
+    }
+
+    private String writeRecord(IdempotencyRecord idempotencyRecord) {
+        try {
+            return objectMapper.writeValueAsString(idempotencyRecord);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize idempotency record", e);
+            throw new ServerErrorException("Failed to serialize idempotency record");
+        }
+    }
+
+    private String getFingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            log.error("Failed to fingerprint request", e);
+            throw new ServerErrorException("Failed to fingerprint request");
+        }
+    }
+
+    /**
+     * A sale operation made idempotent by this service.
+     */
+    @FunctionalInterface
+    public interface SaleAction {
+        SaleResponse execute() throws HeaderProcessingException;
+    }
+
+    /**
+     * The response of an idempotent sale operation.
+     *
+     * @param saleResponse The response of the operation.
+     * @param replayed     Whether the response was produced by an earlier request with the same key.
+     */
+    public record IdempotentResponse(SaleResponse saleResponse, boolean replayed) {
+    }
+
+    /**
+     * The record kept in Redis for an idempotency key.
+     *
+     * @param status      IN_PROGRESS while the first request is processed, COMPLETED once its response is stored.
+     * @param fingerprint The SHA-256 hash of the request body.
+     * @param owner       The token of the request holding the claim, while in progress.
+     * @param response    The response of the first request, once completed.
+     */
+    record IdempotencyRecord(String status, String fingerprint, String owner, SaleResponse response) {
+    }
+
+    private record InFlightRequest(String fingerprint, CompletableFuture<SaleResponse> response) {
+    }
+}
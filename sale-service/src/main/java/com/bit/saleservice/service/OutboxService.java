@@ -0,0 +1,149 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.entity.OutboxEvent;
+import com.bit.saleservice.exception.RabbitMQException;
+import com.bit.saleservice.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class is responsible for the transactional outbox of the RabbitMQ messages.
+ * The messages are written to the outbox in the transaction of the change that produces them,
+ * and a background relay publishes them in batches, deleting only the ones confirmed by the broker.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    @Value("${outbox.batch-size}")
+    private int BATCH_SIZE;
+
+    @Value("${outbox.confirm-timeout}")
+    private Duration CONFIRM_TIMEOUT;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * This method writes a message to the outbox in the current transaction.
+     *
+     * @param exchange   The exchange to publish the message to.
+     * @param routingKey The routing key of the message.
+     * @param payload    The payload of the message, serialized to JSON.
+     * @throws RabbitMQException If the payload cannot be serialized.
+     */
+    public void enqueue(String exchange, String routingKey, Object payload) {
+        log.trace("Entering enqueue method in OutboxService with payload: {}", payload);
+
+        try {
+            OutboxEvent outboxEvent = OutboxEvent.builder()
+                    .messageId(UUID.randomUUID().toString())
+                    .exchange(exchange)
+                    .routingKey(routingKey)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(new Date())
+                    .build();
+            outboxEventRepository.save(outboxEvent);
+            log.debug("Outbox event saved for exchange: {}, routing key: {}", exchange, routingKey);
+
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize outbox event payload: {}", payload, e);
+            throw new RabbitMQException("Failed to serialize outbox event payload", e);
+        }
+
+        log.trace("Exiting enqueue method in OutboxService");
+    }
+
+    /**
+     * This method publishes a batch of the oldest messages in the outbox to RabbitMQ.
+     * It publishes the whole batch before waiting for the publisher confirms, and deletes only the confirmed messages.
+     * The rest is published again in the next run, so the messages are delivered at least once.
+     * Every message carries the message ID of its outbox event, which the consumer uses to skip the duplicates.
+     */
+    @Transactional
+    @Scheduled(fixedDelayString = "${outbox.poll-interval}")
+    public void relayOutboxEvents() {
+        log.trace("Entering relayOutboxEvents method in OutboxService");
+
+        List<OutboxEvent> outboxEvents = outboxEventRepository.findBatchForRelay(BATCH_SIZE);
+        if (outboxEvents.isEmpty()) {
+            log.trace("Exiting relayOutboxEvents method in OutboxService with nothing to relay");
+            return;
+        }
+
+        // Publishing the batch without waiting for each confirm
+        Map<Long, CorrelationData> pendingConfirms = new LinkedHashMap<>();
+        for (OutboxEvent outboxEvent : outboxEvents) {
+            CorrelationData correlationData = new CorrelationData(String.valueOf(outboxEvent.getId()));
+            Message message = MessageBuilder.withBody(outboxEvent.getPayload().getBytes(StandardCharsets.UTF_8))
+                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                    .setContentEncoding(StandardCharsets.UTF_8.name())
+                    .setMessageId(outboxEvent.getMessageId())
+                    .build();
+            try {
+                rabbitTemplate.send(outboxEvent.getExchange(), outboxEvent.getRoutingKey(), message, correlationData);
+                pendingConfirms.put(outboxEvent.getId(), correlationData);
+
+            } catch (AmqpException e) {
+                log.warn("Failed to publish outbox event with id: {}, it will be retried", outboxEvent.getId(), e);
+                break;
+            }
+        }
+
+        // Waiting for the confirms of the published messages
+        List<Long> confirmedIds = new ArrayList<>();
+        long deadline = System.nanoTime() + CONFIRM_TIMEOUT.toNanos();
+        for (Map.Entry<Long, CorrelationData> entry : pendingConfirms.entrySet()) {
+            try {
+                CorrelationData.Confirm confirm = entry.getValue().getFuture()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    confirmedIds.add(entry.getKey());
+                } else {
+                    log.warn("Outbox event with id: {} is not acknowledged by the broker: {}", entry.getKey(), confirm.getReason());
+                }
+
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("No confirm received for outbox event with id: {}, it will be retried", entry.getKey(), e);
+
+            } catch (InterruptedException e) {
+                log.warn("Interrupted while waiting for outbox event confirms", e);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        outboxEventRepository.deleteAllByIdInBatch(confirmedIds);
+        log.info("Relayed {} of {} outbox events", confirmedIds.size(), outboxEvents.size());
+
+        log.trace("Exiting relayOutboxEvents method in OutboxService");
+    }
+}
@@ -0,0 +1,112 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.ProductNotFoundException;
+import com.bit.saleservice.exception.ProductServiceException;
+import com.bit.saleservice.wrapper.ProductEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is responsible for keeping an in-process cache of the product details fetched from the product-service.
+ * The cached entries are invalidated by the product events published by the product-service and expire after a while
+ * in case an event is missed. The stock quantities are never served from the cache.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class ProductCacheService {
+
+    @Value("${product-cache.maximum-size}")
+    private long MAXIMUM_SIZE;
+
+    @Value("${product-cache.expire-after-write}")
+    private Duration EXPIRE_AFTER_WRITE;
+
+    private Cache<Long, ProductResponse> productCache;
+    private final GatewayService gatewayService;
+
+    /**
+     * This method initializes the product cache with the configured maximum size and expiration.
+     */
+    @PostConstruct
+    protected void initProductCache() {
+        log.trace("Entering initProductCache method in ProductCacheService");
+
+        productCache = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                .build();
+        log.info("Initialized product cache with maximum size: {} and expiration: {}", MAXIMUM_SIZE, EXPIRE_AFTER_WRITE);
+
+        log.trace("Exiting initProductCache method in ProductCacheService");
+    }
+
+    /**
+     * This method fetches the details of the given products.
+     * If all the products are cached, only their current stock quantities are fetched from the product-service
+     * and set on copies of the cached entries. Otherwise, all the products are fetched in a single batch request and cached.
+     *
+     * @param ids The IDs of the products to fetch.
+     * @return A map of product ID to the product details with the current stock quantity.
+     * @throws HeaderProcessingException If there is an error processing the HTTP headers.
+     * @throws ProductNotFoundException If any of the products with the given IDs is not found.
+     * @throws ProductServiceException If there is an error fetching the products from the product-service.
+     */
+    public Map<Long, ProductResponse> getProducts(List<Long> ids) throws HeaderProcessingException {
+        log.trace("Entering getProducts method in ProductCacheService with ids: {}", ids);
+
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        Map<Long, ProductResponse> cachedProducts = productCache.getAllPresent(distinctIds);
+        Map<Long, ProductResponse> products = new HashMap<>();
+
+        // Checking whether all the products are cached
+        if (cachedProducts.size() == distinctIds.size()) {
+            Map<Long, Integer> stocks = gatewayService.getProductStocks(distinctIds);
+            for (Long id : distinctIds) {
+                products.put(id, cachedProducts.get(id).toBuilder().stockQuantity(stocks.get(id)).build());
+            }
+            log.debug("Served {} products from the cache with fresh stock quantities", products.size());
+
+        } else {
+            for (ProductResponse productResponse : gatewayService.getProducts(distinctIds)) {
+                products.put(productResponse.getId(), productResponse);
+                productCache.put(productResponse.getId(), productResponse);
+            }
+            log.debug("Fetched and cached {} products, {} were already cached", products.size(), cachedProducts.size());
+        }
+
+        log.trace("Exiting getProducts method in ProductCacheService");
+        return products;
+    }
+
+    /**
+     * This method is triggered by the product events published by the product-service.
+     * It evicts the changed or deleted product from the cache. Stock changes are not published, since the stocks are always fetched fresh.
+     *
+     * @param productEvent The event containing the product ID and the type of the change.
+     */
+    @RabbitListener(queues = "#{productEventQueue.name}")
+    public void evictProduct(ProductEvent productEvent) {
+        log.trace("Entering evictProduct method in ProductCacheService with productEvent: {}", productEvent);
+
+        productCache.invalidate(productEvent.getId());
+        log.debug("Evicted product with ID: {} from the cache", productEvent.getId());
+
+        log.trace("Exiting evictProduct method in ProductCacheService");
+    }
+}
@@ -0,0 +1,270 @@
+package com.bit.saleservice.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the sales and sale products tables partitioned by month of the sale date.
+ * At startup the tables created by Hibernate are turned into range partitioned tables, after which monthly partitions
+ * are created ahead of time and partitions older than the retention horizon are detached into the archive schema.
+ * Sales of a month without a partition, like back-dated synced sales, land in the default partition. They are moved
+ * into a partition of their month on the next maintenance run, so they are archived together with that month.
+ * This only works on PostgreSQL and is switched on with the sale-partitioning.enabled property, which is off by default.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class SalePartitionService {
+
+    /**
+     * The partitioned tables, paired with the column holding the sale date they are partitioned by.
+     */
+    static final List<PartitionedTable> PARTITIONED_TABLES = List.of(
+            new PartitionedTable("products", "sale_date"),
+            new PartitionedTable("sales", "date"));
+
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${sale-partitioning.enabled}")
+    private boolean ENABLED;
+
+    @Value("${sale-partitioning.months-ahead}")
+    private int MONTHS_AHEAD;
+
+    @Value("${sale-partitioning.retention-months}")
+    private int RETENTION_MONTHS;
+
+    @Value("${sale-partitioning.archive-schema}")
+    private String ARCHIVE_SCHEMA;
+
+    /**
+     * Partitions the freshly created tables and creates the partitions of the current and upcoming months.
+     * Runs before the initializer so that the seeded sales already land in their monthly partitions.
+     */
+    @PostConstruct
+    public void initPartitions() {
+        log.trace("Entering initPartitions method in SalePartitionService");
+
+        if (!ENABLED) {
+            log.info("Sale partitioning is disabled");
+            log.trace("Exiting initPartitions method in SalePartitionService");
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> PARTITIONED_TABLES.forEach(this::partitionTable));
+        maintainPartitions();
+
+        log.trace("Exiting initPartitions method in SalePartitionService");
+    }
+
+    /**
+     * Moves the rows of the default partitions into monthly partitions, creates the partitions of the upcoming months
+     * and archives the partitions that fell behind the retention horizon.
+     */
+    @Scheduled(fixedDelayString = "${sale-partitioning.maintenance-interval}",
+            initialDelayString = "${sale-partitioning.maintenance-interval}")
+    public void maintainPartitions() {
+        log.trace("Entering maintainPartitions method in SalePartitionService");
+
+        if (!ENABLED) {
+            log.trace("Exiting maintainPartitions method in SalePartitionService as partitioning is disabled");
+            return;
+        }
+
+        YearMonth currentMonth = YearMonth.now();
+        drainDefaultPartitions();
+        createPartitions(currentMonth.minusMonths(1), currentMonth.plusMonths(MONTHS_AHEAD));
+        archivePartitions(currentMonth.minusMonths(RETENTION_MONTHS));
+
+        log.trace("Exiting maintainPartitions method in SalePartitionService");
+    }
+
+    /**
+     * Creates the monthly partitions of every partitioned table between the given months, both inclusive.
+     * Months that already have a partition are left as they are.
+     *
+     * @param from The first month to create a partition for.
+     * @param to   The last month to create a partition for.
+     */
+    void createPartitions(YearMonth from, YearMonth to) {
+        log.trace("Entering createPartitions method in SalePartitionService with from: {}, to: {}", from, to);
+
+        for (PartitionedTable table : PARTITIONED_TABLES) {
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                try {
+                    jdbcTemplate.execute(String.format(
+                            "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                            table.partitionName(month), table.name(), month.atDay(1), month.plusMonths(1).atDay(1)));
+                } catch (DataAccessException e) {
+                    // Happens when the default partition already holds rows of that month, the next run moves them first
+                    log.error("Error creating partition {}", table.partitionName(month), e);
+                }
+            }
+        }
+        log.debug("Ensured partitions from {} to {}", from, to);
+
+        log.trace("Exiting createPartitions method in SalePartitionService");
+    }
+
+    /**
+     * Moves the rows of the default partition of every partitioned table into partitions of their months.
+     * A partition cannot be created for a month the default partition holds rows of, so the rows of each month
+     * are taken out of the default partition, the partition is created and the rows are inserted again, all in one
+     * transaction.
+     */
+    void drainDefaultPartitions() {
+        log.trace("Entering drainDefaultPartitions method in SalePartitionService");
+
+        for (PartitionedTable table : PARTITIONED_TABLES) {
+            List<LocalDate> months = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT CAST(date_trunc('month', " + table.column() + ") AS date) FROM " +
+                            table.defaultPartitionName(), LocalDate.class);
+
+            for (LocalDate monthStart : months) {
+                YearMonth month = YearMonth.from(monthStart);
+                String movedTable = table.name() + "_moved";
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("CREATE TEMPORARY TABLE " + movedTable + " (LIKE " + table.name() + ") ON COMMIT DROP");
+                    jdbcTemplate.execute(String.format(
+                            "WITH moved AS (DELETE FROM %s WHERE %s >= '%s' AND %s < '%s' RETURNING *) " +
+                                    "INSERT INTO %s SELECT * FROM moved",
+                            table.defaultPartitionName(), table.column(), month.atDay(1),
+                            table.column(), month.plusMonths(1).atDay(1), movedTable));
+                    jdbcTemplate.execute(String.format(
+                            "CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                            table.partitionName(month), table.name(), month.atDay(1), month.plusMonths(1).atDay(1)));
+                    jdbcTemplate.execute("INSERT INTO " + table.name() + " SELECT * FROM " + movedTable);
+                });
+                log.info("Moved the rows of {} out of {} into partition {}",
+                        month, table.defaultPartitionName(), table.partitionName(month));
+            }
+        }
+
+        log.trace("Exiting drainDefaultPartitions method in SalePartitionService");
+    }
+
+    /**
+     * Detaches the monthly partitions of the months before the given month and moves them into the archive schema,
+     * where they can still be queried or exported but are no longer scanned by the sale queries.
+     *
+     * @param horizon The first month whose partitions are kept.
+     */
+    void archivePartitions(YearMonth horizon) {
+        log.trace("Entering archivePartitions method in SalePartitionService with horizon: {}", horizon);
+
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + ARCHIVE_SCHEMA);
+        for (PartitionedTable table : PARTITIONED_TABLES) {
+            List<String> partitions = jdbcTemplate.queryForList(
+                    "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                            "WHERE i.inhparent = ?::regclass", String.class, table.name());
+
+            for (String partition : partitions) {
+                YearMonth month = table.monthOf(partition);
+                if (month == null || !month.isBefore(horizon)) {
+                    continue;
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("ALTER TABLE " + table.name() + " DETACH PARTITION " + partition);
+                    jdbcTemplate.execute("ALTER TABLE " + partition + " SET SCHEMA " + ARCHIVE_SCHEMA);
+                });
+                log.info("Archived partition {} into schema {}", partition, ARCHIVE_SCHEMA);
+            }
+        }
+
+        log.trace("Exiting archivePartitions method in SalePartitionService");
+    }
+
+    /**
+     * Replaces the table created by Hibernate with a table of the same columns partitioned by range of the sale date.
+     * The primary key has to include the partition column, so the foreign keys referring to the table are dropped.
+     * The ids are generated by the application, so the id column has no default to carry over. Tables that are
+     * already partitioned or hold rows are left as they are.
+     *
+     * @param table The table to partition.
+     */
+    private void partitionTable(PartitionedTable table) {
+        log.trace("Entering partitionTable method in SalePartitionService with table: {}", table.name());
+
+        String kind = jdbcTemplate.queryForObject(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = ?::regclass", String.class, table.name());
+        if ("p".equals(kind)) {
+            log.debug("Table {} is already partitioned", table.name());
+            log.trace("Exiting partitionTable method in SalePartitionService");
+            return;
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + table.name() + ")", Boolean.class))) {
+            log.warn("Table {} already holds rows and is left unpartitioned", table.name());
+            log.trace("Exiting partitionTable method in SalePartitionService");
+            return;
+        }
+
+        // Keeping the secondary indexes, the primary key is replaced by one including the partition column
+        List<String> indexDefinitions = jdbcTemplate.queryForList(
+                "SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i " +
+                        "WHERE i.indrelid = ?::regclass AND NOT i.indisprimary", String.class, table.name());
+        List<String> foreignKeyDrops = jdbcTemplate.queryForList(
+                "SELECT format('ALTER TABLE %s DROP CONSTRAINT %I', c.conrelid::regclass, c.conname) " +
+                        "FROM pg_constraint c WHERE c.contype = 'f' AND c.confrelid = ?::regclass",
+                String.class, table.name());
+        foreignKeyDrops.forEach(jdbcTemplate::execute);
+
+        String name = table.name();
+        jdbcTemplate.execute("ALTER TABLE " + name + " RENAME TO " + name + "_unpartitioned");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + name + "_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS) " +
+                "PARTITION BY RANGE (" + table.column() + ")");
+        jdbcTemplate.execute("DROP TABLE " + name + "_unpartitioned");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ALTER COLUMN " + table.column() + " SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + name + " ADD PRIMARY KEY (id, " + table.column() + ")");
+        jdbcTemplate.execute("CREATE TABLE " + table.defaultPartitionName() + " PARTITION OF " + name + " DEFAULT");
+        indexDefinitions.forEach(jdbcTemplate::execute);
+        log.info("Partitioned table {} by {} and dropped {} foreign keys referring to it",
+                name, table.column(), foreignKeyDrops.size());
+
+        log.trace("Exiting partitionTable method in SalePartitionService");
+    }
+
+    /**
+     * A table partitioned by month, named after the table with a p + yyyyMM suffix, and a default partition
+     * for the rows of the months without a partition.
+     *
+     * @param name   The name of the table.
+     * @param column The timestamp column the table is partitioned by.
+     */
+    record PartitionedTable(String name, String column) {
+
+        String partitionName(YearMonth month) {
+            return name + "_p" + month.format(PARTITION_SUFFIX_FORMAT);
+        }
+
+        String defaultPartitionName() {
+            return name + "_default";
+        }
+
+        YearMonth monthOf(String partitionName) {
+            Matcher matcher = Pattern.compile(Pattern.quote(name) + "_p(\\d{6})").matcher(partitionName);
+            return matcher.matches() ? YearMonth.parse(matcher.group(1), PARTITION_SUFFIX_FORMAT) : null;
+        }
+    }
+}
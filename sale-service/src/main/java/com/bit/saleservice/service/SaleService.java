@@ -1,12 +1,21 @@
 package com.bit.saleservice.service;
 
+import com.bit.saleservice.dto.CartCheckoutRequest;
+import com.bit.saleservice.dto.CartResponse;
+import com.bit.saleservice.dto.PricedSale;
+import com.bit.saleservice.dto.ProductResponse;
 import com.bit.saleservice.dto.SaleRequest;
 import com.bit.saleservice.dto.SaleResponse;
 import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.wrapper.CursorPageWrapper;
 import com.bit.saleservice.wrapper.PageWrapper;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This interface defines the contract for the Sale Service.
@@ -26,6 +35,77 @@ public interface SaleService {
      */
     SaleResponse createSale(SaleRequest saleRequest) throws HeaderProcessingException;
 
+    /**
+     * Creates a pending sale for the asynchronous checkout, without pricing it or touching the stocks.
+     *
+     * @param saleRequest The request object containing the sale details.
+     * @return The response object containing the pending sale details.
+     */
+    SaleResponse createPendingSale(SaleRequest saleRequest);
+
+    /**
+     * Reserves the stocks of a sale and prices it, without saving it.
+     * The reservation is released if the sale cannot be priced.
+     *
+     * @param saleRequest The request object containing the sale details.
+     * @return The priced sale, holding its stock reservation.
+     * @throws HeaderProcessingException If there is an issue with processing the request headers.
+     */
+    PricedSale priceSale(SaleRequest saleRequest) throws HeaderProcessingException;
+
+    /**
+     * Prices a sale with the given product details, without fetching the products or reserving their stocks.
+     * Used for the sales the terminals made while they were offline, which have already taken place.
+     *
+     * The campaigns are checked against the date the sale was made, so that a campaign that expired since then
+     * still applies.
+     *
+     * @param saleRequest      The request object containing the sale details.
+     * @param productResponses The details of the products of the sale by product ID.
+     * @param saleDate         The date the sale was made.
+     * @return The priced sale, without a stock reservation.
+     */
+    PricedSale priceSale(SaleRequest saleRequest, Map<Long, ProductResponse> productResponses, Date saleDate);
+
+    /**
+     * Creates a sale from a cart whose items and campaigns were already priced as they were scanned.
+     * Only the stocks are reserved and the payment is processed, the products are not fetched again.
+     *
+     * @param cart                The priced cart.
+     * @param cartCheckoutRequest The request object containing the payment details.
+     * @return The response object containing the created sale details.
+     * @throws HeaderProcessingException If there is an issue with processing the request headers.
+     */
+    SaleResponse createSaleFromCart(CartResponse cart, CartCheckoutRequest cartCheckoutRequest) throws HeaderProcessingException;
+
+    /**
+     * Completes a pending sale with its priced values and commits its stocks.
+     * The stock reservation of the priced sale is released if the sale cannot be completed.
+     *
+     * @param id The ID of the pending sale.
+     * @param pricedSale The priced values of the sale.
+     * @return The response object containing the completed sale details.
+     * @throws HeaderProcessingException If there is an issue with processing the request headers.
+     */
+    SaleResponse completePendingSale(Long id, PricedSale pricedSale) throws HeaderProcessingException;
+
+    /**
+     * Fails a pending sale with the given reason. A sale that is not pending anymore is left as it is.
+     *
+     * @param id The ID of the pending sale.
+     * @param failureReason The reason the sale could not be completed.
+     * @return The response object containing the sale details.
+     */
+    SaleResponse failPendingSale(Long id, String failureReason);
+
+    /**
+     * Fails the pending sales that were accepted before the given date, whose checkout was abandoned.
+     *
+     * @param before The date before which the pending sales were accepted.
+     * @return The number of failed sales.
+     */
+    int failAbandonedPendingSales(Date before);
+
     /**
      * Retrieves a sale by its ID.
      *
@@ -41,6 +121,16 @@ public interface SaleService {
      */
     List<SaleResponse> getAllSales();
 
+    /**
+     * Writes all sales to the given output stream as newline-delimited JSON, one sale per line.
+     * The sales are read with a forward-only cursor and written as they are read, so memory use does not grow
+     * with the number of sales.
+     *
+     * @param outputStream The output stream to write the sales to.
+     * @throws IOException If writing to the output stream fails.
+     */
+    void exportSales(OutputStream outputStream) throws IOException;
+
     /**
      * Retrieves all deleted sales.
      *
@@ -70,7 +160,31 @@ public interface SaleService {
                                                            String startDate, String endDate, Boolean isCancelled);
 
     /**
-     * Updates an existing sale.
+     * Retrieves a page of sales, filtered and sorted based on the provided parameters, using keyset pagination.
+     * Each page continues after the last sale of the previous page, so the cost of a page does not depend on its depth.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The number of records per page.
+     * @param sortBy The field to sort by. One of id, date and cashier.
+     * @param direction The sorting direction (asc or desc).
+     * @param cashier The cashier's name to filter by.
+     * @param paymentMethod The payment method to filter by.
+     * @param minTotal The minimum total amount to filter by.
+     * @param maxTotal The maximum total amount to filter by.
+     * @param startDate The start date to filter by.
+     * @param endDate The end date to filter by.
+     * @param isCancelled The boolean on whether it is cancelled to filter by.
+     * @param includeTotal Whether to count the total number of matching sales.
+     * @return A CursorPageWrapper object containing the page of sales and the cursor of the next page.
+     */
+    CursorPageWrapper<SaleResponse> getAllSalesFilteredAndSortedByCursor(String cursor, int size, String sortBy, String direction,
+                                                                         String cashier, String paymentMethod,
+                                                                         BigDecimal minTotal, BigDecimal maxTotal,
+                                                                         String startDate, String endDate, Boolean isCancelled,
+                                                                         boolean includeTotal);
+
+    /**
+     * Updates an existing sale. A cancelled sale cannot be updated, its products have already been returned.
      *
      * @param id The ID of the sale to update.
      * @param saleRequest The request object containing the updated sale details.
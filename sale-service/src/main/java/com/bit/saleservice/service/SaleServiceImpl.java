@@ -4,36 +4,61 @@ import com.bit.saleservice.annotation.ExcludeFromGeneratedCoverage;
 import com.bit.saleservice.dto.*;
 import com.bit.saleservice.entity.*;
 import com.bit.saleservice.exception.*;
+import com.bit.saleservice.money.Money;
 import com.bit.saleservice.repository.ProductRepository;
 import com.bit.saleservice.repository.SaleRepository;
+import com.bit.saleservice.wrapper.CursorPageWrapper;
 import com.bit.saleservice.wrapper.PageWrapper;
+import com.bit.saleservice.wrapper.ProductStockReduceBatch;
 import com.bit.saleservice.wrapper.ProductStockReduceRequest;
 import com.bit.saleservice.wrapper.ProductStockReturnRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.micrometer.common.util.StringUtils;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.amqp.AmqpException;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing sales.
@@ -51,14 +76,35 @@ public class SaleServiceImpl implements SaleService {
     @Value("${rabbitmq.routingKey}")
     private String ROUTING_KEY;
 
+    @Value("${gateway.fan-out.product-lookup}")
+    private boolean PRODUCT_LOOKUP_FAN_OUT;
+
+    @Value("${stock-reservation.enabled}")
+    private boolean STOCK_RESERVATION;
+
+    @Value("${sale-conflict-retry.max-attempts}")
+    private int CONFLICT_MAX_ATTEMPTS;
+
+    @Value("${sale-conflict-retry.backoff}")
+    private Duration CONFLICT_BACKOFF;
+
     private static final String NOT_FOUND_ERROR_MESSAGE = "Sale not found with id: ";
     private static final String NOT_EXIST_ERROR_MESSAGE = "Sale does not exist with id: ";
+    private static final String CURSOR_SEPARATOR = ":";
+    // Only fields every sale has a value for, since a keyset cannot continue after a null
+    private static final Set<String> CURSOR_SORT_PROPERTIES = Set.of("id", "date", "cashier");
 
     private final SaleRepository saleRepository;
     private final ProductRepository productRepository;
     private final CampaignProcessService campaignProcessService;
     private final GatewayService gatewayService;
-    private final RabbitTemplate rabbitTemplate;
+    private final FanOutService fanOutService;
+    private final ProductCacheService productCacheService;
+    private final OutboxService outboxService;
+    private final SalesRollupService salesRollupService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public SaleResponse getSale(Long id) {
@@ -79,13 +125,48 @@ public class SaleServiceImpl implements SaleService {
     public List<SaleResponse> getAllSales() {
         log.trace("Entering getAllSales method in SaleServiceImpl class");
 
-        List<Sale> sales = saleRepository.findAll();
+        List<Sale> sales = saleRepository.findAllByStatus(SaleStatus.COMPLETED);
         log.info("Retrieved all sales successfully, count: {}", sales.size());
 
         log.trace("Exiting getAllSales method in SaleServiceImpl class");
         return sales.stream().map(this::mapToSaleResponse).toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportSales(OutputStream outputStream) throws IOException {
+        log.trace("Entering exportSales method in SaleServiceImpl class");
+
+        ObjectWriter writer = objectMapper.writerFor(SaleResponse.class);
+        List<Sale> chunk = new ArrayList<>(SaleRepository.EXPORT_FETCH_SIZE);
+        long count = 0;
+
+        try (Stream<Sale> sales = saleRepository.streamAllCompleted()) {
+            Iterator<Sale> iterator = sales.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() < SaleRepository.EXPORT_FETCH_SIZE && iterator.hasNext()) {
+                    continue;
+                }
+
+                // Mapping the whole chunk lets the products and campaigns of its sales be fetched in batches
+                for (Sale sale : chunk) {
+                    outputStream.write(writer.writeValueAsBytes(mapToSaleResponse(sale)));
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+                count += chunk.size();
+
+                // Detaching the written sales so that the persistence context does not grow with the export
+                chunk.clear();
+                entityManager.clear();
+            }
+        }
+        log.info("Exported sales successfully, count: {}", count);
+
+        log.trace("Exiting exportSales method in SaleServiceImpl class");
+    }
+
     @Override
     public List<SaleResponse> getDeletedSales() {
         log.trace("Entering getDeletedSales method in SaleServiceImpl class");
@@ -129,16 +210,168 @@ public class SaleServiceImpl implements SaleService {
         return saleResponsePageWrapper;
     }
 
+    @Override
+    public CursorPageWrapper<SaleResponse> getAllSalesFilteredAndSortedByCursor(String cursor, int size, String sortBy, String direction,
+                                                                                String cashier, String paymentMethod,
+                                                                                BigDecimal minTotal, BigDecimal maxTotal,
+                                                                                String startDate, String endDate, Boolean isCancelled,
+                                                                                boolean includeTotal) {
+        log.trace("Entering getAllSalesFilteredAndSortedByCursor method in SaleServiceImpl class");
+
+        // Checking the sort, the id is always the tiebreaker so that the order is unique
+        if (!CURSOR_SORT_PROPERTIES.contains(sortBy)) {
+            log.warn("Unsupported sortBy for cursor pagination: {}", sortBy);
+            throw new InvalidCursorException("Sorting by " + sortBy + " is not supported, supported fields: " + CURSOR_SORT_PROPERTIES);
+        }
+        Sort.Direction sortDirection = Sort.Direction.valueOf(direction.toUpperCase());
+        Sort sort = Sort.by(sortDirection, sortBy);
+        if (!"id".equals(sortBy)) {
+            sort = sort.and(Sort.by(sortDirection, "id"));
+        }
+
+        KeysetScrollPosition position = StringUtils.isBlank(cursor)
+                ? ScrollPosition.keyset()
+                : decodeCursor(cursor, sortBy, sortDirection);
+
+        Specification<Sale> specification = (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = getPredicates(cashier, paymentMethod, minTotal, maxTotal, startDate, endDate, isCancelled, root, criteriaBuilder);
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+
+        // Getting the sales after the cursor, without an offset or a count
+        Sort finalSort = sort;
+        Window<Sale> window = saleRepository.findBy(specification, query -> query.sortBy(finalSort).limit(size).scroll(position));
+        List<SaleResponse> saleResponses = window.getContent().stream().map(this::mapToSaleResponse).toList();
+        log.info("Retrieved {} sales with cursor pagination, hasNext: {}", saleResponses.size(), window.hasNext());
+
+        // Creating a CursorPageWrapper object
+        CursorPageWrapper<SaleResponse> cursorPageWrapper = new CursorPageWrapper<>();
+        cursorPageWrapper.setContent(saleResponses);
+        cursorPageWrapper.setPageSize(size);
+        if (window.hasNext() && !window.isEmpty()) {
+            cursorPageWrapper.setNextCursor(encodeCursor(window.getContent().get(window.size() - 1), sortBy, sortDirection));
+        }
+        if (includeTotal) {
+            cursorPageWrapper.setTotalElements(saleRepository.count(specification));
+            log.debug("Counted total elements: {}", cursorPageWrapper.getTotalElements());
+        }
+
+        log.trace("Exiting getAllSalesFilteredAndSortedByCursor method in SaleServiceImpl class");
+        return cursorPageWrapper;
+    }
+
 
     @Override
     @Transactional
     public SaleResponse createSale(SaleRequest saleRequest) throws HeaderProcessingException {
         log.trace("Entering createSale method in SaleServiceImpl class");
 
-        // Defining the variables
         log.debug("SaleRequest: {}", saleRequest);
-        List<Product> products = getProducts(saleRequest.getProducts());
+        PricedSale pricedSale = priceSale(saleRequest);
+
+        try {
+            // Creating the sale
+            Sale sale = Sale.builder()
+                    .cashier(saleRequest.getCashier())
+                    .date(new Date())
+                    .paymentMethod(pricedSale.getPaymentMethod())
+                    .build();
+            SaleResponse saleResponse = savePricedSale(sale, pricedSale);
+            log.info("Sale created successfully with id: {}", sale.getId());
+
+            log.trace("Exiting createSale method in SaleServiceImpl class");
+            return saleResponse;
+
+        } catch (Exception e) {
+            log.error("Error creating sale", e);
+            releaseStocks(pricedSale.getStockReservation());
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public SaleResponse createPendingSale(SaleRequest saleRequest) {
+        log.trace("Entering createPendingSale method in SaleServiceImpl class");
+
+        log.debug("SaleRequest: {}", saleRequest);
+        Sale sale = Sale.builder()
+                .cashier(saleRequest.getCashier())
+                .date(new Date())
+                .paymentMethod(getPaymentMethod(saleRequest.getPaymentMethod()))
+                .products(new ArrayList<>())
+                .status(SaleStatus.PENDING)
+                .build();
+        saleRepository.save(sale);
+        log.info("Pending sale created successfully with id: {}", sale.getId());
+
+        log.trace("Exiting createPendingSale method in SaleServiceImpl class");
+        return mapToSaleResponse(sale);
+    }
+
+    @Override
+    public PricedSale priceSale(SaleRequest saleRequest) throws HeaderProcessingException {
+        log.trace("Entering priceSale method in SaleServiceImpl class");
+
         Payment paymentMethod = getPaymentMethod(saleRequest.getPaymentMethod());
+
+        // Reserving the stocks before pricing, so that concurrent sales cannot oversell
+        StockReservationResponse stockReservation = reserveStocks(saleRequest.getProducts());
+
+        try {
+            List<Product> products = stockReservation != null
+                    ? getReservedProducts(saleRequest.getProducts(), stockReservation)
+                    : getProducts(saleRequest.getProducts());
+            PricedSale pricedSale = priceProducts(saleRequest, paymentMethod, products, stockReservation, null);
+
+            log.trace("Exiting priceSale method in SaleServiceImpl class");
+            return pricedSale;
+
+        } catch (Exception e) {
+            log.error("Error pricing sale", e);
+            releaseStocks(stockReservation);
+            throw e;
+        }
+    }
+
+    @Override
+    public PricedSale priceSale(SaleRequest saleRequest, Map<Long, ProductResponse> productResponses, Date saleDate) {
+        log.trace("Entering priceSale method in SaleServiceImpl class with the product details");
+
+        Payment paymentMethod = getPaymentMethod(saleRequest.getPaymentMethod());
+        List<Product> products = new ArrayList<>(saleRequest.getProducts().size());
+        for (SaleProductRequest productRequest : saleRequest.getProducts()) {
+            ProductResponse productResponse = productResponses.get(productRequest.getId());
+            if (productResponse == null) {
+                log.error("Product not found with id: {}", productRequest.getId());
+                throw new ProductNotFoundException("Product not found with id: " + productRequest.getId());
+            }
+            products.add(buildProduct(productRequest, productResponse));
+        }
+        PricedSale pricedSale = priceProducts(saleRequest, paymentMethod, products, null, saleDate);
+
+        log.trace("Exiting priceSale method in SaleServiceImpl class");
+        return pricedSale;
+    }
+
+    /**
+     * This method prices the given products of a sale.
+     * It applies the campaigns of the sale to the products, if there are any, and processes the payment against the
+     * amount due.
+     *
+     * @param saleRequest      The request object containing the sale details.
+     * @param paymentMethod    The payment method of the sale.
+     * @param products         The products of the sale, with their current prices.
+     * @param stockReservation The stock reservation of the sale, or null if its stocks are not reserved.
+     * @param saleDate         The date the sale was made, or null for a sale made now.
+     * @return The priced sale.
+     */
+    private PricedSale priceProducts(SaleRequest saleRequest, Payment paymentMethod, List<Product> products,
+                                     StockReservationResponse stockReservation, Date saleDate) {
+        log.trace("Entering priceProducts method in SaleServiceImpl class");
+
+        // Defining the variables
         BigDecimal total = getTotal(products);
         BigDecimal totalWithCampaign = null;
         List<Long> campaignIds = saleRequest.getCampaignIds();
@@ -150,7 +383,7 @@ public class SaleServiceImpl implements SaleService {
         // Checking the campaign ids
         if (campaignIds != null && !campaignIds.isEmpty()) {
             log.debug("Sale has campaigns");
-            CampaignProcessResult campaignProcessResult = processCampaigns(campaignIds, products, total);
+            CampaignProcessResult campaignProcessResult = processCampaigns(campaignIds, products, total, saleDate);
 
             products = campaignProcessResult.getProducts();
             totalWithCampaign = campaignProcessResult.getTotalWithCampaign();
@@ -161,50 +394,170 @@ public class SaleServiceImpl implements SaleService {
         change = switch (paymentMethod) {
             case CASH -> {
                 cash = saleRequest.getCash();
-                yield processCashPayment(cash, totalWithCampaign);
+                yield processCashPayment(cash, total, totalWithCampaign);
             }
             case MIXED -> {
                 mixedPayment = saleRequest.getMixedPayment();
-                yield processMixedPayment(mixedPayment, totalWithCampaign);
+                yield processMixedPayment(mixedPayment, total, totalWithCampaign);
             }
             default -> null;
         };
         log.debug("Payment processed");
 
-        // Creating the sale
-        Sale sale = Sale.builder()
-                .cashier(saleRequest.getCashier())
-                .date(new Date())
-                .paymentMethod(paymentMethod)
-                .campaigns(campaigns)
-                .cash(cash)
-                .change(change)
-                .total(total)
-                .totalWithCampaign(totalWithCampaign)
-                .mixedPayment(mixedPayment)
-                .build();
+        log.trace("Exiting priceProducts method in SaleServiceImpl class");
+        return new PricedSale(paymentMethod, products, campaigns, total, totalWithCampaign, cash, change,
+                mixedPayment, stockReservation);
+    }
 
-        saleRepository.save(sale);
-        products.forEach(product -> product.setSale(sale));
-        productRepository.saveAll(products);
-        log.debug("Sale saved");
+    @Override
+    @Transactional
+    public SaleResponse completePendingSale(Long id, PricedSale pricedSale) throws HeaderProcessingException {
+        log.trace("Entering completePendingSale method in SaleServiceImpl class with id: {}", id);
 
-        // Sending a reduce message to the RabbitMQ
-        reduceStocks(products);
+        try {
+            Sale sale = saleRepository.findById(id)
+                    .orElseThrow(() -> {
+                        log.error(NOT_EXIST_ERROR_MESSAGE + id);
+                        return new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
+                    });
+            if (sale.getStatus() != SaleStatus.PENDING) {
+                log.error("Sale is not pending with id: {}, status: {}", id, sale.getStatus());
+                throw new InvalidSaleStatusException("Sale is not pending with id: " + id);
+            }
 
-        sale.setProducts(products);
-        log.info("Sale created successfully with id: {}", sale.getId());
+            SaleResponse saleResponse = savePricedSale(sale, pricedSale);
+            log.info("Pending sale completed successfully with id: {}", id);
+
+            log.trace("Exiting completePendingSale method in SaleServiceImpl class");
+            return saleResponse;
+
+        } catch (Exception e) {
+            log.error("Error completing pending sale with id: {}", id, e);
+            releaseStocks(pricedSale.getStockReservation());
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public SaleResponse createSaleFromCart(CartResponse cart, CartCheckoutRequest cartCheckoutRequest) throws HeaderProcessingException {
+        log.trace("Entering createSaleFromCart method in SaleServiceImpl class with cart id: {}", cart.getId());
 
-        log.trace("Exiting createSale method in SaleServiceImpl class");
+        Payment paymentMethod = getPaymentMethod(cartCheckoutRequest.getPaymentMethod());
+        List<SaleProductRequest> saleProductRequests = cart.getItems().stream()
+                .map(item -> new SaleProductRequest(item.getProductId(), item.getQuantity()))
+                .toList();
+
+        // Reserving the stocks, the cart was only checked against the stocks when its items were scanned
+        StockReservationResponse stockReservation = reserveStocks(saleProductRequests);
+
+        try {
+            // Taking the prices and campaigns from the cart instead of pricing the sale again
+            List<Product> products = cart.getItems().stream()
+                    .map(this::mapToProduct)
+                    .collect(Collectors.toList());
+            List<Long> campaignIds = cart.getCampaigns().stream()
+                    .filter(CampaignEligibilityResponse::isEligible)
+                    .map(CampaignEligibilityResponse::getId)
+                    .toList();
+            List<Campaign> campaigns = campaignIds.isEmpty() ? null : campaignProcessService.getCampaigns(campaignIds);
+            BigDecimal total = cart.getTotal();
+            BigDecimal totalWithCampaign = cart.getTotalWithCampaign();
+            BigDecimal cash = null;
+            BigDecimal change;
+            MixedPayment mixedPayment = null;
+
+            // Processing the payment
+            change = switch (paymentMethod) {
+                case CASH -> {
+                    cash = cartCheckoutRequest.getCash();
+                    yield processCashPayment(cash, total, totalWithCampaign);
+                }
+                case MIXED -> {
+                    mixedPayment = cartCheckoutRequest.getMixedPayment();
+                    yield processMixedPayment(mixedPayment, total, totalWithCampaign);
+                }
+                default -> null;
+            };
+            log.debug("Payment processed");
+
+            Sale sale = Sale.builder()
+                    .cashier(cart.getCashier())
+                    .date(new Date())
+                    .paymentMethod(paymentMethod)
+                    .build();
+            SaleResponse saleResponse = savePricedSale(sale, new PricedSale(paymentMethod, products, campaigns, total,
+                    totalWithCampaign, cash, change, mixedPayment, stockReservation));
+            log.info("Sale created successfully from cart with id: {}", cart.getId());
+
+            log.trace("Exiting createSaleFromCart method in SaleServiceImpl class");
+            return saleResponse;
+
+        } catch (Exception e) {
+            log.error("Error creating sale from cart with id: {}", cart.getId(), e);
+            releaseStocks(stockReservation);
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public SaleResponse failPendingSale(Long id, String failureReason) {
+        log.trace("Entering failPendingSale method in SaleServiceImpl class with id: {}", id);
+
+        Sale sale = saleRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error(NOT_EXIST_ERROR_MESSAGE + id);
+                    return new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
+                });
+        if (sale.getStatus() == SaleStatus.PENDING) {
+            sale.setStatus(SaleStatus.FAILED);
+            sale.setFailureReason(failureReason);
+            saleRepository.save(sale);
+            log.info("Pending sale failed with id: {}, reason: {}", id, failureReason);
+        }
+
+        log.trace("Exiting failPendingSale method in SaleServiceImpl class");
         return mapToSaleResponse(sale);
     }
 
     @Override
     @Transactional
+    public int failAbandonedPendingSales(Date before) {
+        log.trace("Entering failAbandonedPendingSales method in SaleServiceImpl class with before: {}", before);
+
+        int failed = saleRepository.failPendingSalesBefore(before, "Checkout was not completed in time");
+        if (failed > 0) {
+            log.warn("Failed {} abandoned pending sales", failed);
+        }
+
+        log.trace("Exiting failAbandonedPendingSales method in SaleServiceImpl class");
+        return failed;
+    }
+
+    @Override
     public SaleResponse updateSale(Long id, SaleRequest saleRequest) throws HeaderProcessingException {
         log.trace("Entering updateSale method in SaleServiceImpl class with id: {}", id);
 
         log.debug("SaleRequest: {}", saleRequest);
+        SaleResponse saleResponse = retryOnConflict(id, () -> applySaleUpdate(id, saleRequest));
+
+        log.trace("Exiting updateSale method in SaleServiceImpl class");
+        return saleResponse;
+    }
+
+    /**
+     * This method applies an update to the latest version of a sale, in the transaction of the caller.
+     * The updated sale is flushed before the stock adjustments are made permanent, so that a concurrent change of
+     * the sale fails the version check before the stocks are touched.
+     *
+     * @param id          The ID of the sale to update.
+     * @param saleRequest The new values of the sale.
+     * @return The updated sale.
+     * @throws HeaderProcessingException If there is an error processing the header.
+     */
+    private SaleResponse applySaleUpdate(Long id, SaleRequest saleRequest) throws HeaderProcessingException {
+        log.trace("Entering applySaleUpdate method in SaleServiceImpl class with id: {}", id);
 
         // Finding the existing sale
         Sale existingSale = saleRepository.findById(id)
@@ -212,6 +565,13 @@ public class SaleServiceImpl implements SaleService {
                     log.error(NOT_EXIST_ERROR_MESSAGE + id);
                     return new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
                 });
+        checkCompleted(existingSale);
+
+        // A cancelled sale has already given its products back, an update must not take or return stocks for it
+        if (existingSale.isCancelled()) {
+            log.warn("Update not allowed for cancelled sale with id: {}", id);
+            throw new InvalidSaleStatusException("Sale is cancelled with id: " + id);
+        }
 
         // Checking whether the payment method is the same as the existing sale's payment method
         Payment paymentMethod = getPaymentMethod(saleRequest.getPaymentMethod());
@@ -221,12 +581,17 @@ public class SaleServiceImpl implements SaleService {
         }
         log.debug("Payment method is the same as the existing sale");
 
+        // Only the net changes of the sold quantities touch the stocks, the unchanged lines are left out
         List<Product> oldProducts = existingSale.getProducts();
-        returnProducts(oldProducts);
+        Map<Long, Integer> stockAdjustments = getStockAdjustments(existingSale, saleRequest.getProducts());
+        StockReservationResponse stockReservation = null;
 
         try {
+            // Reserving the increased quantities before pricing, so that concurrent sales cannot oversell
+            stockReservation = reserveStockAdjustments(stockAdjustments);
+
             // Defining the variables
-            List<Product> products = getProducts(saleRequest.getProducts());
+            List<Product> products = getUpdatedProducts(saleRequest.getProducts(), stockAdjustments, stockReservation);
             BigDecimal total = getTotal(products);
             BigDecimal totalWithCampaign = null;
             List<Long> campaignIds = saleRequest.getCampaignIds();
@@ -238,7 +603,7 @@ public class SaleServiceImpl implements SaleService {
             // Checking the campaign ids
             if (campaignIds != null && !campaignIds.isEmpty()) {
                 log.debug("Sale has campaigns");
-                CampaignProcessResult campaignProcessResult = processCampaigns(campaignIds, products, total);
+                CampaignProcessResult campaignProcessResult = processCampaigns(campaignIds, products, total, null);
 
                 products = campaignProcessResult.getProducts();
                 totalWithCampaign = campaignProcessResult.getTotalWithCampaign();
@@ -249,16 +614,19 @@ public class SaleServiceImpl implements SaleService {
             change = switch (paymentMethod) {
                 case CASH -> {
                     cash = saleRequest.getCash();
-                    yield processCashPayment(cash, totalWithCampaign);
+                    yield processCashPayment(cash, total, totalWithCampaign);
                 }
                 case MIXED -> {
                     mixedPayment = saleRequest.getMixedPayment();
-                    yield processMixedPayment(mixedPayment, totalWithCampaign);
+                    yield processMixedPayment(mixedPayment, total, totalWithCampaign);
                 }
                 default -> null;
             };
             log.debug("Payment processed");
 
+            // Taking the old values out of the rollups before they are overwritten
+            salesRollupService.removeSale(existingSale, oldProducts);
+
             // Setting the new values
             existingSale.setCashier(saleRequest.getCashier());
             existingSale.setDate(new Date());
@@ -269,23 +637,29 @@ public class SaleServiceImpl implements SaleService {
             existingSale.setTotalWithCampaign(totalWithCampaign);
             existingSale.setMixedPayment(mixedPayment);
 
-            saleRepository.save(existingSale);
-            products.forEach(product -> product.setSale(existingSale));
+            saleRepository.saveAndFlush(existingSale);
+            // The superseded lines are removed for good, so that restoring the sale after a delete does not bring them back
+            saleRepository.deleteProductsForSale(id);
+            products.forEach(product -> {
+                product.setSale(existingSale);
+                product.setSaleDate(existingSale.getDate());
+            });
             productRepository.saveAll(products);
+            salesRollupService.addSale(existingSale, products);
             log.debug("Sale saved");
 
-            // Sending a reduce message to the RabbitMQ
-            reduceStocks(products);
+            // Committing the stock reservation or sending the adjustments to the RabbitMQ
+            commitStockAdjustments(stockAdjustments, stockReservation);
 
             existingSale.setProducts(products);
             log.info("Sale updated successfully with id: {}", existingSale.getId());
 
-            log.trace("Exiting updateSale method in SaleServiceImpl class");
+            log.trace("Exiting applySaleUpdate method in SaleServiceImpl class");
             return mapToSaleResponse(existingSale);
 
         } catch (Exception e) {
             log.error("Error updating sale with id: {}", id, e);
-            reduceStocks(oldProducts);
+            releaseStocks(stockReservation);
             throw e;
         }
     }
@@ -294,6 +668,24 @@ public class SaleServiceImpl implements SaleService {
     public void cancelSale(Long id) {
         log.trace("Entering cancelSale method in SaleServiceImpl class with id: {}", id);
 
+        retryOnConflict(id, () -> {
+            applySaleCancellation(id);
+            return null;
+        });
+
+        log.trace("Exiting cancelSale method in SaleServiceImpl class");
+    }
+
+    /**
+     * This method cancels the latest version of a sale, in the transaction of the caller.
+     * The cancellation is flushed before the products are returned, so that a concurrent change of the sale fails
+     * the version check before the stocks are touched. Cancelling a cancelled sale changes nothing.
+     *
+     * @param id The ID of the sale to cancel.
+     */
+    private void applySaleCancellation(Long id) {
+        log.trace("Entering applySaleCancellation method in SaleServiceImpl class with id: {}", id);
+
         // Finding the existing sale
         Sale existingSale = saleRepository.findById(id)
                 .orElseThrow(() -> {
@@ -301,21 +693,30 @@ public class SaleServiceImpl implements SaleService {
                     return new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
                 });
         log.debug("Existing sale found");
+        checkCompleted(existingSale);
+
+        if (existingSale.isCancelled()) {
+            log.info("Sale is already cancelled with id: {}", id);
+            log.trace("Exiting applySaleCancellation method in SaleServiceImpl class");
+            return;
+        }
 
-        // Returning the products
         List<Product> oldProducts = existingSale.getProducts();
+        salesRollupService.removeSale(existingSale, oldProducts);
+        existingSale.setCancelled(true);
+        saleRepository.saveAndFlush(existingSale);
+
+        // Returning the products
         returnProducts(oldProducts);
         log.debug("Products returned");
-
-        existingSale.setCancelled(true);
-        saleRepository.save(existingSale);
         log.info("Sale cancelled successfully with id: {}", id);
 
-        log.trace("Exiting cancelSale method in SaleServiceImpl class");
+        log.trace("Exiting applySaleCancellation method in SaleServiceImpl class");
     }
 
 
     @Override
+    @Transactional
     public SaleResponse restoreSale(Long id) {
         log.trace("Entering restoreSale method in SaleServiceImpl class with id: {}", id);
 
@@ -335,6 +736,9 @@ public class SaleServiceImpl implements SaleService {
                     log.error("Sale not found after attempting to restore with id: {}", id);
                     return new SaleNotFoundException("Sale could not restored and not found with id " + id);
                 });
+        if (isInRollups(sale)) {
+            salesRollupService.addSale(sale, sale.getProducts());
+        }
         log.info("Sale restored successfully with id: {}", id);
 
         log.trace("Exiting restoreSale method in SaleServiceImpl class");
@@ -342,16 +746,21 @@ public class SaleServiceImpl implements SaleService {
     }
 
     @Override
+    @Transactional
     public void deleteSale(Long id) {
         log.trace("Entering deleteSale method in SaleServiceImpl class with id: {}", id);
 
-        // Checking whether the sale exists
-        if (!saleRepository.existsById(id)) {
-            log.error(NOT_EXIST_ERROR_MESSAGE + id);
-            throw new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
-        }
+        // Finding the existing sale
+        Sale existingSale = saleRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error(NOT_EXIST_ERROR_MESSAGE + id);
+                    return new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
+                });
         log.debug("Sale exists with id: {}", id);
 
+        if (isInRollups(existingSale)) {
+            salesRollupService.removeSale(existingSale, existingSale.getProducts());
+        }
         saleRepository.deleteById(id);
         productRepository.deleteAllBySaleId(id);
 
@@ -360,16 +769,21 @@ public class SaleServiceImpl implements SaleService {
     }
 
     @Override
+    @Transactional
     public void deleteSalePermanently(Long id) {
         log.trace("Entering deleteSalePermanently method in SaleServiceImpl class with id: {}", id);
 
-        // Checking whether the sale exists
-        if (!saleRepository.existsById(id)) {
-            log.error(NOT_EXIST_ERROR_MESSAGE + id);
-            throw new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
-        }
+        // Finding the existing sale
+        Sale existingSale = saleRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error(NOT_EXIST_ERROR_MESSAGE + id);
+                    return new SaleNotFoundException(NOT_EXIST_ERROR_MESSAGE + id);
+                });
         log.debug("Sale exists with id: {}", id);
 
+        if (isInRollups(existingSale)) {
+            salesRollupService.removeSale(existingSale, existingSale.getProducts());
+        }
         saleRepository.deleteCampaignsForSale(id);
         saleRepository.deleteProductsForSale(id);
         saleRepository.deletePermanently(id);
@@ -386,7 +800,7 @@ public class SaleServiceImpl implements SaleService {
      * @param minTotal        The minimum total amount to filter sales by.
      * @param maxTotal        The maximum total amount to filter sales by.
      * @param startDate       The start date to filter sales by.
-     * @param endDate         The end date to filter sales by.
+     * @param endDate         The end date to filter sales by, sales of the whole day are included.
      * @param isCancelled     The boolean on whether it is cancelled to filter by.
      * @param root            The root of the CriteriaQuery.
      * @param criteriaBuilder The CriteriaBuilder for creating predicates.
@@ -402,8 +816,9 @@ public class SaleServiceImpl implements SaleService {
                 cashier, paymentMethod, minTotal, maxTotal, startDate, endDate, isCancelled);
 
         List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.equal(root.get("status"), SaleStatus.COMPLETED));
         if (StringUtils.isNotBlank(cashier)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("cashier")), "%" + cashier.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("cashier")), SearchPatterns.contains(cashier), SearchPatterns.ESCAPE_CHAR));
             log.debug("Added predicate for cashier: {}", cashier);
         }
         if (StringUtils.isNotBlank(paymentMethod)) {
@@ -440,8 +855,10 @@ public class SaleServiceImpl implements SaleService {
         }
         if (StringUtils.isNotBlank(endDate)) {
             try {
-                Date date = dateFormat.parse(endDate);
-                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("date"), date));
+                // Comparing the raw date column against the start of the next day keeps the whole end date
+                // in range and lets PostgreSQL prune the monthly partitions outside of it
+                Date date = Date.from(dateFormat.parse(endDate).toInstant().atZone(ZoneId.systemDefault()).plusDays(1).toInstant());
+                predicates.add(criteriaBuilder.lessThan(root.get("date"), date));
                 log.debug("Added predicate for endDate: {}", endDate);
             } catch (ParseException e) {
                 log.error("Error parsing endDate: {}", endDate, e);
@@ -459,10 +876,74 @@ public class SaleServiceImpl implements SaleService {
         return predicates;
     }
 
+    /**
+     * This method encodes the position of the given sale in the given sort as an opaque cursor.
+     * The cursor holds the sort field, the direction, the id of the sale and its value of the sort field.
+     *
+     * @param sale      The last sale of the page.
+     * @param sortBy    The field the sales are sorted by.
+     * @param direction The direction the sales are sorted in.
+     * @return The Base64 encoded cursor.
+     */
+    private String encodeCursor(Sale sale, String sortBy, Sort.Direction direction) {
+        Object value = switch (sortBy) {
+            case "date" -> sale.getDate().getTime();
+            case "cashier" -> sale.getCashier();
+            default -> sale.getId();
+        };
+        String token = String.join(CURSOR_SEPARATOR, sortBy, direction.name(), sale.getId().toString(), value.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method decodes a cursor created by {@link #encodeCursor} into the keyset position it points to.
+     * It throws an InvalidCursorException if the cursor cannot be decoded or was created for a different sort.
+     *
+     * @param cursor    The cursor to decode.
+     * @param sortBy    The field the sales are sorted by.
+     * @param direction The direction the sales are sorted in.
+     * @return The keyset position after the sale the cursor points to.
+     * @throws InvalidCursorException If the cursor is malformed or does not match the requested sort.
+     */
+    private KeysetScrollPosition decodeCursor(String cursor, String sortBy, Sort.Direction direction) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(CURSOR_SEPARATOR, 4);
+        } catch (IllegalArgumentException e) {
+            log.warn("Malformed cursor: {}", cursor);
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+        if (parts.length != 4) {
+            log.warn("Malformed cursor: {}", cursor);
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        if (!parts[0].equals(sortBy) || !parts[1].equals(direction.name())) {
+            log.warn("Cursor sorted by {} {} does not match requested sort {} {}", parts[0], parts[1], sortBy, direction);
+            throw new InvalidCursorException("Cursor does not match the requested sort");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try {
+            switch (sortBy) {
+                case "date" -> keys.put(sortBy, new Date(Long.parseLong(parts[3])));
+                case "cashier" -> keys.put(sortBy, parts[3]);
+                default -> {
+                    // Sorted by id only
+                }
+            }
+            keys.put("id", Long.parseLong(parts[2]));
+        } catch (NumberFormatException e) {
+            log.warn("Malformed cursor: {}", cursor);
+            throw new InvalidCursorException("Malformed cursor", e);
+        }
+        return ScrollPosition.forward(keys);
+    }
+
     /**
      * This method retrieves a list of products for a sale based on the given product requests.
-     * It calls the Product service to fetch the details of each product and checks if there is enough stock.
-     * If there is enough stock, it creates a Product object and adds it to the list.
+     * By default, it calls the Product service once to fetch the details of all requested products.
+     * In the fan-out mode, it fetches every product with its own call, running the calls concurrently.
+     * It checks if there is enough stock and, if so, creates a Product object and adds it to the list.
      * If there is not enough stock, it throws a ProductOutOfStockException.
      * If the Product service returns a 404 Not Found status, it throws a ProductNotFoundException.
      * If any other error occurs during the process, it throws a ProductServiceException.
@@ -480,40 +961,35 @@ public class SaleServiceImpl implements SaleService {
 
         List<Product> products = new ArrayList<>();
 
-        for (var productRequest : saleProductRequests) {
-            try {
-                // Calling the getProduct method in Gateway Service
-                ProductResponse productResponse = gatewayService.getProduct(productRequest.getId());
-
-                if (productResponse != null) {
-
-                    // Checking whether there are enough stock for the product
-                    boolean areEnoughProductsInStock = Boolean.TRUE.equals(productResponse.getStockQuantity() >= productRequest.getQuantity());
-
-                    if (areEnoughProductsInStock) {
-                        log.debug("There are enough products for the product " + productRequest.getId() + " in stock");
-                        BigDecimal totalPrice = productResponse.getPrice().multiply(BigDecimal.valueOf(productRequest.getQuantity()));
-                        products.add(Product.builder()
-                                .productId(productResponse.getId())
-                                .name(productResponse.getName())
-                                .barcodeNumber(productResponse.getBarcodeNumber())
-                                .price(productResponse.getPrice())
-                                .quantity(productRequest.getQuantity())
-                                .totalPrice(totalPrice)
-                                .build());
-                    } else {
-                        log.error("Not enough stock for product with id: " + productRequest.getId());
-                        throw new ProductOutOfStockException("Not enough stock for product with id: " + productRequest.getId());
+        try {
+            if (PRODUCT_LOOKUP_FAN_OUT) {
+                // Capturing the headers once, since the worker threads cannot read the current request
+                HttpHeaders headers = gatewayService.getHttpHeaders();
+                fanOutService.invokeAll(saleProductRequests,
+                                productRequest -> Optional.ofNullable(mapToProduct(productRequest, gatewayService.getProduct(productRequest.getId(), headers))))
+                        .forEach(product -> product.ifPresent(products::add));
+                log.debug("Fetched products concurrently for {} product requests", saleProductRequests.size());
+
+            } else {
+                // Fetching the whole basket at once, served from the product cache when possible
+                List<Long> ids = saleProductRequests.stream().map(SaleProductRequest::getId).toList();
+                Map<Long, ProductResponse> productResponses = productCacheService.getProducts(ids);
+                log.debug("Fetched {} products for {} product requests", productResponses.size(), saleProductRequests.size());
+
+                for (var productRequest : saleProductRequests) {
+                    Product product = mapToProduct(productRequest, productResponses.get(productRequest.getId()));
+                    if (product != null) {
+                        products.add(product);
                     }
                 }
+            }
 
-            } catch (HttpClientErrorException ex) {
-                if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
-                    throw new ProductNotFoundException("Product not found with id: " + productRequest.getId());
-                } else {
-                    log.error("Error calling Product service: " + ex.getMessage());
-                    throw new ProductServiceException("Error calling Product service: " + ex.getMessage());
-                }
+        } catch (HttpClientErrorException ex) {
+            if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
+                throw new ProductNotFoundException("Product not found: " + ex.getMessage());
+            } else {
+                log.error("Error calling Product service: " + ex.getMessage());
+                throw new ProductServiceException("Error calling Product service: " + ex.getMessage());
             }
         }
 
@@ -521,8 +997,72 @@ public class SaleServiceImpl implements SaleService {
         return products;
     }
 
+    /**
+     * This method creates the Product object of a sale line after checking whether there is enough stock.
+     *
+     * @param productRequest  The product request of the sale line.
+     * @param productResponse The product details fetched from the Product service, or null if none was returned.
+     * @return The Product object of the sale line, or null if no product details were returned.
+     * @throws ProductOutOfStockException If there is not enough stock for the product.
+     */
+    private Product mapToProduct(SaleProductRequest productRequest, ProductResponse productResponse) {
+        if (productResponse == null) {
+            return null;
+        }
+
+        // Checking whether there are enough stock for the product
+        boolean areEnoughProductsInStock = Boolean.TRUE.equals(productResponse.getStockQuantity() >= productRequest.getQuantity());
+
+        if (!areEnoughProductsInStock) {
+            log.error("Not enough stock for product with id: " + productRequest.getId());
+            throw new ProductOutOfStockException("Not enough stock for product with id: " + productRequest.getId());
+        }
+        log.debug("There are enough products for the product " + productRequest.getId() + " in stock");
+
+        return buildProduct(productRequest, productResponse);
+    }
+
+    /**
+     * This method creates the Product object of a sale line from a line of a cart.
+     * The line totals of the cart already have the campaigns applied.
+     *
+     * @param item The line of the cart.
+     * @return The Product object of the sale line.
+     */
+    private Product mapToProduct(CartItemResponse item) {
+        return Product.builder()
+                .productId(item.getProductId())
+                .name(item.getName())
+                .barcodeNumber(item.getBarcodeNumber())
+                .price(item.getPrice())
+                .quantity(item.getQuantity())
+                .totalPrice(item.getTotalPriceWithCampaign())
+                .build();
+    }
+
+    /**
+     * This method creates the Product object of a sale line from the product details.
+     *
+     * @param productRequest  The product request of the sale line.
+     * @param productResponse The product details fetched from the Product service.
+     * @return The Product object of the sale line.
+     */
+    private Product buildProduct(SaleProductRequest productRequest, ProductResponse productResponse) {
+        BigDecimal totalPrice = Money.toAmount(
+                Money.times(Money.toMinorUnits(productResponse.getPrice()), productRequest.getQuantity()));
+        return Product.builder()
+                .productId(productResponse.getId())
+                .name(productResponse.getName())
+                .barcodeNumber(productResponse.getBarcodeNumber())
+                .price(productResponse.getPrice())
+                .quantity(productRequest.getQuantity())
+                .totalPrice(totalPrice)
+                .build();
+    }
+
     /**
      * This method calculates the total price of all products in the given list.
+     * The line totals are summed in minor units and converted back once.
      *
      * @param products The list of products for which the total price needs to be calculated.
      * @return The total price of all products in the given list.
@@ -530,9 +1070,11 @@ public class SaleServiceImpl implements SaleService {
     private BigDecimal getTotal(List<Product> products) {
         log.trace("Entering getTotal method in SaleServiceImpl class");
         log.trace("Exiting getTotal method in SaleServiceImpl class");
-        return products.stream()
-                .map(Product::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long total = 0;
+        for (Product product : products) {
+            total = Math.addExact(total, Money.toMinorUnits(product.getTotalPrice()));
+        }
+        return Money.toAmount(total);
     }
 
     /**
@@ -542,17 +1084,20 @@ public class SaleServiceImpl implements SaleService {
      * @param campaignIds The list of campaign IDs to apply to the products.
      * @param products    The list of products for which the campaigns need to be applied.
      * @param total       The total price of the products before applying the campaigns.
+     * @param saleDate    The date the sale was made, which the campaigns are checked against, or null for a sale made now.
      * @return A CampaignProcessResult object containing the list of applied campaigns, the updated list of products,
      * and the total price after applying the campaigns.
      */
-    protected CampaignProcessResult processCampaigns(List<Long> campaignIds, List<Product> products, BigDecimal total) {
+    protected CampaignProcessResult processCampaigns(List<Long> campaignIds, List<Product> products, BigDecimal total,
+                                                     Date saleDate) {
         log.trace("Entering processCampaigns method in SaleServiceImpl class");
 
         // Creating a CampaignProcessRequest object
         CampaignProcessRequest campaignProcessRequest = CampaignProcessRequest.builder()
                 .campaignIds(campaignIds)
                 .products(products)
-                .total(total).build();
+                .total(total)
+                .saleDate(saleDate).build();
         CampaignProcessResponse campaignProcessResponse = campaignProcessService.processCampaigns(campaignProcessRequest);
         log.debug("Got campaignProcessResponse");
 
@@ -616,12 +1161,13 @@ public class SaleServiceImpl implements SaleService {
      * If the cash amount is sufficient, it calculates and returns the change amount.
      *
      * @param cash              The cash amount provided by the customer.
-     * @param totalWithCampaign The total amount of the sale after applying the campaigns.
+     * @param total             The total amount of the sale.
+     * @param totalWithCampaign The total amount of the sale after applying the campaigns, or null if no campaign applies.
      * @return The change amount after processing the cash payment.
      * @throws CashNotProvidedException  If the cash amount is not provided.
      * @throws InsufficientCashException If the cash amount is not enough to cover the sale amount.
      */
-    protected BigDecimal processCashPayment(BigDecimal cash, BigDecimal totalWithCampaign) {
+    protected BigDecimal processCashPayment(BigDecimal cash, BigDecimal total, BigDecimal totalWithCampaign) {
         log.trace("Entering processCashPayment method in SaleServiceImpl class");
 
         // Check whether cash is provided
@@ -631,15 +1177,18 @@ public class SaleServiceImpl implements SaleService {
         }
         log.debug("Cash is provided");
 
+        long cashInMinorUnits = Money.toMinorUnits(cash);
+        long totalInMinorUnits = Money.toMinorUnits(getAmountDue(total, totalWithCampaign));
+
         // Check whether cash is enough to cover the sale amount
-        if (cash.compareTo(totalWithCampaign) < 0) {
+        if (cashInMinorUnits < totalInMinorUnits) {
             log.error("Cash is not enough to cover the sale amount.");
             throw new InsufficientCashException("Insufficient cash for payment");
         }
         log.debug("Cash is enough to cover the sale amount");
 
         log.trace("Exiting processCashPayment method in SaleServiceImpl class");
-        return cash.subtract(totalWithCampaign);
+        return Money.toAmount(cashInMinorUnits - totalInMinorUnits);
     }
 
     /**
@@ -651,13 +1200,14 @@ public class SaleServiceImpl implements SaleService {
      * Finally, it calculates and returns the change amount to be given to the customer.
      *
      * @param mixedPayment      The mixed payment object provided by the customer.
-     * @param totalWithCampaign The total amount of the sale after applying the campaigns.
+     * @param total             The total amount of the sale.
+     * @param totalWithCampaign The total amount of the sale after applying the campaigns, or null if no campaign applies.
      * @return The change amount to be given to the customer after processing the mixed payment.
      * @throws MixedPaymentNotFoundException     If the mixed payment object is not provided.
      * @throws InvalidMixedPaymentException      If the cash or credit card amounts in the mixed payment object are not valid.
      * @throws InsufficientMixedPaymentException If the total amount paid by the customer is not enough to cover the sale amount.
      */
-    protected BigDecimal processMixedPayment(MixedPayment mixedPayment, BigDecimal totalWithCampaign) {
+    protected BigDecimal processMixedPayment(MixedPayment mixedPayment, BigDecimal total, BigDecimal totalWithCampaign) {
         log.trace("Entering processMixedPayment method in SaleServiceImpl class");
 
         // Check whether mixed payment is provided
@@ -677,19 +1227,34 @@ public class SaleServiceImpl implements SaleService {
         }
         log.debug("Cash and credit card amounts are provided");
 
-        BigDecimal amountPaid = cashAmount.add(creditCardAmount);
+        long cashInMinorUnits = Money.toMinorUnits(cashAmount);
+        long creditCardInMinorUnits = Money.toMinorUnits(creditCardAmount);
+        long totalInMinorUnits = Money.toMinorUnits(getAmountDue(total, totalWithCampaign));
+        long amountPaid = Math.addExact(cashInMinorUnits, creditCardInMinorUnits);
 
         // Check whether the total amount paid is enough to cover the sale amount
-        if (amountPaid.compareTo(totalWithCampaign) < 0) {
+        if (amountPaid < totalInMinorUnits) {
             log.error("The total payment is not enough to cover the sale amount.");
             throw new InsufficientMixedPaymentException("The total payment is not enough to cover the sale amount.");
         }
         log.debug("The total payment is enough to cover the sale amount");
 
-        BigDecimal amountToBePaidByCash = totalWithCampaign.subtract(creditCardAmount);
+        long amountToBePaidByCash = totalInMinorUnits - creditCardInMinorUnits;
 
         log.trace("Exiting processMixedPayment method in SaleServiceImpl class");
-        return cashAmount.subtract(amountToBePaidByCash);
+        return Money.toAmount(cashInMinorUnits - amountToBePaidByCash);
+    }
+
+    /**
+     * This method returns the amount the customer has to pay for a sale.
+     * It is the total after applying the campaigns, or the total itself if no campaign applies.
+     *
+     * @param total             The total amount of the sale.
+     * @param totalWithCampaign The total amount of the sale after applying the campaigns, or null if no campaign applies.
+     * @return The amount due for the sale.
+     */
+    private BigDecimal getAmountDue(BigDecimal total, BigDecimal totalWithCampaign) {
+        return totalWithCampaign != null ? totalWithCampaign : total;
     }
 
     /**
@@ -718,34 +1283,377 @@ public class SaleServiceImpl implements SaleService {
     }
 
     /**
-     * This method reduces the stock quantity of the products in the given list.
-     * It sends a message to RabbitMQ to reduce the stock for each product.
-     * If an exception occurs during the process, it logs the error and throws a custom exception.
+     * This method atomically reserves the stocks of the products of a sale in the Product service, if stock reservation is enabled.
+     * The reserved quantities are subtracted from the stocks until the reservation is committed, or released when it expires.
      *
-     * @param products The list of products for which the stock needs to be reduced.
+     * @param saleProductRequests The list of product requests for the sale.
+     * @return The stock reservation, or null if stock reservation is disabled.
+     * @throws HeaderProcessingException  If there is an error processing the header.
+     * @throws ProductOutOfStockException If there is not enough stock for a product.
+     * @throws ProductNotFoundException   If any of the products is not found.
      */
-    protected void reduceStocks(List<Product> products) {
-        log.trace("Entering reduceStocks method in SaleServiceImpl class with products: {}", products);
+    protected StockReservationResponse reserveStocks(List<SaleProductRequest> saleProductRequests) throws HeaderProcessingException {
+        log.trace("Entering reserveStocks method in SaleServiceImpl class");
 
-        products.forEach(product -> {
-            ProductStockReduceRequest productStockReduceRequest = new ProductStockReduceRequest(product.getProductId(), product.getQuantity());
+        if (!STOCK_RESERVATION) {
+            log.trace("Exiting reserveStocks method in SaleServiceImpl class with stock reservation disabled");
+            return null;
+        }
+
+        List<ProductStockReduceRequest> requests = saleProductRequests.stream()
+                .map(productRequest -> new ProductStockReduceRequest(productRequest.getId(), productRequest.getQuantity()))
+                .toList();
+        StockReservationResponse stockReservation = gatewayService.reserveProducts(requests);
+        log.debug("Stocks reserved with reservation id: {}", stockReservation.getReservationId());
+
+        log.trace("Exiting reserveStocks method in SaleServiceImpl class");
+        return stockReservation;
+    }
+
+    /**
+     * This method creates the Product objects of a sale from the products of a stock reservation.
+     * Since the stocks are already reserved, no stock check is needed.
+     *
+     * @param saleProductRequests The list of product requests for the sale.
+     * @param stockReservation    The stock reservation containing the reserved products with their prices.
+     * @return A list of Product objects representing the products for the sale.
+     */
+    private List<Product> getReservedProducts(List<SaleProductRequest> saleProductRequests, StockReservationResponse stockReservation) {
+        log.trace("Entering getReservedProducts method in SaleServiceImpl class");
+
+        Map<Long, ProductResponse> productResponses = stockReservation.getProducts().stream()
+                .collect(Collectors.toMap(ProductResponse::getId, productResponse -> productResponse));
+        List<Product> products = saleProductRequests.stream()
+                .map(productRequest -> buildProduct(productRequest, productResponses.get(productRequest.getId())))
+                .collect(Collectors.toList());
+
+        log.trace("Exiting getReservedProducts method in SaleServiceImpl class");
+        return products;
+    }
+
+    /**
+     * This method executes a change of a sale in a transaction of its own, and executes it again in a new transaction
+     * when the sale was changed concurrently. The change reads the sale on every attempt, so it is applied to the latest
+     * version of the sale. Waits a random time between the attempts, growing with each attempt, so that the conflicting
+     * requests do not collide again.
+     *
+     * @param id     The ID of the changed sale.
+     * @param action The change of the sale.
+     * @return The result of the change.
+     * @throws E                          If the change fails for another reason.
+     * @throws SaleUpdateConflictException If the sale is still changed concurrently after the last attempt.
+     */
+    private <T, E extends Exception> T retryOnConflict(Long id, SaleTransaction<T, E> action) throws E {
+        for (int attempt = 1; ; attempt++) {
             try {
-                rabbitTemplate.convertAndSend(EXCHANGE, ROUTING_KEY, productStockReduceRequest);
-                log.debug("Stock reduce request sent for product with id: {}", product.getId());
+                return executeInTransaction(action);
 
-            } catch (AmqpException e) {
-                log.error("Failed to send reduce message to RabbitMQ", e);
-                throw new RabbitMQException("Failed to send reduce message to RabbitMQ", e);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= CONFLICT_MAX_ATTEMPTS) {
+                    log.error("Sale with id: {} was still changed concurrently after {} attempts", id, attempt);
+                    throw new SaleUpdateConflictException("Sale was changed concurrently with id: " + id + ", please try again");
+                }
+                log.info("Sale with id: {} was changed concurrently, retrying for the attempt {}", id, attempt + 1);
+                backOff(id, attempt);
             }
+        }
+    }
+
+    private <T, E extends Exception> T executeInTransaction(SaleTransaction<T, E> action) throws E {
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return action.execute();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // Rolling back on the checked exceptions as well, they are thrown again below
+                    throw new CheckedTransactionException(e);
+                }
+            });
+        } catch (CheckedTransactionException e) {
+            @SuppressWarnings("unchecked")
+            E cause = (E) e.getCause();
+            throw cause;
+        }
+    }
+
+    private void backOff(Long id, int attempt) {
+        long maxBackoff = CONFLICT_BACKOFF.toMillis() << Math.min(attempt - 1, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxBackoff + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SaleUpdateConflictException("Sale was changed concurrently with id: " + id + ", please try again");
+        }
+    }
+
+    /**
+     * This method checks that a sale is completed, a pending or failed sale of the asynchronous checkout has no
+     * products or payment yet that could be changed.
+     *
+     * @param sale The sale to check.
+     * @throws InvalidSaleStatusException If the sale is not completed.
+     */
+    private void checkCompleted(Sale sale) {
+        if (sale.getStatus() != SaleStatus.COMPLETED) {
+            log.warn("Sale is not completed with id: {}, status: {}", sale.getId(), sale.getStatus());
+            throw new InvalidSaleStatusException("Sale is not completed with id: " + sale.getId());
+        }
+    }
+
+    /**
+     * This method checks whether the given sale is counted in the rollups, which hold the completed sales that are
+     * not cancelled.
+     *
+     * @param sale The sale to check.
+     * @return True if the sale is counted in the rollups, false otherwise.
+     */
+    private boolean isInRollups(Sale sale) {
+        return sale.getStatus() == SaleStatus.COMPLETED && !sale.isCancelled();
+    }
+
+    /**
+     * This method fills the given sale with the priced values and saves it with its products, then adds it to the
+     * rollups and commits its stocks. The sale is completed, and runs in the transaction of the caller.
+     *
+     * @param sale       The new or pending sale to save.
+     * @param pricedSale The priced values of the sale.
+     * @return The saved sale.
+     * @throws HeaderProcessingException If there is an error processing the header.
+     */
+    private SaleResponse savePricedSale(Sale sale, PricedSale pricedSale) throws HeaderProcessingException {
+        log.trace("Entering savePricedSale method in SaleServiceImpl class");
+
+        List<Product> products = pricedSale.getProducts();
+        sale.setCampaigns(pricedSale.getCampaigns());
+        sale.setCash(pricedSale.getCash());
+        sale.setChange(pricedSale.getChange());
+        sale.setTotal(pricedSale.getTotal());
+        sale.setTotalWithCampaign(pricedSale.getTotalWithCampaign());
+        sale.setMixedPayment(pricedSale.getMixedPayment());
+        sale.setStatus(SaleStatus.COMPLETED);
+
+        saleRepository.saveAndFlush(sale);
+        products.forEach(product -> {
+            product.setSale(sale);
+            product.setSaleDate(sale.getDate());
         });
-        log.info("Stocks reduced successfully for products: {}", products);
+        productRepository.saveAll(products);
+        log.debug("Sale saved");
+        salesRollupService.addSale(sale, products);
+
+        // Committing the stock reservation or sending a reduce message to the RabbitMQ
+        commitStocks(products, pricedSale.getStockReservation());
+
+        sale.setProducts(products);
+
+        log.trace("Exiting savePricedSale method in SaleServiceImpl class");
+        return mapToSaleResponse(sale);
+    }
+
+    /**
+     * This method calculates the changes of the sold quantities of the products when a sale is updated.
+     * The quantities of the new lines are compared with the quantities of the existing lines product by product,
+     * and the products whose quantities do not change are left out.
+     *
+     * @param existingSale        The sale being updated.
+     * @param saleProductRequests The product requests of the updated sale.
+     * @return The changes of the sold quantities by product ID, positive ones to be taken from the stocks and negative
+     * ones to be returned to the stocks.
+     */
+    private Map<Long, Integer> getStockAdjustments(Sale existingSale, List<SaleProductRequest> saleProductRequests) {
+        log.trace("Entering getStockAdjustments method in SaleServiceImpl class");
+
+        Map<Long, Integer> stockAdjustments = new LinkedHashMap<>();
+        saleProductRequests.forEach(productRequest ->
+                stockAdjustments.merge(productRequest.getId(), productRequest.getQuantity(), Integer::sum));
+        existingSale.getProducts().forEach(product ->
+                stockAdjustments.merge(product.getProductId(), -product.getQuantity(), Integer::sum));
+        stockAdjustments.values().removeIf(quantity -> quantity == 0);
+        log.debug("Stock adjustments of the sale update: {}", stockAdjustments);
+
+        log.trace("Exiting getStockAdjustments method in SaleServiceImpl class");
+        return stockAdjustments;
+    }
+
+    /**
+     * This method atomically reserves the stock adjustments of an updated sale in the Product service, if stock
+     * reservation is enabled and any quantity changes. The increased quantities are subtracted from the stocks until
+     * the reservation is committed, and the decreased quantities are returned to the stocks when it is committed.
+     *
+     * @param stockAdjustments The changes of the sold quantities by product ID.
+     * @return The stock reservation, or null if stock reservation is disabled or no quantity changes.
+     * @throws HeaderProcessingException  If there is an error processing the header.
+     * @throws ProductOutOfStockException If there is not enough stock for an increased quantity.
+     * @throws ProductNotFoundException   If any of the products is not found.
+     */
+    protected StockReservationResponse reserveStockAdjustments(Map<Long, Integer> stockAdjustments) throws HeaderProcessingException {
+        log.trace("Entering reserveStockAdjustments method in SaleServiceImpl class");
+
+        if (!STOCK_RESERVATION || stockAdjustments.isEmpty()) {
+            log.trace("Exiting reserveStockAdjustments method in SaleServiceImpl class without a reservation");
+            return null;
+        }
+
+        StockReservationResponse stockReservation = gatewayService.reserveStockAdjustments(toStockRequests(stockAdjustments));
+        log.debug("Stock adjustments reserved with reservation id: {}", stockReservation.getReservationId());
+
+        log.trace("Exiting reserveStockAdjustments method in SaleServiceImpl class");
+        return stockReservation;
+    }
+
+    /**
+     * This method creates the Product objects of an updated sale.
+     * The products adjusted by the stock reservation are priced with the details it returned, the rest are fetched at once.
+     * Without a reservation, only the increased quantities are checked against the stocks, since the stocks do not include
+     * the quantities the sale already holds.
+     *
+     * @param saleProductRequests The list of product requests for the sale.
+     * @param stockAdjustments    The changes of the sold quantities by product ID.
+     * @param stockReservation    The stock reservation of the adjustments, or null if there is none.
+     * @return A list of Product objects representing the products for the sale.
+     * @throws HeaderProcessingException  If there is an error processing the header.
+     * @throws ProductOutOfStockException If there is not enough stock for an increased quantity.
+     * @throws ProductNotFoundException   If any of the products is not found.
+     */
+    private List<Product> getUpdatedProducts(List<SaleProductRequest> saleProductRequests, Map<Long, Integer> stockAdjustments,
+                                             StockReservationResponse stockReservation) throws HeaderProcessingException {
+        log.trace("Entering getUpdatedProducts method in SaleServiceImpl class");
+
+        Map<Long, ProductResponse> productResponses = new HashMap<>();
+        if (stockReservation != null) {
+            stockReservation.getProducts().forEach(productResponse -> productResponses.put(productResponse.getId(), productResponse));
+        }
+        List<Long> ids = saleProductRequests.stream()
+                .map(SaleProductRequest::getId)
+                .filter(productId -> !productResponses.containsKey(productId))
+                .distinct()
+                .toList();
+        if (!ids.isEmpty()) {
+            productResponses.putAll(productCacheService.getProducts(ids));
+        }
+
+        List<Product> products = new ArrayList<>(saleProductRequests.size());
+        for (SaleProductRequest productRequest : saleProductRequests) {
+            ProductResponse productResponse = productResponses.get(productRequest.getId());
+            if (productResponse == null) {
+                log.error("Product not found with id: {}", productRequest.getId());
+                throw new ProductNotFoundException("Product not found with id: " + productRequest.getId());
+            }
+
+            int increase = stockAdjustments.getOrDefault(productRequest.getId(), 0);
+            if (stockReservation == null && increase > 0 && productResponse.getStockQuantity() < increase) {
+                log.error("Not enough stock for product with id: " + productRequest.getId());
+                throw new ProductOutOfStockException("Not enough stock for product with id: " + productRequest.getId());
+            }
+            products.add(buildProduct(productRequest, productResponse));
+        }
+
+        log.trace("Exiting getUpdatedProducts method in SaleServiceImpl class");
+        return products;
+    }
+
+    /**
+     * This method makes the stock adjustments of an updated sale permanent.
+     * It commits the stock reservation if there is one, otherwise it writes a single message carrying the adjustments
+     * to the outbox, in the current transaction. Nothing is sent when no quantity changes.
+     *
+     * @param stockAdjustments The changes of the sold quantities by product ID.
+     * @param stockReservation The stock reservation of the adjustments, or null if there is none.
+     * @throws HeaderProcessingException If there is an error processing the header.
+     * @throws ProductServiceException   If the reservation has expired or cannot be committed.
+     */
+    protected void commitStockAdjustments(Map<Long, Integer> stockAdjustments, StockReservationResponse stockReservation)
+            throws HeaderProcessingException {
+        log.trace("Entering commitStockAdjustments method in SaleServiceImpl class");
+
+        if (stockReservation != null) {
+            gatewayService.commitReservation(stockReservation.getReservationId());
+            log.debug("Stock adjustment reservation committed with id: {}", stockReservation.getReservationId());
+        } else if (!stockAdjustments.isEmpty()) {
+            // The negative quantities are added to the stocks by the consumer
+            outboxService.enqueue(EXCHANGE, ROUTING_KEY, new ProductStockReduceBatch(toStockRequests(stockAdjustments)));
+            log.info("Stock adjustments queued for products: {}", stockAdjustments);
+        } else {
+            log.debug("No stock changes for the sale update");
+        }
+
+        log.trace("Exiting commitStockAdjustments method in SaleServiceImpl class");
+    }
+
+    private List<ProductStockReduceRequest> toStockRequests(Map<Long, Integer> stockAdjustments) {
+        return stockAdjustments.entrySet().stream()
+                .map(entry -> new ProductStockReduceRequest(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * This method makes the stock changes of a sale permanent.
+     * It commits the stock reservation if there is one, otherwise it sends reduce messages to RabbitMQ.
+     *
+     * @param products         The list of products of the sale.
+     * @param stockReservation The stock reservation of the sale, or null if stock reservation is disabled.
+     * @throws HeaderProcessingException If there is an error processing the header.
+     * @throws ProductServiceException   If the reservation has expired or cannot be committed.
+     */
+    protected void commitStocks(List<Product> products, StockReservationResponse stockReservation) throws HeaderProcessingException {
+        log.trace("Entering commitStocks method in SaleServiceImpl class");
+
+        if (stockReservation != null) {
+            gatewayService.commitReservation(stockReservation.getReservationId());
+            log.debug("Stock reservation committed with id: {}", stockReservation.getReservationId());
+        } else {
+            reduceStocks(products);
+        }
+
+        log.trace("Exiting commitStocks method in SaleServiceImpl class");
+    }
+
+    /**
+     * This method releases the stock reservation of a sale that has failed.
+     * A failure to release is only logged, since the reservation is released anyway when it expires.
+     *
+     * @param stockReservation The stock reservation to release, or null if there is none.
+     */
+    protected void releaseStocks(StockReservationResponse stockReservation) {
+        log.trace("Entering releaseStocks method in SaleServiceImpl class");
+
+        if (stockReservation != null) {
+            try {
+                gatewayService.releaseReservation(stockReservation.getReservationId());
+                log.debug("Stock reservation released with id: {}", stockReservation.getReservationId());
+
+            } catch (Exception e) {
+                log.warn("Failed to release stock reservation with id: {}, it will expire", stockReservation.getReservationId(), e);
+            }
+        }
+
+        log.trace("Exiting releaseStocks method in SaleServiceImpl class");
+    }
+
+    /**
+     * This method reduces the stock quantity of the products in the given list.
+     * It writes a single message carrying the stock reduce requests of all the products to the outbox,
+     * in the current transaction, to be published to RabbitMQ after the commit.
+     *
+     * @param products The list of products for which the stock needs to be reduced.
+     */
+    protected void reduceStocks(List<Product> products) {
+        log.trace("Entering reduceStocks method in SaleServiceImpl class with products: {}", products);
+
+        List<ProductStockReduceRequest> requests = products.stream()
+                .map(product -> new ProductStockReduceRequest(product.getProductId(), product.getQuantity()))
+                .toList();
+        outboxService.enqueue(EXCHANGE, ROUTING_KEY, new ProductStockReduceBatch(requests));
+        log.info("Stock reduce request queued for products: {}", products);
 
         log.trace("Exiting reduceStocks method in SaleServiceImpl class");
     }
 
     /**
      * This method returns the products to the inventory after a sale.
-     * It sends a request to the Product service to return the products.
+     * It sends the return requests of all the products to the Product service in a single request.
      * If any exception occurs during the process, it logs the error and throws a RuntimeException.
      *
      * @param products The list of products to be returned to the inventory.
@@ -753,15 +1661,15 @@ public class SaleServiceImpl implements SaleService {
     private void returnProducts(List<Product> products) {
         log.trace("Entering returnProducts method in SaleServiceImpl class");
 
-        products.forEach(product -> {
-            ProductStockReturnRequest productStockReturnRequest = new ProductStockReturnRequest(product.getProductId(), product.getQuantity());
-            try {
-                gatewayService.returnProducts(productStockReturnRequest);
-            } catch (HeaderProcessingException | ProductReturnException e) {
-                log.error("Failed to return product", e);
-                throw new RuntimeException(e);
-            }
-        });
+        List<ProductStockReturnRequest> productStockReturnRequests = products.stream()
+                .map(product -> new ProductStockReturnRequest(product.getProductId(), product.getQuantity()))
+                .toList();
+        try {
+            gatewayService.returnProducts(productStockReturnRequests);
+        } catch (HeaderProcessingException | ProductReturnException e) {
+            log.error("Failed to return products", e);
+            throw new RuntimeException(e);
+        }
         log.info("Products returned successfully");
 
         log.trace("Exiting returnProducts method in SaleServiceImpl class");
@@ -794,6 +1702,25 @@ public class SaleServiceImpl implements SaleService {
                 .change(sale.getChange())
                 .total(sale.getTotal())
                 .totalWithCampaign(sale.getTotalWithCampaign())
-                .mixedPayment(sale.getMixedPayment()).build();
+                .mixedPayment(sale.getMixedPayment())
+                .status(sale.getStatus().toString())
+                .failureReason(sale.getFailureReason()).build();
+    }
+
+    /**
+     * A change of a sale executed in a transaction by {@link #retryOnConflict}.
+     */
+    @FunctionalInterface
+    private interface SaleTransaction<T, E extends Exception> {
+        T execute() throws E;
+    }
+
+    /**
+     * Carries a checked exception out of a transaction callback.
+     */
+    private static class CheckedTransactionException extends RuntimeException {
+        CheckedTransactionException(Exception cause) {
+            super(cause);
+        }
     }
 }
@@ -0,0 +1,492 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.PricedSale;
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.SaleProductRequest;
+import com.bit.saleservice.dto.SaleRequest;
+import com.bit.saleservice.dto.SyncSaleRequest;
+import com.bit.saleservice.dto.SyncSaleResult;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.entity.SyncedSale;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.InvalidSyncSaleException;
+import com.bit.saleservice.exception.ProductNotFoundException;
+import com.bit.saleservice.exception.ProductServiceException;
+import com.bit.saleservice.exception.SyncLimitExceededException;
+import com.bit.saleservice.repository.SaleBatchRepository;
+import com.bit.saleservice.repository.SyncedSaleRepository;
+import com.bit.saleservice.wrapper.ProductStockReduceBatch;
+import com.bit.saleservice.wrapper.ProductStockReduceRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.common.util.StringUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class records the sales terminals made while they were offline.
+ * The sales are priced and inserted in chunks, each chunk in its own transaction with a single stock reduction for all
+ * of its products, and a sale that cannot be recorded does not prevent the others from being recorded.
+ * Every sale is recorded with the reference the terminal gave it, unique per cashier, so that a sale uploaded again is
+ * reported as a duplicate of the recorded one instead of being recorded, and its stocks reduced, a second time.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class SaleSyncService {
+
+    @Value("${rabbitmq.exchange}")
+    private String EXCHANGE;
+
+    @Value("${rabbitmq.routingKey}")
+    private String ROUTING_KEY;
+
+    @Value("${sale-sync.chunk-size}")
+    private int SYNC_CHUNK_SIZE;
+
+    @Value("${sale-sync.max-sales}")
+    private int SYNC_MAX_SALES;
+
+    private final SaleService saleService;
+    private final SaleBatchRepository saleBatchRepository;
+    private final SyncedSaleRepository syncedSaleRepository;
+    private final ProductCacheService productCacheService;
+    private final SalesRollupService salesRollupService;
+    private final OutboxService outboxService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Records the sales terminals made while they were offline.
+     *
+     * @param syncSaleRequests The sales to record.
+     * @return The result of each sale, in the order of the sales.
+     * @throws HeaderProcessingException  If there is an issue with processing the request headers.
+     * @throws SyncLimitExceededException If there are more sales than a sync upload can contain.
+     */
+    public List<SyncSaleResult> syncSales(List<SyncSaleRequest> syncSaleRequests) throws HeaderProcessingException {
+        log.trace("Entering syncSales method in SaleSyncService with {} sales", syncSaleRequests.size());
+
+        if (syncSaleRequests.size() > SYNC_MAX_SALES) {
+            log.error("Sync upload of {} sales exceeds the limit of {}", syncSaleRequests.size(), SYNC_MAX_SALES);
+            throw new SyncLimitExceededException("A sync upload can contain at most " + SYNC_MAX_SALES + " sales");
+        }
+
+        List<SyncSaleResult> results = new ArrayList<>(syncSaleRequests.size());
+        List<PendingSyncSale> chunk = new ArrayList<>(SYNC_CHUNK_SIZE);
+        for (int i = 0; i < syncSaleRequests.size(); i++) {
+            chunk.add(new PendingSyncSale(i, syncSaleRequests.get(i)));
+            if (chunk.size() == SYNC_CHUNK_SIZE) {
+                syncChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        syncChunk(chunk, results);
+        results.sort(Comparator.comparingInt(SyncSaleResult::getIndex));
+        logSyncResults(results);
+
+        log.trace("Exiting syncSales method in SaleSyncService");
+        return results;
+    }
+
+    /**
+     * Records the sales terminals made while they were offline, read from the given stream of newline-delimited JSON,
+     * one sale per line. The sales are recorded chunk by chunk as they are read, so the upload is never held in memory
+     * as a whole, and a line that cannot be parsed only fails the sale on that line.
+     *
+     * @param inputStream The stream to read the sales from.
+     * @return The result of each sale, in the order of the lines.
+     * @throws IOException               If reading the stream fails.
+     * @throws HeaderProcessingException If there is an issue with processing the request headers.
+     */
+    public List<SyncSaleResult> syncSales(InputStream inputStream) throws IOException, HeaderProcessingException {
+        log.trace("Entering syncSales method in SaleSyncService with a stream");
+
+        ObjectReader reader = objectMapper.readerFor(SyncSaleRequest.class);
+        BufferedReader lines = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        List<SyncSaleResult> results = new ArrayList<>();
+        List<PendingSyncSale> chunk = new ArrayList<>(SYNC_CHUNK_SIZE);
+        int index = 0;
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            // The sales before the limit are recorded as they are read, so the ones after it are failed individually
+            if (index >= SYNC_MAX_SALES) {
+                results.add(failedSyncResult(index++, null, "A sync upload can contain at most " + SYNC_MAX_SALES + " sales"));
+                continue;
+            }
+            try {
+                chunk.add(new PendingSyncSale(index, reader.readValue(line)));
+            } catch (JsonProcessingException e) {
+                log.warn("Malformed sale on line {} of the sync upload", index, e);
+                results.add(failedSyncResult(index, null, "Malformed sale: " + e.getOriginalMessage()));
+            }
+            index++;
+
+            if (chunk.size() == SYNC_CHUNK_SIZE) {
+                syncChunk(chunk, results);
+                chunk.clear();
+            }
+        }
+        syncChunk(chunk, results);
+        results.sort(Comparator.comparingInt(SyncSaleResult::getIndex));
+        logSyncResults(results);
+
+        log.trace("Exiting syncSales method in SaleSyncService");
+        return results;
+    }
+
+    /**
+     * Records a chunk of offline sales.
+     * The sales already recorded by an earlier upload are reported as duplicates without being priced, and a sale
+     * repeated within the upload gets the result of its first occurrence. The products of the rest of the chunk are
+     * fetched at once and each sale is priced on its own, so that a sale that cannot be priced is failed alone.
+     * The priced sales are then inserted with JDBC batching together with their references, added to the rollups and
+     * given a single stock reduce message with the quantities of all their products, in one transaction.
+     * The stocks are reduced without reserving them first, since the sales have already taken place at the terminals.
+     *
+     * @param chunk   The sales of the chunk with their positions in the upload.
+     * @param results The results to add the results of the chunk to.
+     * @throws HeaderProcessingException If there is an error processing the header.
+     */
+    private void syncChunk(List<PendingSyncSale> chunk, List<SyncSaleResult> results) throws HeaderProcessingException {
+        log.trace("Entering syncChunk method in SaleSyncService with {} sales", chunk.size());
+
+        if (chunk.isEmpty()) {
+            log.trace("Exiting syncChunk method in SaleSyncService without sales");
+            return;
+        }
+
+        // Setting the recorded and the repeated sales aside, before anything is priced
+        Map<SyncKey, Long> syncedSaleIds = getSyncedSaleIds(chunk);
+        Map<SyncKey, PendingSyncSale> firstSales = new HashMap<>();
+        Map<PendingSyncSale, PendingSyncSale> repeatedSales = new LinkedHashMap<>();
+        List<PendingSyncSale> newSales = new ArrayList<>(chunk.size());
+        for (PendingSyncSale pending : chunk) {
+            SyncKey key = SyncKey.of(pending.request());
+            if (key != null && syncedSaleIds.containsKey(key)) {
+                results.add(duplicateSyncResult(pending.index(), key.reference(), syncedSaleIds.get(key)));
+            } else if (key != null && firstSales.containsKey(key)) {
+                repeatedSales.put(pending, firstSales.get(key));
+            } else {
+                if (key != null) {
+                    firstSales.put(key, pending);
+                }
+                newSales.add(pending);
+            }
+        }
+
+        Map<PendingSyncSale, SyncSaleResult> newResults = recordSales(newSales);
+        results.addAll(newResults.values());
+        repeatedSales.forEach((pending, first) -> {
+            SyncSaleResult firstResult = newResults.get(first);
+            results.add(SyncSaleResult.CREATED.equals(firstResult.getStatus())
+                    ? duplicateSyncResult(pending.index(), pending.request().getReference(), firstResult.getSaleId())
+                    : failedSyncResult(pending.index(), pending.request().getReference(), firstResult.getError()));
+        });
+        log.debug("Synced chunk of {} sales, {} repeated", chunk.size(), repeatedSales.size());
+
+        log.trace("Exiting syncChunk method in SaleSyncService");
+    }
+
+    /**
+     * Prices and records the given offline sales, none of which is recorded yet.
+     *
+     * @param pendingSales The sales to record with their positions in the upload.
+     * @return The result of each sale.
+     * @throws HeaderProcessingException If there is an error processing the header.
+     */
+    private Map<PendingSyncSale, SyncSaleResult> recordSales(List<PendingSyncSale> pendingSales) throws HeaderProcessingException {
+        Map<PendingSyncSale, SyncSaleResult> results = new LinkedHashMap<>();
+        if (pendingSales.isEmpty()) {
+            return results;
+        }
+
+        Map<Long, ProductResponse> productResponses;
+        try {
+            productResponses = getSyncProducts(pendingSales);
+        } catch (ProductServiceException e) {
+            log.error("Failed to fetch the products of a sync chunk", e);
+            pendingSales.forEach(pending -> results.put(pending,
+                    failedSyncResult(pending.index(), pending.request().getReference(), e.getMessage())));
+            return results;
+        }
+
+        // Pricing the sales one by one, so that an invalid sale does not fail the rest of the chunk
+        List<PendingSyncSale> pricedSales = new ArrayList<>(pendingSales.size());
+        List<Sale> sales = new ArrayList<>(pendingSales.size());
+        for (PendingSyncSale pending : pendingSales) {
+            try {
+                sales.add(priceSyncSale(pending.request(), productResponses));
+                pricedSales.add(pending);
+            } catch (RuntimeException e) {
+                log.warn("Failed to price sale {} of the sync upload: {}", pending.index(), e.getMessage());
+                results.put(pending, failedSyncResult(pending.index(), pending.request().getReference(), e.getMessage()));
+            }
+        }
+        if (sales.isEmpty()) {
+            return results;
+        }
+
+        // A concurrent upload of the same sale fails the chunk on the unique reference, instead of recording it twice
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                saleBatchRepository.insertSales(sales);
+                List<SyncedSale> syncedSales = new ArrayList<>(sales.size());
+                for (int i = 0; i < sales.size(); i++) {
+                    syncedSales.add(SyncedSale.builder()
+                            .saleId(sales.get(i).getId())
+                            .cashier(sales.get(i).getCashier())
+                            .reference(pricedSales.get(i).request().getReference())
+                            .build());
+                }
+                saleBatchRepository.insertSyncedSales(syncedSales);
+                salesRollupService.addSales(sales);
+                reduceSyncedStocks(sales);
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to save a sync chunk of {} sales", sales.size(), e);
+            pricedSales.forEach(pending -> results.put(pending,
+                    failedSyncResult(pending.index(), pending.request().getReference(), "Failed to save sale")));
+            return results;
+        }
+
+        for (int i = 0; i < sales.size(); i++) {
+            Sale sale = sales.get(i);
+            PendingSyncSale pending = pricedSales.get(i);
+            results.put(pending, SyncSaleResult.builder()
+                    .index(pending.index())
+                    .reference(pending.request().getReference())
+                    .status(SyncSaleResult.CREATED)
+                    .saleId(sale.getId())
+                    .totalWithCampaign(sale.getTotalWithCampaign() != null ? sale.getTotalWithCampaign() : sale.getTotal())
+                    .build());
+        }
+        log.debug("Recorded {} of {} synced sales", sales.size(), pendingSales.size());
+        return results;
+    }
+
+    /**
+     * Finds the sales of the chunk that are already recorded, by their cashier and reference.
+     *
+     * @param chunk The sales of the chunk.
+     * @return A map of the cashier and reference of the recorded sales to their sale IDs.
+     */
+    private Map<SyncKey, Long> getSyncedSaleIds(List<PendingSyncSale> chunk) {
+        List<String> references = chunk.stream()
+                .map(pending -> SyncKey.of(pending.request()))
+                .filter(Objects::nonNull)
+                .map(SyncKey::reference)
+                .distinct()
+                .toList();
+        if (references.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<SyncKey, Long> syncedSaleIds = new HashMap<>();
+        syncedSaleRepository.findAllByReferenceIn(references).forEach(syncedSale ->
+                syncedSaleIds.put(new SyncKey(syncedSale.getCashier(), syncedSale.getReference()), syncedSale.getSaleId()));
+        return syncedSaleIds;
+    }
+
+    /**
+     * Writes a single stock reduce message for the given sales to the outbox, in the current transaction.
+     * The quantities of the same product are summed up across the sales, so the message carries one request per product.
+     *
+     * @param sales The sales to reduce the stocks of.
+     */
+    private void reduceSyncedStocks(List<Sale> sales) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (Sale sale : sales) {
+            for (Product product : sale.getProducts()) {
+                quantities.merge(product.getProductId(), product.getQuantity(), Integer::sum);
+            }
+        }
+        List<ProductStockReduceRequest> requests = quantities.entrySet().stream()
+                .map(entry -> new ProductStockReduceRequest(entry.getKey(), entry.getValue()))
+                .toList();
+        outboxService.enqueue(EXCHANGE, ROUTING_KEY, new ProductStockReduceBatch(requests));
+        log.info("Stock reduce request queued for {} products of {} synced sales", requests.size(), sales.size());
+    }
+
+    /**
+     * Fetches the details of the products of the given offline sales in a single request.
+     * If any of the products is not found, the products are fetched sale by sale instead, so that only the sales
+     * with unknown products go without their product details and fail.
+     *
+     * @param pendingSales The offline sales.
+     * @return A map of product ID to the product details.
+     * @throws HeaderProcessingException If there is an error processing the header.
+     * @throws ProductServiceException   If there is an error fetching the products from the Product service.
+     */
+    private Map<Long, ProductResponse> getSyncProducts(List<PendingSyncSale> pendingSales) throws HeaderProcessingException {
+        List<List<Long>> productIdsBySale = pendingSales.stream()
+                .map(pending -> pending.request().getProducts() == null ? List.<Long>of() : pending.request().getProducts().stream()
+                        .map(SaleProductRequest::getId)
+                        .filter(Objects::nonNull)
+                        .toList())
+                .toList();
+        List<Long> productIds = productIdsBySale.stream().flatMap(List::stream).distinct().toList();
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            return productCacheService.getProducts(productIds);
+
+        } catch (ProductNotFoundException e) {
+            log.warn("Some products of a sync chunk are not found, fetching them sale by sale");
+            Map<Long, ProductResponse> productResponses = new LinkedHashMap<>();
+            for (List<Long> saleProductIds : productIdsBySale) {
+                if (saleProductIds.isEmpty() || productResponses.keySet().containsAll(saleProductIds)) {
+                    continue;
+                }
+                try {
+                    productResponses.putAll(productCacheService.getProducts(saleProductIds));
+                } catch (ProductNotFoundException ignored) {
+                    log.debug("Products not found for a sale of the sync chunk: {}", saleProductIds);
+                }
+            }
+            return productResponses;
+        }
+    }
+
+    /**
+     * Prices an offline sale and builds the Sale object for it, together with its products.
+     * The sale is priced with the current product prices and campaigns, and dated with the time the terminal made it,
+     * or the current time if the terminal did not send one. The campaigns are checked against that date, so a campaign
+     * that expired while the terminal was offline still applies to the sales made before.
+     *
+     * @param syncSaleRequest  The offline sale.
+     * @param productResponses The details of the products of the sale by product ID.
+     * @return The Sale object with its products.
+     * @throws InvalidSyncSaleException If the sale is missing required details.
+     * @throws ProductNotFoundException If a product of the sale is not found.
+     */
+    private Sale priceSyncSale(SyncSaleRequest syncSaleRequest, Map<Long, ProductResponse> productResponses) {
+        if (StringUtils.isBlank(syncSaleRequest.getReference())) {
+            throw new InvalidSyncSaleException("Reference is required");
+        }
+        if (StringUtils.isBlank(syncSaleRequest.getCashier())) {
+            throw new InvalidSyncSaleException("Cashier is required");
+        }
+        if (StringUtils.isBlank(syncSaleRequest.getPaymentMethod())) {
+            throw new InvalidSyncSaleException("Payment method is required");
+        }
+        if (syncSaleRequest.getProducts() == null || syncSaleRequest.getProducts().isEmpty()) {
+            throw new InvalidSyncSaleException("Sale has no products");
+        }
+        for (SaleProductRequest productRequest : syncSaleRequest.getProducts()) {
+            if (productRequest.getId() == null || productRequest.getQuantity() == null || productRequest.getQuantity() <= 0) {
+                throw new InvalidSyncSaleException("Sale has a product without an id or a positive quantity");
+            }
+        }
+
+        SaleRequest saleRequest = SaleRequest.builder()
+                .cashier(syncSaleRequest.getCashier())
+                .paymentMethod(syncSaleRequest.getPaymentMethod())
+                .campaignIds(syncSaleRequest.getCampaignIds())
+                .products(syncSaleRequest.getProducts())
+                .cash(syncSaleRequest.getCash())
+                .mixedPayment(syncSaleRequest.getMixedPayment())
+                .build();
+        Date date = syncSaleRequest.getDate() != null ? syncSaleRequest.getDate() : new Date();
+        PricedSale pricedSale = saleService.priceSale(saleRequest, productResponses, date);
+
+        Sale sale = Sale.builder()
+                .cashier(syncSaleRequest.getCashier())
+                .date(date)
+                .paymentMethod(pricedSale.getPaymentMethod())
+                .campaigns(pricedSale.getCampaigns())
+                .products(pricedSale.getProducts())
+                .cash(pricedSale.getCash())
+                .change(pricedSale.getChange())
+                .total(pricedSale.getTotal())
+                .totalWithCampaign(pricedSale.getTotalWithCampaign())
+                .mixedPayment(pricedSale.getMixedPayment())
+                .build();
+        sale.getProducts().forEach(product -> {
+            product.setSale(sale);
+            product.setSaleDate(date);
+        });
+        return sale;
+    }
+
+    private SyncSaleResult duplicateSyncResult(int index, String reference, Long saleId) {
+        return SyncSaleResult.builder()
+                .index(index)
+                .reference(reference)
+                .status(SyncSaleResult.DUPLICATE)
+                .saleId(saleId)
+                .build();
+    }
+
+    private SyncSaleResult failedSyncResult(int index, String reference, String error) {
+        return SyncSaleResult.builder()
+                .index(index)
+                .reference(reference)
+                .status(SyncSaleResult.FAILED)
+                .error(error)
+                .build();
+    }
+
+    private void logSyncResults(List<SyncSaleResult> results) {
+        long created = results.stream().filter(result -> SyncSaleResult.CREATED.equals(result.getStatus())).count();
+        long duplicates = results.stream().filter(result -> SyncSaleResult.DUPLICATE.equals(result.getStatus())).count();
+        log.info("Synced {} sales, {} created, {} duplicates and {} failed", results.size(), created, duplicates,
+                results.size() - created - duplicates);
+    }
+
+    /**
+     * An offline sale waiting to be recorded, with its position in the upload.
+     *
+     * @param index   The position of the sale in the upload.
+     * @param request The offline sale.
+     */
+    private record PendingSyncSale(int index, SyncSaleRequest request) {
+    }
+
+    /**
+     * The cashier and the reference an offline sale is recorded by.
+     *
+     * @param cashier   The cashier of the sale.
+     * @param reference The reference the terminal gave the sale.
+     */
+    private record SyncKey(String cashier, String reference) {
+
+        /**
+         * Returns the key of the given offline sale, or null if the sale has no cashier or reference to be keyed by.
+         */
+        static SyncKey of(SyncSaleRequest syncSaleRequest) {
+            if (StringUtils.isBlank(syncSaleRequest.getCashier()) || StringUtils.isBlank(syncSaleRequest.getReference())) {
+                return null;
+            }
+            return new SyncKey(syncSaleRequest.getCashier(), syncSaleRequest.getReference());
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.DailySalesRollupResponse;
+import com.bit.saleservice.entity.DailySalesRollup;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.RollupDimension;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.exception.InvalidRollupDimensionException;
+import com.bit.saleservice.exception.ParsingException;
+import com.bit.saleservice.repository.DailySalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class maintains the daily sales rollups, the sales of each business day aggregated by product name,
+ * cashier and payment method. The rollups are updated incrementally in the transaction that creates, updates or
+ * cancels a sale, and rebuilt from the sales periodically to repair any drift.
+ *
+ * @author Emirhan Tuygun
+ */
+@Log4j2
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private final DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Value("${sales-rollup.rebuild-days}")
+    private int REBUILD_DAYS;
+
+    /**
+     * Adds the given sale to the rollups of its business day.
+     *
+     * @param sale     The sale to add.
+     * @param products The products of the sale.
+     */
+    public void addSale(Sale sale, List<Product> products) {
+        log.trace("Entering addSale method in SalesRollupService");
+
+        applySale(sale, products, 1);
+
+        log.trace("Exiting addSale method in SalesRollupService");
+    }
+
+    /**
+     * Adds the given sales, each with its products, to the rollups of their business days.
+     * The changes are summed up by rollup row first, so that a batch of sales costs one upsert per row it touches
+     * rather than a few per sale.
+     *
+     * @param sales The sales to add.
+     */
+    public void addSales(List<Sale> sales) {
+        log.trace("Entering addSales method in SalesRollupService with {} sales", sales.size());
+
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        for (Sale sale : sales) {
+            collectDeltas(sale, sale.getProducts(), 1, deltas);
+        }
+        writeDeltas(deltas);
+        log.debug("Applied {} sales to {} rollup rows", sales.size(), deltas.size());
+
+        log.trace("Exiting addSales method in SalesRollupService");
+    }
+
+    /**
+     * Takes the given sale out of the rollups of its business day.
+     *
+     * @param sale     The sale to remove.
+     * @param products The products of the sale.
+     */
+    public void removeSale(Sale sale, List<Product> products) {
+        log.trace("Entering removeSale method in SalesRollupService");
+
+        applySale(sale, products, -1);
+
+        log.trace("Exiting removeSale method in SalesRollupService");
+    }
+
+    /**
+     * Returns the rollups of the given dimension for the business days between the given dates, both inclusive.
+     *
+     * @param dimension The dimension to get the rollups of: PRODUCT, CASHIER or PAYMENT_METHOD.
+     * @param startDate The first business day in yyyy-MM-dd format.
+     * @param endDate   The last business day in yyyy-MM-dd format.
+     * @return The rollups ordered by business day and dimension key.
+     */
+    public List<DailySalesRollupResponse> getDailySalesRollups(String dimension, String startDate, String endDate) {
+        log.trace("Entering getDailySalesRollups method in SalesRollupService with dimension: {}, startDate: {}, endDate: {}",
+                dimension, startDate, endDate);
+
+        RollupDimension rollupDimension = getRollupDimension(dimension);
+        List<DailySalesRollupResponse> rollups = dailySalesRollupRepository
+                .findByDimensionAndBusinessDayBetweenOrderByBusinessDayAscDimensionKeyAsc(
+                        rollupDimension, parseDate(startDate), parseDate(endDate))
+                .stream()
+                .map(this::mapToDailySalesRollupResponse)
+                .toList();
+        log.debug("Found {} rollups", rollups.size());
+
+        log.trace("Exiting getDailySalesRollups method in SalesRollupService");
+        return rollups;
+    }
+
+    /**
+     * Rebuilds the rollups of the business days between the given dates, both inclusive, from the sales.
+     *
+     * @param startDate The first business day in yyyy-MM-dd format.
+     * @param endDate   The last business day in yyyy-MM-dd format.
+     */
+    @Transactional
+    public void rebuildDailySalesRollups(String startDate, String endDate) {
+        rebuildDailySalesRollups(parseDate(startDate), parseDate(endDate));
+    }
+
+    /**
+     * Rebuilds the rollups of the recent business days, including today, from the sales.
+     */
+    @Transactional
+    @Scheduled(cron = "${sales-rollup.rebuild-cron}")
+    public void rebuildRecentDailySalesRollups() {
+        LocalDate today = LocalDate.now();
+        rebuildDailySalesRollups(today.minusDays(REBUILD_DAYS - 1L), today);
+    }
+
+    /**
+     * Replaces the rollups of the business days between the given days, both inclusive, with rollups recomputed
+     * from the sales. Runs in the transaction of the caller, so that the rollups are never seen half rebuilt.
+     *
+     * @param from The first business day.
+     * @param to   The last business day.
+     */
+    private void rebuildDailySalesRollups(LocalDate from, LocalDate to) {
+        log.trace("Entering rebuildDailySalesRollups method in SalesRollupService with from: {}, to: {}", from, to);
+
+        LocalDate until = to.plusDays(1);
+        dailySalesRollupRepository.deleteRollups(from, until);
+        dailySalesRollupRepository.rebuildProductRollups(from, until);
+        dailySalesRollupRepository.rebuildCashierRollups(from, until);
+        for (Object[] row : dailySalesRollupRepository.aggregateSalesByPaymentMethod(from, until)) {
+            dailySalesRollupRepository.addToRollup(((Date) row[0]).toLocalDate(), RollupDimension.PAYMENT_METHOD.name(),
+                    Payment.values()[((Number) row[1]).intValue()].name(),
+                    ((Number) row[2]).longValue(), ((Number) row[3]).longValue(), (BigDecimal) row[4]);
+        }
+        log.info("Rebuilt daily sales rollups from {} to {}", from, to);
+
+        log.trace("Exiting rebuildDailySalesRollups method in SalesRollupService");
+    }
+
+    /**
+     * Adds the given sale to the rollups of its business day, or takes it out with a negative sign.
+     *
+     * @param sale     The sale to apply.
+     * @param products The products of the sale.
+     * @param sign     1 to add the sale, -1 to remove it.
+     */
+    private void applySale(Sale sale, List<Product> products, int sign) {
+        Map<RollupKey, RollupDelta> deltas = new LinkedHashMap<>();
+        collectDeltas(sale, products, sign, deltas);
+        writeDeltas(deltas);
+        log.debug("Applied sale with id: {} to the rollups with sign: {}", sale.getId(), sign);
+    }
+
+    /**
+     * Collects the changes the given sale makes to the rollups of its business day into the given deltas.
+     * The products are grouped by name first, so that each product name counts the sale once.
+     *
+     * @param sale     The sale to collect the changes of.
+     * @param products The products of the sale.
+     * @param sign     1 to add the sale, -1 to remove it.
+     * @param deltas   The deltas to add the changes to, by rollup row.
+     */
+    private void collectDeltas(Sale sale, List<Product> products, int sign, Map<RollupKey, RollupDelta> deltas) {
+        LocalDate businessDay = LocalDate.ofInstant(sale.getDate().toInstant(), ZoneId.systemDefault());
+        BigDecimal signum = BigDecimal.valueOf(sign);
+
+        Map<String, ProductTotal> productTotals = new TreeMap<>();
+        long quantity = 0;
+        for (Product product : products) {
+            quantity += product.getQuantity();
+            productTotals.merge(product.getName(), new ProductTotal(product.getQuantity(), product.getTotalPrice()),
+                    (first, second) -> new ProductTotal(first.quantity() + second.quantity(), first.total().add(second.total())));
+        }
+        productTotals.forEach((name, productTotal) -> deltas.merge(new RollupKey(businessDay, RollupDimension.PRODUCT, name),
+                new RollupDelta(sign, sign * productTotal.quantity(), productTotal.total().multiply(signum)), RollupDelta::add));
+
+        BigDecimal saleTotal = (sale.getTotalWithCampaign() != null ? sale.getTotalWithCampaign() : sale.getTotal())
+                .multiply(signum);
+        RollupDelta saleDelta = new RollupDelta(sign, sign * quantity, saleTotal);
+        deltas.merge(new RollupKey(businessDay, RollupDimension.CASHIER, sale.getCashier()), saleDelta, RollupDelta::add);
+        deltas.merge(new RollupKey(businessDay, RollupDimension.PAYMENT_METHOD, sale.getPaymentMethod().name()), saleDelta, RollupDelta::add);
+    }
+
+    /**
+     * Adds the given deltas to their rollup rows, one upsert per row.
+     *
+     * @param deltas The deltas by rollup row.
+     */
+    private void writeDeltas(Map<RollupKey, RollupDelta> deltas) {
+        deltas.forEach((key, delta) -> dailySalesRollupRepository.addToRollup(key.businessDay(), key.dimension().name(),
+                key.dimensionKey(), delta.saleCount(), delta.quantity(), delta.total()));
+    }
+
+    /**
+     * This method converts the given dimension name to a RollupDimension, ignoring case.
+     *
+     * @param dimension The name of the dimension.
+     * @return The RollupDimension.
+     * @throws InvalidRollupDimensionException if there is no dimension with the given name.
+     */
+    private RollupDimension getRollupDimension(String dimension) {
+        try {
+            return RollupDimension.valueOf(dimension.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid rollup dimension value: {}", dimension);
+            throw new InvalidRollupDimensionException("Invalid rollup dimension value: " + dimension, e);
+        }
+    }
+
+    /**
+     * This method parses a date in yyyy-MM-dd format.
+     *
+     * @param date The date to parse.
+     * @return The parsed date.
+     * @throws ParsingException if the date is not in yyyy-MM-dd format.
+     */
+    private LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            log.error("Error parsing date: {}", date, e);
+            throw new ParsingException("Error parsing date: " + date, e);
+        }
+    }
+
+    /**
+     * This method maps a DailySalesRollup entity to a DailySalesRollupResponse DTO.
+     *
+     * @param rollup The DailySalesRollup entity to be mapped.
+     * @return The DailySalesRollupResponse DTO.
+     */
+    private DailySalesRollupResponse mapToDailySalesRollupResponse(DailySalesRollup rollup) {
+        return DailySalesRollupResponse.builder()
+                .businessDay(rollup.getBusinessDay())
+                .dimension(rollup.getDimension().name())
+                .dimensionKey(rollup.getDimensionKey())
+                .saleCount(rollup.getSaleCount())
+                .quantity(rollup.getQuantity())
+                .total(rollup.getTotal())
+                .build();
+    }
+
+    /**
+     * The quantity and total price of the products of a sale with the same name.
+     *
+     * @param quantity The total quantity of the products.
+     * @param total    The total price of the products.
+     */
+    private record ProductTotal(long quantity, BigDecimal total) {
+    }
+
+    /**
+     * The rollup row a change applies to.
+     *
+     * @param businessDay  The business day of the row.
+     * @param dimension    The dimension of the row.
+     * @param dimensionKey The product name, cashier or payment method of the row.
+     */
+    private record RollupKey(LocalDate businessDay, RollupDimension dimension, String dimensionKey) {
+    }
+
+    /**
+     * The amounts to add to a rollup row.
+     *
+     * @param saleCount The number of sales to add.
+     * @param quantity  The quantity of products to add.
+     * @param total     The amount to add.
+     */
+    private record RollupDelta(long saleCount, long quantity, BigDecimal total) {
+
+        private RollupDelta add(RollupDelta other) {
+            return new RollupDelta(saleCount + other.saleCount, quantity + other.quantity, total.add(other.total));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.bit.saleservice.service;
+
+/**
+ * This class builds the LIKE patterns used by the substring filters of the search endpoints.
+ * The patterns are matched against {@code lower(column)} with {@link #ESCAPE_CHAR} as the escape character,
+ * which is the expression the trigram indexes in {@code db/schema/search-indexes.sql} are built on.
+ *
+ * @author Emirhan Tuygun
+ */
+final class SearchPatterns {
+
+    /**
+     * The escape character passed along with every pattern built by this class.
+     */
+    static final char ESCAPE_CHAR = '\\';
+
+    private SearchPatterns() {
+    }
+
+    /**
+     * Builds a pattern matching any value that contains the given term, ignoring case.
+     * LIKE wildcards in the term are escaped so that they are matched literally.
+     *
+     * @param term The term to search for.
+     * @return The lower-cased pattern to be matched against {@code lower(column)}.
+     */
+    static String contains(String term) {
+        StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+        for (char c : term.toLowerCase().toCharArray()) {
+            if (c == '%' || c == '_' || c == ESCAPE_CHAR) {
+                pattern.append(ESCAPE_CHAR);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
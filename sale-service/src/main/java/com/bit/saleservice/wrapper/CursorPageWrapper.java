@@ -0,0 +1,21 @@
+package com.bit.saleservice.wrapper;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * This class represents a wrapper for cursor-paginated data.
+ * The next cursor is an opaque token to pass back to get the following page, and is null on the last page.
+ * The total number of elements is only filled in when it is requested.
+ *
+ * @param <SaleResponse> The type of the data being wrapped.
+ * @author Emirhan Tuygun
+ */
+@Data
+public class CursorPageWrapper<SaleResponse> {
+    private List<SaleResponse> content;
+    private int pageSize;
+    private String nextCursor;
+    private Long totalElements;
+}
@@ -0,0 +1,28 @@
+package com.bit.saleservice.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class represents an event that is published by the product-service when the data of a product changes.
+ * It contains the product ID and the type of the change.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductEvent {
+
+    /**
+     * The type of change of a product.
+     */
+    public enum Type {
+        CHANGED,
+        DELETED
+    }
+
+    private Long id;
+    private Type type;
+}
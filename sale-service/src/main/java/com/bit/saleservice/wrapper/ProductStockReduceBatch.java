@@ -0,0 +1,19 @@
+package com.bit.saleservice.wrapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * This class represents a request to reduce the stocks of all the products of a sale.
+ * It contains one stock reduce request per sale line.
+ *
+ * @author Emirhan Tuygun
+ */
+@Data
+@AllArgsConstructor
+public class ProductStockReduceBatch {
+
+    private List<ProductStockReduceRequest> requests;
+}
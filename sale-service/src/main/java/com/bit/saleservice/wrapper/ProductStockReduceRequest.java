@@ -2,12 +2,12 @@ package com.bit.saleservice.wrapper;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
 /**
  * This class represents a request to reduce the stock of a product.
- * It contains the product ID and the requested quantity to reduce.
+ * It contains the product ID and the requested quantity to reduce. The stock adjustments of updated sales
+ * use negative quantities for the products given back, which are added to the stock instead.
  *
  * @author Emirhan Tuygun
  */
@@ -18,6 +18,5 @@ public class ProductStockReduceRequest {
     @NotNull
     private Long id;
 
-    @Min(1)
     private int requestedQuantity;
 }
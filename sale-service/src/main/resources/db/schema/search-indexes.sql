@@ -0,0 +1,6 @@
+-- Trigram indexes for the case-insensitive substring filters of the sale and campaign searches.
+-- Hibernate runs this script right after creating the tables, one statement per line.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_sales_cashier_trgm ON sales USING gin (lower(cashier) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_campaigns_name_trgm ON campaigns USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_campaigns_details_trgm ON campaigns USING gin (lower(details) gin_trgm_ops);
@@ -5,7 +5,11 @@ import org.junit.platform.suite.api.Suite;
 
 @Suite
 @SelectPackages({
+        "com.bit.saleservice.config",
         "com.bit.saleservice.controller",
+        "com.bit.saleservice.id",
+        "com.bit.saleservice.money",
+        "com.bit.saleservice.rule",
         "com.bit.saleservice.service"
 })
 class SaleServiceSuite {}
@@ -0,0 +1,80 @@
+package com.bit.saleservice.benchmark;
+
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.CampaignRuleType;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.rule.Basket;
+import com.bit.saleservice.rule.CampaignRuleCompiler;
+import com.bit.saleservice.rule.CompiledCampaign;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of applying compiled campaign rules to a single basket.
+ * Every invocation evaluates a threshold discount, a product-scoped buy-N-get-M and a percentage off
+ * against a fresh basket, which is what processing a sale with three campaigns does.
+ *
+ * @author Emirhan Tuygun
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CampaignRuleBenchmark {
+
+    @Param({"5", "50"})
+    private int basketSize;
+
+    private List<CompiledCampaign> campaigns;
+
+    @Setup
+    public void setUp() {
+        Date expiration = new Date(System.currentTimeMillis() + 86400000L);
+        campaigns = List.of(
+                CampaignRuleCompiler.compile(Campaign.builder()
+                        .id(1L).expiration(expiration)
+                        .ruleType(CampaignRuleType.THRESHOLD_DISCOUNT)
+                        .thresholdAmount(BigDecimal.valueOf(200))
+                        .discountAmount(BigDecimal.valueOf(50))
+                        .build()),
+                CampaignRuleCompiler.compile(Campaign.builder()
+                        .id(2L).expiration(expiration)
+                        .ruleType(CampaignRuleType.BUY_N_GET_M)
+                        .buyQuantity(2).freeQuantity(1)
+                        .productIds(Set.of(1L, 2L, 3L))
+                        .build()),
+                CampaignRuleCompiler.compile(Campaign.builder()
+                        .id(3L).expiration(expiration)
+                        .ruleType(CampaignRuleType.PERCENTAGE_OFF)
+                        .discountPercentage(BigDecimal.valueOf(20))
+                        .build()));
+    }
+
+    @Benchmark
+    public BigDecimal evaluateBasket() {
+        List<Product> products = new ArrayList<>(basketSize);
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 1; i <= basketSize; i++) {
+            BigDecimal price = BigDecimal.valueOf(i * 10L);
+            BigDecimal totalPrice = price.multiply(BigDecimal.valueOf(3));
+            products.add(Product.builder().productId((long) i).quantity(3).price(price).totalPrice(totalPrice).build());
+            total = total.add(totalPrice);
+        }
+        Basket basket = Basket.of(products, total);
+
+        for (CompiledCampaign campaign : campaigns) {
+            if (!campaign.isExpired()) {
+                campaign.getRule().apply(basket);
+            }
+        }
+        return basket.writeBack();
+    }
+}
@@ -0,0 +1,134 @@
+package com.bit.saleservice.benchmark;
+
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.CampaignRuleType;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.money.Money;
+import com.bit.saleservice.rule.Basket;
+import com.bit.saleservice.rule.CampaignRuleCompiler;
+import com.bit.saleservice.rule.CompiledCampaign;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pricing a cash sale with BigDecimal arithmetic against pricing it in minor units.
+ * Both benchmarks price the lines, sum the total, apply a threshold discount, a product-scoped buy-N-get-M
+ * and a percentage off, and compute the change of a cash payment. The BigDecimal variant is the arithmetic
+ * the sale service used before amounts were moved to minor units, kept here as the baseline.
+ *
+ * @author Emirhan Tuygun
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyArithmeticBenchmark {
+
+    private static final BigDecimal THRESHOLD_AMOUNT = BigDecimal.valueOf(200);
+    private static final BigDecimal DISCOUNT_AMOUNT = BigDecimal.valueOf(50);
+    private static final BigDecimal PERCENTAGE_MULTIPLIER = BigDecimal.valueOf(0.80);
+    private static final Set<Long> BUY_N_GET_M_PRODUCT_IDS = Set.of(1L, 2L, 3L);
+
+    @Param({"5", "50"})
+    private int basketSize;
+
+    private List<BigDecimal> prices;
+    private BigDecimal cash;
+    private List<CompiledCampaign> campaigns;
+
+    @Setup
+    public void setUp() {
+        prices = new ArrayList<>(basketSize);
+        for (int i = 1; i <= basketSize; i++) {
+            prices.add(new BigDecimal(i * 10 + ".99"));
+        }
+        cash = BigDecimal.valueOf(1_000_000);
+
+        Date expiration = new Date(System.currentTimeMillis() + 86400000L);
+        campaigns = List.of(
+                CampaignRuleCompiler.compile(Campaign.builder()
+                        .id(1L).expiration(expiration)
+                        .ruleType(CampaignRuleType.THRESHOLD_DISCOUNT)
+                        .thresholdAmount(THRESHOLD_AMOUNT)
+                        .discountAmount(DISCOUNT_AMOUNT)
+                        .build()),
+                CampaignRuleCompiler.compile(Campaign.builder()
+                        .id(2L).expiration(expiration)
+                        .ruleType(CampaignRuleType.BUY_N_GET_M)
+                        .buyQuantity(2).freeQuantity(1)
+                        .productIds(BUY_N_GET_M_PRODUCT_IDS)
+                        .build()),
+                CampaignRuleCompiler.compile(Campaign.builder()
+                        .id(3L).expiration(expiration)
+                        .ruleType(CampaignRuleType.PERCENTAGE_OFF)
+                        .discountPercentage(BigDecimal.valueOf(20))
+                        .build()));
+    }
+
+    @Benchmark
+    public BigDecimal priceWithBigDecimal() {
+        List<Product> products = buildProducts();
+        for (Product product : products) {
+            product.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(product.getQuantity())));
+        }
+        BigDecimal total = products.stream()
+                .map(Product::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Spend 200, save 50
+        if (total.compareTo(THRESHOLD_AMOUNT) >= 0) {
+            total = total.subtract(DISCOUNT_AMOUNT);
+        }
+
+        // Buy 2, get 1 free on the scoped products
+        BigDecimal totalDiscount = BigDecimal.ZERO;
+        for (Product product : products) {
+            if (product.getQuantity() >= 3 && BUY_N_GET_M_PRODUCT_IDS.contains(product.getProductId())) {
+                BigDecimal free = product.getPrice().multiply(BigDecimal.valueOf(product.getQuantity() / 3));
+                product.setTotalPrice(product.getTotalPrice().subtract(free));
+                totalDiscount = totalDiscount.add(free);
+            }
+        }
+        total = total.subtract(totalDiscount);
+
+        // 20 percent off the whole purchase
+        total = total.multiply(PERCENTAGE_MULTIPLIER);
+
+        return cash.subtract(total);
+    }
+
+    @Benchmark
+    public BigDecimal priceWithMinorUnits() {
+        List<Product> products = buildProducts();
+        long total = 0;
+        for (Product product : products) {
+            long totalPrice = Money.times(Money.toMinorUnits(product.getPrice()), product.getQuantity());
+            product.setTotalPrice(Money.toAmount(totalPrice));
+            total = Math.addExact(total, totalPrice);
+        }
+
+        Basket basket = Basket.of(products, Money.toAmount(total));
+        for (CompiledCampaign campaign : campaigns) {
+            campaign.getRule().apply(basket);
+        }
+        BigDecimal totalWithCampaign = basket.writeBack();
+
+        return Money.toAmount(Money.toMinorUnits(cash) - Money.toMinorUnits(totalWithCampaign));
+    }
+
+    private List<Product> buildProducts() {
+        List<Product> products = new ArrayList<>(basketSize);
+        for (int i = 0; i < basketSize; i++) {
+            products.add(Product.builder().productId(i + 1L).quantity(3).price(prices.get(i)).build());
+        }
+        return products;
+    }
+}
@@ -0,0 +1,149 @@
+package com.bit.saleservice.benchmark;
+
+import com.bit.saleservice.id.SnowflakeIdGenerator;
+import com.bit.saleservice.id.TimeOrderedId;
+import com.bit.saleservice.id.TimeOrderedIdGenerator;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import org.h2.tools.Server;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures inserting the products of a sale through Hibernate with JDBC batching enabled.
+ * The two entities differ only in how their id is generated: with an identity column Hibernate has to execute
+ * every insert on its own to read the id back, with time-ordered ids it sends the inserts in one batch.
+ * The tcp connection runs H2 as a server on the loopback interface, so every statement pays a round trip
+ * the way it does against PostgreSQL, while the in-memory connection shows the cost without it.
+ *
+ * @author Emirhan Tuygun
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleInsertBenchmark {
+
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"in-memory", "tcp"})
+    private String connection;
+
+    @Param({"50"})
+    private int productCount;
+
+    private Server server;
+    private SessionFactory sessionFactory;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:sale-insert;DB_CLOSE_DELAY=-1";
+        if ("tcp".equals(connection)) {
+            server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+            url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:sale-insert;DB_CLOSE_DELAY=-1";
+        }
+
+        Configuration configuration = new Configuration()
+                .addAnnotatedClass(IdentityProduct.class)
+                .addAnnotatedClass(TimeOrderedProduct.class)
+                .setProperty("hibernate.connection.url", url)
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE))
+                .setProperty("hibernate.order_inserts", "true");
+        configuration.getProperties().put(TimeOrderedIdGenerator.ID_GENERATOR_SETTING,
+                new SnowflakeIdGenerator(Instant.parse("2024-01-01T00:00:00Z"), 10, 0));
+        sessionFactory = configuration.buildSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public void insertWithIdentity() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            Date saleDate = new Date();
+            for (int i = 0; i < productCount; i++) {
+                IdentityProduct product = new IdentityProduct();
+                product.fill(i, saleDate);
+                session.persist(product);
+            }
+            transaction.commit();
+        }
+    }
+
+    @Benchmark
+    public void insertWithTimeOrderedIds() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            Date saleDate = new Date();
+            for (int i = 0; i < productCount; i++) {
+                TimeOrderedProduct product = new TimeOrderedProduct();
+                product.fill(i, saleDate);
+                session.persist(product);
+            }
+            transaction.commit();
+        }
+    }
+
+    /**
+     * The columns of a sold product, shared by the two entities.
+     */
+    @MappedSuperclass
+    public abstract static class ProductColumns {
+
+        protected Long productId;
+        protected String name;
+        protected String barcodeNumber;
+        protected Integer quantity;
+        protected BigDecimal price;
+        protected BigDecimal totalPrice;
+        protected Date saleDate;
+
+        void fill(int i, Date saleDate) {
+            this.productId = (long) i;
+            this.name = "Product " + i;
+            this.barcodeNumber = String.valueOf(8690000000000L + i);
+            this.quantity = 2;
+            this.price = BigDecimal.valueOf(1250, 2);
+            this.totalPrice = BigDecimal.valueOf(2500, 2);
+            this.saleDate = saleDate;
+        }
+    }
+
+    @Entity
+    public static class IdentityProduct extends ProductColumns {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+    }
+
+    @Entity
+    public static class TimeOrderedProduct extends ProductColumns {
+
+        @Id
+        @TimeOrderedId
+        private Long id;
+    }
+}
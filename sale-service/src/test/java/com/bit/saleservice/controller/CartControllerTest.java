@@ -0,0 +1,131 @@
+package com.bit.saleservice.controller;
+
+import com.bit.saleservice.dto.CartCheckoutRequest;
+import com.bit.saleservice.dto.CartItemRequest;
+import com.bit.saleservice.dto.CartRequest;
+import com.bit.saleservice.dto.CartResponse;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.service.CartService;
+import com.bit.saleservice.service.IdempotencyService;
+import com.bit.saleservice.service.IdempotencyService.IdempotentResponse;
+import com.bit.saleservice.service.IdempotencyService.SaleAction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CartControllerTest {
+
+    @InjectMocks
+    private CartController cartController;
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void testCreateCart_ReturnsCreatedCart() {
+        // Arrange
+        CartRequest cartRequest = new CartRequest("Cashier", List.of(1L));
+        CartResponse cartResponse = CartResponse.builder().id("cart").build();
+        when(cartService.createCart(cartRequest)).thenReturn(cartResponse);
+
+        // Act
+        ResponseEntity<CartResponse> response = cartController.createCart(cartRequest);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(cartResponse, response.getBody());
+    }
+
+    @Test
+    void testGetCart_ReturnsCart() {
+        // Arrange
+        CartResponse cartResponse = CartResponse.builder().id("cart").build();
+        when(cartService.getCart("cart")).thenReturn(cartResponse);
+
+        // Act
+        ResponseEntity<CartResponse> response = cartController.getCart("cart");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cartResponse, response.getBody());
+    }
+
+    @Test
+    void testAddItem_ReturnsUpdatedCart() throws HeaderProcessingException {
+        // Arrange
+        CartItemRequest cartItemRequest = new CartItemRequest(1L, 2);
+        CartResponse cartResponse = CartResponse.builder().id("cart").build();
+        when(cartService.addItem("cart", cartItemRequest)).thenReturn(cartResponse);
+
+        // Act
+        ResponseEntity<CartResponse> response = cartController.addItem("cart", cartItemRequest);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(cartResponse, response.getBody());
+    }
+
+    @Test
+    void testCheckout_ReturnsCreatedSale() throws HeaderProcessingException {
+        // Arrange
+        CartCheckoutRequest cartCheckoutRequest = CartCheckoutRequest.builder().paymentMethod("paypal").build();
+        SaleResponse saleResponse = new SaleResponse();
+        when(cartService.checkout("cart", cartCheckoutRequest)).thenReturn(saleResponse);
+        when(idempotencyService.execute(eq("checkout-cart:cart"), eq("key"), eq(cartCheckoutRequest), any()))
+                .thenAnswer(invocation -> new IdempotentResponse(invocation.<SaleAction>getArgument(3).execute(), false));
+
+        // Act
+        ResponseEntity<SaleResponse> response = cartController.checkout("cart", "key", cartCheckoutRequest);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(saleResponse, response.getBody());
+        assertNull(response.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void testCheckout_SetsReplayedHeader_WhenResponseIsReplayed() throws HeaderProcessingException {
+        // Arrange
+        CartCheckoutRequest cartCheckoutRequest = CartCheckoutRequest.builder().paymentMethod("paypal").build();
+        SaleResponse saleResponse = new SaleResponse();
+        when(idempotencyService.execute(eq("checkout-cart:cart"), eq("key"), eq(cartCheckoutRequest), any()))
+                .thenReturn(new IdempotentResponse(saleResponse, true));
+
+        // Act
+        ResponseEntity<SaleResponse> response = cartController.checkout("cart", "key", cartCheckoutRequest);
+
+        // Assert
+        assertEquals(saleResponse, response.getBody());
+        assertEquals("true", response.getHeaders().getFirst("Idempotent-Replayed"));
+        verify(cartService, never()).checkout(any(), any());
+    }
+
+    @Test
+    void testDeleteCart_ReturnsSuccessMessage() {
+        // Act
+        ResponseEntity<String> response = cartController.deleteCart("cart");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(cartService).deleteCart("cart");
+    }
+}
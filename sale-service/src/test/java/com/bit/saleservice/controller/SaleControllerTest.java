@@ -2,8 +2,17 @@ package com.bit.saleservice.controller;
 
 import com.bit.saleservice.dto.SaleRequest;
 import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.dto.SyncSaleRequest;
+import com.bit.saleservice.dto.SyncSaleResult;
 import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.SaleNotFoundException;
+import com.bit.saleservice.service.AsyncCheckoutService;
+import com.bit.saleservice.service.IdempotencyService;
+import com.bit.saleservice.service.IdempotencyService.IdempotentResponse;
+import com.bit.saleservice.service.IdempotencyService.SaleAction;
 import com.bit.saleservice.service.SaleService;
+import com.bit.saleservice.service.SaleSyncService;
+import com.bit.saleservice.wrapper.CursorPageWrapper;
 import com.bit.saleservice.wrapper.PageWrapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,12 +23,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +57,15 @@ class SaleControllerTest {
     @Mock
     private SaleService saleService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @Mock
+    private SaleSyncService saleSyncService;
+
     @Test
     void testGetSaleById_ReturnsSaleResponse_WhenIdIsValid() {
         // Arrange
@@ -109,22 +143,172 @@ class SaleControllerTest {
         verify(saleService).getAllSalesFilteredAndSorted(page, size, sortBy, direction, cashier, paymentMethod, minPrice, maxPrice, startDate, endDate, isCancelled);
     }
 
+    @Test
+    void testExportSales_StreamsSalesFromService() throws IOException {
+        // Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> result = saleController.exportSales();
+        result.getBody().writeTo(outputStream);
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+        verify(saleService).exportSales(outputStream);
+    }
+
+    @Test
+    void testGetAllSalesFilteredAndSortedByCursor_ReturnsCursorPageWrapper() {
+        // Arrange
+        CursorPageWrapper<SaleResponse> response = new CursorPageWrapper<>();
+        response.setContent(List.of(new SaleResponse()));
+        response.setNextCursor("next");
+        when(saleService.getAllSalesFilteredAndSortedByCursor("cursor", 10, "date", "DESC", null, null, null, null, null, null, null, false))
+                .thenReturn(response);
+
+        // Act
+        ResponseEntity<CursorPageWrapper<SaleResponse>> result = saleController.getAllSalesFilteredAndSortedByCursor(
+                "cursor", 10, "date", "DESC", null, null, null, null, null, null, null, false);
+
+        // Assert
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(response, result.getBody());
+    }
+
     @Test
     void testCreateSale_ReturnsSaleResponse_WhenSaleRequestIsValid() throws HeaderProcessingException {
         // Arrange
         SaleRequest saleRequest = new SaleRequest();
         SaleResponse saleResponse = new SaleResponse();
         when(saleService.createSale(saleRequest)).thenReturn(saleResponse);
+        when(idempotencyService.execute(eq("create"), eq("key"), eq(saleRequest), any()))
+                .thenAnswer(invocation -> new IdempotentResponse(invocation.<SaleAction>getArgument(3).execute(), false));
 
         // Act
-        ResponseEntity<SaleResponse> response = saleController.createSale(saleRequest);
+        ResponseEntity<SaleResponse> response = saleController.createSale("key", saleRequest);
 
         // Assert
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
         assertEquals(saleResponse, response.getBody());
+        assertNull(response.getHeaders().getFirst("Idempotent-Replayed"));
         verify(saleService).createSale(saleRequest);
     }
 
+    @Test
+    void testCreateSale_SetsReplayedHeader_WhenResponseIsReplayed() throws HeaderProcessingException {
+        // Arrange
+        SaleRequest saleRequest = new SaleRequest();
+        SaleResponse saleResponse = new SaleResponse();
+        when(idempotencyService.execute(eq("create"), eq("key"), eq(saleRequest), any()))
+                .thenReturn(new IdempotentResponse(saleResponse, true));
+
+        // Act
+        ResponseEntity<SaleResponse> response = saleController.createSale("key", saleRequest);
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(saleResponse, response.getBody());
+        assertEquals("true", response.getHeaders().getFirst("Idempotent-Replayed"));
+        verify(saleService, never()).createSale(any());
+    }
+
+    @Test
+    void testCreateSaleAsync_ReturnsAcceptedPendingSaleWithResultLocation() throws HeaderProcessingException {
+        // Arrange
+        SaleRequest saleRequest = new SaleRequest();
+        SaleResponse pendingSale = SaleResponse.builder().id(7L).status("PENDING").build();
+        when(asyncCheckoutService.submit(saleRequest)).thenReturn(pendingSale);
+        when(idempotencyService.execute(eq("create-async"), eq("key"), eq(saleRequest), any()))
+                .thenAnswer(invocation -> new IdempotentResponse(invocation.<SaleAction>getArgument(3).execute(), false));
+
+        // Act
+        ResponseEntity<SaleResponse> response = saleController.createSaleAsync("key", saleRequest);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(pendingSale, response.getBody());
+        assertEquals(URI.create("/sales/7/result"), response.getHeaders().getLocation());
+        verify(saleService, never()).createSale(any());
+    }
+
+    @Test
+    void testGetSaleResult_CompletedSale_ReturnsSale() {
+        // Arrange
+        ReflectionTestUtils.setField(saleController, "MAX_WAIT", Duration.ofSeconds(60));
+        SaleResponse completedSale = SaleResponse.builder().id(7L).status("COMPLETED").build();
+        CompletableFuture<SaleResponse> result = new CompletableFuture<>();
+        when(asyncCheckoutService.getResult(7L)).thenReturn(result);
+
+        // Act
+        DeferredResult<ResponseEntity<SaleResponse>> deferredResult = saleController.getSaleResult(7L, 30);
+        boolean setBeforeCompletion = deferredResult.hasResult();
+        result.complete(completedSale);
+
+        // Assert
+        assertFalse(setBeforeCompletion);
+        assertEquals(new ResponseEntity<>(completedSale, HttpStatus.OK), deferredResult.getResult());
+    }
+
+    @Test
+    void testGetSaleResult_LimitsWaitToMaximum() {
+        // Arrange
+        ReflectionTestUtils.setField(saleController, "MAX_WAIT", Duration.ofSeconds(60));
+        when(asyncCheckoutService.getResult(7L)).thenReturn(new CompletableFuture<>());
+
+        // Act
+        DeferredResult<ResponseEntity<SaleResponse>> deferredResult = saleController.getSaleResult(7L, 3600);
+
+        // Assert
+        assertEquals(60_000L, ReflectionTestUtils.getField(deferredResult, "timeoutValue"));
+    }
+
+    @Test
+    void testGetSaleResult_SaleCannotBeRead_SetsErrorResult() {
+        // Arrange
+        ReflectionTestUtils.setField(saleController, "MAX_WAIT", Duration.ofSeconds(60));
+        SaleNotFoundException exception = new SaleNotFoundException("Sale does not exist with id: 7");
+        when(asyncCheckoutService.getResult(7L)).thenReturn(CompletableFuture.failedFuture(exception));
+
+        // Act
+        DeferredResult<ResponseEntity<SaleResponse>> deferredResult = saleController.getSaleResult(7L, 30);
+
+        // Assert
+        assertEquals(exception, deferredResult.getResult());
+    }
+
+    @Test
+    void testSyncSales_ReturnsResultOfEachSale() throws HeaderProcessingException {
+        // Arrange
+        List<SyncSaleRequest> syncSaleRequests = List.of(new SyncSaleRequest(), new SyncSaleRequest());
+        List<SyncSaleResult> syncSaleResults = List.of(
+                SyncSaleResult.builder().index(0).status(SyncSaleResult.CREATED).saleId(1L).build(),
+                SyncSaleResult.builder().index(1).status(SyncSaleResult.FAILED).error("Cash not provided").build());
+        when(saleSyncService.syncSales(syncSaleRequests)).thenReturn(syncSaleResults);
+
+        // Act
+        ResponseEntity<List<SyncSaleResult>> response = saleController.syncSales(syncSaleRequests);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(syncSaleResults, response.getBody());
+    }
+
+    @Test
+    void testSyncSalesStream_ReturnsResultOfEachSale() throws IOException, HeaderProcessingException {
+        // Arrange
+        InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+        List<SyncSaleResult> syncSaleResults = List.of(SyncSaleResult.builder().index(0).status(SyncSaleResult.CREATED).build());
+        when(saleSyncService.syncSales(inputStream)).thenReturn(syncSaleResults);
+
+        // Act
+        ResponseEntity<List<SyncSaleResult>> response = saleController.syncSalesStream(inputStream);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(syncSaleResults, response.getBody());
+    }
+
     @Test
     void testUpdateSale_ReturnsSaleResponse_WhenSaleRequestIsValid() throws HeaderProcessingException {
         // Arrange
@@ -132,9 +316,11 @@ class SaleControllerTest {
         SaleRequest saleRequest = new SaleRequest();
         SaleResponse saleResponse = new SaleResponse();
         when(saleService.updateSale(id, saleRequest)).thenReturn(saleResponse);
+        when(idempotencyService.execute(eq("update:1"), eq(null), eq(saleRequest), any()))
+                .thenAnswer(invocation -> new IdempotentResponse(invocation.<SaleAction>getArgument(3).execute(), false));
 
         // Act
-        ResponseEntity<SaleResponse> response = saleController.updateSale(id, saleRequest);
+        ResponseEntity<SaleResponse> response = saleController.updateSale(id, null, saleRequest);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -0,0 +1,50 @@
+package com.bit.saleservice.controller;
+
+import com.bit.saleservice.dto.DailySalesRollupResponse;
+import com.bit.saleservice.service.SalesRollupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupControllerTest {
+
+    @InjectMocks
+    private SalesRollupController salesRollupController;
+
+    @Mock
+    private SalesRollupService salesRollupService;
+
+    @Test
+    void testGetDailySalesRollups_ReturnsRollups() {
+        // Arrange
+        List<DailySalesRollupResponse> rollups = List.of(new DailySalesRollupResponse(), new DailySalesRollupResponse());
+        when(salesRollupService.getDailySalesRollups("product", "2026-10-01", "2026-10-17")).thenReturn(rollups);
+
+        // Act
+        ResponseEntity<List<DailySalesRollupResponse>> response =
+                salesRollupController.getDailySalesRollups("product", "2026-10-01", "2026-10-17");
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(rollups, response.getBody());
+    }
+
+    @Test
+    void testRebuildDailySalesRollups_ReturnsSuccessMessage() {
+        // Act
+        ResponseEntity<String> response = salesRollupController.rebuildDailySalesRollups("2026-10-01", "2026-10-17");
+
+        // Assert
+        assertEquals(200, response.getStatusCode().value());
+        verify(salesRollupService, times(1)).rebuildDailySalesRollups("2026-10-01", "2026-10-17");
+    }
+}
@@ -0,0 +1,121 @@
+package com.bit.saleservice.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    void testNextId_EncodesTimestampNodeAndSequence() {
+        // Arrange
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(EPOCH, 10, 5, () -> EPOCH.toEpochMilli() + 1000);
+
+        // Act
+        long first = idGenerator.nextId();
+        long second = idGenerator.nextId();
+
+        // Assert
+        assertEquals(1000, first >>> 22);
+        assertEquals(5, (first >>> 12) & 0x3FF);
+        assertEquals(0, first & 0xFFF);
+        assertEquals(first + 1, second);
+    }
+
+    @Test
+    void testNextId_SequenceRunsOut_BorrowsNextMillisecond() {
+        // Arrange
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(EPOCH, 20, 1, EPOCH::toEpochMilli);
+
+        // Act
+        long[] ids = {idGenerator.nextId(), idGenerator.nextId(), idGenerator.nextId(), idGenerator.nextId(), idGenerator.nextId()};
+
+        // Assert
+        assertEquals(List.of(0L, 0L, 0L, 0L, 1L), List.of(ids[0] >>> 22, ids[1] >>> 22, ids[2] >>> 22, ids[3] >>> 22, ids[4] >>> 22));
+        for (long id : ids) {
+            assertEquals(1, (id >>> 2) & 0xFFFFF);
+        }
+        assertEquals(0, ids[4] & 0x3);
+    }
+
+    @Test
+    void testNextId_ClockMovesBackwards_KeepsIdsIncreasing() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(EPOCH.toEpochMilli() + 5000);
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(EPOCH, 10, 0, clock::get);
+        long before = idGenerator.nextId();
+        clock.addAndGet(-2000);
+
+        // Act
+        long after = idGenerator.nextId();
+
+        // Assert
+        assertTrue(after > before);
+    }
+
+    @Test
+    void testNextId_DifferentNodes_GenerateDifferentIds() {
+        // Arrange
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(EPOCH, 10, 1, () -> EPOCH.toEpochMilli() + 1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(EPOCH, 10, 2, () -> EPOCH.toEpochMilli() + 1);
+
+        // Act & Assert
+        assertNotEquals(first.nextId(), second.nextId());
+    }
+
+    @Test
+    void testNextId_ConcurrentCallers_GenerateUniqueIncreasingIds() throws Exception {
+        // Arrange
+        SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(EPOCH, 10, 3);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // Act
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    long[] ids = new long[20_000];
+                    for (int j = 0; j < ids.length; j++) {
+                        ids[j] = idGenerator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+
+            // Assert
+            Set<Long> allIds = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                long[] ids = future.get(10, TimeUnit.SECONDS);
+                for (int j = 0; j < ids.length; j++) {
+                    assertTrue(allIds.add(ids[j]));
+                    if (j > 0) {
+                        assertTrue(ids[j] > ids[j - 1]);
+                    }
+                }
+            }
+            assertEquals(160_000, allIds.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConstructor_NodeIdOutOfRange_ThrowsIllegalArgumentException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(EPOCH, 10, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(EPOCH, 22, 0));
+    }
+}
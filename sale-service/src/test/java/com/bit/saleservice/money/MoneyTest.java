@@ -0,0 +1,78 @@
+package com.bit.saleservice.money;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    void testToMinorUnits_RoundsExtraFractionDigitsHalfUp() {
+        // Act & Assert
+        assertEquals(1234, Money.toMinorUnits(new BigDecimal("12.34")));
+        assertEquals(1235, Money.toMinorUnits(new BigDecimal("12.345")));
+        assertEquals(-1235, Money.toMinorUnits(new BigDecimal("-12.345")));
+        assertEquals(1200, Money.toMinorUnits(BigDecimal.valueOf(12)));
+    }
+
+    @Test
+    void testToAmount_HasScaleOfAmountColumns() {
+        // Act
+        BigDecimal amount = Money.toAmount(1205);
+
+        // Assert
+        assertEquals(new BigDecimal("12.05"), amount);
+    }
+
+    @Test
+    void testToBasisPoints_ConvertsPercentage() {
+        // Act & Assert
+        assertEquals(2000, Money.toBasisPoints(BigDecimal.valueOf(20)));
+        assertEquals(1250, Money.toBasisPoints(new BigDecimal("12.5")));
+    }
+
+    @Test
+    void testShare_RoundsWithGivenMode() {
+        // Act & Assert
+        assertEquals(800, Money.share(1000, 8000, RoundingMode.UNNECESSARY));
+        assertEquals(3, Money.share(5, 5000, RoundingMode.HALF_UP));
+        assertEquals(2, Money.share(5, 5000, RoundingMode.HALF_EVEN));
+        assertEquals(2, Money.share(5, 5000, RoundingMode.HALF_DOWN));
+    }
+
+    @Test
+    void testDivide_MatchesBigDecimalForEveryRoundingMode() {
+        // Arrange
+        long[] dividends = {7, -7, 5, -5, 15, -15, 4, -4};
+        long divisor = 10;
+
+        for (RoundingMode rounding : RoundingMode.values()) {
+            if (rounding == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (long dividend : dividends) {
+                // Act
+                long quotient = Money.divide(dividend, divisor, rounding);
+
+                // Assert
+                long expected = BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, rounding).longValueExact();
+                assertEquals(expected, quotient, dividend + " / " + divisor + " with " + rounding);
+            }
+        }
+    }
+
+    @Test
+    void testDivide_UnnecessaryRoundingOfInexactQuotient_ThrowsArithmeticException() {
+        // Act & Assert
+        assertThrows(ArithmeticException.class, () -> Money.divide(7, 10, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void testTimes_Overflow_ThrowsArithmeticException() {
+        // Act & Assert
+        assertThrows(ArithmeticException.class, () -> Money.times(Long.MAX_VALUE / 2, 3));
+    }
+}
@@ -0,0 +1,201 @@
+package com.bit.saleservice.rule;
+
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.CampaignRuleType;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.exception.CampaignNotApplicableException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CampaignRuleCompilerTest {
+
+    private static Campaign.CampaignBuilder campaign(CampaignRuleType ruleType) {
+        return Campaign.builder()
+                .id(1L)
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .ruleType(ruleType);
+    }
+
+    private static Product product(long productId, int quantity, long price) {
+        return Product.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .price(BigDecimal.valueOf(price))
+                .totalPrice(BigDecimal.valueOf(price * quantity))
+                .build();
+    }
+
+    private static Basket basket(Product... products) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Product product : products) {
+            total = total.add(product.getTotalPrice());
+        }
+        return Basket.of(List.of(products), total);
+    }
+
+    @Test
+    void testCompile_WithoutRuleType_ThrowsIllegalArgumentException() {
+        // Arrange
+        Campaign campaign = campaign(null).build();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> CampaignRuleCompiler.compile(campaign));
+    }
+
+    @Test
+    void testCompile_WithMissingParameter_ThrowsIllegalArgumentException() {
+        // Arrange
+        Campaign campaign = campaign(CampaignRuleType.THRESHOLD_DISCOUNT).thresholdAmount(BigDecimal.TEN).build();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> CampaignRuleCompiler.compile(campaign));
+    }
+
+    @Test
+    void testCompile_WithPercentageOver100_ThrowsIllegalArgumentException() {
+        // Arrange
+        Campaign campaign = campaign(CampaignRuleType.PERCENTAGE_OFF).discountPercentage(BigDecimal.valueOf(120)).build();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> CampaignRuleCompiler.compile(campaign));
+    }
+
+    @Test
+    void testCompile_KeepsExpirationAsEpochMillisAndStartsNotExpired() {
+        // Arrange
+        Campaign campaign = campaign(CampaignRuleType.PERCENTAGE_OFF).discountPercentage(BigDecimal.TEN).build();
+
+        // Act
+        CompiledCampaign compiled = CampaignRuleCompiler.compile(campaign);
+
+        // Assert
+        assertSame(campaign, compiled.getCampaign());
+        assertEquals(campaign.getExpiration().getTime(), compiled.getExpiresAt());
+        assertFalse(compiled.isExpired());
+    }
+
+    @Test
+    void testThresholdDiscount_ScopedToProducts_UsesScopedSubtotal() {
+        // Arrange
+        CampaignRule rule = CampaignRuleCompiler.compile(campaign(CampaignRuleType.THRESHOLD_DISCOUNT)
+                .thresholdAmount(BigDecimal.valueOf(100))
+                .discountAmount(BigDecimal.valueOf(15))
+                .productIds(Set.of(1L))
+                .build()).getRule();
+        Basket eligible = basket(product(1L, 2, 50), product(2L, 1, 10));
+        Basket notEligible = basket(product(1L, 1, 50), product(2L, 10, 10));
+
+        // Act
+        rule.apply(eligible);
+
+        // Assert
+        assertEquals(9500, eligible.getTotal());
+        assertThrows(CampaignNotApplicableException.class, () -> rule.apply(notEligible));
+    }
+
+    @Test
+    void testBuyNGetM_DiscountsFullGroupsOfScopedProductsOnly() {
+        // Arrange
+        CampaignRule rule = CampaignRuleCompiler.compile(campaign(CampaignRuleType.BUY_N_GET_M)
+                .buyQuantity(3)
+                .freeQuantity(2)
+                .productIds(Set.of(1L))
+                .build()).getRule();
+        Basket basket = basket(product(1L, 11, 10), product(2L, 5, 10));
+
+        // Act
+        rule.apply(basket);
+
+        // Assert
+        assertEquals(7000, basket.getLineTotal(0));
+        assertEquals(5000, basket.getLineTotal(1));
+        assertEquals(12000, basket.getTotal());
+    }
+
+    @Test
+    void testBuyNGetM_WithoutFullGroup_ThrowsCampaignNotApplicableException() {
+        // Arrange
+        CampaignRule rule = CampaignRuleCompiler.compile(campaign(CampaignRuleType.BUY_N_GET_M)
+                .buyQuantity(2)
+                .freeQuantity(1)
+                .build()).getRule();
+        Basket basket = basket(product(1L, 2, 10));
+
+        // Act & Assert
+        CampaignNotApplicableException exception = assertThrows(CampaignNotApplicableException.class, () -> rule.apply(basket));
+        assertEquals("Campaign cannot be applied. Requires a minimum purchase of the same 3 products to be applied.", exception.getMessage());
+    }
+
+    @Test
+    void testPercentageOff_ScopedToProducts_DiscountsScopedLines() {
+        // Arrange
+        CampaignRule rule = CampaignRuleCompiler.compile(campaign(CampaignRuleType.PERCENTAGE_OFF)
+                .discountPercentage(BigDecimal.valueOf(25))
+                .productIds(Set.of(2L))
+                .build()).getRule();
+        Basket basket = basket(product(1L, 1, 100), product(2L, 2, 20));
+
+        // Act
+        rule.apply(basket);
+
+        // Assert
+        assertEquals(10000, basket.getLineTotal(0));
+        assertEquals(3000, basket.getLineTotal(1));
+        assertEquals(13000, basket.getTotal());
+    }
+
+    @Test
+    void testPercentageOff_ScopedToMissingProducts_ThrowsCampaignNotApplicableException() {
+        // Arrange
+        CampaignRule rule = CampaignRuleCompiler.compile(campaign(CampaignRuleType.PERCENTAGE_OFF)
+                .discountPercentage(BigDecimal.valueOf(25))
+                .productIds(Set.of(9L))
+                .build()).getRule();
+        Basket basket = basket(product(1L, 1, 100));
+
+        // Act & Assert
+        assertThrows(CampaignNotApplicableException.class, () -> rule.apply(basket));
+    }
+
+    @Test
+    void testPercentageOff_BasketWide_RoundsDiscountedTotalHalfUp() {
+        // Arrange
+        CampaignRule rule = CampaignRuleCompiler.compile(campaign(CampaignRuleType.PERCENTAGE_OFF)
+                .discountPercentage(new BigDecimal("12.5"))
+                .build()).getRule();
+        Basket basket = Basket.of(List.of(), new BigDecimal("0.20"));
+
+        // Act
+        rule.apply(basket);
+
+        // Assert
+        assertEquals(18, basket.getTotal());
+    }
+
+    @Test
+    void testBasketWriteBack_UpdatesOnlyChangedLinesAndReturnsTotal() {
+        // Arrange
+        CampaignRule rule = CampaignRuleCompiler.compile(campaign(CampaignRuleType.PERCENTAGE_OFF)
+                .discountPercentage(BigDecimal.valueOf(20))
+                .productIds(Set.of(2L))
+                .build()).getRule();
+        Product unscoped = product(1L, 1, 100);
+        Product scoped = product(2L, 3, 10);
+        Basket basket = basket(unscoped, scoped);
+        rule.apply(basket);
+
+        // Act
+        BigDecimal total = basket.writeBack();
+
+        // Assert
+        assertEquals(new BigDecimal("124.00"), total);
+        assertEquals(new BigDecimal("24.00"), scoped.getTotalPrice());
+        assertEquals(BigDecimal.valueOf(100), unscoped.getTotalPrice());
+    }
+}
@@ -0,0 +1,161 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.PricedSale;
+import com.bit.saleservice.dto.SaleRequest;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.exception.CheckoutQueueFullException;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.ProductOutOfStockException;
+import com.bit.saleservice.service.GatewayService.AuthorizedCall;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncCheckoutServiceTest {
+
+    @Mock
+    private SaleService saleService;
+
+    @Mock
+    private GatewayService gatewayService;
+
+    @Mock
+    private ExecutorService rejectingExecutor;
+
+    private ExecutorService pricingExecutor;
+    private ExecutorService finalisationExecutor;
+    private AsyncCheckoutService asyncCheckoutService;
+
+    @BeforeEach
+    void setUp() throws HeaderProcessingException {
+        pricingExecutor = Executors.newSingleThreadExecutor();
+        finalisationExecutor = Executors.newSingleThreadExecutor();
+        asyncCheckoutService = new AsyncCheckoutService(saleService, gatewayService, pricingExecutor, finalisationExecutor);
+        ReflectionTestUtils.setField(asyncCheckoutService, "POLL_INTERVAL", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(asyncCheckoutService, "PENDING_TIMEOUT", Duration.ofMinutes(5));
+
+        lenient().when(gatewayService.getAuthorization()).thenReturn("Bearer token");
+        lenient().when(gatewayService.withAuthorization(anyString(), any()))
+                .thenAnswer(invocation -> invocation.<AuthorizedCall<?>>getArgument(1).execute());
+        lenient().when(saleService.createPendingSale(any())).thenReturn(createSaleResponse("PENDING"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pricingExecutor.shutdownNow();
+        finalisationExecutor.shutdownNow();
+    }
+
+    @Test
+    void testSubmit_ReturnsPendingSaleAndCompletesItInWorkerStages() throws Exception {
+        // Arrange
+        SaleRequest saleRequest = new SaleRequest();
+        PricedSale pricedSale = new PricedSale(null, null, null, null, null, null, null, null, null);
+        CountDownLatch pricingStarted = new CountDownLatch(1);
+        CountDownLatch releasePricing = new CountDownLatch(1);
+        when(saleService.priceSale(saleRequest)).thenAnswer(invocation -> {
+            pricingStarted.countDown();
+            assertTrue(releasePricing.await(5, TimeUnit.SECONDS));
+            return pricedSale;
+        });
+        when(saleService.completePendingSale(1L, pricedSale)).thenReturn(createSaleResponse("COMPLETED"));
+
+        // Act
+        SaleResponse pendingSale = asyncCheckoutService.submit(saleRequest);
+        CompletableFuture<SaleResponse> result = asyncCheckoutService.getResult(1L);
+
+        // Assert
+        assertEquals("PENDING", pendingSale.getStatus());
+        assertTrue(pricingStarted.await(5, TimeUnit.SECONDS));
+        assertFalse(result.isDone());
+        releasePricing.countDown();
+        assertEquals("COMPLETED", result.get(5, TimeUnit.SECONDS).getStatus());
+        verify(gatewayService, times(2)).withAuthorization(eq("Bearer token"), any());
+        verify(saleService, never()).failPendingSale(any(), any());
+    }
+
+    @Test
+    void testSubmit_PricingFails_FailsPendingSaleWithReason() throws Exception {
+        // Arrange
+        SaleRequest saleRequest = new SaleRequest();
+        when(saleService.priceSale(saleRequest)).thenThrow(new ProductOutOfStockException("Product out of stock"));
+        when(saleService.failPendingSale(1L, "Product out of stock")).thenReturn(createSaleResponse("FAILED"));
+        CountDownLatch blockPricing = new CountDownLatch(1);
+        pricingExecutor.execute(() -> awaitQuietly(blockPricing));
+
+        // Act
+        asyncCheckoutService.submit(saleRequest);
+        CompletableFuture<SaleResponse> result = asyncCheckoutService.getResult(1L);
+        blockPricing.countDown();
+
+        // Assert
+        assertEquals("FAILED", result.get(5, TimeUnit.SECONDS).getStatus());
+        verify(saleService, never()).completePendingSale(any(), any());
+    }
+
+    @Test
+    void testSubmit_QueueFull_FailsPendingSaleAndThrowsCheckoutQueueFullException() {
+        // Arrange
+        asyncCheckoutService = new AsyncCheckoutService(saleService, gatewayService, rejectingExecutor, finalisationExecutor);
+        doThrow(new RejectedExecutionException()).when(rejectingExecutor).execute(any());
+
+        // Act & Assert
+        assertThrows(CheckoutQueueFullException.class, () -> asyncCheckoutService.submit(new SaleRequest()));
+        verify(saleService).failPendingSale(1L, "Checkout queue is full");
+    }
+
+    @Test
+    void testGetResult_CheckoutOfAnotherInstance_PollsUntilSaleIsNotPending() throws Exception {
+        // Arrange
+        when(saleService.getSale(1L)).thenReturn(createSaleResponse("PENDING"), createSaleResponse("PENDING"),
+                createSaleResponse("COMPLETED"));
+
+        // Act
+        CompletableFuture<SaleResponse> result = asyncCheckoutService.getResult(1L);
+
+        // Assert
+        assertEquals("COMPLETED", result.get(5, TimeUnit.SECONDS).getStatus());
+        verify(saleService, times(3)).getSale(1L);
+    }
+
+    @Test
+    void testFailAbandonedCheckouts_FailsSalesPendingLongerThanTimeout() {
+        // Act
+        asyncCheckoutService.failAbandonedCheckouts();
+
+        // Assert
+        verify(saleService).failAbandonedPendingSales(argThat(before ->
+                Math.abs(System.currentTimeMillis() - Duration.ofMinutes(5).toMillis() - before.getTime()) < 5000));
+    }
+
+    private void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SaleResponse createSaleResponse(String status) {
+        return SaleResponse.builder().id(1L).cashier("Cashier").status(status).build();
+    }
+}
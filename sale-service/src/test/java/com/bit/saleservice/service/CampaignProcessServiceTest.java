@@ -1,13 +1,17 @@
 package com.bit.saleservice.service;
 
+import com.bit.saleservice.dto.CampaignEligibilityResponse;
+import com.bit.saleservice.dto.CampaignEvaluationResponse;
 import com.bit.saleservice.dto.CampaignProcessRequest;
 import com.bit.saleservice.dto.CampaignProcessResponse;
 import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.CampaignRuleType;
 import com.bit.saleservice.entity.Product;
 import com.bit.saleservice.exception.CampaignNotApplicableException;
 import com.bit.saleservice.exception.CampaignNotFoundException;
 import com.bit.saleservice.exception.DuplicateCampaignException;
-import com.bit.saleservice.repository.CampaignRepository;
+import com.bit.saleservice.rule.CampaignRuleCompiler;
+import com.bit.saleservice.rule.CompiledCampaign;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,14 +23,13 @@ import java.math.BigDecimal;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CampaignProcessServiceTest {
 
     @Mock
-    private CampaignRepository campaignRepository;
+    private CampaignRegistry campaignRegistry;
 
     @InjectMocks
     private CampaignProcessService campaignProcessService;
@@ -36,35 +39,56 @@ class CampaignProcessServiceTest {
 
     @BeforeEach
     void setUp() {
-        campaign1 = new Campaign();
-        campaign1.setId(1L);
-        campaign1.setExpiration(new Date(System.currentTimeMillis() + 10000));
+        campaign1 = Campaign.builder()
+                .id(1L)
+                .name("Spend $200, Save $50")
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .ruleType(CampaignRuleType.THRESHOLD_DISCOUNT)
+                .thresholdAmount(BigDecimal.valueOf(200))
+                .discountAmount(BigDecimal.valueOf(50))
+                .build();
+
+        campaign2 = Campaign.builder()
+                .id(2L)
+                .name("Buy 2, Get 1 Free")
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .ruleType(CampaignRuleType.BUY_N_GET_M)
+                .buyQuantity(2)
+                .freeQuantity(1)
+                .build();
+
+        campaign3 = Campaign.builder()
+                .id(3L)
+                .name("20% Off Your Entire Purchase")
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .ruleType(CampaignRuleType.PERCENTAGE_OFF)
+                .discountPercentage(BigDecimal.valueOf(20))
+                .build();
+    }
 
-        campaign2 = new Campaign();
-        campaign2.setId(2L);
-        campaign2.setExpiration(new Date(System.currentTimeMillis() + 10000));
+    private CompiledCampaign register(Campaign campaign) {
+        CompiledCampaign compiled = CampaignRuleCompiler.compile(campaign);
+        when(campaignRegistry.getCampaign(campaign.getId())).thenReturn(compiled);
+        return compiled;
+    }
 
-        campaign3 = new Campaign();
-        campaign3.setId(3L);
-        campaign3.setExpiration(new Date(System.currentTimeMillis() + 10000));
+    private void compileCampaigns(Campaign... campaigns) {
+        for (Campaign campaign : campaigns) {
+            register(campaign);
+        }
     }
 
     @Test
     void testGetCampaigns_WithValidIds_ReturnsCampaigns() {
         // Arrange
-        List<Long> ids = Arrays.asList(1L, 2L, 3L);
-        when(campaignRepository.findById(1L)).thenReturn(Optional.of(campaign1));
-        when(campaignRepository.findById(2L)).thenReturn(Optional.of(campaign2));
-        when(campaignRepository.findById(3L)).thenReturn(Optional.of(campaign3));
+        compileCampaigns(campaign1, campaign2, campaign3);
+        List<Long> ids = Arrays.asList(1L, 2L, 3L, 4L);
 
         // Act
         List<Campaign> campaigns = campaignProcessService.getCampaigns(ids);
 
         // Assert
-        assertEquals(3, campaigns.size());
-        assertTrue(campaigns.contains(campaign1));
-        assertTrue(campaigns.contains(campaign2));
-        assertTrue(campaigns.contains(campaign3));
+        assertEquals(List.of(campaign1, campaign2, campaign3), campaigns);
     }
 
     @Test
@@ -81,27 +105,72 @@ class CampaignProcessServiceTest {
     @Test
     void testProcessCampaigns_WithCampaign1_AppliesDiscount() {
         // Arrange
-        List<Long> ids = List.of(1L);
+        compileCampaigns(campaign1);
         CampaignProcessRequest request = new CampaignProcessRequest();
-        request.setCampaignIds(ids);
+        request.setCampaignIds(List.of(1L));
         request.setTotal(BigDecimal.valueOf(250));
 
-        when(campaignRepository.findById(1L)).thenReturn(Optional.of(campaign1));
-
         // Act
         CampaignProcessResponse response = campaignProcessService.processCampaigns(request);
 
         // Assert
         assertNotNull(response);
-        assertEquals(BigDecimal.valueOf(200), response.getTotal());
+        assertEquals(new BigDecimal("200.00"), response.getTotal());
+    }
+
+    @Test
+    void testProcessCampaigns_ExpiredCampaignWithSaleDateBeforeExpiration_AppliesDiscount() {
+        // Arrange
+        campaign1.setExpiration(new Date(System.currentTimeMillis() - 3_600_000));
+        register(campaign1).markExpired();
+        CampaignProcessRequest request = new CampaignProcessRequest();
+        request.setCampaignIds(List.of(1L));
+        request.setTotal(BigDecimal.valueOf(250));
+        request.setSaleDate(new Date(System.currentTimeMillis() - 7_200_000));
+
+        // Act
+        CampaignProcessResponse response = campaignProcessService.processCampaigns(request);
+
+        // Assert
+        assertEquals(new BigDecimal("200.00"), response.getTotal());
+    }
+
+    @Test
+    void testProcessCampaigns_SaleDateAfterExpiration_ThrowsCampaignNotApplicableException() {
+        // Arrange
+        campaign1.setExpiration(new Date(System.currentTimeMillis() - 3_600_000));
+        register(campaign1).markExpired();
+        CampaignProcessRequest request = new CampaignProcessRequest();
+        request.setCampaignIds(List.of(1L));
+        request.setTotal(BigDecimal.valueOf(250));
+        request.setSaleDate(new Date(System.currentTimeMillis() - 1_800_000));
+
+        // Act & Assert
+        CampaignNotApplicableException exception = assertThrows(CampaignNotApplicableException.class,
+                () -> campaignProcessService.processCampaigns(request));
+        assertEquals("Campaign expired with name: Spend $200, Save $50", exception.getMessage());
+    }
+
+    @Test
+    void testProcessCampaigns_WithCampaign1AndTotalLessThanLimit_ThrowsCampaignNotApplicableException() {
+        // Arrange
+        compileCampaigns(campaign1);
+        CampaignProcessRequest request = new CampaignProcessRequest();
+        request.setCampaignIds(List.of(1L));
+        request.setTotal(BigDecimal.valueOf(150));
+
+        // Act & Assert
+        CampaignNotApplicableException exception = assertThrows(CampaignNotApplicableException.class,
+                () -> campaignProcessService.processCampaigns(request));
+        assertEquals("Campaign cannot be applied. Total must be equal to or over 200.", exception.getMessage());
     }
 
     @Test
     void testProcessCampaigns_WithCampaign2_AppliesBuy2Get1Free() {
         // Arrange
-        List<Long> ids = List.of(2L);
+        compileCampaigns(campaign2);
         CampaignProcessRequest request = new CampaignProcessRequest();
-        request.setCampaignIds(ids);
+        request.setCampaignIds(List.of(2L));
 
         Product product = new Product();
         product.setPrice(BigDecimal.valueOf(100));
@@ -110,82 +179,118 @@ class CampaignProcessServiceTest {
         request.setProducts(Collections.singletonList(product));
         request.setTotal(BigDecimal.valueOf(300));
 
-        when(campaignRepository.findById(2L)).thenReturn(Optional.of(campaign2));
-
         // Act
         CampaignProcessResponse response = campaignProcessService.processCampaigns(request);
 
         // Assert
         assertNotNull(response);
-        assertEquals(BigDecimal.valueOf(200), response.getTotal());
+        assertEquals(new BigDecimal("200.00"), response.getTotal());
+        assertEquals(new BigDecimal("200.00"), product.getTotalPrice());
     }
 
     @Test
     void testProcessCampaigns_WithCampaign3_Applies20PercentOff() {
         // Arrange
-        List<Long> ids = List.of(3L);
+        compileCampaigns(campaign3);
         CampaignProcessRequest request = new CampaignProcessRequest();
-        request.setCampaignIds(ids);
+        request.setCampaignIds(List.of(3L));
         request.setTotal(BigDecimal.valueOf(100));
 
-        when(campaignRepository.findById(3L)).thenReturn(Optional.of(campaign3));
-
         // Act
         CampaignProcessResponse response = campaignProcessService.processCampaigns(request);
 
         // Assert
         assertNotNull(response);
-        assertEquals(BigDecimal.valueOf(80.0), response.getTotal());
+        assertEquals(new BigDecimal("80.00"), response.getTotal());
     }
 
     @Test
-    void testCampaign_1_WithTotalLessThanLimit_ThrowsCampaignNotApplicableException() {
+    void testProcessCampaigns_WithMultipleCampaigns_AppliesInRequestedOrder() {
         // Arrange
-        CampaignProcessResponse response = CampaignProcessResponse.builder().total(BigDecimal.valueOf(150)).build();
+        compileCampaigns(campaign1, campaign3);
+        CampaignProcessRequest request = new CampaignProcessRequest();
+        request.setCampaignIds(List.of(1L, 3L));
+        request.setTotal(BigDecimal.valueOf(300));
 
-        // Act & Assert
-        assertThrows(CampaignNotApplicableException.class, () -> campaignProcessService.campaign_1(response));
+        // Act
+        CampaignProcessResponse response = campaignProcessService.processCampaigns(request);
+
+        // Assert
+        assertEquals(new BigDecimal("200.00"), response.getTotal());
     }
 
     @Test
-    void testCampaign_1_WithTotalGreaterThanOrEqualToLimit_AppliesDiscount() {
+    void testProcessCampaigns_WithExpiredCampaign_ThrowsCampaignNotApplicableException() {
         // Arrange
-        CampaignProcessResponse response = CampaignProcessResponse.builder().total(BigDecimal.valueOf(250)).build();
-
-        // Act
-        campaignProcessService.campaign_1(response);
+        register(campaign1).markExpired();
+        CampaignProcessRequest request = new CampaignProcessRequest();
+        request.setCampaignIds(List.of(1L));
+        request.setTotal(BigDecimal.valueOf(250));
 
-        // Assert
-        assertEquals(BigDecimal.valueOf(200), response.getTotal());
+        // Act & Assert
+        CampaignNotApplicableException exception = assertThrows(CampaignNotApplicableException.class,
+                () -> campaignProcessService.processCampaigns(request));
+        assertEquals("Campaign expired with name: Spend $200, Save $50", exception.getMessage());
     }
 
     @Test
-    void testIsCampaignValidAndNotExpired_WithValidCampaign_DoesNotThrowException() {
+    void testProcessCampaigns_WithNonExistentCampaign_ThrowsCampaignNotFoundException() {
         // Arrange
-        when(campaignRepository.findById(1L)).thenReturn(Optional.of(campaign1));
+        compileCampaigns(campaign1);
+        CampaignProcessRequest request = new CampaignProcessRequest();
+        request.setCampaignIds(List.of(1L, 5L));
+        request.setTotal(BigDecimal.valueOf(250));
 
         // Act & Assert
-        assertDoesNotThrow(() -> campaignProcessService.isCampaignValidAndNotExpired(1L));
+        assertThrows(CampaignNotFoundException.class, () -> campaignProcessService.processCampaigns(request));
+        assertEquals(BigDecimal.valueOf(250), request.getTotal());
     }
 
     @Test
-    void testIsCampaignValidAndNotExpired_WithExpiredCampaign_ThrowsCampaignNotApplicableException() {
+    void testEvaluateCampaigns_WithNotApplicableCampaign_SkipsItAndAppliesTheOthers() {
         // Arrange
-        Campaign expiredCampaign = new Campaign();
-        expiredCampaign.setId(4L);
-        expiredCampaign.setExpiration(new Date(System.currentTimeMillis() - 10000));
-        when(campaignRepository.findById(4L)).thenReturn(Optional.of(expiredCampaign));
+        compileCampaigns(campaign1, campaign2);
+        Product product = Product.builder().productId(1L).price(BigDecimal.valueOf(90)).quantity(3)
+                .totalPrice(BigDecimal.valueOf(270)).build();
 
-        // Act & Assert
-        assertThrows(CampaignNotApplicableException.class, () -> campaignProcessService.isCampaignValidAndNotExpired(4L));
+        // Act
+        CampaignEvaluationResponse response = campaignProcessService.evaluateCampaigns(List.of(2L, 1L),
+                List.of(product), BigDecimal.valueOf(270));
+
+        // Assert
+        assertEquals(new BigDecimal("180.00"), response.getTotal());
+        assertEquals(new BigDecimal("180.00"), product.getTotalPrice());
+        assertTrue(response.getCampaigns().get(0).isEligible());
+        assertFalse(response.getCampaigns().get(1).isEligible());
+        assertEquals("Campaign cannot be applied. Total must be equal to or over 200.", response.getCampaigns().get(1).getReason());
+    }
+
+    @Test
+    void testEvaluateCampaigns_WithExpiredAndNonExistentCampaigns_ReportsThemAsNotEligible() {
+        // Arrange
+        register(campaign3).markExpired();
+        Product product = Product.builder().productId(1L).price(BigDecimal.TEN).quantity(1)
+                .totalPrice(BigDecimal.TEN).build();
+
+        // Act
+        CampaignEvaluationResponse response = campaignProcessService.evaluateCampaigns(List.of(3L, 5L),
+                List.of(product), BigDecimal.TEN);
+
+        // Assert
+        assertEquals(new BigDecimal("10.00"), response.getTotal());
+        assertEquals("Campaign expired with name: 20% Off Your Entire Purchase", response.getCampaigns().get(0).getReason());
+        assertEquals("Campaign not found with id: 5", response.getCampaigns().get(1).getReason());
+        assertTrue(response.getCampaigns().stream().noneMatch(CampaignEligibilityResponse::isEligible));
     }
 
     @Test
-    void testIsCampaignValidAndNotExpired_WithNonExistentCampaign_ThrowsCampaignNotFoundException() {
+    void testIsAnyExpired_WithExpiredCampaign_ReturnsTrue() {
         // Arrange
-        when(campaignRepository.findById(anyLong())).thenReturn(Optional.empty());
+        compileCampaigns(campaign1);
+        register(campaign3).markExpired();
 
         // Act & Assert
-        assertThrows(CampaignNotFoundException.class, () -> campaignProcessService.isCampaignValidAndNotExpired(5L));
+        assertFalse(campaignProcessService.isAnyExpired(List.of(1L)));
+        assertTrue(campaignProcessService.isAnyExpired(List.of(1L, 3L)));
     }
 }
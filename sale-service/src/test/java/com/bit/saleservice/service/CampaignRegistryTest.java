@@ -0,0 +1,154 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.CampaignRuleType;
+import com.bit.saleservice.repository.CampaignRepository;
+import io.netty.util.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CampaignRegistryTest {
+
+    @Mock
+    private CampaignRepository campaignRepository;
+
+    @InjectMocks
+    private CampaignRegistry campaignRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(campaignRegistry, "TICK_DURATION", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(campaignRegistry, "TICKS_PER_WHEEL", 64);
+        campaignRegistry.initExpiryTimer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        campaignRegistry.stopExpiryTimer();
+    }
+
+    private static Campaign campaign(long id, long expiresInMillis) {
+        return Campaign.builder()
+                .id(id)
+                .expiration(new Date(System.currentTimeMillis() + expiresInMillis))
+                .ruleType(CampaignRuleType.PERCENTAGE_OFF)
+                .discountPercentage(BigDecimal.TEN)
+                .build();
+    }
+
+    @Test
+    void testRefreshCampaigns_CompilesValidCampaignsAndSkipsInvalidOnes() {
+        // Arrange
+        Campaign valid = campaign(1L, 60000);
+        Campaign invalid = Campaign.builder().id(2L).expiration(new Date()).ruleType(CampaignRuleType.BUY_N_GET_M).build();
+        when(campaignRepository.findAllWithProductIds()).thenReturn(List.of(valid, invalid));
+
+        // Act
+        campaignRegistry.refreshCampaigns();
+
+        // Assert
+        assertSame(valid, campaignRegistry.getCampaign(1L).getCampaign());
+        assertFalse(campaignRegistry.getCampaign(1L).isExpired());
+        assertNull(campaignRegistry.getCampaign(2L));
+    }
+
+    @Test
+    void testRefreshCampaigns_AlreadyExpiredCampaign_IsExpiredAndFlushed() {
+        // Arrange
+        when(campaignRepository.findAllWithProductIds()).thenReturn(List.of(campaign(1L, -1000)));
+
+        // Act
+        campaignRegistry.refreshCampaigns();
+        campaignRegistry.flushExpiredCampaigns();
+
+        // Assert
+        assertTrue(campaignRegistry.getCampaign(1L).isExpired());
+        verify(campaignRepository, times(1)).markExpired(List.of(1L));
+    }
+
+    @Test
+    void testRefreshCampaigns_ExpiredCampaignAlreadyFlagged_IsNotFlushedAgain() {
+        // Arrange
+        Campaign campaign = campaign(1L, -1000);
+        campaign.setIsExpired(true);
+        when(campaignRepository.findAllWithProductIds()).thenReturn(List.of(campaign));
+
+        // Act
+        campaignRegistry.refreshCampaigns();
+        campaignRegistry.flushExpiredCampaigns();
+
+        // Assert
+        assertTrue(campaignRegistry.getCampaign(1L).isExpired());
+        verify(campaignRepository, never()).markExpired(any());
+    }
+
+    @Test
+    void testExpiryTimer_FlipsCampaignAtItsExpiration() throws InterruptedException {
+        // Arrange
+        when(campaignRepository.findAllWithProductIds()).thenReturn(List.of(campaign(1L, 100)));
+        campaignRegistry.refreshCampaigns();
+        assertFalse(campaignRegistry.getCampaign(1L).isExpired());
+
+        // Act
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!campaignRegistry.getCampaign(1L).isExpired() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        campaignRegistry.flushExpiredCampaigns();
+
+        // Assert
+        assertTrue(campaignRegistry.getCampaign(1L).isExpired());
+        verify(campaignRepository, times(1)).markExpired(List.of(1L));
+    }
+
+    @Test
+    void testRefreshCampaigns_CancelsPreviouslyScheduledExpirations() throws InterruptedException {
+        // Arrange
+        when(campaignRepository.findAllWithProductIds()).thenReturn(List.of(campaign(1L, 60000), campaign(2L, 60000)));
+        campaignRegistry.refreshCampaigns();
+        when(campaignRepository.findAllWithProductIds()).thenReturn(List.of(campaign(1L, 60000)));
+        HashedWheelTimer expiryTimer = (HashedWheelTimer) ReflectionTestUtils.getField(campaignRegistry, "expiryTimer");
+
+        // Act
+        campaignRegistry.refreshCampaigns();
+        // Cancelled timeouts are removed from the wheel on the next ticks
+        Thread.sleep(200);
+
+        // Assert
+        assertEquals(1, expiryTimer.pendingTimeouts());
+        assertNull(campaignRegistry.getCampaign(2L));
+    }
+
+    @Test
+    void testFlushExpiredCampaigns_UpdateFails_RetriesOnNextFlush() {
+        // Arrange
+        when(campaignRepository.findAllWithProductIds()).thenReturn(List.of(campaign(1L, -1000)));
+        campaignRegistry.refreshCampaigns();
+        when(campaignRepository.markExpired(List.of(1L)))
+                .thenThrow(new RuntimeException("Database unavailable"))
+                .thenReturn(1);
+
+        // Act
+        campaignRegistry.flushExpiredCampaigns();
+        campaignRegistry.flushExpiredCampaigns();
+
+        // Assert
+        verify(campaignRepository, times(2)).markExpired(List.of(1L));
+    }
+}
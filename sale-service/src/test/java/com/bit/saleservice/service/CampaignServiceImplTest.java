@@ -65,8 +65,8 @@ class CampaignServiceImplTest {
     void testGetAllCampaigns_ReturnsListOfCampaignResponses() {
         // Arrange
         List<Campaign> campaigns = Arrays.asList(
-            new Campaign(1L, "Campaign 1", "Details 1", new Date(), false, Collections.emptyList()),
-            new Campaign(2L, "Campaign 2", "Details 2", new Date(), false, Collections.emptyList())
+            Campaign.builder().id(1L).name("Campaign 1").details("Details 1").expiration(new Date()).isExpired(false).build(),
+            Campaign.builder().id(2L).name("Campaign 2").details("Details 2").expiration(new Date()).isExpired(false).build()
         );
         
         when(campaignRepository.findAll()).thenReturn(campaigns);
@@ -84,8 +84,8 @@ class CampaignServiceImplTest {
     void testGetAllCampaignsFilteredAndSorted_ReturnsPagedCampaignResponses() {
         // Arrange
         List<Campaign> campaigns = Arrays.asList(
-            new Campaign(1L, "Campaign 1", "Details 1", new Date(), false, Collections.emptyList()),
-            new Campaign(2L, "Campaign 2", "Details 2", new Date(), false, Collections.emptyList())
+            Campaign.builder().id(1L).name("Campaign 1").details("Details 1").expiration(new Date()).isExpired(false).build(),
+            Campaign.builder().id(2L).name("Campaign 2").details("Details 2").expiration(new Date()).isExpired(false).build()
         );
         Page<Campaign> campaignPage = new PageImpl<>(campaigns);
 
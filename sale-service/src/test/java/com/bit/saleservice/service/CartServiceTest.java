@@ -0,0 +1,263 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.CartCheckoutRequest;
+import com.bit.saleservice.dto.CartItemRequest;
+import com.bit.saleservice.dto.CartRequest;
+import com.bit.saleservice.dto.CartResponse;
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.CampaignRuleType;
+import com.bit.saleservice.exception.CampaignNotFoundException;
+import com.bit.saleservice.exception.CartNotFoundException;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.InsufficientCashException;
+import com.bit.saleservice.exception.InvalidCartException;
+import com.bit.saleservice.exception.ProductOutOfStockException;
+import com.bit.saleservice.rule.CampaignRuleCompiler;
+import com.bit.saleservice.rule.CompiledCampaign;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private ProductCacheService productCacheService;
+
+    @Mock
+    private CampaignRegistry campaignRegistry;
+
+    @Mock
+    private SaleService saleService;
+
+    private CartService cartService;
+    private CompiledCampaign buy2Get1Free;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        cartService = new CartService(stringRedisTemplate, new ObjectMapper(), productCacheService,
+                new CampaignProcessService(campaignRegistry), saleService);
+        ReflectionTestUtils.setField(cartService, "TTL", Duration.ofMinutes(30));
+
+        buy2Get1Free = CampaignRuleCompiler.compile(Campaign.builder()
+                .id(1L)
+                .name("Buy 2, Get 1 Free")
+                .expiration(new Date(System.currentTimeMillis() + 10000))
+                .ruleType(CampaignRuleType.BUY_N_GET_M)
+                .buyQuantity(2)
+                .freeQuantity(1)
+                .build());
+        lenient().when(campaignRegistry.getCampaign(1L)).thenReturn(buy2Get1Free);
+
+        // Backing the value operations with a map
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        lenient().when(valueOperations.getAndDelete(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)));
+        lenient().doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        lenient().when(stringRedisTemplate.delete(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+    }
+
+    @Test
+    void testCreateCart_StoresEmptyCartWithTtl() {
+        // Act
+        CartResponse cart = cartService.createCart(new CartRequest("Cashier", List.of(1L)));
+
+        // Assert
+        assertEquals(new BigDecimal("0.00"), cart.getTotal());
+        assertNull(cart.getTotalWithCampaign());
+        assertFalse(cart.getCampaigns().get(0).isEligible());
+        assertTrue(redis.containsKey("cart:" + cart.getId()));
+        verify(valueOperations).set(eq("cart:" + cart.getId()), anyString(), eq(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void testCreateCart_NonExistentCampaign_ThrowsCampaignNotFoundException() {
+        // Act & Assert
+        assertThrows(CampaignNotFoundException.class, () -> cartService.createCart(new CartRequest("Cashier", List.of(5L))));
+        assertTrue(redis.isEmpty());
+    }
+
+    @Test
+    void testAddItem_ScansUpdateTotalsAndCampaignEligibility() throws HeaderProcessingException {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", List.of(1L))).getId();
+        mockProduct(1L, BigDecimal.TEN, 100);
+
+        // Act
+        CartResponse afterTwo = cartService.addItem(id, new CartItemRequest(1L, 2));
+        CartResponse afterThree = cartService.addItem(id, new CartItemRequest(1L, 1));
+
+        // Assert
+        assertEquals(new BigDecimal("20.00"), afterTwo.getTotal());
+        assertNull(afterTwo.getTotalWithCampaign());
+        assertEquals("Campaign cannot be applied. Requires a minimum purchase of the same 3 products to be applied.",
+                afterTwo.getCampaigns().get(0).getReason());
+
+        assertEquals(1, afterThree.getItems().size());
+        assertEquals(3, afterThree.getItems().get(0).getQuantity());
+        assertEquals(new BigDecimal("30.00"), afterThree.getTotal());
+        assertEquals(new BigDecimal("20.00"), afterThree.getTotalWithCampaign());
+        assertEquals(new BigDecimal("20.00"), afterThree.getItems().get(0).getTotalPriceWithCampaign());
+        assertTrue(afterThree.getCampaigns().get(0).isEligible());
+        assertEquals(afterThree, cartService.getCart(id));
+        verify(productCacheService, times(2)).getProducts(List.of(1L));
+    }
+
+    @Test
+    void testAddItem_VoidingAllUnits_RemovesLineWithoutLookingUpProduct() throws HeaderProcessingException {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", null)).getId();
+        mockProduct(1L, BigDecimal.TEN, 100);
+        mockProduct(2L, new BigDecimal("2.50"), 100);
+        cartService.addItem(id, new CartItemRequest(1L, 1));
+        cartService.addItem(id, new CartItemRequest(2L, 2));
+
+        // Act
+        CartResponse cart = cartService.addItem(id, new CartItemRequest(1L, -1));
+
+        // Assert
+        assertEquals(1, cart.getItems().size());
+        assertEquals(2L, cart.getItems().get(0).getProductId());
+        assertEquals(new BigDecimal("5.00"), cart.getTotal());
+        verify(productCacheService, times(1)).getProducts(List.of(1L));
+    }
+
+    @Test
+    void testAddItem_VoidingMoreThanScanned_ThrowsInvalidCartException() {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", null)).getId();
+
+        // Act & Assert
+        assertThrows(InvalidCartException.class, () -> cartService.addItem(id, new CartItemRequest(1L, -1)));
+        assertThrows(InvalidCartException.class, () -> cartService.addItem(id, new CartItemRequest(1L, 0)));
+        verifyNoInteractions(productCacheService);
+    }
+
+    @Test
+    void testAddItem_NotEnoughStock_ThrowsProductOutOfStockException() throws HeaderProcessingException {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", null)).getId();
+        mockProduct(1L, BigDecimal.TEN, 2);
+        cartService.addItem(id, new CartItemRequest(1L, 2));
+
+        // Act & Assert
+        assertThrows(ProductOutOfStockException.class, () -> cartService.addItem(id, new CartItemRequest(1L, 1)));
+        assertEquals(2, cartService.getCart(id).getItems().get(0).getQuantity());
+    }
+
+    @Test
+    void testAddItem_NonExistentCart_ThrowsCartNotFoundException() {
+        // Act & Assert
+        assertThrows(CartNotFoundException.class, () -> cartService.addItem("missing", new CartItemRequest(1L, 1)));
+    }
+
+    @Test
+    void testCheckout_CreatesSaleFromCartAndRemovesCart() throws HeaderProcessingException {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", List.of(1L))).getId();
+        mockProduct(1L, BigDecimal.TEN, 100);
+        CartResponse cart = cartService.addItem(id, new CartItemRequest(1L, 3));
+        CartCheckoutRequest cartCheckoutRequest = CartCheckoutRequest.builder().paymentMethod("paypal").build();
+        SaleResponse saleResponse = SaleResponse.builder().id(1L).build();
+        when(saleService.createSaleFromCart(cart, cartCheckoutRequest)).thenReturn(saleResponse);
+
+        // Act
+        SaleResponse result = cartService.checkout(id, cartCheckoutRequest);
+
+        // Assert
+        assertSame(saleResponse, result);
+        assertTrue(redis.isEmpty());
+        assertThrows(CartNotFoundException.class, () -> cartService.checkout(id, cartCheckoutRequest));
+    }
+
+    @Test
+    void testCheckout_CampaignExpiredSinceLastScan_EvaluatesCampaignsAgain() throws HeaderProcessingException {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", List.of(1L))).getId();
+        mockProduct(1L, BigDecimal.TEN, 100);
+        cartService.addItem(id, new CartItemRequest(1L, 3));
+        buy2Get1Free.markExpired();
+        when(saleService.createSaleFromCart(any(), any())).thenReturn(SaleResponse.builder().id(1L).build());
+
+        // Act
+        cartService.checkout(id, CartCheckoutRequest.builder().paymentMethod("paypal").build());
+
+        // Assert
+        verify(saleService).createSaleFromCart(argThat(cart -> cart.getTotalWithCampaign() == null
+                && cart.getItems().get(0).getTotalPriceWithCampaign().equals(new BigDecimal("30.00"))), any());
+    }
+
+    @Test
+    void testCheckout_SaleFails_PutsCartBack() throws HeaderProcessingException {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", null)).getId();
+        mockProduct(1L, BigDecimal.TEN, 100);
+        cartService.addItem(id, new CartItemRequest(1L, 1));
+        when(saleService.createSaleFromCart(any(), any())).thenThrow(new InsufficientCashException("Insufficient cash for payment"));
+
+        // Act & Assert
+        assertThrows(InsufficientCashException.class,
+                () -> cartService.checkout(id, CartCheckoutRequest.builder().paymentMethod("cash").build()));
+        assertEquals(1, cartService.getCart(id).getItems().size());
+    }
+
+    @Test
+    void testCheckout_EmptyCart_ThrowsInvalidCartExceptionAndKeepsCart() {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", null)).getId();
+
+        // Act & Assert
+        assertThrows(InvalidCartException.class,
+                () -> cartService.checkout(id, CartCheckoutRequest.builder().paymentMethod("paypal").build()));
+        assertTrue(redis.containsKey("cart:" + id));
+        verifyNoInteractions(saleService);
+    }
+
+    @Test
+    void testDeleteCart_RemovesCart() {
+        // Arrange
+        String id = cartService.createCart(new CartRequest("Cashier", null)).getId();
+
+        // Act
+        cartService.deleteCart(id);
+
+        // Assert
+        assertTrue(redis.isEmpty());
+        assertThrows(CartNotFoundException.class, () -> cartService.deleteCart(id));
+    }
+
+    private void mockProduct(Long id, BigDecimal price, int stockQuantity) throws HeaderProcessingException {
+        ProductResponse productResponse = ProductResponse.builder()
+                .id(id).name("Product " + id).barcodeNumber("86900000000" + id).price(price).stockQuantity(stockQuantity).build();
+        lenient().when(productCacheService.getProducts(List.of(id))).thenReturn(Map.of(id, productResponse));
+    }
+}
@@ -0,0 +1,107 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.exception.ProductNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutServiceTest {
+
+    private ExecutorService executorService;
+    private FanOutService fanOutService;
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(8);
+        fanOutService = new FanOutService(executorService);
+        ReflectionTestUtils.setField(fanOutService, "MAX_CONCURRENCY", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void invokeAll_shouldReturnResultsInItemOrder() {
+        // Arrange
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+
+        // Act
+        List<Integer> results = fanOutService.invokeAll(items, item -> {
+            sleep(20 - item);
+            return item * 2;
+        });
+
+        // Assert
+        assertEquals(IntStream.range(0, 20).map(i -> i * 2).boxed().toList(), results);
+    }
+
+    @Test
+    void invokeAll_shouldNotExceedMaxConcurrency() {
+        // Arrange
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> items = IntStream.range(0, 12).boxed().toList();
+
+        // Act
+        fanOutService.invokeAll(items, item -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(10);
+            running.decrementAndGet();
+            return item;
+        });
+
+        // Assert
+        assertTrue(maxRunning.get() <= 3);
+        assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    void invokeAll_shouldRethrowFirstFailureAndStopSubmitting() {
+        // Arrange
+        AtomicInteger started = new AtomicInteger();
+        List<Integer> items = IntStream.range(0, 50).boxed().toList();
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> fanOutService.invokeAll(items, item -> {
+            started.incrementAndGet();
+            if (item == 0) {
+                throw new ProductNotFoundException("Product not found with id: " + item);
+            }
+            sleep(10);
+            return item;
+        }));
+        assertTrue(started.get() < items.size());
+    }
+
+    @Test
+    void invokeAll_shouldRunSequentially_whenMaxConcurrencyIsOne() {
+        // Arrange
+        ReflectionTestUtils.setField(fanOutService, "MAX_CONCURRENCY", 1);
+        Thread caller = Thread.currentThread();
+
+        // Act
+        List<Boolean> results = fanOutService.invokeAll(List.of(1, 2, 3), item -> Thread.currentThread() == caller);
+
+        // Assert
+        assertEquals(List.of(true, true, true), results);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
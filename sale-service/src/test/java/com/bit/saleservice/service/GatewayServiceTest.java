@@ -1,10 +1,13 @@
 package com.bit.saleservice.service;
 
 import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.StockReservationResponse;
 import com.bit.saleservice.exception.HeaderProcessingException;
 import com.bit.saleservice.exception.ProductNotFoundException;
+import com.bit.saleservice.exception.ProductOutOfStockException;
 import com.bit.saleservice.exception.ProductReturnException;
 import com.bit.saleservice.exception.ProductServiceException;
+import com.bit.saleservice.wrapper.ProductStockReduceRequest;
 import com.bit.saleservice.wrapper.ProductStockReturnRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,12 +15,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -70,29 +77,152 @@ class GatewayServiceTest {
         assertThrows(ProductNotFoundException.class, () -> gatewayService.getProduct(productId));
     }
 
+    @Test
+    void testGetProducts_WhenProductsExist_ReturnsProductResponses() throws HeaderProcessingException {
+        // Arrange
+        ProductResponse mockResponse = new ProductResponse();
+        mockResponse.setId(1L);
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(List.of(mockResponse), HttpStatus.OK));
+
+        // Act
+        List<ProductResponse> response = gatewayService.getProducts(List.of(1L));
+
+        // Assert
+        assertEquals(1, response.size());
+        assertEquals(1L, response.get(0).getId());
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class));
+    }
+
+    @Test
+    void testGetProducts_WhenAnyProductDoesNotExist_ThrowsProductNotFoundException() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // Act & Assert
+        List<Long> ids = List.of(1L, 2L);
+        assertThrows(ProductNotFoundException.class, () -> gatewayService.getProducts(ids));
+    }
+
+    @Test
+    void testGetProducts_RestClientException_ThrowsProductServiceException() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenThrow(new RestClientException("REST client error"));
+
+        // Act & Assert
+        List<Long> ids = List.of(1L);
+        assertThrows(ProductServiceException.class, () -> gatewayService.getProducts(ids));
+    }
+
+    @Test
+    void testGetProductStocks_WhenProductsExist_ReturnsStocks() throws HeaderProcessingException {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(new ResponseEntity<>(Map.of(1L, 5), HttpStatus.OK));
+
+        // Act
+        Map<Long, Integer> response = gatewayService.getProductStocks(List.of(1L));
+
+        // Assert
+        assertEquals(5, response.get(1L));
+    }
+
+    @Test
+    void testGetProductStocks_WhenAnyProductDoesNotExist_ThrowsProductNotFoundException() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // Act & Assert
+        List<Long> ids = List.of(1L);
+        assertThrows(ProductNotFoundException.class, () -> gatewayService.getProductStocks(ids));
+    }
+
+    @Test
+    void testReserveProducts_WhenStocksAreEnough_ReturnsReservation() throws HeaderProcessingException {
+        // Arrange
+        StockReservationResponse mockResponse = StockReservationResponse.builder().reservationId("reservation").build();
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(StockReservationResponse.class)))
+                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.CREATED));
+
+        // Act
+        StockReservationResponse response = gatewayService.reserveProducts(List.of(new ProductStockReduceRequest(1L, 1)));
+
+        // Assert
+        assertEquals("reservation", response.getReservationId());
+    }
+
+    @Test
+    void testReserveStockAdjustments_WhenStocksAreNotEnough_ThrowsProductOutOfStockException() {
+        // Arrange
+        ReflectionTestUtils.setField(gatewayService, "RESERVE_STOCK_ADJUSTMENTS_ENDPOINT", "products/reservations/adjustments");
+        when(restTemplate.exchange(endsWith("products/reservations/adjustments"), eq(HttpMethod.POST), any(HttpEntity.class),
+                eq(StockReservationResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT));
+
+        // Act & Assert
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, 2), new ProductStockReduceRequest(2L, -1));
+        assertThrows(ProductOutOfStockException.class, () -> gatewayService.reserveStockAdjustments(requests));
+    }
+
+    @Test
+    void testReserveProducts_WhenStocksAreNotEnough_ThrowsProductOutOfStockException() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(StockReservationResponse.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.CONFLICT));
+
+        // Act & Assert
+        List<ProductStockReduceRequest> requests = List.of(new ProductStockReduceRequest(1L, 1));
+        assertThrows(ProductOutOfStockException.class, () -> gatewayService.reserveProducts(requests));
+    }
+
+    @Test
+    void testCommitReservation_WhenReservationExpired_ThrowsProductServiceException() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class), eq("reservation")))
+                .thenThrow(new HttpClientErrorException(HttpStatus.GONE));
+
+        // Act & Assert
+        assertThrows(ProductServiceException.class, () -> gatewayService.commitReservation("reservation"));
+    }
+
+    @Test
+    void testReleaseReservation_WhenRequestIsSuccessful_DoesNotThrowException() {
+        // Arrange
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.DELETE), any(HttpEntity.class), eq(String.class), eq("reservation")))
+                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> gatewayService.releaseReservation("reservation"));
+    }
+
     @Test
     void testReturnProducts_WhenRequestIsSuccessful_DoesNotThrowException() {
         // Arrange
-        ProductStockReturnRequest request = new ProductStockReturnRequest(1L, 1);
+        List<ProductStockReturnRequest> requests = List.of(new ProductStockReturnRequest(1L, 1));
 
         when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
                 .thenReturn(new ResponseEntity<>(HttpStatus.OK));
 
         // Act & Assert
-        assertDoesNotThrow(() -> gatewayService.returnProducts(request));
+        assertDoesNotThrow(() -> gatewayService.returnProducts(requests));
         verify(restTemplate).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
 
     @Test
     void testReturnProducts_WhenProductDoesNotExist_ThrowsProductNotFoundException() {
         // Arrange
-        ProductStockReturnRequest request = new ProductStockReturnRequest(1L, 1);
+        List<ProductStockReturnRequest> requests = List.of(new ProductStockReturnRequest(1L, 1));
 
         when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
                 .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
         // Act & Assert
-        assertThrows(ProductNotFoundException.class, () -> gatewayService.returnProducts(request));
+        assertThrows(ProductNotFoundException.class, () -> gatewayService.returnProducts(requests));
         verify(restTemplate).exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
 
@@ -109,6 +239,35 @@ class GatewayServiceTest {
         assertEquals("http://localhost:8080/", ReflectionTestUtils.getField(gatewayService, "GATEWAY_URL"));
     }
 
+    @Test
+    void testInitGatewayUrl_InternalClientEnabled_GatewayUrlPointsToService() {
+        // Arrange
+        ReflectionTestUtils.setField(gatewayService, "INTERNAL_CLIENT_ENABLED", true);
+        ReflectionTestUtils.setField(gatewayService, "SERVICE_ID", "product-service");
+
+        // Act
+        gatewayService.initGatewayUrl();
+
+        // Assert
+        assertEquals("http://product-service/", ReflectionTestUtils.getField(gatewayService, "GATEWAY_URL"));
+    }
+
+    @Test
+    void testGetHttpHeaders_InternalClientEnabled_SetsInternalServiceToken() throws HeaderProcessingException {
+        // Arrange
+        GatewayService internalGatewayService = new GatewayService(restTemplate);
+        ReflectionTestUtils.setField(internalGatewayService, "INTERNAL_CLIENT_ENABLED", true);
+        ReflectionTestUtils.setField(internalGatewayService, "INTERNAL_AUTH_HEADER", "X-Internal-Token");
+        ReflectionTestUtils.setField(internalGatewayService, "INTERNAL_AUTH_TOKEN", "secret");
+
+        // Act
+        HttpHeaders headers = internalGatewayService.getHttpHeaders();
+
+        // Assert
+        assertEquals("secret", headers.getFirst("X-Internal-Token"));
+        assertNull(headers.getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
     @Test
     void testGetProduct_RestClientException_ThrowsProductServiceException() {
         // Arrange
@@ -125,11 +284,11 @@ class GatewayServiceTest {
     void testReturnProducts_RestClientException_ThrowsProductServiceException() {
         // Arrange
         ReflectionTestUtils.setField(gatewayService, "GATEWAY_URL", "http://some-domain/");
-        ProductStockReturnRequest request = new ProductStockReturnRequest(1L, 1);
+        List<ProductStockReturnRequest> requests = List.of(new ProductStockReturnRequest(1L, 1));
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(String.class)))
                 .thenThrow(new RestClientException("REST client error"));
 
         // Act and Assert
-        assertThrows(ProductReturnException.class, () -> gatewayService.returnProducts(request));
+        assertThrows(ProductReturnException.class, () -> gatewayService.returnProducts(requests));
     }
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.SaleRequest;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.IdempotencyKeyReuseException;
+import com.bit.saleservice.exception.InvalidIdempotencyKeyException;
+import com.bit.saleservice.exception.ProductOutOfStockException;
+import com.bit.saleservice.service.IdempotencyService.IdempotentResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ScheduledExecutorService idempotencyRenewalExecutor;
+
+    @Mock
+    private ScheduledFuture<?> renewal;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "RESPONSE_TTL", Duration.ofHours(24));
+        ReflectionTestUtils.setField(idempotencyService, "LOCK_TTL", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(idempotencyService, "WAIT_TIMEOUT", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(idempotencyService, "POLL_INTERVAL", Duration.ofMillis(10));
+
+        // Backing the value operations with a map
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        lenient().when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(invocation -> {
+            String key = invocation.<List<String>>getArgument(1).get(0);
+            String claim = invocation.getArgument(2);
+            RedisScript<?> script = invocation.getArgument(0);
+            if (script == IdempotencyService.REPLACE_CLAIM_SCRIPT) {
+                return redis.replace(key, claim, invocation.getArgument(3)) ? 1L : 0L;
+            }
+            if (script == IdempotencyService.RELEASE_CLAIM_SCRIPT) {
+                return redis.remove(key, claim) ? 1L : 0L;
+            }
+            return claim.equals(redis.get(key)) ? 1L : 0L;
+        });
+        lenient().doReturn(renewal).when(idempotencyRenewalExecutor)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    void testExecute_WithoutKey_ExecutesActionWithoutRedis() throws HeaderProcessingException {
+        // Arrange
+        SaleResponse saleResponse = createSaleResponse(1L);
+
+        // Act
+        IdempotentResponse response = idempotencyService.execute("create", null, new SaleRequest(), () -> saleResponse);
+
+        // Assert
+        assertSame(saleResponse, response.saleResponse());
+        assertFalse(response.replayed());
+        verifyNoInteractions(stringRedisTemplate);
+    }
+
+    @Test
+    void testExecute_BlankKey_ThrowsInvalidIdempotencyKeyException() {
+        // Act & Assert
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> idempotencyService.execute("create", " ", new SaleRequest(), () -> createSaleResponse(1L)));
+    }
+
+    @Test
+    void testExecute_RepeatedKey_ReplaysStoredResponseWithoutExecutingAction() throws HeaderProcessingException {
+        // Arrange
+        SaleRequest saleRequest = createSaleRequest("Cashier");
+        AtomicInteger executions = new AtomicInteger();
+
+        // Act
+        IdempotentResponse first = idempotencyService.execute("create", "key", saleRequest,
+                () -> createSaleResponse(executions.incrementAndGet()));
+        IdempotentResponse second = idempotencyService.execute("create", "key", saleRequest,
+                () -> createSaleResponse(executions.incrementAndGet()));
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals(first.saleResponse(), second.saleResponse());
+        verify(stringRedisTemplate).execute(eq(IdempotencyService.REPLACE_CLAIM_SCRIPT), eq(List.of("idempotency:sales:create:key")),
+                anyString(), anyString(), eq(String.valueOf(Duration.ofHours(24).toMillis())));
+        verify(renewal).cancel(false);
+    }
+
+    @Test
+    void testExecute_SlowAction_RenewsClaimWhileRunning() throws HeaderProcessingException {
+        // Arrange
+        String key = "idempotency:sales:create:key";
+        ArgumentCaptor<Runnable> renewalCaptor = ArgumentCaptor.forClass(Runnable.class);
+
+        // Act
+        idempotencyService.execute("create", "key", createSaleRequest("Cashier"), () -> {
+            verify(idempotencyRenewalExecutor).scheduleAtFixedRate(renewalCaptor.capture(),
+                    eq(10_000L), eq(10_000L), eq(TimeUnit.MILLISECONDS));
+            renewalCaptor.getValue().run();
+            return createSaleResponse(1L);
+        });
+
+        // Assert
+        verify(stringRedisTemplate).execute(eq(IdempotencyService.RENEW_CLAIM_SCRIPT), eq(List.of(key)),
+                anyString(), eq("30000"));
+        verify(renewal).cancel(false);
+    }
+
+    @Test
+    void testExecute_ClaimTakenOverByOtherRequest_LeavesOtherClaimInPlace() throws HeaderProcessingException {
+        // Arrange
+        String key = "idempotency:sales:create:key";
+        SaleRequest saleRequest = createSaleRequest("Cashier");
+
+        // Act
+        idempotencyService.execute("create", "key", saleRequest, () -> {
+            // The claim expired and another request claimed the key in the meantime
+            redis.put(key, "other claim");
+            return createSaleResponse(1L);
+        });
+        assertThrows(ProductOutOfStockException.class, () -> idempotencyService.execute("create", "other key", saleRequest, () -> {
+            redis.put("idempotency:sales:create:other key", "other claim");
+            throw new ProductOutOfStockException("Product out of stock");
+        }));
+
+        // Assert
+        assertEquals("other claim", redis.get(key));
+        assertEquals("other claim", redis.get("idempotency:sales:create:other key"));
+    }
+
+    @Test
+    void testExecute_KeyReusedForDifferentRequest_ThrowsIdempotencyKeyReuseException() throws HeaderProcessingException {
+        // Arrange
+        idempotencyService.execute("create", "key", createSaleRequest("Cashier"), () -> createSaleResponse(1L));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> idempotencyService.execute("create", "key", createSaleRequest("Other"), () -> createSaleResponse(2L)));
+    }
+
+    @Test
+    void testExecute_SameKeyForDifferentOperations_ExecutesBoth() throws HeaderProcessingException {
+        // Arrange
+        SaleRequest saleRequest = createSaleRequest("Cashier");
+
+        // Act
+        IdempotentResponse created = idempotencyService.execute("create", "key", saleRequest, () -> createSaleResponse(1L));
+        IdempotentResponse updated = idempotencyService.execute("update:1", "key", saleRequest, () -> createSaleResponse(2L));
+
+        // Assert
+        assertFalse(created.replayed());
+        assertFalse(updated.replayed());
+        assertEquals(2L, updated.saleResponse().getId());
+    }
+
+    @Test
+    void testExecute_ActionFails_ReleasesKeySoThatRetryExecutes() throws HeaderProcessingException {
+        // Arrange
+        SaleRequest saleRequest = createSaleRequest("Cashier");
+
+        // Act
+        assertThrows(ProductOutOfStockException.class, () -> idempotencyService.execute("create", "key", saleRequest, () -> {
+            throw new ProductOutOfStockException("Product out of stock");
+        }));
+        IdempotentResponse retried = idempotencyService.execute("create", "key", saleRequest, () -> createSaleResponse(1L));
+
+        // Assert
+        assertFalse(retried.replayed());
+        assertEquals(1L, retried.saleResponse().getId());
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicates_ExecuteActionOnce() throws Exception {
+        // Arrange
+        SaleRequest saleRequest = createSaleRequest("Cashier");
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<IdempotentResponse> first = executor.submit(() -> idempotencyService.execute("create", "key", saleRequest, () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return createSaleResponse(1L);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<IdempotentResponse> second = executor.submit(() -> idempotencyService.execute("create", "key", saleRequest,
+                    () -> createSaleResponse(executions.incrementAndGet())));
+            Future<IdempotentResponse> third = executor.submit(() -> idempotencyService.execute("create", "key", saleRequest,
+                    () -> createSaleResponse(executions.incrementAndGet())));
+
+            // Act
+            release.countDown();
+
+            // Assert
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            assertTrue(second.get(5, TimeUnit.SECONDS).replayed());
+            assertTrue(third.get(5, TimeUnit.SECONDS).replayed());
+            assertEquals(1L, second.get().saleResponse().getId());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_RedisUnavailable_ExecutesActionWithoutReplay() throws HeaderProcessingException {
+        // Arrange
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        // Act
+        IdempotentResponse response = idempotencyService.execute("create", "key", createSaleRequest("Cashier"), () -> createSaleResponse(1L));
+
+        // Assert
+        assertFalse(response.replayed());
+        assertEquals(1L, response.saleResponse().getId());
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+        }
+    }
+
+    private SaleRequest createSaleRequest(String cashier) {
+        SaleRequest saleRequest = new SaleRequest();
+        saleRequest.setCashier(cashier);
+        saleRequest.setPaymentMethod("CASH");
+        saleRequest.setCash(BigDecimal.valueOf(100));
+        return saleRequest;
+    }
+
+    private SaleResponse createSaleResponse(long id) {
+        return SaleResponse.builder()
+                .id(id)
+                .cashier("Cashier")
+                .total(new BigDecimal("10.00"))
+                .build();
+    }
+}
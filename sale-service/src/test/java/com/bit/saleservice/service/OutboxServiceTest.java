@@ -0,0 +1,143 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.entity.OutboxEvent;
+import com.bit.saleservice.repository.OutboxEventRepository;
+import com.bit.saleservice.wrapper.ProductStockReduceBatch;
+import com.bit.saleservice.wrapper.ProductStockReduceRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxService, "BATCH_SIZE", 10);
+        ReflectionTestUtils.setField(outboxService, "CONFIRM_TIMEOUT", Duration.ofMillis(100));
+    }
+
+    @Test
+    void testEnqueue_SavesSerializedPayload() {
+        // Arrange
+        ProductStockReduceBatch batch = new ProductStockReduceBatch(List.of(new ProductStockReduceRequest(1L, 2)));
+
+        // Act
+        outboxService.enqueue("exchange", "routing.key", batch);
+
+        // Assert
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository).save(captor.capture());
+        assertEquals("exchange", captor.getValue().getExchange());
+        assertEquals("routing.key", captor.getValue().getRoutingKey());
+        assertEquals("{\"requests\":[{\"id\":1,\"requestedQuantity\":2}]}", captor.getValue().getPayload());
+        assertNotNull(captor.getValue().getMessageId());
+    }
+
+    @Test
+    void testRelayOutboxEvents_PublishesWithMessageIdOfEvent() {
+        // Arrange
+        OutboxEvent outboxEvent = OutboxEvent.builder().id(1L).messageId("message").exchange("exchange").routingKey("key").payload("{}").build();
+        when(outboxEventRepository.findBatchForRelay(10)).thenReturn(List.of(outboxEvent));
+
+        // Act
+        outboxService.relayOutboxEvents();
+
+        // Assert
+        ArgumentCaptor<Message> captor = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq("exchange"), eq("key"), captor.capture(), any(CorrelationData.class));
+        assertEquals("message", captor.getValue().getMessageProperties().getMessageId());
+    }
+
+    @Test
+    void testRelayOutboxEvents_DeletesOnlyAcknowledgedEvents() {
+        // Arrange
+        OutboxEvent acked = OutboxEvent.builder().id(1L).exchange("exchange").routingKey("key").payload("{}").build();
+        OutboxEvent nacked = OutboxEvent.builder().id(2L).exchange("exchange").routingKey("key").payload("{}").build();
+        when(outboxEventRepository.findBatchForRelay(10)).thenReturn(List.of(acked, nacked));
+        doAnswer(invocation -> {
+            CorrelationData correlationData = invocation.getArgument(3);
+            boolean ack = correlationData.getId().equals("1");
+            correlationData.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        outboxService.relayOutboxEvents();
+
+        // Assert
+        verify(rabbitTemplate, times(2)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void testRelayOutboxEvents_KeepsEventsWithoutConfirm() {
+        // Arrange
+        OutboxEvent outboxEvent = OutboxEvent.builder().id(1L).exchange("exchange").routingKey("key").payload("{}").build();
+        when(outboxEventRepository.findBatchForRelay(10)).thenReturn(List.of(outboxEvent));
+
+        // Act
+        outboxService.relayOutboxEvents();
+
+        // Assert
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of());
+    }
+
+    @Test
+    void testRelayOutboxEvents_StopsPublishingWhenBrokerIsUnavailable() {
+        // Arrange
+        OutboxEvent first = OutboxEvent.builder().id(1L).exchange("exchange").routingKey("key").payload("{}").build();
+        OutboxEvent second = OutboxEvent.builder().id(2L).exchange("exchange").routingKey("key").payload("{}").build();
+        when(outboxEventRepository.findBatchForRelay(10)).thenReturn(List.of(first, second));
+        doThrow(new AmqpException("Broker unavailable"))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+
+        // Act
+        outboxService.relayOutboxEvents();
+
+        // Assert
+        verify(rabbitTemplate, times(1)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        verify(outboxEventRepository).deleteAllByIdInBatch(List.of());
+    }
+
+    @Test
+    void testRelayOutboxEvents_NoEvents_DoesNotPublish() {
+        // Arrange
+        when(outboxEventRepository.findBatchForRelay(10)).thenReturn(List.of());
+
+        // Act
+        outboxService.relayOutboxEvents();
+
+        // Assert
+        verifyNoInteractions(rabbitTemplate);
+    }
+}
@@ -0,0 +1,91 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.wrapper.ProductEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheServiceTest {
+
+    @Mock
+    private GatewayService gatewayService;
+
+    @InjectMocks
+    private ProductCacheService productCacheService;
+
+    private ProductResponse productResponse;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(productCacheService, "MAXIMUM_SIZE", 100L);
+        ReflectionTestUtils.setField(productCacheService, "EXPIRE_AFTER_WRITE", Duration.ofMinutes(5));
+        productCacheService.initProductCache();
+
+        productResponse = ProductResponse.builder()
+                .id(1L)
+                .name("Product")
+                .stockQuantity(10)
+                .price(BigDecimal.TEN)
+                .build();
+    }
+
+    @Test
+    void testGetProducts_WhenNotCached_FetchesProductsInBatch() throws HeaderProcessingException {
+        // Arrange
+        when(gatewayService.getProducts(List.of(1L))).thenReturn(List.of(productResponse));
+
+        // Act
+        Map<Long, ProductResponse> products = productCacheService.getProducts(List.of(1L, 1L));
+
+        // Assert
+        assertEquals(productResponse, products.get(1L));
+        verify(gatewayService, never()).getProductStocks(any());
+    }
+
+    @Test
+    void testGetProducts_WhenCached_FetchesOnlyStocks() throws HeaderProcessingException {
+        // Arrange
+        when(gatewayService.getProducts(List.of(1L))).thenReturn(List.of(productResponse));
+        when(gatewayService.getProductStocks(List.of(1L))).thenReturn(Map.of(1L, 3));
+        productCacheService.getProducts(List.of(1L));
+
+        // Act
+        Map<Long, ProductResponse> products = productCacheService.getProducts(List.of(1L));
+
+        // Assert
+        assertEquals(3, products.get(1L).getStockQuantity());
+        assertEquals("Product", products.get(1L).getName());
+        assertEquals(10, productResponse.getStockQuantity());
+        verify(gatewayService, times(1)).getProducts(any());
+    }
+
+    @Test
+    void testEvictProduct_WhenProductEventReceived_FetchesProductAgain() throws HeaderProcessingException {
+        // Arrange
+        when(gatewayService.getProducts(List.of(1L))).thenReturn(List.of(productResponse));
+        productCacheService.getProducts(List.of(1L));
+
+        // Act
+        productCacheService.evictProduct(new ProductEvent(1L, ProductEvent.Type.CHANGED));
+        productCacheService.getProducts(List.of(1L));
+
+        // Assert
+        verify(gatewayService, times(2)).getProducts(List.of(1L));
+        verify(gatewayService, never()).getProductStocks(any());
+    }
+}
@@ -0,0 +1,248 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.config.IdGeneratorConfig;
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.SaleProductRequest;
+import com.bit.saleservice.dto.SaleRequest;
+import com.bit.saleservice.dto.StockReservationResponse;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.InvalidSaleStatusException;
+import com.bit.saleservice.exception.ProductReturnException;
+import com.bit.saleservice.exception.SaleUpdateConflictException;
+import com.bit.saleservice.repository.SaleRepository;
+import com.bit.saleservice.wrapper.ProductStockReduceRequest;
+import com.bit.saleservice.wrapper.ProductStockReturnRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Hammers a single sale with concurrent updates and cancellations, and checks that the stock a sale holds and the
+ * stock of the products always add up to the initial stock. The sales are written to a real H2 database outside of a
+ * test transaction, so the version checks of the concurrent transactions decide which change of the sale wins.
+ * The product-service is simulated in memory: reservations take the increases at once and give the decreases back
+ * on commit, like the reservation endpoints do.
+ */
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sale-stress;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "stock-reservation.enabled=true",
+        "sale-conflict-retry.max-attempts=50",
+        "sale-conflict-retry.backoff=2ms"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(IdGeneratorConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SaleConcurrencyStressTest extends SaleServiceDataJpaTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 15;
+    private static final int INITIAL_STOCK = 10_000;
+    private static final List<Long> PRODUCT_IDS = List.of(1L, 2L, 3L);
+
+    @Autowired
+    private SaleServiceImpl saleService;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Long, AtomicInteger> stocks = new ConcurrentHashMap<>();
+    private final Map<String, List<ProductStockReduceRequest>> reservations = new ConcurrentHashMap<>();
+    private final AtomicInteger returns = new AtomicInteger();
+
+    private Long saleId;
+
+    @BeforeEach
+    void setUp() throws HeaderProcessingException, ProductReturnException {
+        saleRepository.deleteAll();
+
+        // Selling 2 of every product
+        Sale sale = Sale.builder().cashier("Cashier").date(new Date()).paymentMethod(Payment.PAYPAL).build();
+        List<Product> products = new ArrayList<>();
+        for (Long productId : PRODUCT_IDS) {
+            products.add(Product.builder().productId(productId).quantity(2).price(BigDecimal.TEN)
+                    .totalPrice(BigDecimal.valueOf(20)).saleDate(sale.getDate()).sale(sale).build());
+            stocks.put(productId, new AtomicInteger(INITIAL_STOCK - 2));
+        }
+        sale.setProducts(products);
+        saleId = saleRepository.save(sale).getId();
+
+        when(productCacheService.getProducts(anyList())).thenAnswer(invocation -> {
+            Map<Long, ProductResponse> productResponses = new HashMap<>();
+            invocation.<List<Long>>getArgument(0).forEach(id -> productResponses.put(id, createProductResponse(id)));
+            return productResponses;
+        });
+
+        // Taking the increases at once and giving the decreases back on commit
+        when(gatewayService.reserveStockAdjustments(anyList())).thenAnswer(invocation -> {
+            List<ProductStockReduceRequest> requests = invocation.getArgument(0);
+            requests.stream()
+                    .filter(request -> request.getRequestedQuantity() > 0)
+                    .forEach(request -> stocks.get(request.getId()).addAndGet(-request.getRequestedQuantity()));
+            String reservationId = UUID.randomUUID().toString();
+            reservations.put(reservationId, requests);
+            return StockReservationResponse.builder()
+                    .reservationId(reservationId)
+                    .products(requests.stream().map(request -> createProductResponse(request.getId())).toList())
+                    .build();
+        });
+        doAnswer(invocation -> {
+            reservations.remove(invocation.<String>getArgument(0)).stream()
+                    .filter(request -> request.getRequestedQuantity() < 0)
+                    .forEach(request -> stocks.get(request.getId()).addAndGet(-request.getRequestedQuantity()));
+            return null;
+        }).when(gatewayService).commitReservation(anyString());
+        doAnswer(invocation -> {
+            reservations.remove(invocation.<String>getArgument(0)).stream()
+                    .filter(request -> request.getRequestedQuantity() > 0)
+                    .forEach(request -> stocks.get(request.getId()).addAndGet(request.getRequestedQuantity()));
+            return null;
+        }).when(gatewayService).releaseReservation(anyString());
+        doAnswer(invocation -> {
+            returns.incrementAndGet();
+            invocation.<List<ProductStockReturnRequest>>getArgument(0)
+                    .forEach(request -> stocks.get(request.getId()).addAndGet(request.getReturnedQuantity()));
+            return null;
+        }).when(gatewayService).returnProducts(anyList());
+    }
+
+    @Test
+    void testConcurrentUpdates_ConserveStock() throws Exception {
+        // Act
+        int conflicts = hammer(0);
+
+        // Assert
+        Map<Long, Integer> soldQuantities = getSoldQuantities();
+        for (Long productId : PRODUCT_IDS) {
+            assertEquals(INITIAL_STOCK, stocks.get(productId).get() + soldQuantities.getOrDefault(productId, 0),
+                    "Stock of product " + productId + " is not conserved");
+        }
+        assertTrue(conflicts < THREADS * OPERATIONS_PER_THREAD);
+        assertTrue(reservations.isEmpty());
+    }
+
+    @Test
+    void testConcurrentUpdatesAndCancellations_ReturnStockOnce() throws Exception {
+        // Act
+        hammer(10);
+
+        // Assert
+        assertTrue(saleRepository.findById(saleId).orElseThrow().isCancelled());
+        assertEquals(1, returns.get());
+        for (Long productId : PRODUCT_IDS) {
+            assertEquals(INITIAL_STOCK, stocks.get(productId).get(), "Stock of product " + productId + " is not conserved");
+        }
+        assertTrue(reservations.isEmpty());
+    }
+
+    /**
+     * Updates the sale from many threads at once, cancelling it instead in the given percentage of the operations.
+     * Returns the number of operations that gave up on the conflicts.
+     */
+    private int hammer(int cancelPercentage) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                        try {
+                            if (random.nextInt(100) < cancelPercentage) {
+                                saleService.cancelSale(saleId);
+                            } else {
+                                saleService.updateSale(saleId, createRandomSaleRequest(random));
+                            }
+                        } catch (SaleUpdateConflictException e) {
+                            conflicts.incrementAndGet();
+                        } catch (InvalidSaleStatusException e) {
+                            // Updates that come after the cancellation are rejected and leave the stocks alone
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Cancelling at the end when no operation happened to cancel the sale
+        if (cancelPercentage > 0) {
+            saleService.cancelSale(saleId);
+        }
+        return conflicts.get();
+    }
+
+    private Map<Long, Integer> getSoldQuantities() {
+        return transactionTemplate.execute(status -> {
+            Map<Long, Integer> soldQuantities = new HashMap<>();
+            saleRepository.findById(saleId).orElseThrow().getProducts()
+                    .forEach(product -> soldQuantities.merge(product.getProductId(), product.getQuantity(), Integer::sum));
+            return soldQuantities;
+        });
+    }
+
+    private SaleRequest createRandomSaleRequest(ThreadLocalRandom random) {
+        List<SaleProductRequest> products = new ArrayList<>();
+        for (Long productId : PRODUCT_IDS) {
+            if (random.nextBoolean()) {
+                products.add(new SaleProductRequest(productId, random.nextInt(1, 6)));
+            }
+        }
+        if (products.isEmpty()) {
+            products.add(new SaleProductRequest(PRODUCT_IDS.get(0), 1));
+        }
+
+        SaleRequest saleRequest = new SaleRequest();
+        saleRequest.setCashier("Cashier");
+        saleRequest.setPaymentMethod("paypal");
+        saleRequest.setProducts(products);
+        return saleRequest;
+    }
+
+    private ProductResponse createProductResponse(Long id) {
+        return ProductResponse.builder().id(id).name("Product " + id).price(BigDecimal.TEN).stockQuantity(INITIAL_STOCK).build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "stock-reservation.enabled=true"
+})
+class SaleExportTest extends SaleServiceDataJpaTest {
+
+    private static final int SALE_COUNT = 250;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SaleServiceImpl saleService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 1; i <= SALE_COUNT; i++) {
+            Sale sale = entityManager.persist(Sale.builder()
+                    .cashier("Cashier " + i)
+                    .date(new Date())
+                    .paymentMethod(Payment.CASH)
+                    .total(BigDecimal.TEN)
+                    .totalWithCampaign(BigDecimal.TEN)
+                    .build());
+            entityManager.persist(Product.builder()
+                    .productId((long) i)
+                    .name("Product " + i)
+                    .quantity(1)
+                    .price(BigDecimal.TEN)
+                    .totalPrice(BigDecimal.TEN)
+                    .sale(sale)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testExportSales_WritesOneJsonLinePerSaleInIdOrder() throws IOException {
+        // Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        saleService.exportSales(outputStream);
+
+        // Assert
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(SALE_COUNT, lines.size());
+
+        long previousId = 0;
+        for (String line : lines) {
+            SaleResponse sale = objectMapper.readValue(line, SaleResponse.class);
+            assertTrue(sale.getId() > previousId);
+            assertEquals(1, sale.getProducts().size());
+            previousId = sale.getId();
+        }
+    }
+
+    @Test
+    void testExportSales_FetchesCollectionsPerChunkAndClearsPersistenceContext() throws IOException {
+        // Act
+        saleService.exportSales(new ByteArrayOutputStream());
+
+        // Assert
+        // One cursor query, then the products and campaigns of each chunk of 100 sales
+        long chunks = (SALE_COUNT + 99) / 100;
+        assertTrue(statistics.getPrepareStatementCount() <= 1 + 2 * chunks,
+                "Expected at most " + (1 + 2 * chunks) + " queries but was " + statistics.getPrepareStatementCount());
+        assertEquals(0, entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+}
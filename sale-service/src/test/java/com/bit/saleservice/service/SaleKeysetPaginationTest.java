@@ -0,0 +1,188 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.exception.InvalidCursorException;
+import com.bit.saleservice.wrapper.CursorPageWrapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "stock-reservation.enabled=true"
+})
+class SaleKeysetPaginationTest extends SaleServiceDataJpaTest {
+
+    private static final int SALE_COUNT = 23;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SaleServiceImpl saleService;
+
+    private final List<Sale> sales = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        long now = System.currentTimeMillis();
+        for (int i = 1; i <= SALE_COUNT; i++) {
+            // Totals repeat so that the id has to break ties, and every third sale has no campaign
+            BigDecimal total = BigDecimal.valueOf(i % 5 * 10L);
+            BigDecimal totalWithCampaign = i % 3 == 0 ? null : total;
+            sales.add(entityManager.persist(Sale.builder()
+                    .cashier("Cashier:" + i % 3)
+                    .date(new Date(now - i % 4 * 1000L))
+                    .paymentMethod(Payment.CASH)
+                    .products(Collections.emptyList())
+                    .total(total)
+                    .totalWithCampaign(totalWithCampaign)
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    private List<Long> readAllPages(String sortBy, String direction, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageWrapper<SaleResponse> page = saleService.getAllSalesFilteredAndSortedByCursor(cursor, size, sortBy, direction,
+                    null, null, null, null, null, null, null, false);
+            assertTrue(page.getContent().size() <= size);
+            assertNull(page.getTotalElements());
+            page.getContent().forEach(sale -> ids.add(sale.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    @Test
+    void testCursorPagination_ByDateDescendingWithSalesWithoutCampaign_VisitsEverySaleOnceInOrder() {
+        // Arrange
+        List<Long> expected = sales.stream()
+                .sorted(Comparator.comparing(Sale::getDate).thenComparing(Sale::getId).reversed())
+                .map(Sale::getId)
+                .toList();
+
+        // Act
+        List<Long> ids = readAllPages("date", "DESC", 5);
+
+        // Assert
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    void testCursorPagination_ByNullableTotal_ThrowsInvalidCursorException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> saleService.getAllSalesFilteredAndSortedByCursor(null, 5, "total", "ASC",
+                null, null, null, null, null, null, null, false));
+        assertThrows(InvalidCursorException.class, () -> saleService.getAllSalesFilteredAndSortedByCursor(null, 5, "totalWithCampaign", "DESC",
+                null, null, null, null, null, null, null, false));
+    }
+
+    @Test
+    void testCursorPagination_ByDateAscending_VisitsEverySaleOnceInOrder() {
+        // Arrange
+        List<Long> expected = sales.stream()
+                .sorted(Comparator.comparing(Sale::getDate).thenComparing(Sale::getId))
+                .map(Sale::getId)
+                .toList();
+
+        // Act
+        List<Long> ids = readAllPages("date", "ASC", 4);
+
+        // Assert
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    void testCursorPagination_ByCashierContainingSeparator_VisitsEverySaleOnceInOrder() {
+        // Arrange
+        List<Long> expected = sales.stream()
+                .sorted(Comparator.comparing(Sale::getCashier).thenComparing(Sale::getId))
+                .map(Sale::getId)
+                .toList();
+
+        // Act
+        List<Long> ids = readAllPages("cashier", "ASC", 6);
+
+        // Assert
+        assertEquals(expected, ids);
+    }
+
+    @Test
+    void testCursorPagination_DeepPage_DoesNotCountOrOffset() {
+        // Arrange
+        CursorPageWrapper<SaleResponse> first = saleService.getAllSalesFilteredAndSortedByCursor(null, 20, "id", "ASC",
+                null, null, null, null, null, null, null, false);
+        statistics.clear();
+
+        // Act
+        CursorPageWrapper<SaleResponse> second = saleService.getAllSalesFilteredAndSortedByCursor(first.getNextCursor(), 20, "id", "ASC",
+                null, null, null, null, null, null, null, false);
+
+        // Assert
+        assertEquals(SALE_COUNT - 20, second.getContent().size());
+        assertNull(second.getNextCursor());
+        // The page query and the batched products and campaigns of its sales
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Expected at most 3 queries but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCursorPagination_IncludeTotal_CountsMatchingSales() {
+        // Act
+        CursorPageWrapper<SaleResponse> page = saleService.getAllSalesFilteredAndSortedByCursor(null, 5, "id", "ASC",
+                null, null, BigDecimal.valueOf(30), null, null, null, null, true);
+
+        // Assert
+        assertEquals(sales.stream()
+                        .filter(sale -> sale.getTotalWithCampaign() != null && sale.getTotalWithCampaign().compareTo(BigDecimal.valueOf(30)) >= 0)
+                        .count(),
+                page.getTotalElements());
+    }
+
+    @Test
+    void testCursorPagination_CursorFromDifferentSort_ThrowsInvalidCursorException() {
+        // Arrange
+        String cursor = saleService.getAllSalesFilteredAndSortedByCursor(null, 5, "date", "ASC",
+                null, null, null, null, null, null, null, false).getNextCursor();
+
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> saleService.getAllSalesFilteredAndSortedByCursor(cursor, 5, "cashier", "ASC",
+                null, null, null, null, null, null, null, false));
+    }
+
+    @Test
+    void testCursorPagination_MalformedCursor_ThrowsInvalidCursorException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> saleService.getAllSalesFilteredAndSortedByCursor("not a cursor", 5, "id", "ASC",
+                null, null, null, null, null, null, null, false));
+        assertThrows(InvalidCursorException.class, () -> saleService.getAllSalesFilteredAndSortedByCursor(null, 5, "cash", "ASC",
+                null, null, null, null, null, null, null, false));
+    }
+}
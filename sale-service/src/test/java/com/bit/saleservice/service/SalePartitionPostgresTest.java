@@ -0,0 +1,88 @@
+package com.bit.saleservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the partitioning DDL against PostgreSQL: the tables created by Hibernate are partitioned at startup, and a
+ * back-dated sale that landed in the default partition is moved into its monthly partition and archived with it.
+ * Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "rabbitmq.exchange=exchange",
+        "rabbitmq.routingKey=routing.key",
+        "sale-partitioning.enabled=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SalePartitionService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class SalePartitionPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private SalePartitionService salePartitionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${sale-partitioning.retention-months}")
+    private int retentionMonths;
+
+    @Value("${sale-partitioning.archive-schema}")
+    private String archiveSchema;
+
+    @Test
+    void testInitPartitions_PartitionsSalesAndProducts() {
+        // Assert
+        for (String table : new String[]{"sales", "products"}) {
+            assertEquals("p", jdbcTemplate.queryForObject(
+                    "SELECT c.relkind::text FROM pg_class c WHERE c.oid = ?::regclass", String.class, table));
+            assertTrue(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_class WHERE relname = ?)", Boolean.class, table + "_default"));
+        }
+    }
+
+    @Test
+    void testMaintainPartitions_ArchivesBackDatedRowsOfDefaultPartition() {
+        // Arrange
+        YearMonth month = YearMonth.now().minusMonths(retentionMonths + 2);
+        String date = month.atDay(15) + " 12:00:00";
+        jdbcTemplate.update("INSERT INTO sales (id, cashier, date, cancelled, deleted) VALUES (1, 'Cashier', ?::timestamp, false, false)", date);
+        jdbcTemplate.update("INSERT INTO products (id, name, quantity, sale_date, sale_id, deleted) VALUES (1, 'Product', 1, ?::timestamp, 1, false)", date);
+        assertEquals(1, count("sales_default"));
+
+        // Act
+        salePartitionService.maintainPartitions();
+
+        // Assert
+        assertEquals(0, count("sales_default"));
+        assertEquals(0, count("products_default"));
+        assertEquals(0, count("sales"));
+        assertEquals(0, count("products"));
+        assertEquals(1, count(archiveSchema + ".sales_p" + month.toString().replace("-", "")));
+        assertEquals(1, count(archiveSchema + ".products_p" + month.toString().replace("-", "")));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+}
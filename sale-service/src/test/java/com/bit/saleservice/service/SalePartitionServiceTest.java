@@ -0,0 +1,184 @@
+package com.bit.saleservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalePartitionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private SalePartitionService salePartitionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(salePartitionService, "ENABLED", true);
+        ReflectionTestUtils.setField(salePartitionService, "MONTHS_AHEAD", 3);
+        ReflectionTestUtils.setField(salePartitionService, "RETENTION_MONTHS", 24);
+        ReflectionTestUtils.setField(salePartitionService, "ARCHIVE_SCHEMA", "sale_archive");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void testCreatePartitions_CreatesMonthlyPartitionsOfBothTables() {
+        // Act
+        salePartitionService.createPartitions(YearMonth.of(2026, 12), YearMonth.of(2027, 1));
+
+        // Assert
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS sales_p202612 PARTITION OF sales FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS sales_p202701 PARTITION OF sales FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS products_p202612 PARTITION OF products FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS products_p202701 PARTITION OF products FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+    }
+
+    @Test
+    void testCreatePartitions_ContinuesWhenPartitionCannotBeCreated() {
+        // Arrange
+        doThrow(new DataIntegrityViolationException("default partition holds rows"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS products_p202612"));
+
+        // Act
+        salePartitionService.createPartitions(YearMonth.of(2026, 12), YearMonth.of(2027, 1));
+
+        // Assert
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS products_p202701"));
+        verify(jdbcTemplate, times(2)).execute(startsWith("CREATE TABLE IF NOT EXISTS sales_p"));
+    }
+
+    @Test
+    void testDrainDefaultPartitions_MovesRowsIntoPartitionOfTheirMonth() {
+        // Arrange
+        runTransactionsInline();
+        when(jdbcTemplate.queryForList(contains("FROM sales_default"), eq(LocalDate.class)))
+                .thenReturn(List.of(LocalDate.of(2023, 5, 1)));
+        when(jdbcTemplate.queryForList(contains("FROM products_default"), eq(LocalDate.class)))
+                .thenReturn(List.of());
+
+        // Act
+        salePartitionService.drainDefaultPartitions();
+
+        // Assert
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("CREATE TEMPORARY TABLE sales_moved (LIKE sales) ON COMMIT DROP");
+        inOrder.verify(jdbcTemplate).execute("WITH moved AS (DELETE FROM sales_default WHERE date >= '2023-05-01' AND date < '2023-06-01' RETURNING *) INSERT INTO sales_moved SELECT * FROM moved");
+        inOrder.verify(jdbcTemplate).execute("CREATE TABLE sales_p202305 PARTITION OF sales FOR VALUES FROM ('2023-05-01') TO ('2023-06-01')");
+        inOrder.verify(jdbcTemplate).execute("INSERT INTO sales SELECT * FROM sales_moved");
+        verify(jdbcTemplate, never()).execute(contains("products_moved"));
+    }
+
+    @Test
+    void testArchivePartitions_MovesPartitionsBeforeHorizonToArchiveSchema() {
+        // Arrange
+        runTransactionsInline();
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("products")))
+                .thenReturn(List.of("products_p202409", "products_p202410", "products_default"));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("sales")))
+                .thenReturn(List.of("sales_p202409", "sales_p202410", "sales_default"));
+
+        // Act
+        salePartitionService.archivePartitions(YearMonth.of(2024, 10));
+
+        // Assert
+        verify(jdbcTemplate).execute("CREATE SCHEMA IF NOT EXISTS sale_archive");
+        verify(jdbcTemplate).execute("ALTER TABLE products DETACH PARTITION products_p202409");
+        verify(jdbcTemplate).execute("ALTER TABLE products_p202409 SET SCHEMA sale_archive");
+        verify(jdbcTemplate).execute("ALTER TABLE sales DETACH PARTITION sales_p202409");
+        verify(jdbcTemplate).execute("ALTER TABLE sales_p202409 SET SCHEMA sale_archive");
+        verify(jdbcTemplate, times(2)).execute(contains("DETACH PARTITION"));
+    }
+
+    @Test
+    void testInitPartitions_LeavesPartitionedTablesAsTheyAre() {
+        // Arrange
+        runTransactionsInline();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT c.relkind"), eq(String.class), anyString())).thenReturn("p");
+
+        // Act
+        salePartitionService.initPartitions();
+
+        // Assert
+        verify(jdbcTemplate, never()).execute(contains("RENAME TO"));
+        verify(jdbcTemplate, times(10)).execute(startsWith("CREATE TABLE IF NOT EXISTS"));
+    }
+
+    @Test
+    void testInitPartitions_PartitionsEmptyTables() {
+        // Arrange
+        runTransactionsInline();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT c.relkind"), eq(String.class), anyString())).thenReturn("r");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+        when(jdbcTemplate.queryForList(startsWith("SELECT pg_get_indexdef"), eq(String.class), anyString()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("CREATE INDEX idx_sales_cashier_trgm ON public.sales USING gin (lower((cashier)::text) gin_trgm_ops)"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT format"), eq(String.class), anyString()))
+                .thenReturn(List.of())
+                .thenReturn(List.of("ALTER TABLE sale_campaigns DROP CONSTRAINT fk_sale"));
+
+        // Act
+        salePartitionService.initPartitions();
+
+        // Assert
+        verify(jdbcTemplate).execute("ALTER TABLE sale_campaigns DROP CONSTRAINT fk_sale");
+        verify(jdbcTemplate).execute("CREATE TABLE sales (LIKE sales_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (date)");
+        verify(jdbcTemplate).execute("ALTER TABLE sales ADD PRIMARY KEY (id, date)");
+        verify(jdbcTemplate).execute("ALTER TABLE products ADD PRIMARY KEY (id, sale_date)");
+        verify(jdbcTemplate).execute("CREATE TABLE sales_default PARTITION OF sales DEFAULT");
+        verify(jdbcTemplate).execute("CREATE INDEX idx_sales_cashier_trgm ON public.sales USING gin (lower((cashier)::text) gin_trgm_ops)");
+    }
+
+    @Test
+    void testInitPartitions_SkipsTablesHoldingRows() {
+        // Arrange
+        runTransactionsInline();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT c.relkind"), eq(String.class), anyString())).thenReturn("r");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+
+        // Act
+        salePartitionService.initPartitions();
+
+        // Assert
+        verify(jdbcTemplate, never()).execute(contains("RENAME TO"));
+    }
+
+    @Test
+    void testInitPartitions_DoesNothingWhenDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(salePartitionService, "ENABLED", false);
+
+        // Act
+        salePartitionService.initPartitions();
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+}
@@ -0,0 +1,104 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.wrapper.PageWrapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "stock-reservation.enabled=true"
+})
+class SaleReadQueryCountTest extends SaleServiceDataJpaTest {
+
+    private static final int SALE_COUNT = 30;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SaleServiceImpl saleService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Campaign campaign = entityManager.persist(Campaign.builder()
+                .name("Campaign")
+                .expiration(new Date())
+                .build());
+
+        for (int i = 1; i <= SALE_COUNT; i++) {
+            Sale sale = entityManager.persist(Sale.builder()
+                    .cashier("Cashier " + i)
+                    .date(new Date())
+                    .paymentMethod(Payment.CASH)
+                    .campaigns(List.of(campaign))
+                    .total(BigDecimal.TEN)
+                    .totalWithCampaign(BigDecimal.TEN)
+                    .build());
+            for (int j = 1; j <= 2; j++) {
+                entityManager.persist(Product.builder()
+                        .productId((long) j)
+                        .name("Product " + j)
+                        .quantity(1)
+                        .price(BigDecimal.valueOf(5))
+                        .totalPrice(BigDecimal.valueOf(5))
+                        .sale(sale)
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetAllSalesFilteredAndSorted_IssuesBoundedQueriesPerPage() {
+        // Act
+        PageWrapper<SaleResponse> page = saleService.getAllSalesFilteredAndSorted(0, 20, "id", "ASC",
+                null, null, null, null, null, null, null);
+
+        // Assert
+        assertEquals(20, page.getContent().size());
+        assertEquals(2, page.getContent().get(0).getProducts().size());
+        assertEquals(List.of("Campaign"), page.getContent().get(0).getCampaignNames());
+        // Page, count, products and campaigns
+        assertTrue(statistics.getPrepareStatementCount() <= 4,
+                "Expected at most 4 queries but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testGetAllSales_IssuesBoundedQueries() {
+        // Act
+        List<SaleResponse> sales = saleService.getAllSales();
+
+        // Assert
+        assertEquals(SALE_COUNT, sales.size());
+        assertTrue(sales.stream().allMatch(sale -> sale.getProducts().size() == 2));
+        // Sales, products and campaigns
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Expected at most 3 queries but was " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,35 @@
+package com.bit.saleservice.service;
+
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.jakarta.persistence.schema-generation.create-source=metadata",
+        "rabbitmq.exchange=exchange",
+        "rabbitmq.routingKey=routing.key",
+        "gateway.fan-out.product-lookup=false"
+})
+@AutoConfigureJson
+@Import(SaleServiceImpl.class)
+abstract class SaleServiceDataJpaTest {
+
+    @MockBean
+    protected CampaignProcessService campaignProcessService;
+
+    @MockBean
+    protected GatewayService gatewayService;
+
+    @MockBean
+    protected FanOutService fanOutService;
+
+    @MockBean
+    protected ProductCacheService productCacheService;
+
+    @MockBean
+    protected OutboxService outboxService;
+
+    @MockBean
+    protected SalesRollupService salesRollupService;
+}
@@ -6,25 +6,33 @@ import com.bit.saleservice.exception.*;
 import com.bit.saleservice.repository.ProductRepository;
 import com.bit.saleservice.repository.SaleRepository;
 import com.bit.saleservice.wrapper.PageWrapper;
+import com.bit.saleservice.wrapper.ProductStockReduceBatch;
 import com.bit.saleservice.wrapper.ProductStockReduceRequest;
+import com.bit.saleservice.wrapper.ProductStockReturnRequest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.AmqpException;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,11 +54,23 @@ class SaleServiceImplTest {
     private CampaignProcessService campaignProcessService;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private OutboxService outboxService;
+
+    @Mock
+    private SalesRollupService salesRollupService;
 
     @Mock
     private GatewayService gatewayService;
 
+    @Mock
+    private FanOutService fanOutService;
+
+    @Mock
+    private ProductCacheService productCacheService;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
 
     @Test
     void testGetSale_ExistingSale_ReturnsSaleResponse() {
@@ -85,7 +105,7 @@ class SaleServiceImplTest {
     void testGetAllSales_ReturnsListSaleResponse() {
         // Arrange
         List<Sale> sales = new ArrayList<>();
-        when(saleRepository.findAll()).thenReturn(sales);
+        when(saleRepository.findAllByStatus(SaleStatus.COMPLETED)).thenReturn(sales);
 
         // Act
         List<SaleResponse> saleResponses = saleService.getAllSales();
@@ -140,13 +160,261 @@ class SaleServiceImplTest {
         SaleRequest saleRequest = new SaleRequest();
         saleRequest.setProducts(List.of(new SaleProductRequest()));
         saleRequest.setPaymentMethod("paypal");
-        when(saleRepository.save(any())).thenReturn(new Sale());
+        when(saleRepository.saveAndFlush(any())).thenReturn(new Sale());
 
         // Act
         SaleResponse saleResponse = saleService.createSale(saleRequest);
 
         // Assert
         assertEquals(saleRequest.getCashier(), saleResponse.getCashier());
+        verify(salesRollupService).addSale(any(Sale.class), anyList());
+    }
+
+    @Test
+    void testCreateSale_StockReservationEnabled_CommitsReservation() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        SaleRequest saleRequest = new SaleRequest();
+        saleRequest.setProducts(List.of(new SaleProductRequest(1L, 2)));
+        saleRequest.setPaymentMethod("paypal");
+        ProductResponse productResponse = ProductResponse.builder().id(1L).price(BigDecimal.TEN).build();
+        StockReservationResponse stockReservation = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(productResponse))
+                .build();
+        when(gatewayService.reserveProducts(anyList())).thenReturn(stockReservation);
+
+        // Act
+        SaleResponse saleResponse = saleService.createSale(saleRequest);
+
+        // Assert
+        assertEquals(new BigDecimal("20.00"), saleResponse.getTotal());
+        verify(gatewayService).commitReservation("reservation");
+        verify(gatewayService, never()).releaseReservation(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testCreateSale_CashSaleWithoutCampaign_ReturnsChangeAgainstTotal() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        SaleRequest saleRequest = new SaleRequest();
+        saleRequest.setProducts(List.of(new SaleProductRequest(1L, 2)));
+        saleRequest.setPaymentMethod("cash");
+        saleRequest.setCash(BigDecimal.valueOf(50));
+        ProductResponse productResponse = ProductResponse.builder().id(1L).price(BigDecimal.TEN).build();
+        StockReservationResponse stockReservation = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(productResponse))
+                .build();
+        when(gatewayService.reserveProducts(anyList())).thenReturn(stockReservation);
+
+        // Act
+        SaleResponse saleResponse = saleService.createSale(saleRequest);
+
+        // Assert
+        assertNull(saleResponse.getTotalWithCampaign());
+        assertEquals(new BigDecimal("30.00"), saleResponse.getChange());
+        verify(gatewayService).commitReservation("reservation");
+    }
+
+    @Test
+    void testCreateSale_StockReservationEnabled_ReleasesReservationOnFailure() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        SaleRequest saleRequest = new SaleRequest();
+        saleRequest.setProducts(List.of(new SaleProductRequest(1L, 2)));
+        saleRequest.setPaymentMethod("cash");
+        ProductResponse productResponse = ProductResponse.builder().id(1L).price(BigDecimal.TEN).build();
+        StockReservationResponse stockReservation = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(productResponse))
+                .build();
+        when(gatewayService.reserveProducts(anyList())).thenReturn(stockReservation);
+
+        // Act & Assert
+        assertThrows(CashNotProvidedException.class, () -> saleService.createSale(saleRequest));
+        verify(gatewayService).releaseReservation("reservation");
+        verify(gatewayService, never()).commitReservation(any());
+    }
+
+    @Test
+    void testCreateSaleFromCart_UsesPricesAndCampaignsOfCart() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        CartResponse cart = createCart();
+        Campaign campaign = Campaign.builder().id(1L).build();
+        when(gatewayService.reserveProducts(anyList()))
+                .thenReturn(StockReservationResponse.builder().reservationId("reservation").products(List.of()).build());
+        when(campaignProcessService.getCampaigns(List.of(1L))).thenReturn(List.of(campaign));
+        CartCheckoutRequest cartCheckoutRequest = CartCheckoutRequest.builder()
+                .paymentMethod("cash").cash(BigDecimal.valueOf(100)).build();
+
+        // Act
+        SaleResponse saleResponse = saleService.createSaleFromCart(cart, cartCheckoutRequest);
+
+        // Assert
+        assertEquals("Cashier", saleResponse.getCashier());
+        assertEquals(BigDecimal.valueOf(30), saleResponse.getTotal());
+        assertEquals(BigDecimal.valueOf(20), saleResponse.getTotalWithCampaign());
+        assertEquals(new BigDecimal("80.00"), saleResponse.getChange());
+        assertEquals(BigDecimal.valueOf(20), saleResponse.getProducts().get(0).getTotalPrice());
+        verify(gatewayService).reserveProducts(List.of(new ProductStockReduceRequest(1L, 3)));
+        verify(gatewayService).commitReservation("reservation");
+        verifyNoInteractions(productCacheService);
+        verify(campaignProcessService, never()).processCampaigns(any());
+    }
+
+    @Test
+    void testCreateSaleFromCart_InsufficientCash_ReleasesReservation() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        when(gatewayService.reserveProducts(anyList()))
+                .thenReturn(StockReservationResponse.builder().reservationId("reservation").products(List.of()).build());
+        CartCheckoutRequest cartCheckoutRequest = CartCheckoutRequest.builder()
+                .paymentMethod("cash").cash(BigDecimal.TEN).build();
+
+        // Act & Assert
+        assertThrows(InsufficientCashException.class, () -> saleService.createSaleFromCart(createCart(), cartCheckoutRequest));
+        verify(gatewayService).releaseReservation("reservation");
+        verify(saleRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testCreatePendingSale_SavesPendingSaleWithoutTouchingStocks() {
+        // Arrange
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(1L, 2));
+
+        // Act
+        SaleResponse saleResponse = saleService.createPendingSale(saleRequest);
+
+        // Assert
+        assertEquals("PENDING", saleResponse.getStatus());
+        assertEquals("Cashier", saleResponse.getCashier());
+        verify(saleRepository).save(argThat(sale -> sale.getStatus() == SaleStatus.PENDING));
+        verifyNoInteractions(gatewayService, productCacheService, outboxService, salesRollupService);
+    }
+
+    @Test
+    void testCompletePendingSale_PendingSale_CompletesSaleAndCommitsReservation() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        Sale pendingSale = Sale.builder().id(1L).cashier("Cashier").paymentMethod(Payment.PAYPAL)
+                .products(new ArrayList<>()).status(SaleStatus.PENDING).build();
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(pendingSale));
+        StockReservationResponse stockReservation = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(ProductResponse.builder().id(1L).price(BigDecimal.TEN).build()))
+                .build();
+        when(gatewayService.reserveProducts(anyList())).thenReturn(stockReservation);
+        PricedSale pricedSale = saleService.priceSale(createPaypalSaleRequest(new SaleProductRequest(1L, 2)));
+
+        // Act
+        SaleResponse saleResponse = saleService.completePendingSale(1L, pricedSale);
+
+        // Assert
+        assertEquals("COMPLETED", saleResponse.getStatus());
+        assertEquals(new BigDecimal("20.00"), saleResponse.getTotal());
+        verify(saleRepository).saveAndFlush(pendingSale);
+        verify(salesRollupService).addSale(eq(pendingSale), anyList());
+        verify(gatewayService).commitReservation("reservation");
+    }
+
+    @Test
+    void testPriceSale_WithProductDetails_PricesWithoutFetchingOrReserving() {
+        // Arrange
+        Map<Long, ProductResponse> productResponses = Map.of(1L, ProductResponse.builder().id(1L).price(BigDecimal.TEN).build());
+
+        // Act
+        PricedSale pricedSale = saleService.priceSale(createPaypalSaleRequest(new SaleProductRequest(1L, 2)), productResponses, new Date());
+
+        // Assert
+        assertEquals(new BigDecimal("20.00"), pricedSale.getTotal());
+        assertNull(pricedSale.getStockReservation());
+        verifyNoInteractions(gatewayService, productCacheService);
+    }
+
+    @Test
+    void testPriceSale_WithProductDetailsMissingProduct_ThrowsProductNotFoundException() {
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class,
+                () -> saleService.priceSale(createPaypalSaleRequest(new SaleProductRequest(1L, 2)), Map.of(), new Date()));
+    }
+
+    @Test
+    void testPriceSale_WithProductDetailsAndCampaigns_ChecksCampaignsAgainstSaleDate() {
+        // Arrange
+        Date saleDate = new Date(System.currentTimeMillis() - 3_600_000);
+        Map<Long, ProductResponse> productResponses = Map.of(1L, ProductResponse.builder().id(1L).price(BigDecimal.TEN).build());
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(1L, 2));
+        saleRequest.setCampaignIds(List.of(1L));
+        when(campaignProcessService.processCampaigns(any(CampaignProcessRequest.class))).thenAnswer(invocation -> {
+            CampaignProcessRequest request = invocation.getArgument(0);
+            return new CampaignProcessResponse(request.getProducts(), request.getTotal());
+        });
+
+        // Act
+        saleService.priceSale(saleRequest, productResponses, saleDate);
+
+        // Assert
+        verify(campaignProcessService).processCampaigns(argThat(request -> saleDate.equals(request.getSaleDate())));
+    }
+
+    @Test
+    void testCompletePendingSale_FailedSale_ReleasesReservationAndThrowsInvalidSaleStatusException() throws HeaderProcessingException {
+        // Arrange
+        Sale failedSale = Sale.builder().id(1L).paymentMethod(Payment.PAYPAL).status(SaleStatus.FAILED).build();
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(failedSale));
+        StockReservationResponse stockReservation = StockReservationResponse.builder().reservationId("reservation").build();
+        PricedSale pricedSale = new PricedSale(Payment.PAYPAL, List.of(), null, BigDecimal.TEN, null, null, null, null, stockReservation);
+
+        // Act & Assert
+        assertThrows(InvalidSaleStatusException.class, () -> saleService.completePendingSale(1L, pricedSale));
+        verify(gatewayService).releaseReservation("reservation");
+        verify(saleRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testFailPendingSale_PendingSale_StoresFailureReason() {
+        // Arrange
+        Sale pendingSale = Sale.builder().id(1L).paymentMethod(Payment.PAYPAL)
+                .products(new ArrayList<>()).status(SaleStatus.PENDING).build();
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(pendingSale));
+
+        // Act
+        SaleResponse saleResponse = saleService.failPendingSale(1L, "Product out of stock");
+
+        // Assert
+        assertEquals("FAILED", saleResponse.getStatus());
+        assertEquals("Product out of stock", saleResponse.getFailureReason());
+        verify(saleRepository).save(pendingSale);
+    }
+
+    @Test
+    void testUpdateSale_PendingSale_ThrowsInvalidSaleStatusException() throws HeaderProcessingException {
+        // Arrange
+        Sale pendingSale = Sale.builder().id(1L).paymentMethod(Payment.PAYPAL).status(SaleStatus.PENDING).build();
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(pendingSale));
+
+        // Act & Assert
+        assertThrows(InvalidSaleStatusException.class,
+                () -> saleService.updateSale(1L, createPaypalSaleRequest(new SaleProductRequest(1L, 1))));
+        verifyNoInteractions(gatewayService, outboxService);
+    }
+
+    @Test
+    void testUpdateSale_CancelledSale_ThrowsInvalidSaleStatusException() {
+        // Arrange
+        Sale cancelledSale = createSaleWithProducts(createSaleProduct(1L, 2));
+        cancelledSale.setCancelled(true);
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(cancelledSale));
+
+        // Act & Assert
+        InvalidSaleStatusException exception = assertThrows(InvalidSaleStatusException.class,
+                () -> saleService.updateSale(1L, createPaypalSaleRequest(new SaleProductRequest(1L, 3))));
+        assertEquals("Sale is cancelled with id: 1", exception.getMessage());
+        verify(saleRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(gatewayService, outboxService, salesRollupService);
     }
 
     @Test
@@ -166,16 +434,127 @@ class SaleServiceImplTest {
         existingSale.setPaymentMethod(Payment.PAYPAL);
         Product product = new Product();
         product.setId(id);
+        product.setProductId(id);
         product.setQuantity(1);
         existingSale.setProducts(List.of(product));
         when(saleRepository.findById(id)).thenReturn(Optional.of(existingSale));
+        when(productCacheService.getProducts(List.of(id)))
+                .thenReturn(Map.of(id, ProductResponse.builder().id(id).price(BigDecimal.TEN).stockQuantity(0).build()));
 
         // Act
         SaleResponse saleResponse = saleService.updateSale(id, saleRequest);
 
         // Assert
         assertEquals("New Cashier", saleResponse.getCashier());
-        verify(saleRepository).save(existingSale);
+        verify(saleRepository).saveAndFlush(existingSale);
+        verify(saleRepository).deleteProductsForSale(id);
+        verify(productRepository, never()).deleteAllBySaleId(id);
+        InOrder inOrder = inOrder(salesRollupService);
+        inOrder.verify(salesRollupService).removeSale(existingSale, List.of(product));
+        inOrder.verify(salesRollupService).addSale(eq(existingSale), anyList());
+    }
+
+    @Test
+    void testUpdateSale_UnchangedQuantities_DoesNotTouchStocks() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        Sale existingSale = createSaleWithProducts(createSaleProduct(1L, 2), createSaleProduct(2L, 3));
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(2L, 3), new SaleProductRequest(1L, 2));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(existingSale));
+        when(productCacheService.getProducts(List.of(2L, 1L))).thenReturn(Map.of(
+                1L, ProductResponse.builder().id(1L).price(BigDecimal.TEN).stockQuantity(0).build(),
+                2L, ProductResponse.builder().id(2L).price(BigDecimal.ONE).stockQuantity(0).build()));
+
+        // Act
+        SaleResponse saleResponse = saleService.updateSale(1L, saleRequest);
+
+        // Assert
+        assertEquals(new BigDecimal("23.00"), saleResponse.getTotal());
+        verifyNoInteractions(gatewayService, outboxService);
+    }
+
+    @Test
+    void testUpdateSale_ChangedQuantities_QueuesOnlyNetAdjustmentsInOneMessage() throws HeaderProcessingException {
+        // Arrange
+        Sale existingSale = createSaleWithProducts(createSaleProduct(1L, 2), createSaleProduct(2L, 3), createSaleProduct(4L, 1));
+        SaleRequest saleRequest = createPaypalSaleRequest(
+                new SaleProductRequest(1L, 5), new SaleProductRequest(3L, 1), new SaleProductRequest(4L, 1));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(existingSale));
+        when(productCacheService.getProducts(List.of(1L, 3L, 4L))).thenReturn(Map.of(
+                1L, ProductResponse.builder().id(1L).price(BigDecimal.TEN).stockQuantity(3).build(),
+                3L, ProductResponse.builder().id(3L).price(BigDecimal.ONE).stockQuantity(1).build(),
+                4L, ProductResponse.builder().id(4L).price(BigDecimal.ONE).stockQuantity(0).build()));
+
+        // Act
+        saleService.updateSale(1L, saleRequest);
+
+        // Assert
+        ArgumentCaptor<ProductStockReduceBatch> captor = ArgumentCaptor.forClass(ProductStockReduceBatch.class);
+        verify(outboxService).enqueue(any(), any(), captor.capture());
+        assertEquals(List.of(new ProductStockReduceRequest(1L, 3), new ProductStockReduceRequest(3L, 1),
+                new ProductStockReduceRequest(2L, -3)), captor.getValue().getRequests());
+        verifyNoInteractions(gatewayService);
+    }
+
+    @Test
+    void testUpdateSale_IncreaseExceedsStock_ThrowsProductOutOfStockException() throws HeaderProcessingException {
+        // Arrange
+        Sale existingSale = createSaleWithProducts(createSaleProduct(1L, 2));
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(1L, 5));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(existingSale));
+        when(productCacheService.getProducts(List.of(1L)))
+                .thenReturn(Map.of(1L, ProductResponse.builder().id(1L).price(BigDecimal.TEN).stockQuantity(2).build()));
+
+        // Act & Assert
+        assertThrows(ProductOutOfStockException.class, () -> saleService.updateSale(1L, saleRequest));
+        verifyNoInteractions(outboxService, gatewayService);
+    }
+
+    @Test
+    void testUpdateSale_StockReservationEnabled_ReservesAndCommitsOnlyNetAdjustments() throws HeaderProcessingException, ProductReturnException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        Sale existingSale = createSaleWithProducts(createSaleProduct(1L, 2), createSaleProduct(2L, 3));
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(1L, 1), new SaleProductRequest(2L, 3));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(existingSale));
+        StockReservationResponse stockReservation = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(ProductResponse.builder().id(1L).price(BigDecimal.TEN).build()))
+                .build();
+        when(gatewayService.reserveStockAdjustments(List.of(new ProductStockReduceRequest(1L, -1)))).thenReturn(stockReservation);
+        when(productCacheService.getProducts(List.of(2L)))
+                .thenReturn(Map.of(2L, ProductResponse.builder().id(2L).price(BigDecimal.ONE).build()));
+
+        // Act
+        SaleResponse saleResponse = saleService.updateSale(1L, saleRequest);
+
+        // Assert
+        assertEquals(new BigDecimal("13.00"), saleResponse.getTotal());
+        verify(gatewayService).commitReservation("reservation");
+        verify(gatewayService, never()).returnProducts(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testUpdateSale_StockReservationEnabled_ReleasesReservationOnFailure() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        Sale existingSale = createSaleWithProducts(createSaleProduct(1L, 2));
+        existingSale.setPaymentMethod(Payment.CASH);
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(1L, 3));
+        saleRequest.setPaymentMethod("cash");
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(existingSale));
+        StockReservationResponse stockReservation = StockReservationResponse.builder()
+                .reservationId("reservation")
+                .products(List.of(ProductResponse.builder().id(1L).price(BigDecimal.TEN).build()))
+                .build();
+        when(gatewayService.reserveStockAdjustments(anyList())).thenReturn(stockReservation);
+
+        // Act & Assert
+        assertThrows(CashNotProvidedException.class, () -> saleService.updateSale(1L, saleRequest));
+        verify(gatewayService).releaseReservation("reservation");
+        verify(gatewayService, never()).commitReservation(any());
+        verifyNoInteractions(outboxService);
     }
 
     @Test
@@ -220,7 +599,105 @@ class SaleServiceImplTest {
         saleService.cancelSale(id);
 
         // Assert
-        verify(saleRepository).save(existingSale);
+        assertTrue(existingSale.isCancelled());
+        verify(saleRepository).saveAndFlush(existingSale);
+        verify(salesRollupService).removeSale(existingSale, List.of(product));
+    }
+
+    @Test
+    void testCancelSale_AlreadyCancelledSale_DoesNotReturnProductsAgain() {
+        // Arrange
+        Long id = 1L;
+        Sale existingSale = Sale.builder().cancelled(true).products(List.of(createSaleProduct(1L, 2))).build();
+        when(saleRepository.findById(id)).thenReturn(Optional.of(existingSale));
+
+        // Act
+        saleService.cancelSale(id);
+
+        // Assert
+        verify(saleRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(salesRollupService, gatewayService);
+    }
+
+    @Test
+    void testCancelSale_ConcurrentlyChangedSale_RetriesOnLatestVersion() throws HeaderProcessingException, ProductReturnException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "CONFLICT_MAX_ATTEMPTS", 3);
+        ReflectionTestUtils.setField(saleService, "CONFLICT_BACKOFF", Duration.ZERO);
+        Sale staleSale = createSaleWithProducts(createSaleProduct(1L, 2));
+        Sale latestSale = createSaleWithProducts(createSaleProduct(1L, 1));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(staleSale), Optional.of(latestSale));
+        when(saleRepository.saveAndFlush(staleSale)).thenThrow(new ObjectOptimisticLockingFailureException(Sale.class, 1L));
+
+        // Act
+        saleService.cancelSale(1L);
+
+        // Assert
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(gatewayService, times(1)).returnProducts(List.of(new ProductStockReturnRequest(1L, 1)));
+        assertTrue(latestSale.isCancelled());
+    }
+
+    @Test
+    void testUpdateSale_ConcurrentlyChangedSale_ReleasesReservationAndRetries() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "STOCK_RESERVATION", true);
+        ReflectionTestUtils.setField(saleService, "CONFLICT_MAX_ATTEMPTS", 3);
+        ReflectionTestUtils.setField(saleService, "CONFLICT_BACKOFF", Duration.ZERO);
+        Sale staleSale = createSaleWithProducts(createSaleProduct(1L, 1));
+        Sale latestSale = createSaleWithProducts(createSaleProduct(1L, 2));
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(1L, 3));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(staleSale), Optional.of(latestSale));
+        when(saleRepository.saveAndFlush(staleSale)).thenThrow(new ObjectOptimisticLockingFailureException(Sale.class, 1L));
+        List<ProductResponse> products = List.of(ProductResponse.builder().id(1L).price(BigDecimal.TEN).build());
+        when(gatewayService.reserveStockAdjustments(List.of(new ProductStockReduceRequest(1L, 2))))
+                .thenReturn(StockReservationResponse.builder().reservationId("stale").products(products).build());
+        when(gatewayService.reserveStockAdjustments(List.of(new ProductStockReduceRequest(1L, 1))))
+                .thenReturn(StockReservationResponse.builder().reservationId("latest").products(products).build());
+
+        // Act
+        SaleResponse saleResponse = saleService.updateSale(1L, saleRequest);
+
+        // Assert
+        assertEquals(new BigDecimal("30.00"), saleResponse.getTotal());
+        verify(gatewayService).releaseReservation("stale");
+        verify(gatewayService, never()).commitReservation("stale");
+        verify(gatewayService).commitReservation("latest");
+    }
+
+    @Test
+    void testUpdateSale_StillConflictingAfterLastAttempt_ThrowsSaleUpdateConflictException() throws HeaderProcessingException {
+        // Arrange
+        ReflectionTestUtils.setField(saleService, "CONFLICT_MAX_ATTEMPTS", 2);
+        ReflectionTestUtils.setField(saleService, "CONFLICT_BACKOFF", Duration.ZERO);
+        Sale existingSale = createSaleWithProducts(createSaleProduct(1L, 1));
+        SaleRequest saleRequest = createPaypalSaleRequest(new SaleProductRequest(1L, 1));
+        when(saleRepository.findById(1L)).thenReturn(Optional.of(existingSale));
+        when(productCacheService.getProducts(List.of(1L)))
+                .thenReturn(Map.of(1L, ProductResponse.builder().id(1L).price(BigDecimal.TEN).build()));
+        when(saleRepository.saveAndFlush(existingSale)).thenThrow(new ObjectOptimisticLockingFailureException(Sale.class, 1L));
+
+        // Act & Assert
+        assertThrows(SaleUpdateConflictException.class, () -> saleService.updateSale(1L, saleRequest));
+        verify(saleRepository, times(2)).findById(1L);
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testCancelSale_MultipleProducts_ReturnsProductsInSingleRequest() throws HeaderProcessingException, ProductReturnException {
+        // Arrange
+        Long id = 1L;
+        Sale existingSale = new Sale();
+        Product product1 = Product.builder().productId(1L).quantity(2).build();
+        Product product2 = Product.builder().productId(2L).quantity(3).build();
+        existingSale.setProducts(List.of(product1, product2));
+        when(saleRepository.findById(id)).thenReturn(Optional.of(existingSale));
+
+        // Act
+        saleService.cancelSale(id);
+
+        // Assert
+        verify(gatewayService, times(1)).returnProducts(List.of(new ProductStockReturnRequest(1L, 2), new ProductStockReturnRequest(2L, 3)));
     }
 
     @Test
@@ -259,6 +736,37 @@ class SaleServiceImplTest {
         verify(saleRepository).deleteById(id);
     }
 
+    @Test
+    void testDeleteSale_CompletedSale_RemovesSaleFromRollups() {
+        // Arrange
+        Long id = 1L;
+        Product product = Product.builder().build();
+        Sale existingSale = Sale.builder().id(id).products(List.of(product)).build();
+        when(saleRepository.findById(id)).thenReturn(Optional.of(existingSale));
+
+        // Act
+        saleService.deleteSale(id);
+
+        // Assert
+        verify(salesRollupService).removeSale(existingSale, List.of(product));
+        verify(saleRepository).deleteById(id);
+    }
+
+    @Test
+    void testDeleteSale_CancelledSale_LeavesRollups() {
+        // Arrange
+        Long id = 1L;
+        Sale existingSale = Sale.builder().id(id).cancelled(true).products(List.of()).build();
+        when(saleRepository.findById(id)).thenReturn(Optional.of(existingSale));
+
+        // Act
+        saleService.deleteSale(id);
+
+        // Assert
+        verifyNoInteractions(salesRollupService);
+        verify(saleRepository).deleteById(id);
+    }
+
     @Test
     void testDeleteSale_NonExistingSale_ThrowsSaleNotFoundException() {
         // Arrange
@@ -273,12 +781,15 @@ class SaleServiceImplTest {
     void testDeleteSalePermanently_ExistingSale_DeletesSalePermanently() {
         // Arrange
         Long id = 1L;
-        when(saleRepository.existsById(id)).thenReturn(true);
+        Product product = Product.builder().build();
+        Sale existingSale = Sale.builder().id(id).products(List.of(product)).build();
+        when(saleRepository.findById(id)).thenReturn(Optional.of(existingSale));
 
         // Act
         saleService.deleteSalePermanently(id);
 
         // Assert
+        verify(salesRollupService).removeSale(existingSale, List.of(product));
         verify(saleRepository).deletePermanently(id);
     }
 
@@ -307,7 +818,7 @@ class SaleServiceImplTest {
         when(campaignProcessService.getCampaigns(any(List.class))).thenReturn(List.of(new Campaign()));
 
         // Act
-        CampaignProcessResult result = saleService.processCampaigns(campaignIds, products, total);
+        CampaignProcessResult result = saleService.processCampaigns(campaignIds, products, total, null);
 
         // Assert
         assertNotNull(result);
@@ -322,33 +833,49 @@ class SaleServiceImplTest {
     void processCashPayment_shouldReturnChange_whenCashIsSufficient() {
         // Arrange
         BigDecimal cash = BigDecimal.valueOf(150);
+        BigDecimal total = BigDecimal.valueOf(120);
         BigDecimal totalWithCampaign = BigDecimal.valueOf(100);
 
         // Act
-        BigDecimal change = saleService.processCashPayment(cash, totalWithCampaign);
+        BigDecimal change = saleService.processCashPayment(cash, total, totalWithCampaign);
 
         // Assert
-        assertEquals(BigDecimal.valueOf(50), change);
+        assertEquals(new BigDecimal("50.00"), change);
     }
 
     @Test
     void processCashPayment_shouldThrowException_whenCashIsNotProvided() {
         // Arrange
         BigDecimal cash = null;
+        BigDecimal total = BigDecimal.valueOf(120);
         BigDecimal totalWithCampaign = BigDecimal.valueOf(100);
 
         // Act & Assert
-        assertThrows(CashNotProvidedException.class, () -> saleService.processCashPayment(cash, totalWithCampaign));
+        assertThrows(CashNotProvidedException.class, () -> saleService.processCashPayment(cash, total, totalWithCampaign));
     }
 
     @Test
     void processCashPayment_shouldThrowException_whenCashIsInsufficient() {
         // Arrange
         BigDecimal cash = BigDecimal.valueOf(50);
+        BigDecimal total = BigDecimal.valueOf(120);
         BigDecimal totalWithCampaign = BigDecimal.valueOf(100);
 
         // Act & Assert
-        assertThrows(InsufficientCashException.class, () -> saleService.processCashPayment(cash, totalWithCampaign));
+        assertThrows(InsufficientCashException.class, () -> saleService.processCashPayment(cash, total, totalWithCampaign));
+    }
+
+    @Test
+    void processCashPayment_shouldReturnChangeAgainstTotal_whenNoCampaignApplies() {
+        // Arrange
+        BigDecimal cash = BigDecimal.valueOf(150);
+        BigDecimal total = BigDecimal.valueOf(120);
+
+        // Act
+        BigDecimal change = saleService.processCashPayment(cash, total, null);
+
+        // Assert
+        assertEquals(new BigDecimal("30.00"), change);
     }
 
     @Test
@@ -357,23 +884,40 @@ class SaleServiceImplTest {
         MixedPayment mixedPayment = new MixedPayment();
         mixedPayment.setCashAmount(BigDecimal.valueOf(50));
         mixedPayment.setCreditCardAmount(BigDecimal.valueOf(60));
+        BigDecimal total = BigDecimal.valueOf(120);
         BigDecimal totalWithCampaign = BigDecimal.valueOf(100);
 
         // Act
-        BigDecimal change = saleService.processMixedPayment(mixedPayment, totalWithCampaign);
+        BigDecimal change = saleService.processMixedPayment(mixedPayment, total, totalWithCampaign);
 
         // Assert
-        assertEquals(BigDecimal.valueOf(10), change);
+        assertEquals(new BigDecimal("10.00"), change);
+    }
+
+    @Test
+    void processMixedPayment_shouldReturnChangeAgainstTotal_whenNoCampaignApplies() {
+        // Arrange
+        MixedPayment mixedPayment = new MixedPayment();
+        mixedPayment.setCashAmount(BigDecimal.valueOf(70));
+        mixedPayment.setCreditCardAmount(BigDecimal.valueOf(60));
+        BigDecimal total = BigDecimal.valueOf(120);
+
+        // Act
+        BigDecimal change = saleService.processMixedPayment(mixedPayment, total, null);
+
+        // Assert
+        assertEquals(new BigDecimal("10.00"), change);
     }
 
     @Test
     void processMixedPayment_shouldThrowException_whenMixedPaymentIsNull() {
         // Arrange
         MixedPayment mixedPayment = null;
+        BigDecimal total = BigDecimal.valueOf(120);
         BigDecimal totalWithCampaign = BigDecimal.valueOf(100);
 
         // Act & Assert
-        assertThrows(MixedPaymentNotFoundException.class, () -> saleService.processMixedPayment(mixedPayment, totalWithCampaign));
+        assertThrows(MixedPaymentNotFoundException.class, () -> saleService.processMixedPayment(mixedPayment, total, totalWithCampaign));
     }
 
     @Test
@@ -382,10 +926,11 @@ class SaleServiceImplTest {
         MixedPayment mixedPayment = new MixedPayment();
         mixedPayment.setCashAmount(null);
         mixedPayment.setCreditCardAmount(null);
+        BigDecimal total = BigDecimal.valueOf(120);
         BigDecimal totalWithCampaign = BigDecimal.valueOf(100);
 
         // Act & Assert
-        assertThrows(InvalidMixedPaymentException.class, () -> saleService.processMixedPayment(mixedPayment, totalWithCampaign));
+        assertThrows(InvalidMixedPaymentException.class, () -> saleService.processMixedPayment(mixedPayment, total, totalWithCampaign));
     }
 
     @Test
@@ -394,10 +939,11 @@ class SaleServiceImplTest {
         MixedPayment mixedPayment = new MixedPayment();
         mixedPayment.setCashAmount(BigDecimal.valueOf(30));
         mixedPayment.setCreditCardAmount(BigDecimal.valueOf(40));
+        BigDecimal total = BigDecimal.valueOf(120);
         BigDecimal totalWithCampaign = BigDecimal.valueOf(100);
 
         // Act & Assert
-        assertThrows(InsufficientMixedPaymentException.class, () -> saleService.processMixedPayment(mixedPayment, totalWithCampaign));
+        assertThrows(InsufficientMixedPaymentException.class, () -> saleService.processMixedPayment(mixedPayment, total, totalWithCampaign));
     }
     @Test
     void givenValidFilters_whenGetAllSalesFilteredAndSorted_thenReturnsFilteredAndSortedSales() {
@@ -521,7 +1067,7 @@ class SaleServiceImplTest {
 
 
     @Test
-    void testReduceStocks_shouldSendReduceMessagesToRabbitMQ() {
+    void testReduceStocks_shouldQueueSingleReduceMessageInOutbox() {
         // Arrange
         ReflectionTestUtils.setField(saleService, "EXCHANGE", "some-exchange");
         ReflectionTestUtils.setField(saleService, "ROUTING_KEY", "some-routing-key");
@@ -541,10 +1087,10 @@ class SaleServiceImplTest {
         saleService.reduceStocks(products);
 
         // Assert
-        ArgumentCaptor<ProductStockReduceRequest> captor = ArgumentCaptor.forClass(ProductStockReduceRequest.class);
-        verify(rabbitTemplate, times(2)).convertAndSend(anyString(), anyString(), captor.capture());
+        ArgumentCaptor<ProductStockReduceBatch> captor = ArgumentCaptor.forClass(ProductStockReduceBatch.class);
+        verify(outboxService, times(1)).enqueue(anyString(), anyString(), captor.capture());
 
-        List<ProductStockReduceRequest> allValues = captor.getAllValues();
+        List<ProductStockReduceRequest> allValues = captor.getValue().getRequests();
         assertEquals(1L, allValues.get(0).getId());
         assertEquals(10, allValues.get(0).getRequestedQuantity());
         assertEquals(2L, allValues.get(1).getId());
@@ -552,7 +1098,7 @@ class SaleServiceImplTest {
     }
 
     @Test
-    void testReduceStocks_shouldThrowRabbitMQExceptionWhenSendingFails() {
+    void testReduceStocks_shouldThrowRabbitMQExceptionWhenQueueingFails() {
         // Arrange
         Product product1 = Product.builder()
                 .productId(1L)
@@ -566,11 +1112,12 @@ class SaleServiceImplTest {
 
         List<Product> products = List.of(product1, product2);
 
-        doThrow(new AmqpException("RabbitMQ Error")).when(rabbitTemplate).convertAndSend(any(), any(), any(ProductStockReduceRequest.class));
+        doThrow(new RabbitMQException("Failed to serialize outbox event payload", new RuntimeException()))
+                .when(outboxService).enqueue(any(), any(), any(ProductStockReduceBatch.class));
 
         // Act & Assert
         RabbitMQException exception = assertThrows(RabbitMQException.class, () -> saleService.reduceStocks(products));
-        assertEquals("Failed to send reduce message to RabbitMQ", exception.getMessage());
+        assertEquals("Failed to serialize outbox event payload", exception.getMessage());
     }
 
     @Test
@@ -592,6 +1139,22 @@ class SaleServiceImplTest {
         // Assert
         assertNotNull(result);
         assertEquals(id, result.getId());
+        verify(salesRollupService).addSale(sale, List.of(product));
+    }
+
+    @Test
+    void testRestoreSale_CancelledSale_LeavesRollups() {
+        // Arrange
+        Long id = 1L;
+        Sale sale = Sale.builder().id(id).paymentMethod(Payment.PAYPAL).cancelled(true).products(List.of()).build();
+        when(saleRepository.existsByIdAndDeletedTrue(id)).thenReturn(true);
+        when(saleRepository.findById(id)).thenReturn(Optional.of(sale));
+
+        // Act
+        saleService.restoreSale(id);
+
+        // Assert
+        verifyNoInteractions(salesRollupService);
     }
 
     @Test
@@ -606,4 +1169,38 @@ class SaleServiceImplTest {
         // Act & Assert
         assertThrows(SaleNotFoundException.class, () -> saleService.restoreSale(id));
     }
-}
\ No newline at end of file
+
+    private Sale createSaleWithProducts(Product... products) {
+        Sale sale = Sale.builder().id(1L).paymentMethod(Payment.PAYPAL).products(List.of(products)).build();
+        for (Product product : products) {
+            product.setSale(sale);
+        }
+        return sale;
+    }
+
+    private Product createSaleProduct(Long productId, int quantity) {
+        return Product.builder().productId(productId).quantity(quantity).price(BigDecimal.TEN).build();
+    }
+
+    private SaleRequest createPaypalSaleRequest(SaleProductRequest... products) {
+        SaleRequest saleRequest = new SaleRequest();
+        saleRequest.setCashier("Cashier");
+        saleRequest.setPaymentMethod("paypal");
+        saleRequest.setProducts(List.of(products));
+        return saleRequest;
+    }
+
+    private CartResponse createCart() {
+        CartItemResponse item = CartItemResponse.builder().productId(1L).name("Product").quantity(3)
+                .price(BigDecimal.TEN).totalPrice(BigDecimal.valueOf(30)).totalPriceWithCampaign(BigDecimal.valueOf(20)).build();
+        return CartResponse.builder()
+                .id("cart")
+                .cashier("Cashier")
+                .campaignIds(List.of(1L))
+                .items(List.of(item))
+                .campaigns(List.of(new CampaignEligibilityResponse(1L, "Buy 2, Get 1 Free", true, null)))
+                .total(BigDecimal.valueOf(30))
+                .totalWithCampaign(BigDecimal.valueOf(20))
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.entity.SaleStatus;
+import com.bit.saleservice.repository.DailySalesRollupRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = {
+        "stock-reservation.enabled=false"
+})
+class SaleStatusFilterTest extends SaleServiceDataJpaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SaleServiceImpl saleService;
+
+    @Autowired
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long completedSaleId;
+
+    @BeforeEach
+    void setUp() {
+        completedSaleId = persistSale(SaleStatus.COMPLETED);
+        persistSale(SaleStatus.PENDING);
+        persistSale(SaleStatus.FAILED);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Long persistSale(SaleStatus status) {
+        Sale sale = entityManager.persist(Sale.builder()
+                .cashier("Cashier")
+                .date(new Date())
+                .paymentMethod(Payment.CREDIT_CARD)
+                .total(BigDecimal.TEN)
+                .status(status)
+                .build());
+        entityManager.persist(Product.builder()
+                .productId(1L)
+                .name("Product")
+                .quantity(1)
+                .price(BigDecimal.TEN)
+                .totalPrice(BigDecimal.TEN)
+                .saleDate(sale.getDate())
+                .sale(sale)
+                .build());
+        return sale.getId();
+    }
+
+    @Test
+    void testGetAllSales_ReturnsOnlyCompletedSales() {
+        // Act
+        List<SaleResponse> sales = saleService.getAllSales();
+
+        // Assert
+        assertEquals(List.of(completedSaleId), sales.stream().map(SaleResponse::getId).toList());
+    }
+
+    @Test
+    void testGetAllSalesFilteredAndSorted_ReturnsOnlyCompletedSales() {
+        // Act
+        List<SaleResponse> offsetSales = saleService.getAllSalesFilteredAndSorted(0, 10, "id", "ASC",
+                null, null, null, null, null, null, false).getContent();
+        List<SaleResponse> cursorSales = saleService.getAllSalesFilteredAndSortedByCursor(null, 10, "id", "ASC",
+                null, null, null, null, null, null, null, false).getContent();
+
+        // Assert
+        assertEquals(List.of(completedSaleId), offsetSales.stream().map(SaleResponse::getId).toList());
+        assertEquals(List.of(completedSaleId), cursorSales.stream().map(SaleResponse::getId).toList());
+    }
+
+    @Test
+    void testExportSales_WritesOnlyCompletedSales() throws IOException {
+        // Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // Act
+        saleService.exportSales(outputStream);
+
+        // Assert
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(1, lines.size());
+        assertEquals(completedSaleId, objectMapper.readValue(lines.get(0), SaleResponse.class).getId());
+    }
+
+    @Test
+    void testGetDeletedSales_ReturnsOnlyCompletedSales() {
+        // Arrange
+        entityManager.getEntityManager().createNativeQuery("UPDATE sales SET deleted = true").executeUpdate();
+        entityManager.clear();
+
+        // Act
+        List<SaleResponse> sales = saleService.getDeletedSales();
+
+        // Assert
+        assertEquals(List.of(completedSaleId), sales.stream().map(SaleResponse::getId).toList());
+    }
+
+    @Test
+    void testRebuildRollups_CountOnlyCompletedSales() {
+        // Arrange
+        LocalDate from = LocalDate.now().minusDays(1);
+        LocalDate until = LocalDate.now().plusDays(2);
+
+        // Act
+        dailySalesRollupRepository.rebuildProductRollups(from, until);
+        dailySalesRollupRepository.rebuildCashierRollups(from, until);
+        List<Object[]> paymentRows = dailySalesRollupRepository.aggregateSalesByPaymentMethod(from, until);
+
+        // Assert
+        assertEquals(2, dailySalesRollupRepository.count());
+        dailySalesRollupRepository.findAll().forEach(rollup -> {
+            assertEquals(1, rollup.getSaleCount());
+            assertEquals(1, rollup.getQuantity());
+        });
+        assertEquals(1, paymentRows.size());
+        assertEquals(1, ((Number) paymentRows.get(0)[2]).longValue());
+    }
+}
@@ -0,0 +1,270 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.config.IdGeneratorConfig;
+import com.bit.saleservice.dto.CampaignProcessRequest;
+import com.bit.saleservice.dto.CampaignProcessResponse;
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.SaleProductRequest;
+import com.bit.saleservice.dto.SyncSaleRequest;
+import com.bit.saleservice.dto.SyncSaleResult;
+import com.bit.saleservice.entity.Campaign;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import com.bit.saleservice.exception.ProductNotFoundException;
+import com.bit.saleservice.exception.SyncLimitExceededException;
+import com.bit.saleservice.repository.SaleBatchRepository;
+import com.bit.saleservice.wrapper.ProductStockReduceBatch;
+import com.bit.saleservice.wrapper.ProductStockReduceRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@TestPropertySource(properties = {
+        "stock-reservation.enabled=true",
+        "sale-sync.chunk-size=2",
+        "sale-sync.max-sales=5"
+})
+@Import({SaleSyncService.class, SaleBatchRepository.class, IdGeneratorConfig.class})
+class SaleSyncTest extends SaleServiceDataJpaTest {
+
+    private static final long UNKNOWN_PRODUCT_ID = 99L;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SaleSyncService saleSyncService;
+
+    @BeforeEach
+    void setUp() throws HeaderProcessingException {
+        Map<Long, ProductResponse> catalog = Map.of(
+                1L, ProductResponse.builder().id(1L).name("Apple").price(new BigDecimal("2.50")).build(),
+                2L, ProductResponse.builder().id(2L).name("Pear").price(BigDecimal.TEN).build());
+
+        // Failing the whole lookup when an unknown product is requested, like the product-service does
+        when(productCacheService.getProducts(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (ids.contains(UNKNOWN_PRODUCT_ID)) {
+                throw new ProductNotFoundException("Product not found");
+            }
+            Map<Long, ProductResponse> products = new HashMap<>();
+            ids.forEach(id -> products.put(id, catalog.get(id)));
+            return products;
+        });
+    }
+
+    @Test
+    void testSyncSales_RecordsValidSalesAndFailsInvalidOnesIndividually() throws HeaderProcessingException {
+        // Arrange
+        Date yesterday = new Date(System.currentTimeMillis() - 24 * 60 * 60 * 1000);
+        List<SyncSaleRequest> syncSaleRequests = List.of(
+                createSyncSaleRequest("a", yesterday, "CASH", BigDecimal.valueOf(20), line(1L, 2), line(2L, 1)),
+                createSyncSaleRequest("b", yesterday, "CREDIT_CARD", null, line(UNKNOWN_PRODUCT_ID, 1)),
+                createSyncSaleRequest("c", yesterday, "CASH", null, line(1L, 1)),
+                createSyncSaleRequest("d", null, "CREDIT_CARD", null, line(1L, 3)));
+
+        // Act
+        List<SyncSaleResult> results = saleSyncService.syncSales(syncSaleRequests);
+
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(SyncSaleResult::getIndex).sorted().toList());
+        Map<String, SyncSaleResult> resultsByReference = new HashMap<>();
+        results.forEach(result -> resultsByReference.put(result.getReference(), result));
+
+        assertEquals(SyncSaleResult.CREATED, resultsByReference.get("a").getStatus());
+        assertEquals(new BigDecimal("15.00"), resultsByReference.get("a").getTotalWithCampaign());
+        assertEquals(SyncSaleResult.FAILED, resultsByReference.get("b").getStatus());
+        assertEquals("Product not found with id: " + UNKNOWN_PRODUCT_ID, resultsByReference.get("b").getError());
+        assertEquals(SyncSaleResult.FAILED, resultsByReference.get("c").getStatus());
+        assertEquals("Cash not provided", resultsByReference.get("c").getError());
+        assertEquals(SyncSaleResult.CREATED, resultsByReference.get("d").getStatus());
+
+        entityManager.clear();
+        Sale sale = entityManager.find(Sale.class, resultsByReference.get("a").getSaleId());
+        assertEquals(yesterday.getTime(), sale.getDate().getTime());
+        assertEquals(Payment.CASH, sale.getPaymentMethod());
+        assertEquals(0, new BigDecimal("5.00").compareTo(sale.getChange()));
+        assertEquals(2, sale.getProducts().size());
+        assertEquals(0, new BigDecimal("5.00").compareTo(sale.getProducts().stream()
+                .filter(product -> product.getProductId() == 1L).findFirst().orElseThrow().getTotalPrice()));
+        assertNotNull(entityManager.find(Sale.class, resultsByReference.get("d").getSaleId()));
+    }
+
+    @Test
+    void testSyncSales_EnqueuesOneMergedStockReductionAndRollupUpdatePerChunk() throws HeaderProcessingException {
+        // Arrange
+        List<SyncSaleRequest> syncSaleRequests = List.of(
+                createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 2), line(2L, 1)),
+                createSyncSaleRequest("b", null, "CREDIT_CARD", null, line(1L, 1)),
+                createSyncSaleRequest("c", null, "CREDIT_CARD", null, line(2L, 4)));
+
+        // Act
+        saleSyncService.syncSales(syncSaleRequests);
+
+        // Assert
+        ArgumentCaptor<ProductStockReduceBatch> captor = ArgumentCaptor.forClass(ProductStockReduceBatch.class);
+        verify(outboxService, times(2)).enqueue(eq("exchange"), eq("routing.key"), captor.capture());
+        assertEquals(List.of(new ProductStockReduceRequest(1L, 3), new ProductStockReduceRequest(2L, 1)),
+                captor.getAllValues().get(0).getRequests());
+        assertEquals(List.of(new ProductStockReduceRequest(2L, 4)), captor.getAllValues().get(1).getRequests());
+        verify(salesRollupService, times(2)).addSales(anyList());
+    }
+
+    @Test
+    void testSyncSales_InsertsCampaignsOfSales() throws HeaderProcessingException {
+        // Arrange
+        Campaign campaign = entityManager.persist(Campaign.builder().name("Campaign").expiration(new Date()).build());
+        when(campaignProcessService.processCampaigns(any())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>(invocation.<CampaignProcessRequest>getArgument(0).getProducts());
+            return CampaignProcessResponse.builder().products(products).total(new BigDecimal("4.00")).build();
+        });
+        when(campaignProcessService.getCampaigns(List.of(campaign.getId()))).thenReturn(List.of(campaign));
+        SyncSaleRequest syncSaleRequest = createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 2));
+        syncSaleRequest.setCampaignIds(List.of(campaign.getId()));
+
+        // Act
+        List<SyncSaleResult> results = saleSyncService.syncSales(List.of(syncSaleRequest));
+
+        // Assert
+        assertEquals(new BigDecimal("4.00"), results.get(0).getTotalWithCampaign());
+        entityManager.clear();
+        Sale sale = entityManager.find(Sale.class, results.get(0).getSaleId());
+        assertEquals(List.of(campaign.getId()), sale.getCampaigns().stream().map(Campaign::getId).toList());
+    }
+
+    @Test
+    void testSyncSales_Stream_FailsMalformedLinesAndKeepsLineOrder() throws IOException, HeaderProcessingException {
+        // Arrange
+        String upload = """
+                {"reference":"a","cashier":"Cashier","paymentMethod":"CREDIT_CARD","products":[{"id":1,"quantity":1}]}
+                {"reference":
+
+                {"reference":"c","cashier":"Cashier","paymentMethod":"CREDIT_CARD","products":[{"id":2,"quantity":1}]}
+                """;
+
+        // Act
+        List<SyncSaleResult> results = saleSyncService.syncSales(new ByteArrayInputStream(upload.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(3, results.size());
+        assertEquals(List.of(0, 1, 2), results.stream().map(SyncSaleResult::getIndex).toList());
+        assertEquals(SyncSaleResult.CREATED, results.get(0).getStatus());
+        assertEquals(SyncSaleResult.FAILED, results.get(1).getStatus());
+        assertTrue(results.get(1).getError().startsWith("Malformed sale"));
+        assertEquals("c", results.get(2).getReference());
+        assertEquals(SyncSaleResult.CREATED, results.get(2).getStatus());
+    }
+
+    @Test
+    void testSyncSales_MoreSalesThanLimit_ThrowsSyncLimitExceededException() {
+        // Arrange
+        List<SyncSaleRequest> syncSaleRequests = Collections.nCopies(6,
+                createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 1)));
+
+        // Act & Assert
+        assertThrows(SyncLimitExceededException.class, () -> saleSyncService.syncSales(syncSaleRequests));
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testSyncSales_UploadedAgain_ReportsDuplicatesWithoutReducingStocksAgain() throws HeaderProcessingException {
+        // Arrange
+        List<SyncSaleResult> firstResults = saleSyncService.syncSales(List.of(
+                createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 2)),
+                createSyncSaleRequest("b", null, "CREDIT_CARD", null, line(2L, 1))));
+        clearInvocations(outboxService, salesRollupService);
+        List<SyncSaleRequest> syncSaleRequests = List.of(
+                createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 2)),
+                createSyncSaleRequest("b", null, "CREDIT_CARD", null, line(2L, 1)),
+                createSyncSaleRequest("c", null, "CREDIT_CARD", null, line(1L, 5)));
+
+        // Act
+        List<SyncSaleResult> results = saleSyncService.syncSales(syncSaleRequests);
+
+        // Assert
+        assertEquals(List.of(SyncSaleResult.DUPLICATE, SyncSaleResult.DUPLICATE, SyncSaleResult.CREATED),
+                results.stream().map(SyncSaleResult::getStatus).toList());
+        assertEquals(firstResults.get(0).getSaleId(), results.get(0).getSaleId());
+        assertEquals(firstResults.get(1).getSaleId(), results.get(1).getSaleId());
+        ArgumentCaptor<ProductStockReduceBatch> captor = ArgumentCaptor.forClass(ProductStockReduceBatch.class);
+        verify(outboxService).enqueue(eq("exchange"), eq("routing.key"), captor.capture());
+        assertEquals(List.of(new ProductStockReduceRequest(1L, 5)), captor.getValue().getRequests());
+        verify(salesRollupService).addSales(argThat(sales -> sales.size() == 1));
+        assertEquals(3L, entityManager.getEntityManager().createQuery("SELECT COUNT(s) FROM Sale s").getSingleResult());
+    }
+
+    @Test
+    void testSyncSales_ReferenceRepeatedInUpload_RecordsSaleOnce() throws HeaderProcessingException {
+        // Arrange
+        SyncSaleRequest otherCashier = createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 1));
+        otherCashier.setCashier("Other Cashier");
+        List<SyncSaleRequest> syncSaleRequests = List.of(
+                createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 2)),
+                createSyncSaleRequest("a", null, "CREDIT_CARD", null, line(1L, 2)),
+                otherCashier);
+
+        // Act
+        List<SyncSaleResult> results = saleSyncService.syncSales(syncSaleRequests);
+
+        // Assert
+        assertEquals(List.of(SyncSaleResult.CREATED, SyncSaleResult.DUPLICATE, SyncSaleResult.CREATED),
+                results.stream().map(SyncSaleResult::getStatus).toList());
+        assertEquals(results.get(0).getSaleId(), results.get(1).getSaleId());
+        assertNotEquals(results.get(0).getSaleId(), results.get(2).getSaleId());
+        ArgumentCaptor<ProductStockReduceBatch> captor = ArgumentCaptor.forClass(ProductStockReduceBatch.class);
+        verify(outboxService, times(2)).enqueue(eq("exchange"), eq("routing.key"), captor.capture());
+        assertEquals(List.of(new ProductStockReduceRequest(1L, 2)), captor.getAllValues().get(0).getRequests());
+        assertEquals(List.of(new ProductStockReduceRequest(1L, 1)), captor.getAllValues().get(1).getRequests());
+    }
+
+    @Test
+    void testSyncSales_WithoutReference_FailsSale() throws HeaderProcessingException {
+        // Act
+        List<SyncSaleResult> results = saleSyncService.syncSales(List.of(
+                createSyncSaleRequest(null, null, "CREDIT_CARD", null, line(1L, 1))));
+
+        // Assert
+        assertEquals(SyncSaleResult.FAILED, results.get(0).getStatus());
+        assertEquals("Reference is required", results.get(0).getError());
+        verifyNoInteractions(outboxService);
+    }
+
+    private SyncSaleRequest createSyncSaleRequest(String reference, Date date, String paymentMethod, BigDecimal cash,
+                                                  SaleProductRequest... products) {
+        return SyncSaleRequest.builder()
+                .reference(reference)
+                .date(date)
+                .cashier("Cashier")
+                .paymentMethod(paymentMethod)
+                .cash(cash)
+                .products(List.of(products))
+                .build();
+    }
+
+    private SaleProductRequest line(Long id, int quantity) {
+        return new SaleProductRequest(id, quantity);
+    }
+}
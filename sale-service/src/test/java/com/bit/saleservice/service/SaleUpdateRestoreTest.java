@@ -0,0 +1,77 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.ProductResponse;
+import com.bit.saleservice.dto.SaleProductRequest;
+import com.bit.saleservice.dto.SaleProductResponse;
+import com.bit.saleservice.dto.SaleRequest;
+import com.bit.saleservice.dto.SaleResponse;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.exception.HeaderProcessingException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@TestPropertySource(properties = {
+        "stock-reservation.enabled=false"
+})
+class SaleUpdateRestoreTest extends SaleServiceDataJpaTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private SaleServiceImpl saleService;
+
+    @Test
+    void testUpdateDeleteRestore_RestoresOnlyLinesOfUpdatedSale() throws HeaderProcessingException {
+        // Arrange
+        Sale sale = entityManager.persist(Sale.builder()
+                .cashier("Cashier")
+                .date(new Date())
+                .paymentMethod(Payment.CREDIT_CARD)
+                .total(BigDecimal.valueOf(5))
+                .build());
+        entityManager.persist(Product.builder()
+                .productId(1L)
+                .name("Old Product")
+                .quantity(1)
+                .price(BigDecimal.valueOf(5))
+                .totalPrice(BigDecimal.valueOf(5))
+                .saleDate(sale.getDate())
+                .sale(sale)
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        when(productCacheService.getProducts(List.of(2L))).thenReturn(Map.of(2L, ProductResponse.builder()
+                .id(2L).name("New Product").price(BigDecimal.TEN).stockQuantity(10).build()));
+        SaleRequest saleRequest = new SaleRequest();
+        saleRequest.setCashier("Cashier");
+        saleRequest.setPaymentMethod("credit_card");
+        saleRequest.setProducts(List.of(new SaleProductRequest(2L, 1)));
+        Long id = sale.getId();
+
+        // Act, flushing after every call like the commit at the end of its transaction
+        saleService.updateSale(id, saleRequest);
+        entityManager.flush();
+        entityManager.clear();
+        saleService.deleteSale(id);
+        entityManager.flush();
+        entityManager.clear();
+        SaleResponse restored = saleService.restoreSale(id);
+
+        // Assert
+        assertEquals(List.of(2L), restored.getProducts().stream().map(SaleProductResponse::getProductId).toList());
+    }
+}
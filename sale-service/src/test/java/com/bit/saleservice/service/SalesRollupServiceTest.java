@@ -0,0 +1,175 @@
+package com.bit.saleservice.service;
+
+import com.bit.saleservice.dto.DailySalesRollupResponse;
+import com.bit.saleservice.entity.DailySalesRollup;
+import com.bit.saleservice.entity.Payment;
+import com.bit.saleservice.entity.Product;
+import com.bit.saleservice.entity.RollupDimension;
+import com.bit.saleservice.entity.Sale;
+import com.bit.saleservice.exception.InvalidRollupDimensionException;
+import com.bit.saleservice.exception.ParsingException;
+import com.bit.saleservice.repository.DailySalesRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceTest {
+
+    private static final LocalDate BUSINESS_DAY = LocalDate.of(2026, 10, 17);
+
+    @Mock
+    private DailySalesRollupRepository dailySalesRollupRepository;
+
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(salesRollupService, "REBUILD_DAYS", 7);
+    }
+
+    private static Sale sale(BigDecimal totalWithCampaign) {
+        return Sale.builder()
+                .id(1L)
+                .cashier("Cashier 1")
+                .date(java.util.Date.from(BUSINESS_DAY.atTime(10, 0).atZone(ZoneId.systemDefault()).toInstant()))
+                .paymentMethod(Payment.CASH)
+                .total(BigDecimal.valueOf(50))
+                .totalWithCampaign(totalWithCampaign)
+                .build();
+    }
+
+    private static List<Product> products() {
+        return List.of(
+                Product.builder().name("Apple").quantity(2).totalPrice(BigDecimal.valueOf(20)).build(),
+                Product.builder().name("Pear").quantity(1).totalPrice(BigDecimal.valueOf(10)).build(),
+                Product.builder().name("Apple").quantity(2).totalPrice(BigDecimal.valueOf(20)).build());
+    }
+
+    @Test
+    void testAddSale_AddsSaleToEveryDimension() {
+        // Act
+        salesRollupService.addSale(sale(BigDecimal.valueOf(45)), products());
+
+        // Assert
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PRODUCT", "Apple", 1, 4, BigDecimal.valueOf(40));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PRODUCT", "Pear", 1, 1, BigDecimal.valueOf(10));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "CASHIER", "Cashier 1", 1, 5, BigDecimal.valueOf(45));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PAYMENT_METHOD", "CASH", 1, 5, BigDecimal.valueOf(45));
+        verifyNoMoreInteractions(dailySalesRollupRepository);
+    }
+
+    @Test
+    void testAddSales_SumsSalesUpBeforeWritingEachRollupRowOnce() {
+        // Arrange
+        Sale first = sale(BigDecimal.valueOf(45));
+        first.setProducts(products());
+        Sale second = sale(null);
+        second.setProducts(List.of(Product.builder().name("Apple").quantity(1).totalPrice(BigDecimal.valueOf(10)).build()));
+
+        // Act
+        salesRollupService.addSales(List.of(first, second));
+
+        // Assert
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PRODUCT", "Apple", 2, 5, BigDecimal.valueOf(50));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PRODUCT", "Pear", 1, 1, BigDecimal.valueOf(10));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "CASHIER", "Cashier 1", 2, 6, BigDecimal.valueOf(95));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PAYMENT_METHOD", "CASH", 2, 6, BigDecimal.valueOf(95));
+        verifyNoMoreInteractions(dailySalesRollupRepository);
+    }
+
+    @Test
+    void testRemoveSale_SubtractsSaleAndFallsBackToTotalWithoutCampaign() {
+        // Act
+        salesRollupService.removeSale(sale(null), products());
+
+        // Assert
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PRODUCT", "Apple", -1, -4, BigDecimal.valueOf(-40));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "CASHIER", "Cashier 1", -1, -5, BigDecimal.valueOf(-50));
+        verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PAYMENT_METHOD", "CASH", -1, -5, BigDecimal.valueOf(-50));
+    }
+
+    @Test
+    void testGetDailySalesRollups_ReturnsRollupsOfDimension() {
+        // Arrange
+        DailySalesRollup rollup = DailySalesRollup.builder()
+                .businessDay(BUSINESS_DAY)
+                .dimension(RollupDimension.CASHIER)
+                .dimensionKey("Cashier 1")
+                .saleCount(3)
+                .quantity(7)
+                .total(BigDecimal.TEN)
+                .build();
+        when(dailySalesRollupRepository.findByDimensionAndBusinessDayBetweenOrderByBusinessDayAscDimensionKeyAsc(
+                RollupDimension.CASHIER, BUSINESS_DAY.minusDays(1), BUSINESS_DAY)).thenReturn(List.of(rollup));
+
+        // Act
+        List<DailySalesRollupResponse> rollups = salesRollupService.getDailySalesRollups("cashier", "2026-10-16", "2026-10-17");
+
+        // Assert
+        assertEquals(1, rollups.size());
+        assertEquals("CASHIER", rollups.get(0).getDimension());
+        assertEquals("Cashier 1", rollups.get(0).getDimensionKey());
+        assertEquals(3, rollups.get(0).getSaleCount());
+    }
+
+    @Test
+    void testGetDailySalesRollups_InvalidDimension_ThrowsInvalidRollupDimensionException() {
+        // Act & Assert
+        assertThrows(InvalidRollupDimensionException.class,
+                () -> salesRollupService.getDailySalesRollups("store", "2026-10-16", "2026-10-17"));
+    }
+
+    @Test
+    void testGetDailySalesRollups_InvalidDate_ThrowsParsingException() {
+        // Act & Assert
+        assertThrows(ParsingException.class,
+                () -> salesRollupService.getDailySalesRollups("product", "16.10.2026", "2026-10-17"));
+    }
+
+    @Test
+    void testRebuildDailySalesRollups_ReplacesRollupsOfRange() {
+        // Arrange
+        LocalDate until = BUSINESS_DAY.plusDays(1);
+        when(dailySalesRollupRepository.aggregateSalesByPaymentMethod(BUSINESS_DAY, until)).thenReturn(Collections.singletonList(
+                new Object[]{Date.valueOf(BUSINESS_DAY), Payment.MIXED.ordinal(), 2L, 6L, BigDecimal.valueOf(80)}));
+
+        // Act
+        salesRollupService.rebuildDailySalesRollups("2026-10-17", "2026-10-17");
+
+        // Assert
+        InOrder inOrder = inOrder(dailySalesRollupRepository);
+        inOrder.verify(dailySalesRollupRepository).deleteRollups(BUSINESS_DAY, until);
+        inOrder.verify(dailySalesRollupRepository).rebuildProductRollups(BUSINESS_DAY, until);
+        inOrder.verify(dailySalesRollupRepository).rebuildCashierRollups(BUSINESS_DAY, until);
+        inOrder.verify(dailySalesRollupRepository).addToRollup(BUSINESS_DAY, "PAYMENT_METHOD", "MIXED", 2, 6, BigDecimal.valueOf(80));
+    }
+
+    @Test
+    void testRebuildRecentDailySalesRollups_RebuildsConfiguredNumberOfDays() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+
+        // Act
+        salesRollupService.rebuildRecentDailySalesRollups();
+
+        // Assert
+        verify(dailySalesRollupRepository).deleteRollups(today.minusDays(6), today.plusDays(1));
+    }
+}
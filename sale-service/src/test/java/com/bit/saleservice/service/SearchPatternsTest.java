@@ -0,0 +1,32 @@
+package com.bit.saleservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchPatternsTest {
+
+    @Test
+    void testContains_LowerCasesAndWrapsTerm() {
+        // Arrange
+        String term = "John Doe";
+
+        // Act
+        String pattern = SearchPatterns.contains(term);
+
+        // Assert
+        assertEquals("%john doe%", pattern);
+    }
+
+    @Test
+    void testContains_EscapesWildcards() {
+        // Arrange
+        String term = "50%_off\\";
+
+        // Act
+        String pattern = SearchPatterns.contains(term);
+
+        // Assert
+        assertEquals("%50\\%\\_off\\\\%", pattern);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bit.saleservice.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks on a seeded PostgreSQL database that the substring filters of the sale and campaign searches
+ * are served by the trigram indexes instead of a sequential scan. Skipped when Docker is not available.
+ */
+@DataJpaTest(properties = {
+        "rabbitmq.exchange=exchange",
+        "rabbitmq.routingKey=routing.key"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class TrigramSearchQueryPlanTest {
+
+    private static final int SALE_COUNT = 200_000;
+    private static final int CAMPAIGN_COUNT = 50_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.createNativeQuery("INSERT INTO sales (cashier, date, cancelled, deleted) " +
+                "SELECT 'Cashier ' || md5(g::text), now(), false, false FROM generate_series(1, " + SALE_COUNT + ") g")
+                .executeUpdate();
+        entityManager.createNativeQuery("INSERT INTO campaigns (name, details, is_expired, deleted) " +
+                "SELECT 'Campaign ' || md5(g::text), 'Details ' || md5((g * 7)::text), false, false " +
+                "FROM generate_series(1, " + CAMPAIGN_COUNT + ") g")
+                .executeUpdate();
+        entityManager.createNativeQuery("ANALYZE sales").executeUpdate();
+        entityManager.createNativeQuery("ANALYZE campaigns").executeUpdate();
+    }
+
+    @Test
+    void testCashierSearch_UsesTrigramIndex() {
+        // Arrange
+        String term = "Cashier " + md5Fragment(4217);
+
+        // Act
+        String plan = explain("sales", "cashier", term);
+
+        // Assert
+        assertTrue(plan.contains("idx_sales_cashier_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testCampaignNameSearch_UsesTrigramIndex() {
+        // Arrange
+        String term = md5Fragment(1234);
+
+        // Act
+        String plan = explain("campaigns", "name", term);
+
+        // Assert
+        assertTrue(plan.contains("idx_campaigns_name_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testCampaignDetailsSearch_UsesTrigramIndex() {
+        // Arrange
+        String term = md5Fragment(7 * 1234);
+
+        // Act
+        String plan = explain("campaigns", "details", term);
+
+        // Assert
+        assertTrue(plan.contains("idx_campaigns_details_trgm"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    private String md5Fragment(int seed) {
+        return (String) entityManager.createNativeQuery("SELECT substr(md5('" + seed + "'), 5, 10)").getSingleResult();
+    }
+
+    /**
+     * Explains the same predicate the search predicate builders emit, {@code lower(column) LIKE pattern ESCAPE '\'}.
+     * The pattern is inlined since it only ever contains letters, digits and spaces here.
+     */
+    private String explain(String table, String column, String term) {
+        List<?> rows = entityManager.createNativeQuery("EXPLAIN SELECT id FROM " + table +
+                        " WHERE deleted = false AND lower(" + column + ") LIKE '" + SearchPatterns.contains(term) +
+                        "' ESCAPE '" + SearchPatterns.ESCAPE_CHAR + "'")
+                .getResultList();
+        return rows.stream().map(String::valueOf).collect(Collectors.joining("\n"));
+    }
+}
@@ -323,13 +323,13 @@ public class UserServiceImpl implements UserService {
 
         List<Predicate> predicates = new ArrayList<>();
         if (StringUtils.isNotBlank(name)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), SearchPatterns.contains(name), SearchPatterns.ESCAPE_CHAR));
         }
         if (StringUtils.isNotBlank(username)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("username")), "%" + username.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("username")), SearchPatterns.contains(username), SearchPatterns.ESCAPE_CHAR));
         }
         if (StringUtils.isNotBlank(email)) {
-            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), "%" + email.toLowerCase() + "%"));
+            predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), SearchPatterns.contains(email), SearchPatterns.ESCAPE_CHAR));
         }
         if (StringUtils.isNotBlank(roleName)) {
             Join<AppUser, Role> roleJoin = root.join("roles", JoinType.INNER);